@@ -0,0 +1,119 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH CSV result file against the committed baseline and fails if any benchmark
+ * regressed by more than the allowed fraction. Throughput scores regress when they fall,
+ * average-time scores when they rise. Allocation per operation from the GC profiler is compared
+ * as well, so new allocation on a hot path is caught; the other GC profiler rows are too noisy
+ * to compare and are skipped. A benchmark without a baseline row fails the comparison too, so the
+ * baseline is re-recorded whenever benchmarks are added.
+ * 
+ * Usage: CompareResults baseline.csv current.csv [allowedRegression]
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults baseline.csv current.csv [allowedRegression]");
+            System.exit(2);
+        }
+        double allowed = args.length > 2 ? Double.parseDouble(args[2]) : 0.15;
+        Map<String, double[]> baseline = read(Paths.get(args[0]));
+        Map<String, double[]> current = read(Paths.get(args[1]));
+
+        int regressions = 0;
+        int missing = 0;
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            double[] before = baseline.get(entry.getKey());
+            if (before == null) {
+                missing++;
+                System.out.println("MISSING    " + entry.getKey());
+                continue;
+            }
+            double[] after = entry.getValue();
+            boolean higherIsBetter = after[1] > 0;
+            // A benchmark that did not allocate regresses as soon as it does
+            double change = before[0] == 0 ? (after[0] == 0 ? 0 : 1) : (after[0] - before[0]) / before[0];
+            boolean regressed = higherIsBetter ? change < -allowed : change > allowed;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-10s %-70s %12.3f -> %12.3f (%+.1f%%)%n", regressed ? "REGRESSED" : "ok",
+                    entry.getKey(), before[0], after[0], change * 100);
+        }
+
+        if (missing > 0) {
+            System.out.println(missing + " benchmark(s) have no baseline row; re-record the baseline");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + (allowed * 100) + "%");
+        }
+        if (regressions > 0 || missing > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads a JMH CSV result file into scores keyed by benchmark name, parameters and unit.
+     * 
+     * @param file the CSV file written with "-rf csv"
+     * @return for each key, the score and 1 if higher is better or -1 if lower is better
+     * @throws IOException if the file cannot be read
+     */
+    private static Map<String, double[]> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        List<String> header = split(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int threads = header.indexOf("Threads");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+
+        Map<String, double[]> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> fields = split(line);
+            String name = fields.get(benchmark);
+            boolean allocation = name.endsWith(":gc.alloc.rate.norm");
+            if (name.contains(":") && !allocation) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(fields.get(benchmark)).append(" t=").append(fields.get(threads));
+            for (int i = unit + 1; i < fields.size(); i++) {
+                if (!fields.get(i).isEmpty()) {
+                    key.append(' ').append(header.get(i)).append('=').append(fields.get(i));
+                }
+            }
+            double value = Double.parseDouble(fields.get(score));
+            if (allocation && value < 0.5) {
+                value = 0; // JMH reports a tiny non-zero rate for benchmarks that never allocate
+            }
+            boolean higherIsBetter = fields.get(mode).equals("thrpt") && !allocation;
+            scores.put(key.toString(), new double[] { value, higherIsBetter ? 1 : -1 });
+        }
+        return scores;
+    }
+
+    /**
+     * Splits a CSV line, removing the quotes around fields.
+     * 
+     * @param line the CSV line
+     * @return the fields of the line
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        for (String field : line.split(",", -1)) {
+            fields.add(field.startsWith("\"") && field.endsWith("\"") && field.length() >= 2
+                    ? field.substring(1, field.length() - 1) : field);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,123 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import lib.Dice;
+import lib.DicePool;
+import lib.PairOfDice;
+import lib.RandomSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-threaded throughput of the dice hot paths. Each thread gets its own dice,
+ * so this measures the cost of a roll without contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiceBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private Dice threadLocalDie;
+    private Dice seededDie;
+    private PairOfDice threadLocalPair;
+    private PairOfDice seededPair;
+    private DicePool seededMixedPool;
+    private DicePool seededLargePool;
+    private int[] rollResults;
+    private int[] sums;
+
+    @Setup
+    public void setup() {
+        threadLocalDie = new Dice(6);
+        seededDie = new Dice(6, RandomSource.seeded(42));
+        threadLocalPair = new PairOfDice(6);
+        seededPair = new PairOfDice(6, RandomSource.seeded(42));
+        seededMixedPool = DicePool.parse("d6+d8+d12", RandomSource.seeded(42));
+        seededLargePool = DicePool.parse("10d6", RandomSource.seeded(42));
+        rollResults = new int[2];
+        sums = new int[BATCH];
+    }
+
+    /** The original roll, kept as the reference point for the random sources. */
+    @Benchmark
+    public int mathRandomRoll() {
+        return (int) (Math.random() * 6) + 1;
+    }
+
+    @Benchmark
+    public int diceRollThreadLocal() {
+        return threadLocalDie.roll();
+    }
+
+    @Benchmark
+    public int diceRollSeeded() {
+        return seededDie.roll();
+    }
+
+    @Benchmark
+    public int rollBothThreadLocal() {
+        return threadLocalPair.rollBoth();
+    }
+
+    @Benchmark
+    public int rollBothSeeded() {
+        return seededPair.rollBoth();
+    }
+
+    /** Allocates a new array per call. */
+    @Benchmark
+    public int[] rollEach() {
+        return threadLocalPair.rollEach();
+    }
+
+    @Benchmark
+    public int[] rollEachIntoArray() {
+        return threadLocalPair.rollEach(rollResults);
+    }
+
+    /** Fills a batch of sums; the score is reported per sum. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] fillSumsSeeded() {
+        seededPair.fillSums(sums, 0, BATCH);
+        return sums;
+    }
+
+    /** Rolls a batch of sums of three mixed dice column by column; the score is reported per sum. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] fillSumsMixedPool() {
+        seededMixedPool.fillSums(sums, 0, BATCH);
+        return sums;
+    }
+
+    /** Rolls a batch of sums of ten dice column by column; the score is reported per sum. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] fillSumsLargePool() {
+        seededLargePool.fillSums(sums, 0, BATCH);
+        return sums;
+    }
+
+    /** Rolls ten dice one sum at a time, for comparison with the batched pool. */
+    @Benchmark
+    public int rollLargePool() {
+        return seededLargePool.roll();
+    }
+}
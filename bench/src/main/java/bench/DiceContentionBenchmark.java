@@ -0,0 +1,50 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import lib.Dice;
+import lib.PairOfDice;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multi-threaded throughput of the dice hot paths, with one set of dice shared by every thread.
+ * Math.random() shares a single generator across the JVM, so it shows the cost of contention
+ * that the per-thread random source avoids.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class DiceContentionBenchmark {
+
+    private final Dice sharedDie = new Dice(6);
+    private final PairOfDice sharedPair = new PairOfDice(6);
+
+    @Benchmark
+    public int mathRandomRoll() {
+        return (int) (Math.random() * 6) + 1;
+    }
+
+    @Benchmark
+    public int diceRollThreadLocal() {
+        return sharedDie.roll();
+    }
+
+    @Benchmark
+    public int rollBothThreadLocal() {
+        return sharedPair.rollBoth();
+    }
+}
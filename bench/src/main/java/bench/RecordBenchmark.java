@@ -0,0 +1,90 @@
+package bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lib.GameRecord;
+import lib.RecordEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Average time of appending and reading game records with record files of several sizes.
+ * The "Record saved" message printed by addRecord is discarded so console output is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordBenchmark {
+
+    @Param({ "100", "10000", "100000" })
+    public int existingRecords;
+
+    private Path directory;
+    private Path file;
+    private byte[] initialContent;
+    private GameRecord gameRecord;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        directory = Files.createTempDirectory("recordBenchmark");
+        file = directory.resolve("gameRecords.txt");
+
+        List<String> lines = new ArrayList<>(existingRecords);
+        for (int i = 0; i < existingRecords; i++) {
+            lines.add(new RecordEntry("Player" + (i % 500), 100 + i % 50, 1_730_000_000_000L + i * 1000L,
+                    5_000_000 + i).format());
+        }
+        Files.write(file, lines);
+        initialContent = Files.readAllBytes(file);
+        gameRecord = new GameRecord(file);
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /** Restores the file before each iteration so appends do not grow it across the whole run. */
+    @Setup(Level.Iteration)
+    public void resetFile() throws IOException {
+        Files.write(file, initialContent);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        System.setOut(originalOut);
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void addRecord() {
+        gameRecord.addRecord("Benchmark", 105, 12.345);
+    }
+
+    @Benchmark
+    public String readAllRecords() {
+        return gameRecord.readAllRecords();
+    }
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import lib.Game;
+import lib.PairOfDice;
+import lib.RandomSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of scoring a guess against a roll, over a fixed set of realistic guesses and rolls
+ * so the branch pattern matches real games rather than a single repeated input.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoringBenchmark {
+
+    private static final int SAMPLES = 4096;
+
+    private final int[] guesses = new int[SAMPLES];
+    private final int[] rolls = new int[SAMPLES];
+
+    @Setup
+    public void setup() {
+        RandomSource random = RandomSource.seeded(7);
+        new PairOfDice(6, random).fillSums(rolls, 0, SAMPLES);
+        for (int i = 0; i < SAMPLES; i++) {
+            guesses[i] = random.nextInt(11) + 2;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public int calculatePoints() {
+        int total = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            total += Game.calculatePoints(guesses[i], rolls[i]);
+        }
+        return total;
+    }
+}
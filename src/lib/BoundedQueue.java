@@ -0,0 +1,110 @@
+package lib;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producer and consumer threads, based on a ring of slots
+ * that each carry a sequence number (Dmitry Vyukov's bounded queue). Producers and consumers
+ * claim slots with a compare-and-set on the tail or head counter and never block each other.
+ * 
+ * @param <E> the type of element held in the queue
+ */
+public class BoundedQueue<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Constructor for BoundedQueue. The capacity is rounded up to a power of two.
+     * 
+     * @param capacity the minimum number of elements the queue can hold
+     */
+    public BoundedQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element to the tail of the queue if there is room.
+     * 
+     * @param element the element to add, which must not be null
+     * @return true if the element was added, false if the queue is full
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // The slot still holds an element from the previous lap
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the element at the head of the queue.
+     * 
+     * @return the head element, or null if the queue is empty
+     */
+    public E poll() {
+        while (true) {
+            long position = head.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    sequences.set(slot, position + mask + 1);
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null; // The slot has not been filled yet
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate number of elements in the queue.
+     * 
+     * @return the number of queued elements
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    /**
+     * Returns whether the queue is empty.
+     * 
+     * @return true if no elements are queued
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of elements the queue can hold.
+     * 
+     * @return the capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
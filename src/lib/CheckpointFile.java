@@ -0,0 +1,548 @@
+package lib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped file of fixed-size snapshots of the games in progress, so games survive the process
+ * dying mid-game. Every game in progress owns a slot, and every round overwrites the slot with the
+ * game's score, rounds, elapsed time and random generator state. Writes go to the mapped pages,
+ * which the operating system keeps when the process dies; {@link #force()} also protects against
+ * losing power, at the cost of a disk write.
+ * <p>
+ * File layout: a header (magic, version, slot count, record size) followed by the slots. A slot holds
+ * two records written alternately, each with a sequence number and a CRC-32 of its bytes, so a record
+ * torn by a crash mid-write is detected and the other, one round older, is used instead.
+ * Opening the file recovers the games whose newest valid record is still active; they keep their slots
+ * until they are resumed or discarded. The file is locked while open, since two processes sharing
+ * it would overwrite each other's slots.
+ * <p>
+ * A round's snapshot is written from a buffer prepared when the game begins: only the numeric fields
+ * change, so checkpointing a round allocates nothing and costs well under a microsecond.
+ */
+public class CheckpointFile implements Closeable {
+
+    private static final int MAGIC = 0x4C444350; // "LDCP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 192;
+    private static final int SLOT_SIZE = 2 * RECORD_SIZE;
+
+    private static final int FREE = 0;
+    private static final int ACTIVE = 1;
+
+    // Record fields; the CRC covers every byte after its own
+    private static final int CRC = 0;
+    private static final int STATE = 4;
+    private static final int SEQUENCE = 8;
+    private static final int SEED = 16;
+    private static final int RANDOM_STATE = 24;
+    private static final int START_MILLIS = 32;
+    private static final int ELAPSED_NANOS = 40;
+    private static final int TARGET_SCORE = 48;
+    private static final int SCORE = 52;
+    private static final int ROUNDS = 56;
+    private static final int PLAYER_NAME = 60;
+    private static final int PLAYER_NAME_SIZE = 48;
+    private static final int DICE_SPEC = 108;
+    private static final int DICE_SPEC_SIZE = 32;
+    private static final int COLOR_DIE_1 = 140;
+    private static final int COLOR_DIE_2 = 156;
+    private static final int COLOR_SIZE = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final int slotCount;
+    private final boolean[] taken;
+    private final List<Checkpoint> unfinished = new ArrayList<>();
+
+    /**
+     * Constructor for CheckpointFile, creating the file with the specified number of slots if it does
+     * not exist, and recovering the unfinished games of an existing file, whose slot count is kept.
+     *
+     * @param filePath the checkpoint file
+     * @param slots    the number of games that can be checkpointed at once, for a new file
+     * @throws IOException if the file cannot be opened, is open in another process or is not a checkpoint file
+     */
+    public CheckpointFile(Path filePath, int slots) throws IOException {
+        if (slots < 1) {
+            throw new IllegalArgumentException("Invalid slot count: " + slots);
+        }
+        this.channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            lock(filePath);
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(slots).putInt(RECORD_SIZE).flip();
+                channel.write(header, 0);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                    throw new IOException("Not a checkpoint file: " + filePath);
+                }
+                int version = header.getInt();
+                slots = header.getInt();
+                if (version != VERSION || header.getInt() != RECORD_SIZE || slots < 1) {
+                    throw new IOException("Unsupported checkpoint file version " + version + ": " + filePath);
+                }
+            }
+            this.slotCount = slots;
+            this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.taken = new boolean[slotCount];
+        recover();
+    }
+
+    /**
+     * Takes an exclusive lock on the whole file, held until the channel is closed.
+     *
+     * @param filePath the checkpoint file, for the error message
+     * @throws IOException if the file is already open, in this process or another
+     */
+    private void lock(Path filePath) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // Held by another channel of this process
+        }
+        if (lock == null) {
+            throw new IOException("Checkpoint file is already in use: " + filePath);
+        }
+    }
+
+    /**
+     * Finds the newest valid record of every slot, and keeps the games it shows in progress.
+     */
+    private void recover() {
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer fields = ByteBuffer.wrap(record);
+        CRC32 crc = new CRC32();
+        for (int slot = 0; slot < slotCount; slot++) {
+            int newest = -1;
+            long newestSequence = -1;
+            for (int half = 0; half < 2; half++) {
+                mapped.get(recordOffset(slot, half), record, 0, RECORD_SIZE);
+                crc.reset();
+                crc.update(record, STATE, RECORD_SIZE - STATE);
+                long sequence = fields.getLong(SEQUENCE);
+                if ((int) crc.getValue() == fields.getInt(CRC) && sequence > newestSequence) {
+                    newest = half;
+                    newestSequence = sequence;
+                }
+            }
+            if (newest < 0) {
+                continue; // Never written, or both records torn
+            }
+            mapped.get(recordOffset(slot, newest), record, 0, RECORD_SIZE);
+            if (fields.getInt(STATE) == ACTIVE) {
+                taken[slot] = true;
+                unfinished.add(new Checkpoint(slot, fields, newestSequence));
+            }
+        }
+    }
+
+    /**
+     * Starts checkpointing a game in a free slot and writes its first snapshot. The session must roll
+     * from a seeded random source, whose state is saved with every round.
+     *
+     * @param playerName the name of the player, shortened if it does not fit the slot
+     * @param session    the session whose rounds are checkpointed
+     * @param colorDie1  the color of the first die's result display
+     * @param colorDie2  the color of the second die's result display
+     * @return the slot receiving the session's rounds, or null if every slot is taken
+     * @throws IllegalArgumentException if the session's dice are not seeded or their specification
+     *                                  does not fit the slot
+     */
+    public synchronized Slot begin(String playerName, GameSession session, String colorDie1, String colorDie2) {
+        if (!(session.getRandom() instanceof SeededRandom)) {
+            throw new IllegalArgumentException("Only games rolled from a seed can be checkpointed");
+        }
+        String diceSpec = session.getDice().toString();
+        if (diceSpec.getBytes(StandardCharsets.UTF_8).length >= DICE_SPEC_SIZE) {
+            throw new IllegalArgumentException("Dice specification too long to checkpoint: " + diceSpec);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!taken[slot]) {
+                taken[slot] = true;
+                return new Slot(slot, newestSequence(slot), playerName, session, colorDie1, colorDie2,
+                        System.currentTimeMillis() - session.getElapsedNanos() / 1_000_000);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the games found unfinished when the file was opened, and not yet resumed or discarded.
+     *
+     * @return the unfinished games
+     */
+    public synchronized List<Checkpoint> getUnfinishedGames() {
+        return List.copyOf(unfinished);
+    }
+
+    /**
+     * Restores an unfinished game as a session, which goes on checkpointing to the game's slot.
+     * The session continues exactly where the last snapshot left it: same score, rounds, elapsed time
+     * and next rolls. The rounds are scored under the specified rules, which are not saved.
+     *
+     * @param checkpoint an unfinished game of this file
+     * @param rules      the scoring rules of the rest of the game
+     * @return the resumed session
+     * @throws IllegalArgumentException if the game is not an unfinished game of this file
+     */
+    public synchronized GameSession resume(Checkpoint checkpoint, ScoringRules rules) {
+        if (!unfinished.remove(checkpoint)) {
+            throw new IllegalArgumentException("Not an unfinished game of this file: " + checkpoint);
+        }
+        SeededRandom random = new SeededRandom(checkpoint.seed);
+        random.setState(checkpoint.randomState);
+        GameSession session = new GameSession(DicePool.parse(checkpoint.diceSpec, random), checkpoint.targetScore,
+                rules, checkpoint.score, checkpoint.rounds, checkpoint.elapsedNanos);
+        session.setCheckpoint(new Slot(checkpoint.slot, checkpoint.sequence, checkpoint.playerName, session,
+                checkpoint.colorDie1, checkpoint.colorDie2, checkpoint.startMillis));
+        return session;
+    }
+
+    /**
+     * Gives up an unfinished game, freeing its slot.
+     *
+     * @param checkpoint an unfinished game of this file
+     */
+    public synchronized void discard(Checkpoint checkpoint) {
+        if (unfinished.remove(checkpoint)) {
+            Slot slot = new Slot(checkpoint.slot, checkpoint.sequence, checkpoint.playerName, null,
+                    checkpoint.colorDie1, checkpoint.colorDie2, checkpoint.startMillis);
+            slot.release();
+        }
+    }
+
+    /**
+     * Returns the number of slots, the largest number of games checkpointed at once.
+     *
+     * @return the slot count
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Writes the mapped snapshots to the disk, so they also survive the machine losing power.
+     */
+    public void force() {
+        mapped.force();
+    }
+
+    /**
+     * Closes the file. Games still checkpointing must not write afterwards.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns the highest sequence number of a slot's two records, valid or not, so a new game's
+     * records always outnumber the slot's older ones.
+     *
+     * @param slot the slot
+     * @return the highest sequence number
+     */
+    private long newestSequence(int slot) {
+        return Math.max(Math.max(0, mapped.getLong(recordOffset(slot, 0) + SEQUENCE)),
+                mapped.getLong(recordOffset(slot, 1) + SEQUENCE));
+    }
+
+    /**
+     * Returns the position of one of a slot's two records in the file.
+     *
+     * @param slot the slot
+     * @param half 0 or 1
+     * @return the position of the record
+     */
+    private static int recordOffset(int slot, int half) {
+        return HEADER_SIZE + slot * SLOT_SIZE + half * RECORD_SIZE;
+    }
+
+    /**
+     * Frees a slot for the next game.
+     *
+     * @param slot the slot
+     */
+    private synchronized void free(int slot) {
+        taken[slot] = false;
+    }
+
+    /**
+     * Writes a string into a fixed-size field as a length byte and UTF-8 bytes, dropping characters from
+     * the end until it fits.
+     *
+     * @param fields the record
+     * @param offset the position of the field
+     * @param size   the size of the field, including the length byte
+     * @param value  the string
+     */
+    private static void putString(ByteBuffer fields, int offset, int size, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        while (bytes.length >= size) {
+            value = value.substring(0, value.offsetByCodePoints(value.length(), -1));
+            bytes = value.getBytes(StandardCharsets.UTF_8);
+        }
+        fields.put(offset, (byte) bytes.length);
+        fields.put(offset + 1, bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #putString(ByteBuffer, int, int, String)}.
+     *
+     * @param fields the record
+     * @param offset the position of the field
+     * @param size   the size of the field, including the length byte
+     * @return the string
+     */
+    private static String getString(ByteBuffer fields, int offset, int size) {
+        int length = Math.min(fields.get(offset) & 0xFF, size - 1);
+        return new String(fields.array(), offset + 1, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The slot of one game in progress, receiving a snapshot of the session after every round.
+     * The snapshot is prepared in a reused buffer and copied to the record older than the slot's newest,
+     * so the newest stays intact if the copy is torn. Not thread-safe; a slot belongs to its session.
+     */
+    public final class Slot {
+
+        private final int slot;
+        private final byte[] record = new byte[RECORD_SIZE];
+        private final ByteBuffer fields = ByteBuffer.wrap(record);
+        private final CRC32 crc = new CRC32();
+        private final SeededRandom random;
+        private long sequence;
+        private boolean released;
+
+        private Slot(int slot, long sequence, String playerName, GameSession session, String colorDie1,
+                String colorDie2, long startMillis) {
+            this.slot = slot;
+            this.sequence = sequence;
+            this.random = session == null ? null : (SeededRandom) session.getRandom();
+            fields.putLong(SEED, random == null ? 0 : random.getSeed());
+            fields.putLong(START_MILLIS, startMillis);
+            putString(fields, PLAYER_NAME, PLAYER_NAME_SIZE, playerName);
+            putString(fields, COLOR_DIE_1, COLOR_SIZE, colorDie1);
+            putString(fields, COLOR_DIE_2, COLOR_SIZE, colorDie2);
+            if (session != null) {
+                putString(fields, DICE_SPEC, DICE_SPEC_SIZE, session.getDice().toString());
+                fields.putInt(TARGET_SCORE, session.getTargetScore());
+                update(session);
+            }
+        }
+
+        /**
+         * Writes a snapshot of the session after a round. Called by the session itself.
+         *
+         * @param session the session of this slot
+         */
+        void update(GameSession session) {
+            if (released) {
+                return;
+            }
+            fields.putLong(RANDOM_STATE, random.getState());
+            fields.putLong(ELAPSED_NANOS, session.getElapsedNanos());
+            fields.putInt(SCORE, session.getCurrentScore());
+            fields.putInt(ROUNDS, session.getRoundsPlayed());
+            write(ACTIVE);
+        }
+
+        /**
+         * Marks the slot free, so the game is not resumed; called when the game finishes or is abandoned.
+         * Does nothing if the slot was already released.
+         */
+        public void release() {
+            if (!released) {
+                write(FREE);
+                released = true;
+                free(slot);
+            }
+        }
+
+        /**
+         * Returns whether the slot was released.
+         *
+         * @return true if the game no longer checkpoints
+         */
+        public boolean isReleased() {
+            return released;
+        }
+
+        /**
+         * Seals the prepared record with the next sequence number and its checksum, and copies it over
+         * the older of the slot's two records.
+         *
+         * @param state ACTIVE or FREE
+         */
+        private void write(int state) {
+            sequence++;
+            fields.putInt(STATE, state);
+            fields.putLong(SEQUENCE, sequence);
+            crc.reset();
+            crc.update(record, STATE, RECORD_SIZE - STATE);
+            fields.putInt(CRC, (int) crc.getValue());
+            mapped.put(recordOffset(slot, (int) (sequence & 1)), record, 0, RECORD_SIZE);
+        }
+    }
+
+    /**
+     * A game found unfinished in the checkpoint file, as of its last snapshot.
+     */
+    public static final class Checkpoint {
+
+        private final int slot;
+        private final long sequence;
+        private final String playerName;
+        private final String diceSpec;
+        private final String colorDie1;
+        private final String colorDie2;
+        private final long seed;
+        private final long randomState;
+        private final long startMillis;
+        private final long elapsedNanos;
+        private final int targetScore;
+        private final int score;
+        private final int rounds;
+
+        private Checkpoint(int slot, ByteBuffer fields, long sequence) {
+            this.slot = slot;
+            this.sequence = sequence;
+            this.playerName = getString(fields, PLAYER_NAME, PLAYER_NAME_SIZE);
+            this.diceSpec = getString(fields, DICE_SPEC, DICE_SPEC_SIZE);
+            this.colorDie1 = getString(fields, COLOR_DIE_1, COLOR_SIZE);
+            this.colorDie2 = getString(fields, COLOR_DIE_2, COLOR_SIZE);
+            this.seed = fields.getLong(SEED);
+            this.randomState = fields.getLong(RANDOM_STATE);
+            this.startMillis = fields.getLong(START_MILLIS);
+            this.elapsedNanos = fields.getLong(ELAPSED_NANOS);
+            this.targetScore = fields.getInt(TARGET_SCORE);
+            this.score = fields.getInt(SCORE);
+            this.rounds = fields.getInt(ROUNDS);
+        }
+
+        /**
+         * Returns the name of the player.
+         *
+         * @return the player name
+         */
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        /**
+         * Returns the specification of the dice, such as "2d6".
+         *
+         * @return the dice specification
+         */
+        public String getDiceSpec() {
+            return diceSpec;
+        }
+
+        /**
+         * Returns the color of the first die's result display.
+         *
+         * @return the color
+         */
+        public String getColorDie1() {
+            return colorDie1;
+        }
+
+        /**
+         * Returns the color of the second die's result display.
+         *
+         * @return the color
+         */
+        public String getColorDie2() {
+            return colorDie2;
+        }
+
+        /**
+         * Returns the seed the game's dice roll from.
+         *
+         * @return the seed
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Returns the time the game started.
+         *
+         * @return the start time in milliseconds since the epoch
+         */
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        /**
+         * Returns the time played until the last snapshot.
+         *
+         * @return the elapsed time in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the score at which the game ends.
+         *
+         * @return the target score
+         */
+        public int getTargetScore() {
+            return targetScore;
+        }
+
+        /**
+         * Returns the score at the last snapshot.
+         *
+         * @return the score
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Returns the number of rounds played at the last snapshot.
+         *
+         * @return the rounds played
+         */
+        public int getRoundsPlayed() {
+            return rounds;
+        }
+
+        /**
+         * Returns a description of the game, such as "Ola: 42/100 after 7 rounds of 2d6".
+         *
+         * @return the description
+         */
+        @Override
+        public String toString() {
+            return playerName + ": " + score + "/" + targetScore + " after " + rounds + " rounds of " + diceSpec;
+        }
+    }
+}
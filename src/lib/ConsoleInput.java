@@ -0,0 +1,48 @@
+package lib;
+
+import java.util.Scanner;
+
+/**
+ * The single input pipeline of the console program. A {@link Scanner} reads ahead into its own buffer,
+ * so two scanners over {@code System.in} steal input from each other as soon as it is piped rather
+ * than typed. Every component reading the player's input therefore shares the one scanner held here.
+ * Scripted runs replace it with a scanner over the script before any component reads.
+ */
+public final class ConsoleInput {
+
+    private static Scanner shared;
+
+    private ConsoleInput() {
+    }
+
+    /**
+     * Returns the shared scanner, reading standard input unless {@link #use(Scanner)} replaced it.
+     * 
+     * @return the shared scanner
+     */
+    public static synchronized Scanner shared() {
+        if (shared == null) {
+            shared = new Scanner(System.in);
+        }
+        return shared;
+    }
+
+    /**
+     * Makes every following read come from the specified scanner, such as one over a script file.
+     * 
+     * @param scanner the scanner to share
+     */
+    public static synchronized void use(Scanner scanner) {
+        shared = scanner;
+    }
+
+    /**
+     * Closes the shared scanner at the end of the program.
+     */
+    public static synchronized void close() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+}
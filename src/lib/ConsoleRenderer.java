@@ -0,0 +1,207 @@
+package lib;
+
+import java.io.PrintStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the console output of a game, animating each round's die results with a short delay between them.
+ * The die colors are resolved to ANSI escape codes once, when the renderer is created, and each round's output
+ * is built in a reusable buffer and written with one call per line group instead of one per line.
+ * 
+ * The delays never block the game thread: output is handed to a shared renderer thread that writes each
+ * piece in the order it was submitted, once the delay before it has passed. The game thread can therefore go back
+ * to reading the next guess while the previous round is still being revealed. A renderer with a delay of
+ * zero (fast mode) writes directly on the calling thread, for scripted and benchmark runs.
+ */
+public class ConsoleRenderer {
+
+    /** The default delay between revealing each die, in milliseconds. */
+    public static final long DEFAULT_DELAY_MILLIS = 300;
+
+    private static final String RESET = "\033[0m";
+
+    private final PrintStream out;
+    private final String colorCode1;
+    private final String colorCode2;
+    private final long delayNanos;
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    // When the last scheduled piece of output is due; only used by the game thread
+    private long nextWriteAt = System.nanoTime();
+
+    /**
+     * Constructor for ConsoleRenderer with the colors of each die and the delay between revealing them.
+     * 
+     * @param out         the stream the output is written to
+     * @param colorDie1   the color name for the first die's result display
+     * @param colorDie2   the color name for the second die's result display
+     * @param delayMillis the delay after revealing each die, or 0 for fast mode
+     */
+    public ConsoleRenderer(PrintStream out, String colorDie1, String colorDie2, long delayMillis) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Delay must not be negative: " + delayMillis);
+        }
+        this.out = out;
+        this.colorCode1 = ansiColorCode(colorDie1);
+        this.colorCode2 = ansiColorCode(colorDie2);
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+    }
+
+    /**
+     * Creates a renderer writing to the console with the die colors and animation delay chosen in the settings.
+     * 
+     * @param settings the player's display settings
+     * @return the renderer for the console
+     */
+    public static ConsoleRenderer forSettings(Settings settings) {
+        return new ConsoleRenderer(System.out, settings.getColorDie1(), settings.getColorDie2(),
+                settings.getAnimationDelayMillis());
+    }
+
+    /**
+     * Creates a renderer that writes every round at once without any delay.
+     * 
+     * @param out the stream the output is written to
+     * @return the fast mode renderer
+     */
+    public static ConsoleRenderer fast(PrintStream out) {
+        return new ConsoleRenderer(out, "Default", "Default", 0);
+    }
+
+    /**
+     * Writes the result of a round: each die in its color, then the total and the points earned.
+     * With more than two dice the two colors alternate.
+     * In animated mode each die is followed by the delay, and this method returns without waiting for it.
+     * 
+     * @param round the result of the round
+     */
+    public void renderRound(RoundResult round) {
+        buffer.setLength(0);
+        for (int i = 0; i < round.getDiceCount(); i++) {
+            appendDie(round.getDie(i), i % 2 == 0 ? colorCode1 : colorCode2);
+            if (delayNanos != 0) {
+                schedule(buffer.toString(), delayNanos);
+                buffer.setLength(0);
+            }
+        }
+        appendSummary(round);
+        if (delayNanos == 0) {
+            out.print(buffer);
+        } else {
+            schedule(buffer.toString(), 0);
+        }
+    }
+
+    /**
+     * Writes text after all output submitted before it, without a line break.
+     * 
+     * @param text the text to write
+     */
+    public void print(String text) {
+        if (delayNanos == 0) {
+            out.print(text);
+        } else {
+            schedule(text, 0);
+        }
+    }
+
+    /**
+     * Writes a line after all output submitted before it.
+     * 
+     * @param line the line to write
+     */
+    public void println(String line) {
+        print(line + System.lineSeparator());
+    }
+
+    /**
+     * Waits until all submitted output has been written, including the remaining animation delays.
+     */
+    public void awaitIdle() {
+        if (delayNanos == 0) {
+            out.flush();
+            return;
+        }
+        try {
+            Scheduler.INSTANCE.submit(out::flush).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error writing game output: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Returns whether this renderer writes without animation delays.
+     * 
+     * @return true in fast mode
+     */
+    public boolean isFast() {
+        return delayNanos == 0;
+    }
+
+    /**
+     * Converts color names to ANSI escape codes for console color display.
+     * 
+     * @param color the color name as a string
+     * @return the ANSI escape code for the specified color
+     */
+    static String ansiColorCode(String color) {
+        return switch (color.toLowerCase()) {
+            case "red" -> "\033[31m";
+            case "blue" -> "\033[34m";
+            case "green" -> "\033[32m";
+            case "yellow" -> "\033[33m";
+            case "purple" -> "\033[35m";
+            case "cyan" -> "\033[36m";
+            case "pink" -> "\033[95m";
+            default -> "\033[37m"; // Default to white if color is unknown
+        };
+    }
+
+    private void appendDie(int result, String colorCode) {
+        buffer.append(colorCode).append("Die result: ").append(result).append(RESET).append(System.lineSeparator());
+    }
+
+    private void appendSummary(RoundResult round) {
+        buffer.append("The dice rolled a total of: ").append(round.getSum()).append(System.lineSeparator())
+                .append("You earned ").append(round.getPoints()).append(" points this round. Total score: ")
+                .append(round.getScore()).append(System.lineSeparator());
+    }
+
+    /**
+     * Schedules text to be written once all earlier output is written, and holds back later output
+     * for the given pause after it.
+     * 
+     * @param text       the text to write
+     * @param pauseNanos the pause after the text, in nanoseconds
+     */
+    private void schedule(String text, long pauseNanos) {
+        long writeAt = Math.max(System.nanoTime(), nextWriteAt);
+        nextWriteAt = writeAt + pauseNanos;
+        Scheduler.INSTANCE.execute(() -> {
+            long wait;
+            while ((wait = writeAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            out.print(text);
+            out.flush();
+        });
+    }
+
+    /**
+     * Holder of the single renderer thread shared by all animated renderers, created on first use.
+     * Output is written strictly in submission order, each piece waiting for its own due time.
+     */
+    private static final class Scheduler {
+        static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "console-renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -6,6 +6,24 @@ package lib;
  */
 public class Credits {
 
+    private final ScoringRules rules;
+
+    /**
+     * Constructor for Credits describing the default scoring rules.
+     */
+    public Credits() {
+        this(ScoringRules.DEFAULT);
+    }
+
+    /**
+     * Constructor for Credits describing the scoring rules the games are played with.
+     * 
+     * @param rules the scoring rules shown in the scoring system section
+     */
+    public Credits(ScoringRules rules) {
+        this.rules = rules;
+    }
+
     /**
      * Displays the credits, including game rules, scoring details, and information about the developer.
      */
@@ -15,19 +33,20 @@ public class Credits {
         System.out.println("========================");
         System.out.println("Game Rules:");
         System.out.println("In LuckyDie, you roll two dice each round and guess the combined total of the roll.");
+        System.out.println("Variants with more dice, or dice of different sizes, can be chosen in Settings.");
         System.out.println("Your objective is to reach exactly 100 points by making accurate guesses.");
         System.out.println();
         System.out.println("Scoring System:");
-        System.out.println(" - Exact Guess: 50 points");
-        System.out.println(" - Difference of 1 to 2: 20 points");
-        System.out.println(" - Difference of 3 to 4: 10 points");
-        System.out.println(" - Difference of 5 to 6: 5 points");
+        for (String band : rules.describe()) {
+            System.out.println(" - " + band);
+        }
         System.out.println();
         System.out.println("Each round, you enter your guess, and the dice are rolled.");
         System.out.println("After each roll, you'll see the results of each die in the colors you set in Settings.");
         System.out.println();
         System.out.println("Settings:");
-        System.out.println("You can customize the color of each die's result display in the settings menu.");
+        System.out.println("You can customize the color of each die's result display in the settings menu,");
+        System.out.println("choose the dice to play with, and turn off the die result animation.");
         System.out.println("Choose from colors like red, blue, green, yellow, purple, cyan, or pink.");
         System.out.println();
         System.out.println("Developer: Andrzej Dul, Student");
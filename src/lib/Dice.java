@@ -7,14 +7,26 @@ package lib;
 public class Dice {
 
     private int sides;
+    private RandomSource random;
 
     /**
-     * Constructor for Dice with a specified number of sides.
+     * Constructor for Dice with a specified number of sides, rolled with the per-thread random source.
      * 
      * @param sides the number of sides on the die (e.g., 6 for a standard die)
      */
     public Dice(int sides) {
+        this(sides, RandomSource.threadLocal());
+    }
+
+    /**
+     * Constructor for Dice with a specified number of sides and source of random numbers.
+     * 
+     * @param sides  the number of sides on the die (e.g., 6 for a standard die)
+     * @param random the random source used for every roll
+     */
+    public Dice(int sides, RandomSource random) {
         this.sides = sides;
+        this.random = random;
     }
 
     /**
@@ -23,7 +35,7 @@ public class Dice {
      * @return a random integer representing the result of the roll, from 1 to the number of sides
      */
     public int roll() {
-        return (int) (Math.random() * sides) + 1;
+        return random.nextInt(sides) + 1;
     }
     
     /**
@@ -34,4 +46,13 @@ public class Dice {
     public int getSides() {
         return sides;
     }
+
+    /**
+     * Returns the random source this die rolls with.
+     * 
+     * @return the random source of the die
+     */
+    public RandomSource getRandom() {
+        return random;
+    }
 }
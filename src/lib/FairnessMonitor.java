@@ -0,0 +1,377 @@
+package lib;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongFunction;
+
+/**
+ * Online fairness monitor of the dice rolled by games. For every dice configuration in play it counts
+ * the faces of each die, the sums, and the products of successive sums of each session, from which a
+ * {@link FairnessReport} is computed on demand or periodically.
+ * Counts go to striped {@link AtomicLongArray}s chosen by thread id, so the roll path takes no lock and
+ * threads rarely share a cache line. A roll of a pool with up to 4096 face combinations costs one
+ * uncontended atomic add; successive sums are accumulated by each session and added in batches.
+ * The same counts can be gathered offline with {@link #certify}, which rolls billions of times in
+ * parallel to certify a new random generator before it is rolled out.
+ */
+public final class FairnessMonitor {
+
+    /** System property naming the period in milliseconds of the background fairness check. */
+    public static final String CHECK_PERIOD_PROPERTY = "luckydie.fairness.periodMillis";
+    /** System property setting the significance level of the background fairness check. */
+    public static final String CHECK_ALPHA_PROPERTY = "luckydie.fairness.alpha";
+
+    private static final FairnessMonitor GLOBAL = new FairnessMonitor();
+    private static final int PADDING = 16; // Longs kept free at each end of a stripe against false sharing
+    private static final long ROLLS_PER_TASK = 1 << 22;
+
+    private final ConcurrentHashMap<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the monitor shared by every game of the process.
+     *
+     * @return the global monitor
+     */
+    public static FairnessMonitor global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the tracker counting the rolls of the specified dice configuration, shared by every
+     * pool of the same dice.
+     *
+     * @param dice the dice whose rolls are counted
+     * @return the tracker of the configuration
+     */
+    public Tracker track(DicePool dice) {
+        String spec = dice.toString();
+        Tracker tracker = trackers.get(spec);
+        return tracker != null ? tracker : trackers.computeIfAbsent(spec, key -> new Tracker(key, dice));
+    }
+
+    /**
+     * Computes a report of every dice configuration rolled so far.
+     *
+     * @return the reports, one per dice configuration
+     */
+    public List<FairnessReport> reports() {
+        List<FairnessReport> reports = new ArrayList<>();
+        for (Tracker tracker : trackers.values()) {
+            reports.add(tracker.report());
+        }
+        return reports;
+    }
+
+    /**
+     * Checks every dice configuration now and then every period on a background thread, and warns on
+     * the error stream about any configuration whose rolls are not fair at the significance level.
+     *
+     * @param periodMillis the time between checks
+     * @param alpha        the significance level, such as 1e-6 to keep false alarms rare
+     * @return a handle that stops the checks when closed
+     */
+    public Closeable startPeriodicCheck(long periodMillis, double alpha) {
+        ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "fairness-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleAtFixedRate(() -> {
+            for (FairnessReport report : reports()) {
+                if (!report.isFair(alpha)) {
+                    System.err.println("Warning: dice may be unfair (alpha " + alpha + ")\n" + report);
+                }
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        return checker::shutdownNow;
+    }
+
+    /**
+     * Starts the periodic check configured by the {@value #CHECK_PERIOD_PROPERTY} and
+     * {@value #CHECK_ALPHA_PROPERTY} system properties. Does nothing if no period is configured.
+     */
+    public static void startConfiguredCheck() {
+        long periodMillis = Long.getLong(CHECK_PERIOD_PROPERTY, 0);
+        if (periodMillis <= 0) {
+            return;
+        }
+        GLOBAL.startPeriodicCheck(periodMillis, Double.parseDouble(System.getProperty(CHECK_ALPHA_PROPERTY, "1e-6")));
+    }
+
+    /**
+     * Rolls the dice the specified number of times on the common fork/join pool and reports their fairness.
+     *
+     * @param diceSpec   the dice to roll, such as "2d6"
+     * @param rolls      the number of rolls
+     * @param generators the generator of each block of rolls, by block number; a seeded generator
+     *                   should return independent streams, such as {@code seed.splitAt(block)}
+     * @return the fairness report of the rolls
+     */
+    public static FairnessReport certify(String diceSpec, long rolls, LongFunction<RandomSource> generators) {
+        return certify(diceSpec, rolls, generators, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Rolls the dice the specified number of times on the specified pool and reports their fairness.
+     * Rolls are split into blocks of a fixed size, each rolled from its own generator, so the result
+     * depends only on the generators and not on the pool size.
+     *
+     * @param diceSpec   the dice to roll, such as "2d6"
+     * @param rolls      the number of rolls
+     * @param generators the generator of each block of rolls, by block number
+     * @param pool       the pool the rolls are made on
+     * @return the fairness report of the rolls
+     */
+    public static FairnessReport certify(String diceSpec, long rolls, LongFunction<RandomSource> generators,
+            ForkJoinPool pool) {
+        Layout layout = new Layout(DicePool.parse(diceSpec, RandomSource.threadLocal()));
+        long blocks = (rolls + ROLLS_PER_TASK - 1) / ROLLS_PER_TASK;
+        long[] counts = pool.invoke(new CertifyTask(diceSpec, layout, rolls, generators, 0, blocks));
+        return layout.report(diceSpec, counts);
+    }
+
+    /**
+     * Counts of one dice configuration, striped by thread.
+     */
+    public static final class Tracker {
+
+        private final String dice;
+        private final Layout layout;
+        private final AtomicLongArray[] stripes;
+        private final int mask;
+
+        private Tracker(String dice, DicePool pool) {
+            this.dice = dice;
+            this.layout = new Layout(pool);
+            int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 1;
+            this.stripes = new AtomicLongArray[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new AtomicLongArray(layout.length + 2 * PADDING);
+            }
+            this.mask = stripeCount - 1;
+        }
+
+        /**
+         * Counts one roll in the stripe of the calling thread.
+         *
+         * @param faces the result of each die
+         * @param sum   the sum of the dice
+         */
+        public void record(int[] faces, int sum) {
+            AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & mask];
+            if (layout.joint) {
+                stripe.getAndIncrement(PADDING + layout.outcome(faces));
+                return;
+            }
+            int[] faceBase = layout.faceBase;
+            for (int i = 0; i < faceBase.length; i++) {
+                stripe.getAndIncrement(PADDING + faceBase[i] + faces[i]);
+            }
+            stripe.getAndIncrement(PADDING + layout.sumBase + sum);
+        }
+
+        /**
+         * Adds pairs of successive sums of one stream, accumulated by the caller over several rolls
+         * so the roll path does not pay for them on every roll.
+         *
+         * @param pairs      the number of pairs of successive sums
+         * @param productSum the sum over those pairs of the product of the two sums
+         */
+        public void recordSerial(long pairs, long productSum) {
+            AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & mask];
+            stripe.getAndAdd(PADDING + layout.pairsIndex, pairs);
+            stripe.getAndAdd(PADDING + layout.productsIndex, productSum);
+        }
+
+        /**
+         * Computes the fairness report of the rolls counted so far. Rolls counted while the stripes are
+         * read may be partly included, which shifts the statistics by at most a few rolls.
+         *
+         * @return the fairness report
+         */
+        public FairnessReport report() {
+            long[] counts = new long[layout.length];
+            for (AtomicLongArray stripe : stripes) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += stripe.get(PADDING + i);
+                }
+            }
+            return layout.report(dice, counts);
+        }
+    }
+
+    /**
+     * Positions of the counts of a dice configuration in a flat array, followed by the number of pairs
+     * of successive sums and the sum of their products. Pools with few outcomes count each combination
+     * of faces in one cell, so a roll is a single increment and the faces and sums are derived when
+     * reported; larger pools count the faces of each die and the sums separately.
+     */
+    private static final class Layout {
+
+        private static final int MAX_JOINT_OUTCOMES = 4096;
+
+        private final int[] sides;
+        private final boolean joint;
+        private final int[] strides;  // Joint layout: the cell of an outcome is the sum of (face - 1) * stride
+        private final int[] faceBase; // Separate layout: face f of die i counts at faceBase[i] + f
+        private final int sumBase;    // Separate layout: sum s counts at sumBase + s
+        private final int minSum;
+        private final int pairsIndex;
+        private final int productsIndex;
+        private final int length;
+
+        Layout(DicePool pool) {
+            this.sides = new int[pool.getDiceCount()];
+            this.strides = new int[sides.length];
+            this.faceBase = new int[sides.length];
+            this.minSum = pool.getMinSum();
+            long outcomes = 1;
+            int index = 0;
+            for (int i = 0; i < sides.length; i++) {
+                sides[i] = pool.getSides(i);
+                strides[i] = (int) Math.min(outcomes, Integer.MAX_VALUE);
+                outcomes *= sides[i];
+                outcomes = Math.min(outcomes, Integer.MAX_VALUE);
+                faceBase[i] = index - 1;
+                index += sides[i];
+            }
+            this.joint = outcomes <= MAX_JOINT_OUTCOMES;
+            if (joint) {
+                index = (int) outcomes;
+                this.sumBase = 0;
+            } else {
+                this.sumBase = index - minSum;
+                index += pool.getMaxSum() - minSum + 1;
+            }
+            this.pairsIndex = index++;
+            this.productsIndex = index++;
+            this.length = index;
+        }
+
+        /**
+         * Returns the joint cell of a combination of faces.
+         *
+         * @param faces the result of each die
+         * @return the cell index
+         */
+        int outcome(int[] faces) {
+            int cell = 0;
+            for (int i = 0; i < strides.length; i++) {
+                cell += (faces[i] - 1) * strides[i];
+            }
+            return cell;
+        }
+
+        /**
+         * Counts one roll in a plain array of this layout.
+         *
+         * @param counts the counts
+         * @param faces  the result of each die
+         * @param sum    the sum of the dice
+         */
+        void count(long[] counts, int[] faces, int sum) {
+            if (joint) {
+                counts[outcome(faces)]++;
+                return;
+            }
+            for (int i = 0; i < faceBase.length; i++) {
+                counts[faceBase[i] + faces[i]]++;
+            }
+            counts[sumBase + sum]++;
+        }
+
+        FairnessReport report(String dice, long[] counts) {
+            long[][] faceCounts = new long[sides.length][];
+            long[] sumCounts;
+            if (joint) {
+                for (int i = 0; i < sides.length; i++) {
+                    faceCounts[i] = new long[sides[i]];
+                }
+                sumCounts = new long[Arrays.stream(sides).sum() - minSum + 1];
+                for (int cell = 0; cell < pairsIndex; cell++) {
+                    int sum = 0;
+                    for (int i = 0; i < sides.length; i++) {
+                        int face = cell / strides[i] % sides[i];
+                        faceCounts[i][face] += counts[cell];
+                        sum += face;
+                    }
+                    sumCounts[sum] += counts[cell];
+                }
+            } else {
+                for (int i = 0; i < sides.length; i++) {
+                    faceCounts[i] = Arrays.copyOfRange(counts, faceBase[i] + 1, faceBase[i] + 1 + sides[i]);
+                }
+                sumCounts = Arrays.copyOfRange(counts, sumBase + minSum, pairsIndex);
+            }
+            return new FairnessReport(dice, sides, faceCounts, sumCounts, counts[pairsIndex], counts[productsIndex]);
+        }
+    }
+
+    /**
+     * Fork/join task rolling a range of blocks, splitting it in halves until one block is left.
+     */
+    private static final class CertifyTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String diceSpec;
+        private final Layout layout;
+        private final long rolls;
+        private final LongFunction<RandomSource> generators;
+        private final long fromBlock;
+        private final long toBlock;
+
+        CertifyTask(String diceSpec, Layout layout, long rolls, LongFunction<RandomSource> generators,
+                long fromBlock, long toBlock) {
+            this.diceSpec = diceSpec;
+            this.layout = layout;
+            this.rolls = rolls;
+            this.generators = generators;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (toBlock - fromBlock > 1) {
+                long middle = (fromBlock + toBlock) >>> 1;
+                CertifyTask second = new CertifyTask(diceSpec, layout, rolls, generators, middle, toBlock);
+                second.fork();
+                long[] counts = new CertifyTask(diceSpec, layout, rolls, generators, fromBlock, middle).compute();
+                long[] other = second.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += other[i];
+                }
+                return counts;
+            }
+            long[] counts = new long[layout.length];
+            if (fromBlock == toBlock) {
+                return counts;
+            }
+            DicePool dice = DicePool.parse(diceSpec, generators.apply(fromBlock));
+            int[] faces = new int[dice.getDiceCount()];
+            long blockRolls = Math.min(ROLLS_PER_TASK, rolls - fromBlock * ROLLS_PER_TASK);
+            long products = 0;
+            int previous = 0;
+            for (long r = 0; r < blockRolls; r++) {
+                int sum = dice.rollEach(faces);
+                layout.count(counts, faces, sum);
+                products += (long) previous * sum;
+                previous = sum;
+            }
+            counts[layout.pairsIndex] = Math.max(0, blockRolls - 1); // The first roll of a block has no predecessor
+            counts[layout.productsIndex] = products;
+            Metrics.global().diceRolled(blockRolls * faces.length);
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package lib;
+
+import java.util.Arrays;
+
+/**
+ * Fairness statistics of the rolls of one dice configuration, produced by the {@link FairnessMonitor}.
+ * Three kinds of test are run, each giving a p-value, the probability of a result at least this far
+ * from fair if the dice were fair:
+ * <ul>
+ * <li>a chi-square test of the faces of each die against the uniform distribution;</li>
+ * <li>a chi-square test of the sums against their exact distribution, with sparse tail sums pooled
+ * so that every cell expects at least {@value #MIN_EXPECTED} rolls;</li>
+ * <li>a test of the lag-1 serial correlation of successive sums, whose z-score is r * sqrt(pairs).</li>
+ * </ul>
+ * With one test per die plus two, {@link #isFair(double)} applies the Bonferroni correction.
+ */
+public class FairnessReport {
+
+    private static final double MIN_EXPECTED = 5;
+
+    private final String dice;
+    private final int[] sides;
+    private final long rolls;
+    private final double[] faceChiSquare;
+    private final double[] facePValue;
+    private final double sumChiSquare;
+    private final int sumDegrees;
+    private final double sumPValue;
+    private final long serialPairs;
+    private final double serialCorrelation;
+    private final double serialPValue;
+
+    /**
+     * Constructor for FairnessReport computing the statistics from roll counts.
+     *
+     * @param dice         the dice specification, such as "2d6"
+     * @param sides        the number of sides of each die
+     * @param faceCounts   for each die, the number of rolls of each face from 1
+     * @param sumCounts    the number of rolls of each sum from the minimum sum
+     * @param serialPairs  the number of pairs of successive sums
+     * @param serialProductSum the sum over those pairs of the product of the two sums
+     */
+    FairnessReport(String dice, int[] sides, long[][] faceCounts, long[] sumCounts, long serialPairs,
+            long serialProductSum) {
+        this.dice = dice;
+        this.sides = sides.clone();
+        this.rolls = Arrays.stream(sumCounts).sum();
+
+        this.faceChiSquare = new double[sides.length];
+        this.facePValue = new double[sides.length];
+        for (int d = 0; d < sides.length; d++) {
+            double[] expected = new double[sides[d]];
+            Arrays.fill(expected, 1.0 / sides[d]);
+            faceChiSquare[d] = chiSquare(faceCounts[d], expected, rolls);
+            facePValue[d] = chiSquarePValue(faceChiSquare[d], sides[d] - 1);
+        }
+
+        // Pool sums from each end until every cell expects enough rolls
+        double[] probabilities = sumProbabilities(sides);
+        long[] pooledCounts = new long[probabilities.length];
+        double[] pooledProbabilities = new double[probabilities.length];
+        int cells = 0;
+        double threshold = rolls == 0 ? 0 : MIN_EXPECTED / rolls;
+        for (int i = 0; i < probabilities.length; i++) {
+            pooledCounts[cells] += sumCounts[i];
+            pooledProbabilities[cells] += probabilities[i];
+            if (pooledProbabilities[cells] >= threshold) {
+                cells++;
+            }
+        }
+        if (cells < probabilities.length && pooledProbabilities[cells] > 0) { // Sparse high tail left open
+            if (cells == 0) {
+                cells = 1;
+            } else {
+                pooledCounts[cells - 1] += pooledCounts[cells];
+                pooledProbabilities[cells - 1] += pooledProbabilities[cells];
+            }
+        }
+        this.sumDegrees = Math.max(1, cells - 1);
+        this.sumChiSquare = chiSquare(Arrays.copyOf(pooledCounts, cells), Arrays.copyOf(pooledProbabilities, cells),
+                rolls);
+        this.sumPValue = chiSquarePValue(sumChiSquare, sumDegrees);
+
+        // Lag-1 correlation of successive sums, from the observed mean and variance of the sums
+        double mean = 0;
+        double meanSquare = 0;
+        for (int i = 0; i < sumCounts.length; i++) {
+            double sum = sides.length + i; // The minimum sum is one per die
+            mean += sum * sumCounts[i];
+            meanSquare += sum * sum * sumCounts[i];
+        }
+        mean = rolls == 0 ? 0 : mean / rolls;
+        double variance = rolls == 0 ? 0 : meanSquare / rolls - mean * mean;
+        this.serialPairs = serialPairs;
+        this.serialCorrelation = serialPairs == 0 || variance <= 0 ? 0
+                : ((double) serialProductSum / serialPairs - mean * mean) / variance;
+        double z = serialCorrelation * Math.sqrt(serialPairs);
+        this.serialPValue = serialPairs == 0 ? 1 : regularizedGammaQ(0.5, z * z / 2); // Two-sided normal tail
+    }
+
+    /**
+     * Returns the dice specification the report is for.
+     *
+     * @return the dice, such as "2d6"
+     */
+    public String getDice() {
+        return dice;
+    }
+
+    /**
+     * Returns the number of rolls counted.
+     *
+     * @return the number of rolls
+     */
+    public long getRolls() {
+        return rolls;
+    }
+
+    /**
+     * Returns the chi-square statistic of the faces of one die.
+     *
+     * @param die the index of the die in the pool
+     * @return the chi-square statistic, with one degree of freedom less than the die's sides
+     */
+    public double getFaceChiSquare(int die) {
+        return faceChiSquare[die];
+    }
+
+    /**
+     * Returns the p-value of the faces of one die being uniform.
+     *
+     * @param die the index of the die in the pool
+     * @return the p-value
+     */
+    public double getFacePValue(int die) {
+        return facePValue[die];
+    }
+
+    /**
+     * Returns the chi-square statistic of the sums.
+     *
+     * @return the chi-square statistic
+     */
+    public double getSumChiSquare() {
+        return sumChiSquare;
+    }
+
+    /**
+     * Returns the degrees of freedom of the sum test, one less than the number of pooled sum cells.
+     *
+     * @return the degrees of freedom
+     */
+    public int getSumDegrees() {
+        return sumDegrees;
+    }
+
+    /**
+     * Returns the p-value of the sums following their exact distribution.
+     *
+     * @return the p-value
+     */
+    public double getSumPValue() {
+        return sumPValue;
+    }
+
+    /**
+     * Returns the correlation between each sum and the next sum of the same stream.
+     *
+     * @return the lag-1 serial correlation, 0 without pairs
+     */
+    public double getSerialCorrelation() {
+        return serialCorrelation;
+    }
+
+    /**
+     * Returns the p-value of successive sums being uncorrelated.
+     *
+     * @return the p-value
+     */
+    public double getSerialPValue() {
+        return serialPValue;
+    }
+
+    /**
+     * Returns the number of tests in the report: one per die, the sums and the serial correlation.
+     *
+     * @return the test count
+     */
+    public int getTestCount() {
+        return sides.length + 2;
+    }
+
+    /**
+     * Returns the smallest p-value of all tests.
+     *
+     * @return the minimum p-value
+     */
+    public double getMinPValue() {
+        double min = Math.min(sumPValue, serialPValue);
+        for (double p : facePValue) {
+            min = Math.min(min, p);
+        }
+        return min;
+    }
+
+    /**
+     * Returns whether no test rejects fairness at the significance level, Bonferroni-corrected for the
+     * number of tests, so the chance of a fair generator failing stays at most {@code alpha}.
+     *
+     * @param alpha the overall significance level, such as 0.001
+     * @return true if every p-value is at least alpha divided by the test count
+     */
+    public boolean isFair(double alpha) {
+        return getMinPValue() >= alpha / getTestCount();
+    }
+
+    /**
+     * Returns a multi-line summary of the tests.
+     *
+     * @return the formatted report
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format("Fairness of %s over %d rolls%n", dice, rolls));
+        for (int d = 0; d < sides.length; d++) {
+            text.append(String.format("  Die %d (d%d) faces: chi-square %.2f, df %d, p %.4g%n", d + 1, sides[d],
+                    faceChiSquare[d], sides[d] - 1, facePValue[d]));
+        }
+        text.append(String.format("  Sums: chi-square %.2f, df %d, p %.4g%n", sumChiSquare, sumDegrees, sumPValue));
+        text.append(String.format("  Serial correlation: r %+.6f over %d pairs, p %.4g", serialCorrelation,
+                serialPairs, serialPValue));
+        return text.toString();
+    }
+
+    /**
+     * Computes Pearson's chi-square statistic of observed counts against expected probabilities.
+     *
+     * @param observed      the observed count of each cell
+     * @param probabilities the expected probability of each cell
+     * @param total         the total count
+     * @return the chi-square statistic, 0 if nothing was counted
+     */
+    static double chiSquare(long[] observed, double[] probabilities, long total) {
+        double chiSquare = 0;
+        for (int i = 0; i < observed.length; i++) {
+            double expected = probabilities[i] * total;
+            if (expected > 0) {
+                double difference = observed[i] - expected;
+                chiSquare += difference * difference / expected;
+            }
+        }
+        return chiSquare;
+    }
+
+    /**
+     * Returns the probability of a chi-square statistic at least this large, the upper tail
+     * Q(df / 2, x / 2) of the regularized gamma function.
+     *
+     * @param chiSquare the statistic
+     * @param degrees   the degrees of freedom
+     * @return the p-value
+     */
+    static double chiSquarePValue(double chiSquare, int degrees) {
+        return chiSquare <= 0 ? 1 : regularizedGammaQ(degrees / 2.0, chiSquare / 2);
+    }
+
+    /**
+     * Computes the regularized upper incomplete gamma function Q(a, x), by its series when x < a + 1
+     * and by its continued fraction (modified Lentz) otherwise.
+     *
+     * @param a the shape, positive
+     * @param x the point, not negative
+     * @return Q(a, x), between 0 and 1
+     */
+    static double regularizedGammaQ(double a, double x) {
+        if (x <= 0) {
+            return 1;
+        }
+        double logPrefix = a * Math.log(x) - x - logGamma(a);
+        if (x < a + 1) {
+            double term = 1 / a;
+            double sum = term;
+            for (int n = 1; n < 10_000 && Math.abs(term) > Math.abs(sum) * 1e-16; n++) {
+                term *= x / (a + n);
+                sum += term;
+            }
+            return Math.max(0, 1 - sum * Math.exp(logPrefix));
+        }
+        double tiny = 1e-300;
+        double b = x + 1 - a;
+        double c = 1 / tiny;
+        double d = 1 / b;
+        double fraction = d;
+        for (int n = 1; n < 10_000; n++) {
+            double an = -n * (n - a);
+            b += 2;
+            d = an * d + b;
+            d = Math.abs(d) < tiny ? tiny : d;
+            c = b + an / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            d = 1 / d;
+            double delta = d * c;
+            fraction *= delta;
+            if (Math.abs(delta - 1) < 1e-16) {
+                break;
+            }
+        }
+        return Math.min(1, Math.exp(logPrefix) * fraction);
+    }
+
+    /**
+     * Computes the natural logarithm of the gamma function with the Lanczos approximation (g = 7, n = 9).
+     *
+     * @param x the argument, positive
+     * @return ln(Gamma(x))
+     */
+    static double logGamma(double x) {
+        if (x < 0.5) { // Reflection formula
+            return Math.log(Math.PI / Math.sin(Math.PI * x)) - logGamma(1 - x);
+        }
+        double[] coefficients = { 0.99999999999980993, 676.5203681218851, -1259.1392167224028,
+                771.32342877765313, -176.61502916214059, 12.507343278686905, -0.13857109526572012,
+                9.9843695780195716e-6, 1.5056327351493116e-7 };
+        x -= 1;
+        double sum = coefficients[0];
+        double t = x + 7.5;
+        for (int i = 1; i < coefficients.length; i++) {
+            sum += coefficients[i] / (x + i);
+        }
+        return 0.5 * Math.log(2 * Math.PI) + (x + 0.5) * Math.log(t) - t + Math.log(sum);
+    }
+
+    /**
+     * Computes the exact probability of each sum of a pool of fair dice by convolution.
+     *
+     * @param sides the number of sides of each die
+     * @return the probability of each sum, indexed from the minimum sum
+     */
+    static double[] sumProbabilities(int[] sides) {
+        double[] probabilities = { 1 };
+        for (int s : sides) {
+            double[] next = new double[probabilities.length + s - 1];
+            for (int i = 0; i < probabilities.length; i++) {
+                for (int face = 0; face < s; face++) {
+                    next[i + face] += probabilities[i] / s;
+                }
+            }
+            probabilities = next;
+        }
+        return probabilities;
+    }
+}
@@ -3,19 +3,18 @@ package lib;
 import java.util.Scanner;
 
 /**
- * Class representing the main logic of the LuckyDie game, where the player guesses
- * the outcome of rolling two dice and earns points based on the accuracy of their guess.
+ * Class representing the console version of the LuckyDie game, where the player guesses
+ * the outcome of rolling two dice, or another pool of dice, and earns points based on the accuracy of their guess.
+ * The game rules are played by a {@link GameSession}; this class reads the guesses and displays the results.
  */
 public class Game {
 
-    private PairOfDice dicePair;
-    private int targetScore;
-    private int currentScore;
-    private String colorDie1;
-    private String colorDie2;
-    private int roundsPlayed;
+    private GameSession session;
+    private ConsoleRenderer renderer;
     private long startTime;
+    private double totalTime;
     private Scanner scanner;
+    private GuessStrategy bot;
 
     /**
      * Constructor for Game with specified target score, number of sides on each die,
@@ -27,13 +26,114 @@ public class Game {
      * @param colorDie2 the color for the second die's result display
      */
     public Game(int sides, int targetScore, String colorDie1, String colorDie2) {
-        this.dicePair = new PairOfDice(sides);
-        this.targetScore = targetScore;
-        this.currentScore = 0;
-        this.colorDie1 = colorDie1;
-        this.colorDie2 = colorDie2;
-        this.roundsPlayed = 0;
-        this.scanner = new Scanner(System.in);
+        this(sides, targetScore, colorDie1, colorDie2, RandomSource.seeded());
+    }
+
+    /**
+     * Constructor for Game with a specified random source, so a game played from a known seed
+     * rolls exactly the same dice again.
+     * 
+     * @param sides the number of sides on each die (e.g., 6 for standard dice)
+     * @param targetScore the score at which the game ends
+     * @param colorDie1 the color for the first die's result display
+     * @param colorDie2 the color for the second die's result display
+     * @param random the random source both dice roll from
+     */
+    public Game(int sides, int targetScore, String colorDie1, String colorDie2, RandomSource random) {
+        this(sides, targetScore, new ConsoleRenderer(System.out, colorDie1, colorDie2,
+                ConsoleRenderer.DEFAULT_DELAY_MILLIS), random);
+    }
+
+    /**
+     * Constructor for Game with a specified renderer for its output, such as one created
+     * from the player's settings or a fast mode renderer for scripted runs.
+     * 
+     * @param sides the number of sides on each die (e.g., 6 for standard dice)
+     * @param targetScore the score at which the game ends
+     * @param renderer the renderer writing the game's output
+     * @param random the random source both dice roll from
+     */
+    public Game(int sides, int targetScore, ConsoleRenderer renderer, RandomSource random) {
+        this(sides, targetScore, renderer, random, ScoringRules.DEFAULT);
+    }
+
+    /**
+     * Constructor for Game scoring guesses under the specified rules.
+     * 
+     * @param sides the number of sides on each die (e.g., 6 for standard dice)
+     * @param targetScore the score at which the game ends
+     * @param renderer the renderer writing the game's output
+     * @param random the random source both dice roll from
+     * @param rules the scoring rules of the game
+     */
+    public Game(int sides, int targetScore, ConsoleRenderer renderer, RandomSource random, ScoringRules rules) {
+        this(DicePool.of(2, sides, random), targetScore, renderer, rules);
+    }
+
+    /**
+     * Constructor for Game rolling any pool of dice, such as 3d6 or d6+d8+d12.
+     * The player's guess range follows the smallest and largest sums of the pool.
+     * 
+     * @param dice the dice rolled every round, with the random source they roll from
+     * @param targetScore the score at which the game ends
+     * @param renderer the renderer writing the game's output
+     * @param rules the scoring rules of the game
+     */
+    public Game(DicePool dice, int targetScore, ConsoleRenderer renderer, ScoringRules rules) {
+        this.session = new GameSession(dice, targetScore, rules);
+        this.renderer = renderer;
+        this.scanner = ConsoleInput.shared();
+    }
+
+    /**
+     * Constructor for Game playing an existing session on the console, such as a tournament game.
+     * 
+     * @param session the session to play, with its dice, target score and scoring rules
+     * @param renderer the renderer writing the game's output
+     * @param scanner the scanner the player's guesses are read from, shared with the caller
+     */
+    public Game(GameSession session, ConsoleRenderer renderer, Scanner scanner) {
+        this.session = session;
+        this.renderer = renderer;
+        this.scanner = scanner;
+    }
+
+    /**
+     * Lets a bot play the game: guesses come from the strategy instead of the console, and are shown
+     * with each round. Must be called before the game starts.
+     * 
+     * @param strategy the strategy supplying the guesses, or null to read them from the console
+     */
+    public void setGuessStrategy(GuessStrategy strategy) {
+        this.bot = strategy;
+    }
+
+    /**
+     * Journals every round of this game, so it can be audited and replayed later.
+     * Must be called before the game starts.
+     * 
+     * @param journal the journal the game is appended to when it finishes
+     * @param playerName the name of the player
+     * @throws IllegalArgumentException if the game's dice are not rolled from a seed
+     */
+    public void journalTo(RoundJournal journal, String playerName) {
+        session.setJournal(journal.begin(playerName, session));
+    }
+
+    /**
+     * Checkpoints this game after every round, so it can be resumed if the program dies before it
+     * finishes. Must be called before the game starts.
+     * 
+     * @param checkpoints the checkpoint file
+     * @param playerName the name of the player
+     * @param colorDie1 the color of the first die's result display
+     * @param colorDie2 the color of the second die's result display
+     * @return true if the game is checkpointed, false if every slot of the file is taken
+     * @throws IllegalArgumentException if the game's dice are not rolled from a seed
+     */
+    public boolean checkpointTo(CheckpointFile checkpoints, String playerName, String colorDie1, String colorDie2) {
+        session.setCheckpoint(checkpoints.begin(playerName, session, colorDie1, colorDie2));
+        return session.getCheckpoint() != null;
     }
 
     /**
@@ -41,105 +141,110 @@ public class Game {
      */
     public void start() {
         this.startTime = System.currentTimeMillis(); // Start timing the game
-        while (currentScore < targetScore) {
-            playRound();
+        if (session.getRoundsPlayed() > 0) {
+            startTime -= session.getElapsedNanos() / 1_000_000; // A resumed game goes on from the time played
+        }
+        Metrics.global().sessionStarted();
+        try {
+            while (!session.isFinished()) {
+                playRound();
+            }
+        } finally {
+            Metrics.global().sessionEnded();
         }
 
         long endTime = System.currentTimeMillis();
-        double totalTime = (endTime - startTime) / 1000.0;
+        totalTime = (endTime - startTime) / 1000.0;
         
-        System.out.println("Congratulations! You've reached " + currentScore + " points and won the game!");
-        System.out.println("Total time: " + totalTime + " seconds");
-        System.out.println("Rounds played: " + roundsPlayed);
+        renderer.println("Congratulations! You've reached " + session.getCurrentScore() + " points and won the game!");
+        renderer.println("Total time: " + totalTime + " seconds");
+        renderer.println("Rounds played: " + session.getRoundsPlayed());
+        if (session.getRandom().isSeeded()) {
+            renderer.println("Game seed: " + session.getRandom().getSeed());
+        }
+        renderer.awaitIdle(); // Let the last round finish displaying before returning
     }
 
     /**
-     * Plays a single round of the game, prompting the player to guess the roll of two dice,
+     * Plays a single round of the game, prompting the player, or asking the bot, to guess the roll of the dice,
      * calculating the score based on the guess accuracy, and updating the current score.
+     * A player's guess the dice cannot roll is refused, and no round is played.
      */
     private void playRound() {
-        System.out.print("Enter your guess for the combined roll (2 to " + (2 * dicePair.getSides()) + "): ");
-        int playerGuess = scanner.nextInt();
-
-        int[] rollResults = dicePair.rollEach();
-        int actualRoll = rollResults[0] + rollResults[1];
-        int pointsEarned = calculatePoints(playerGuess, actualRoll);
-        currentScore += pointsEarned;
-        roundsPlayed++;
+        renderer.print("Enter your guess for the combined roll (" + session.getMinSum() + " to "
+                + session.getMaxSum() + "): ");
+        int playerGuess;
+        if (bot != null) {
+            playerGuess = bot.nextGuess(session.getRoundsPlayed() + 1, session.getCurrentScore(), session.getTargetScore());
+            renderer.println(Integer.toString(playerGuess));
+        } else {
+            playerGuess = scanner.nextInt();
+            if (playerGuess < session.getMinSum() || playerGuess > session.getMaxSum()) {
+                renderer.println("Your guess must be from " + session.getMinSum() + " to " + session.getMaxSum() + ".");
+                return; // No round is played; the player is asked again
+            }
+        }
 
-        // Display each die result with color and delay
-        displayDieResult(rollResults[0], colorDie1);
-        displayDieResult(rollResults[1], colorDie2);
+        RoundResult round = session.submitGuess(playerGuess);
 
-        System.out.println("The dice rolled a total of: " + actualRoll);
-        System.out.println("You earned " + pointsEarned + " points this round. Total score: " + currentScore);
+        // Display each die result with color and delay, without waiting for the animation
+        renderer.renderRound(round);
     }
 
     /**
-     * Calculates the points earned based on the player's guess and the actual roll.
-     * Points decrease with the difference between the guess and the actual roll.
+     * Calculates the points earned based on the player's guess and the actual roll under the
+     * default {@link ScoringRules}. Points decrease with the difference between the guess and the actual roll.
      * 
      * @param guess the player's guessed roll total
      * @param actual the actual roll total of the dice
      * @return the number of points earned based on the accuracy of the guess
      */
-    private int calculatePoints(int guess, int actual) {
-        int difference = Math.abs(guess - actual);
+    public static int calculatePoints(int guess, int actual) {
+        return ScoringRules.DEFAULT.points(guess, actual);
+    }
 
-        if (difference == 0) return 50;
-        else if (difference <= 2) return 20;
-        else if (difference <= 4) return 10;
-        else if (difference <= 6) return 5;
-        else return 0;
+    /**
+     * Returns the current score of the player.
+     * 
+     * @return the current score
+     */
+    public int getCurrentScore() {
+        return session.getCurrentScore();
     }
 
     /**
-     * Displays the result of a die roll with the specified color.
+     * Returns the total time the last game took to reach the target score.
      * 
-     * @param result the result of the die roll
-     * @param color the color in which to display the result
+     * @return the total game time in seconds
      */
-    private void displayDieResult(int result, String color) {
-        try {
-            System.out.println(getAnsiColorCode(color) + "Die result: " + result + "\033[0m"); // Reset color after display
-            Thread.sleep(300); // Delay for visual effect
-        } catch (InterruptedException e) {
-            System.err.println("Error with display delay: " + e.getMessage());
-        }
+    public double getTotalTime() {
+        return totalTime;
     }
 
     /**
-     * Converts color names to ANSI escape codes for console color display.
+     * Returns the random source the dice of this game roll from.
      * 
-     * @param color the color name as a string
-     * @return the ANSI escape code for the specified color
+     * @return the random source of the game
      */
-    private String getAnsiColorCode(String color) {
-        return switch (color.toLowerCase()) {
-            case "red" -> "\033[31m";
-            case "blue" -> "\033[34m";
-            case "green" -> "\033[32m";
-            case "yellow" -> "\033[33m";
-            case "purple" -> "\033[35m";
-            case "cyan" -> "\033[36m";
-            case "pink" -> "\033[95m";
-            default -> "\033[37m"; // Default to white if color is unknown
-        };
+    public RandomSource getRandom() {
+        return session.getRandom();
     }
 
     /**
-     * Returns the current score of the player.
+     * Returns the seed the game's dice were rolled from, which can be stored to reproduce the game.
      * 
-     * @return the current score
+     * @return the seed of the game
+     * @throws UnsupportedOperationException if the game does not use a seeded random source
      */
-    public int getCurrentScore() {
-        return currentScore;
+    public long getSeed() {
+        return session.getRandom().getSeed();
     }
 
     /**
-     * Ends the game by closing the scanner resource.
+     * Ends the game. The scanner is the program's shared {@link ConsoleInput} and stays open;
+     * it is closed with {@link ConsoleInput#close()} when the program ends.
      */
     public void endGame() {
-        scanner.close();
+        renderer.awaitIdle();
     }
 }
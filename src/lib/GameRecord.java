@@ -2,19 +2,25 @@ package lib;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 /**
  * Class responsible for recording game results to a file.
  * Each record includes the player's name, score, date, time, and total game duration.
+ * Records can optionally be copied to a compact binary {@link RecordLog} as well.
  */
 public class GameRecord {
 
     private Path filePath;
+    private RecordLog binaryLog;
+    private RecordWriter writer;
+    private final List<RecordListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructor for GameRecord, initializing the file path for storing game records.
@@ -41,52 +47,176 @@ public class GameRecord {
 
     /**
      * Adds a new game record with the player's name, score, date, time, and total game duration.
+     * With an asynchronous writer set, the record is written before it is confirmed as saved.
      * 
      * @param playerName the name of the player
      * @param score      the score achieved by the player
      * @param totalTime  the total time taken to reach the score in seconds
      */
     public void addRecord(String playerName, int score, double totalTime) {
-        String record = formatRecord(playerName, score, totalTime);
+        RecordEntry entry = new RecordEntry(playerName, score, System.currentTimeMillis(),
+                Math.round(totalTime * 1_000_000));
+        if (!addRecord(entry)) {
+            return;
+        }
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            System.err.println("Error saving record: " + e.getCause().getMessage());
+            return;
+        }
+        System.out.println("Record saved for player: " + playerName);
+    }
 
-        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(filePath, StandardOpenOption.APPEND))) {
-            writer.println(record);
-            System.out.println("Record saved for player: " + playerName);
-        } catch (IOException e) {
-            System.err.println("Error saving record: " + e.getMessage());
+    /**
+     * Adds a game record without printing a confirmation, for callers such as the game server
+     * that save many records. With an asynchronous writer set, the record is only queued.
+     * 
+     * @param entry the record to add
+     * @return true if the record was saved or queued, false if writing it failed
+     */
+    public boolean addRecord(RecordEntry entry) {
+        long start = System.nanoTime();
+        String record = formatRecord(entry);
+        boolean saved = true;
+
+        if (writer != null) {
+            writer.submit(record);
+        } else {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(filePath, StandardOpenOption.APPEND))) {
+                out.println(record);
+            } catch (IOException e) {
+                System.err.println("Error saving record: " + e.getMessage());
+                saved = false;
+            }
+        }
+
+        if (binaryLog != null) {
+            try {
+                binaryLog.append(entry);
+            } catch (IOException e) {
+                System.err.println("Error saving binary record: " + e.getMessage());
+                Metrics.global().recordError();
+            }
+        }
+        Metrics.global().recordAppended(System.nanoTime() - start, saved);
+
+        for (RecordListener listener : listeners) {
+            listener.recordAdded(entry);
+        }
+        return saved;
+    }
+
+    /**
+     * Adds a listener that is notified of every new record.
+     * 
+     * @param listener the listener to add
+     */
+    public void addListener(RecordListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts a streaming query over the saved records, after writing any records still queued.
+     * 
+     * @return a query matching every record, to be narrowed with its filter methods
+     * @throws UncheckedIOException if queued records could not be written
+     */
+    public RecordQuery query() {
+        flush();
+        return new RecordQuery(filePath);
+    }
+
+    /**
+     * Writes any records still queued in the asynchronous writer, so reads of the file see them.
+     * 
+     * @throws UncheckedIOException if queued records could not be written
+     */
+    void flush() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Returns the path of the record file.
+     * 
+     * @return the record file's path
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Sets a binary record log that every new record is also appended to.
+     * 
+     * @param binaryLog the binary log, or null to stop copying records
+     */
+    public void setBinaryLog(RecordLog binaryLog) {
+        this.binaryLog = binaryLog;
+    }
+
+    /**
+     * Sets an asynchronous writer that appends new records in batches on its own thread,
+     * instead of opening the record file for every record.
+     * The writer must append to this object's record file.
+     * 
+     * @param writer the record writer, or null to write each record directly
+     */
+    public void setWriter(RecordWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes any records still queued in the asynchronous writer and closes it.
+     */
+    public void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing record writer: " + e.getMessage());
+            }
+            writer = null;
         }
     }
 
     /**
      * Formats the record to include the player's name, score, date, time, and game duration.
      * 
-     * @param playerName the name of the player
-     * @param score      the score achieved by the player
-     * @param totalTime  the total time taken to reach the score in seconds
+     * @param entry the record to format
      * @return a formatted string containing the game record
      */
-    private String formatRecord(String playerName, int score, double totalTime) {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-        LocalDateTime now = LocalDateTime.now();
-
-        return String.format("Player: %s | Score: %d | Date: %s | Time: %s | ScoreTime: Total time: %.3f seconds",
-                playerName, score, now.format(dateFormatter), now.format(timeFormatter), totalTime);
+    private String formatRecord(RecordEntry entry) {
+        return entry.format();
     }
 
     /**
-     * Reads all records from the record file.
+     * Reads all records from the record file. Errors writing the queued records or reading the file are
+     * printed, and the records that could be read are still returned.
      * 
-     * @return a list of strings where each string is a line from the record file
-     * @throws IOException if an I/O error occurs while reading from the file
+     * @return a heading followed by every line of the record file, one per line
      */
     public String readAllRecords() {
         StringBuilder records = new StringBuilder("Game Records:\n");
-
         try {
-            Files.lines(filePath).forEach(line -> records.append(line).append("\n"));
+            flush(); // Make records still queued visible to the read
+        } catch (UncheckedIOException e) {
+            System.err.println("Error saving queued records: " + e.getCause().getMessage());
+            Metrics.global().recordError();
+        }
+
+        long start = System.nanoTime();
+        try (Stream<String> lines = Files.lines(filePath)) {
+            long[] count = { 0 };
+            lines.forEach(line -> {
+                records.append(line).append("\n");
+                count[0]++;
+            });
+            Metrics.global().recordsRead(System.nanoTime() - start, count[0]);
         } catch (IOException e) {
             System.err.println("Error reading records: " + e.getMessage());
+            Metrics.global().recordError();
         }
 
         return records.toString();
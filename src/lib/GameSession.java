@@ -0,0 +1,349 @@
+package lib;
+
+/**
+ * I/O-independent state machine for a single LuckyDie game.
+ * A session waits for a guess, rolls the dice, scores the guess and either waits for the next guess
+ * or finishes once the target score is reached. It never reads input or prints output, so the same
+ * game logic drives the console game, network sessions and bots.
+ * Sessions are not thread-safe; each belongs to one player.
+ */
+public class GameSession {
+
+    /**
+     * The phases a session moves through.
+     */
+    public enum Phase {
+        /** Waiting for the player's guess for the next round. */
+        AWAITING_GUESS,
+        /** The target score has been reached. */
+        FINISHED
+    }
+
+    private static final int SERIAL_BATCH = 64; // Pairs of successive sums handed to the fairness monitor at once
+
+    private final DicePool dice;
+    private final ScoringRules rules;
+    private final int targetScore;
+    private final int[] rollResults;
+    private final RoundResult lastRound = new RoundResult();
+    private final long startNanos;
+    private long endNanos;
+    private long lastRoundNanos;
+    private int currentScore;
+    private int roundsPlayed;
+    private Phase phase = Phase.AWAITING_GUESS;
+    private RoundJournal.GameWriter journal;
+    private CheckpointFile.Slot checkpoint;
+    private final boolean recorded; // False for a replay, which records nothing and accepts any guess
+    private final FairnessMonitor.Tracker fairness; // Null for a replay
+    private int previousSum;
+    private long serialPairs;
+    private long serialProducts;
+
+    /**
+     * Constructor for GameSession. The session's clock starts when it is created.
+     * 
+     * @param sides       the number of sides on each die
+     * @param targetScore the score at which the game ends
+     * @param random      the random source both dice roll from
+     */
+    public GameSession(int sides, int targetScore, RandomSource random) {
+        this(sides, targetScore, random, ScoringRules.DEFAULT);
+    }
+
+    /**
+     * Constructor for GameSession scoring guesses under the specified rules.
+     * 
+     * @param sides       the number of sides on each die
+     * @param targetScore the score at which the game ends
+     * @param random      the random source both dice roll from
+     * @param rules       the scoring rules of the game
+     */
+    public GameSession(int sides, int targetScore, RandomSource random, ScoringRules rules) {
+        this(DicePool.of(2, sides, random), targetScore, rules);
+    }
+
+    /**
+     * Constructor for GameSession rolling any pool of dice, scoring guesses under the specified rules.
+     * 
+     * @param dice        the dice rolled every round, with the random source they roll from
+     * @param targetScore the score at which the game ends
+     * @param rules       the scoring rules of the game
+     */
+    public GameSession(DicePool dice, int targetScore, ScoringRules rules) {
+        this(dice, targetScore, rules, 0, 0, 0);
+    }
+
+    /**
+     * Constructor for GameSession continuing a game from a snapshot, such as a game resumed from a
+     * {@link CheckpointFile}. The dice must roll from the random source's position at the snapshot,
+     * and the session's clock goes on from the time already played.
+     * 
+     * @param dice         the dice rolled every round, with the random source they roll from
+     * @param targetScore  the score at which the game ends
+     * @param rules        the scoring rules of the game
+     * @param currentScore the score reached so far
+     * @param roundsPlayed the number of rounds played so far
+     * @param elapsedNanos the time played so far in nanoseconds
+     * @throws IllegalArgumentException if the score or rounds are negative, or the game was already finished
+     */
+    public GameSession(DicePool dice, int targetScore, ScoringRules rules, int currentScore, int roundsPlayed,
+            long elapsedNanos) {
+        this(dice, targetScore, rules, currentScore, roundsPlayed, elapsedNanos, true);
+    }
+
+    /**
+     * Creates a session replaying a game that was already played, such as a journaled game
+     * being verified. Its rounds and rolls are not counted again by {@link Metrics#global()} and
+     * {@link FairnessMonitor#global()}, and it accepts any guess, since games journaled before guesses
+     * were checked may hold guesses the dice cannot roll.
+     * 
+     * @param dice        the dice rolled every round, with the random source they roll from
+     * @param targetScore the score at which the game ends
+     * @param rules       the scoring rules of the game
+     * @return the replaying session
+     */
+    static GameSession replay(DicePool dice, int targetScore, ScoringRules rules) {
+        return new GameSession(dice, targetScore, rules, 0, 0, 0, false);
+    }
+
+    /**
+     * Constructor for GameSession continuing a game from a snapshot, recording its rounds or not.
+     * 
+     * @param dice         the dice rolled every round, with the random source they roll from
+     * @param targetScore  the score at which the game ends
+     * @param rules        the scoring rules of the game
+     * @param currentScore the score reached so far
+     * @param roundsPlayed the number of rounds played so far
+     * @param elapsedNanos the time played so far in nanoseconds
+     * @param recorded     whether rounds are counted by the global metrics and fairness monitor, and
+     *                     guesses are checked
+     * @throws IllegalArgumentException if the score or rounds are negative, or the game was already finished
+     */
+    private GameSession(DicePool dice, int targetScore, ScoringRules rules, int currentScore, int roundsPlayed,
+            long elapsedNanos, boolean recorded) {
+        if (currentScore < 0 || roundsPlayed < 0 || (currentScore >= targetScore && roundsPlayed > 0)) {
+            throw new IllegalArgumentException("Invalid game state: " + currentScore + "/" + targetScore + " after "
+                    + roundsPlayed + " rounds");
+        }
+        this.dice = dice;
+        this.rules = rules;
+        this.rollResults = new int[dice.getDiceCount()];
+        this.recorded = recorded;
+        this.fairness = recorded ? FairnessMonitor.global().track(dice) : null;
+        this.targetScore = targetScore;
+        this.currentScore = currentScore;
+        this.roundsPlayed = roundsPlayed;
+        this.lastRoundNanos = System.nanoTime();
+        this.startNanos = lastRoundNanos - elapsedNanos;
+    }
+
+    /**
+     * Plays one round with the specified guess: rolls the dice, scores the guess and finishes
+     * the game if the target score is reached.
+     * 
+     * @param guess the guessed combined roll
+     * @return the outcome of the round, reused by the next call
+     * @throws IllegalStateException if the game is already finished
+     * @throws IllegalArgumentException if the guess is not a sum the dice can roll; no round is played
+     */
+    public RoundResult submitGuess(int guess) {
+        if (phase == Phase.FINISHED) {
+            throw new IllegalStateException("Game is already finished");
+        }
+        if (recorded && (guess < dice.getMinSum() || guess > dice.getMaxSum())) {
+            throw new IllegalArgumentException("Guess must be from " + dice.getMinSum() + " to " + dice.getMaxSum()
+                    + ": " + guess);
+        }
+
+        int sum = dice.rollEach(rollResults);
+        int points = rules.points(guess, sum);
+        currentScore += points;
+        roundsPlayed++;
+        long now = System.nanoTime();
+        if (currentScore >= targetScore) {
+            phase = Phase.FINISHED;
+            endNanos = now;
+        }
+        if (recorded) {
+            record(now, guess, sum, points);
+        }
+        lastRoundNanos = now;
+
+        lastRound.set(roundsPlayed, guess, rollResults, sum, points, currentScore,
+                phase == Phase.FINISHED);
+        if (journal != null) {
+            journal.recordRound(lastRound);
+        }
+        if (checkpoint != null) {
+            if (phase == Phase.FINISHED) {
+                checkpoint.release(); // A finished game is not resumed
+            } else {
+                checkpoint.update(this);
+            }
+        }
+        return lastRound;
+    }
+
+    /**
+     * Records the round just played in the global metrics and fairness monitor.
+     * 
+     * @param now    the time the round ended
+     * @param guess  the guessed combined roll
+     * @param sum    the combined roll
+     * @param points the points scored
+     */
+    private void record(long now, int guess, int sum, int points) {
+        fairness.record(rollResults, sum);
+        if (previousSum != 0) {
+            serialPairs++;
+            serialProducts += (long) previousSum * sum;
+        }
+        previousSum = sum;
+        Metrics.global().roundPlayed(now - lastRoundNanos, rollResults.length, guess, sum, points);
+        if (phase == Phase.FINISHED) {
+            Metrics.global().gameFinished(endNanos - startNanos, roundsPlayed, currentScore);
+        }
+        if (phase == Phase.FINISHED || serialPairs == SERIAL_BATCH) {
+            fairness.recordSerial(serialPairs, serialProducts);
+            serialPairs = 0;
+            serialProducts = 0;
+        }
+    }
+
+    /**
+     * Journals every following round of the session, see {@link RoundJournal#begin(String, GameSession)}.
+     * 
+     * @param journal the writer receiving the rounds
+     */
+    public void setJournal(RoundJournal.GameWriter journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Returns the writer journaling the session's rounds.
+     * 
+     * @return the journal writer, or null if the session is not journaled
+     */
+    public RoundJournal.GameWriter getJournal() {
+        return journal;
+    }
+
+    /**
+     * Checkpoints the session after every following round, and frees the checkpoint when it finishes,
+     * see {@link CheckpointFile#begin(String, GameSession, String, String)}.
+     * 
+     * @param checkpoint the slot receiving the session's snapshots
+     */
+    public void setCheckpoint(CheckpointFile.Slot checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Returns the slot checkpointing the session.
+     * 
+     * @return the checkpoint slot, or null if the session is not checkpointed
+     */
+    public CheckpointFile.Slot getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Returns the current phase of the session.
+     * 
+     * @return the phase
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns whether the target score has been reached.
+     * 
+     * @return true if the game is finished
+     */
+    public boolean isFinished() {
+        return phase == Phase.FINISHED;
+    }
+
+    /**
+     * Returns the current score.
+     * 
+     * @return the score
+     */
+    public int getCurrentScore() {
+        return currentScore;
+    }
+
+    /**
+     * Returns the number of rounds played so far.
+     * 
+     * @return the rounds played
+     */
+    public int getRoundsPlayed() {
+        return roundsPlayed;
+    }
+
+    /**
+     * Returns the score at which the game ends.
+     * 
+     * @return the target score
+     */
+    public int getTargetScore() {
+        return targetScore;
+    }
+
+    /**
+     * Returns the smallest combined roll, the lowest sensible guess.
+     * 
+     * @return the minimum sum
+     */
+    public int getMinSum() {
+        return dice.getMinSum();
+    }
+
+    /**
+     * Returns the largest combined roll, the highest sensible guess.
+     * 
+     * @return the maximum sum
+     */
+    public int getMaxSum() {
+        return dice.getMaxSum();
+    }
+
+    /**
+     * Returns the scoring rules of the game.
+     * 
+     * @return the scoring rules
+     */
+    public ScoringRules getScoringRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the dice rolled every round.
+     * 
+     * @return the dice pool
+     */
+    public DicePool getDice() {
+        return dice;
+    }
+
+    /**
+     * Returns the random source the dice roll from.
+     * 
+     * @return the random source
+     */
+    public RandomSource getRandom() {
+        return dice.getRandom();
+    }
+
+    /**
+     * Returns the time from the creation of the session until it finished, or until now if it has not.
+     * 
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return (phase == Phase.FINISHED ? endNanos : System.nanoTime()) - startNanos;
+    }
+}
@@ -0,0 +1,192 @@
+package lib;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Built-in {@link GuessStrategy} implementations for bots, the simulator and the {@link StrategyEvaluator}.
+ * Every strategy returned here is immutable or uses per-thread randomness, so it can be shared between threads.
+ * The random strategy draws from a seeded source instead once given one with {@link GuessStrategy#withRandom}.
+ * The score-aware strategies depend only on the points still needed, so one instance serves any target score.
+ */
+public final class GuessStrategies {
+
+    private GuessStrategies() {
+    }
+
+    /**
+     * Returns a strategy that guesses the same sum every round.
+     *
+     * @param guess the guess of every round
+     * @return the fixed strategy
+     */
+    public static GuessStrategy fixed(int guess) {
+        return (round, currentScore, targetScore) -> guess;
+    }
+
+    /**
+     * Returns a strategy that guesses uniformly at random between the bounds, from the per-thread
+     * random source until given another with {@link GuessStrategy#withRandom}.
+     *
+     * @param minGuess the lowest guess
+     * @param maxGuess the highest guess
+     * @return the random strategy
+     */
+    public static GuessStrategy random(int minGuess, int maxGuess) {
+        return random(minGuess, maxGuess, RandomSource.threadLocal());
+    }
+
+    /**
+     * Returns a strategy that guesses uniformly at random between the bounds, drawing from the
+     * specified source. A seeded source is not thread-safe, so neither is the strategy.
+     *
+     * @param minGuess the lowest guess
+     * @param maxGuess the highest guess
+     * @param random   the source of the guesses
+     * @return the random strategy
+     */
+    public static GuessStrategy random(int minGuess, int maxGuess, RandomSource random) {
+        if (minGuess > maxGuess) {
+            throw new IllegalArgumentException("Invalid guess range: " + minGuess + " to " + maxGuess);
+        }
+        return new RandomGuess(minGuess, maxGuess, random);
+    }
+
+    /**
+     * Returns a strategy that plays the guess with the most expected points until the points still
+     * needed are within one round's reach. From there it plays the guess most likely to finish
+     * the game this round, preferring more expected points when guesses tie.
+     *
+     * @param distribution the distribution of the combined roll, with the scoring rules
+     * @return the finishing strategy
+     */
+    public static GuessStrategy finisher(SumDistribution distribution) {
+        int maxPoints = distribution.getScoringRules().getMaxPoints();
+        int[] guessForRemaining = new int[maxPoints + 1];
+        for (int remaining = 1; remaining <= maxPoints; remaining++) {
+            double bestChance = -1;
+            for (int guess = distribution.getMinSum(); guess <= distribution.getMaxSum(); guess++) {
+                double chance = 0;
+                for (int sum = distribution.getMinSum(); sum <= distribution.getMaxSum(); sum++) {
+                    if (distribution.getScoringRules().points(guess, sum) >= remaining) {
+                        chance += distribution.probability(sum);
+                    }
+                }
+                boolean tie = Math.abs(chance - bestChance) <= 1e-12;
+                if ((!tie && chance > bestChance) || (tie
+                        && distribution.expectedPoints(guess) > distribution.expectedPoints(guessForRemaining[remaining]))) {
+                    bestChance = Math.max(chance, bestChance);
+                    guessForRemaining[remaining] = guess;
+                }
+            }
+        }
+        return byRemaining(guessForRemaining, distribution.getOptimalGuess());
+    }
+
+    /**
+     * Returns the strategy with the fewest expected rounds to win, found by dynamic programming over
+     * the points still needed. With r points needed, a guess g costs
+     * E[r] = (1 + sum over p > 0 of P(p | g) * E[r - p]) / (1 - P(0 | g)),
+     * solved upwards from E[r] = 0 for r <= 0. Beyond the solved range the guess with the most
+     * expected points is played, which the optimal guess converges to far from the target.
+     *
+     * @param distribution the distribution of the combined roll, with the scoring rules
+     * @param maxRemaining the largest number of points still needed that is solved exactly
+     * @return the minimum-rounds strategy
+     */
+    public static GuessStrategy minRounds(SumDistribution distribution, int maxRemaining) {
+        ScoringRules rules = distribution.getScoringRules();
+        int minSum = distribution.getMinSum();
+        int guesses = distribution.getMaxSum() - minSum + 1;
+
+        // Points distribution of each guess
+        double[][] pointsProbability = new double[guesses][rules.getMaxPoints() + 1];
+        for (int g = 0; g < guesses; g++) {
+            for (int s = 0; s < guesses; s++) {
+                pointsProbability[g][rules.points(minSum + g, minSum + s)] += distribution.probability(minSum + s);
+            }
+        }
+
+        double[] expectedRounds = new double[maxRemaining + 1];
+        int[] guessForRemaining = new int[maxRemaining + 1];
+        for (int remaining = 1; remaining <= maxRemaining; remaining++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int g = 0; g < guesses; g++) {
+                double[] probabilities = pointsProbability[g];
+                if (probabilities[0] >= 1) {
+                    continue;
+                }
+                double next = 1;
+                for (int points = 1; points < probabilities.length; points++) {
+                    if (probabilities[points] > 0 && points < remaining) {
+                        next += probabilities[points] * expectedRounds[remaining - points];
+                    }
+                }
+                double rounds = next / (1 - probabilities[0]);
+                if (rounds < best - 1e-12) {
+                    best = rounds;
+                    guessForRemaining[remaining] = minSum + g;
+                }
+            }
+            expectedRounds[remaining] = best;
+        }
+        return byRemaining(guessForRemaining, distribution.getOptimalGuess());
+    }
+
+    /**
+     * Returns the built-in strategies for the specified dice, in the order they are usually compared:
+     * the fixed optimal guess, random guessing, the finisher and the minimum-rounds strategy.
+     *
+     * @param distribution the distribution of the combined roll, with the scoring rules
+     * @param targetScore  the score the strategies are played to
+     * @return the strategies by name
+     */
+    public static Map<String, GuessStrategy> builtIns(SumDistribution distribution, int targetScore) {
+        Map<String, GuessStrategy> strategies = new LinkedHashMap<>();
+        strategies.put("fixed " + distribution.getOptimalGuess(), fixed(distribution.getOptimalGuess()));
+        strategies.put("random", random(distribution.getMinSum(), distribution.getMaxSum()));
+        strategies.put("finisher", finisher(distribution));
+        strategies.put("min-rounds", minRounds(distribution, targetScore));
+        return strategies;
+    }
+
+    /**
+     * Strategy guessing uniformly at random between two bounds, from a replaceable random source.
+     */
+    private static final class RandomGuess implements GuessStrategy {
+
+        private final int minGuess;
+        private final int maxGuess;
+        private final RandomSource random;
+
+        RandomGuess(int minGuess, int maxGuess, RandomSource random) {
+            this.minGuess = minGuess;
+            this.maxGuess = maxGuess;
+            this.random = random;
+        }
+
+        @Override
+        public int nextGuess(int round, int currentScore, int targetScore) {
+            return minGuess + random.nextInt(maxGuess - minGuess + 1);
+        }
+
+        @Override
+        public GuessStrategy withRandom(RandomSource random) {
+            return new RandomGuess(minGuess, maxGuess, random);
+        }
+    }
+
+    /**
+     * Returns a strategy looking its guess up by the points still needed.
+     *
+     * @param guessForRemaining the guess for each number of points still needed, from 1
+     * @param farGuess          the guess when more points are needed than the table covers
+     * @return the table strategy
+     */
+    private static GuessStrategy byRemaining(int[] guessForRemaining, int farGuess) {
+        return (round, currentScore, targetScore) -> {
+            int remaining = targetScore - currentScore;
+            return remaining > 0 && remaining < guessForRemaining.length ? guessForRemaining[remaining] : farGuess;
+        };
+    }
+}
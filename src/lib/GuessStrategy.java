@@ -0,0 +1,33 @@
+package lib;
+
+/**
+ * Strategy that supplies the player's guess for each round of a game.
+ * This allows games to be played without reading guesses from the console, for example
+ * by the headless {@link Simulator}.
+ * Implementations used by the simulator are shared between worker threads and must be thread-safe.
+ */
+@FunctionalInterface
+public interface GuessStrategy {
+
+    /**
+     * Returns the guess for the next round.
+     * 
+     * @param round        the number of the round about to be played, starting at 1
+     * @param currentScore the player's score before the round is played
+     * @param targetScore  the score at which the game ends
+     * @return the guessed combined roll for the round
+     */
+    int nextGuess(int round, int currentScore, int targetScore);
+
+    /**
+     * Returns this strategy with its random choices drawn from the specified source, so a seeded
+     * source makes its guesses reproducible. The returned strategy uses the source without locking
+     * and belongs to one thread. Strategies that make no random choices return themselves.
+     * 
+     * @param random the source of the strategy's random choices
+     * @return the strategy drawing from the source
+     */
+    default GuessStrategy withRandom(RandomSource random) {
+        return this;
+    }
+}
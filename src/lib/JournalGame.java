@@ -0,0 +1,279 @@
+package lib;
+
+/**
+ * One game read back from a {@link RoundJournal}: who played it, how it was set up, and every
+ * round's guess, dice, points and timing. A game can be replayed from its seed to verify that
+ * the journaled rolls, points and final score are exactly what the dice produce.
+ */
+public class JournalGame {
+
+    private final long index;
+    private final long startMillis;
+    private final String playerName;
+    private final String diceSpec;
+    private final int targetScore;
+    private final ScoringRules rules;
+    private final long seed;
+    private final int diceCount;
+    private final int[] guesses;
+    private final int[] dice;
+    private final int[] points;
+    private final int[] roundMillis;
+    private final int finalScore;
+    private final boolean finished;
+    private final boolean corrupt;
+
+    /**
+     * Constructor for JournalGame with every decoded field.
+     * 
+     * @param index       the position of the game in the journal
+     * @param startMillis the time the game started, in milliseconds since the epoch
+     * @param playerName  the name of the player
+     * @param diceSpec    the dice rolled, in dice notation
+     * @param targetScore the score at which the game ends
+     * @param rules       the scoring rules of the game
+     * @param seed        the seed the dice were rolled from
+     * @param diceCount   the number of dice rolled each round
+     * @param guesses     the guess of each round
+     * @param dice        the result of each die, round by round
+     * @param points      the points earned in each round
+     * @param roundMillis the milliseconds each round took
+     * @param finalScore  the score at the end of the game
+     * @param finished    whether the game reached its target score
+     */
+    JournalGame(long index, long startMillis, String playerName, String diceSpec, int targetScore,
+            ScoringRules rules, long seed, int diceCount, int[] guesses, int[] dice, int[] points, int[] roundMillis,
+            int finalScore, boolean finished) {
+        this.index = index;
+        this.startMillis = startMillis;
+        this.playerName = playerName;
+        this.diceSpec = diceSpec;
+        this.targetScore = targetScore;
+        this.rules = rules;
+        this.seed = seed;
+        this.diceCount = diceCount;
+        this.guesses = guesses;
+        this.dice = dice;
+        this.points = points;
+        this.roundMillis = roundMillis;
+        this.finalScore = finalScore;
+        this.finished = finished;
+        this.corrupt = false;
+    }
+
+    private JournalGame(long index) {
+        this.index = index;
+        this.startMillis = 0;
+        this.playerName = "";
+        this.diceSpec = "";
+        this.targetScore = 0;
+        this.rules = ScoringRules.DEFAULT;
+        this.seed = 0;
+        this.diceCount = 0;
+        this.guesses = new int[0];
+        this.dice = new int[0];
+        this.points = new int[0];
+        this.roundMillis = new int[0];
+        this.finalScore = 0;
+        this.finished = false;
+        this.corrupt = true;
+    }
+
+    /**
+     * Returns a placeholder for a journal block that failed its checksum.
+     * 
+     * @param index the position of the block in the journal
+     * @return the corrupt game
+     */
+    static JournalGame corrupt(long index) {
+        return new JournalGame(index);
+    }
+
+    /**
+     * Replays the game from its seed with the journaled guesses and checks every roll, every round's
+     * points and the final score against the journal. The replay is not counted in the global metrics
+     * or fairness monitor.
+     * 
+     * @return null if the replay matches the journal, otherwise a description of the first difference
+     */
+    public String verify() {
+        if (corrupt) {
+            return "Journal block is corrupt";
+        }
+        GameSession session = GameSession.replay(DicePool.parse(diceSpec, RandomSource.seeded(seed)), targetScore,
+                rules);
+        for (int r = 0; r < guesses.length; r++) {
+            if (session.isFinished()) {
+                return "Game reached its target before round " + (r + 1);
+            }
+            RoundResult round = session.submitGuess(guesses[r]);
+            for (int d = 0; d < diceCount; d++) {
+                if (round.getDie(d) != getDie(r, d)) {
+                    return "Round " + (r + 1) + ": die " + (d + 1) + " rolled " + round.getDie(d) + " on replay but "
+                            + getDie(r, d) + " in the journal";
+                }
+            }
+            if (round.getPoints() != points[r]) {
+                return "Round " + (r + 1) + ": replay scores " + round.getPoints() + " points but the journal "
+                        + points[r];
+            }
+        }
+        if (session.getCurrentScore() != finalScore) {
+            return "Replay ends with " + session.getCurrentScore() + " points but the journal with " + finalScore;
+        }
+        if (session.isFinished() != finished) {
+            return finished ? "Replay does not reach the target score" : "Replay reaches the target score";
+        }
+        return null;
+    }
+
+    /**
+     * Returns the position of the game in the journal, starting at 0.
+     * 
+     * @return the game index
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns whether the journal block of this game failed its checksum, in which case no other
+     * field holds journaled data.
+     * 
+     * @return true if the block is corrupt
+     */
+    public boolean isCorrupt() {
+        return corrupt;
+    }
+
+    /**
+     * Returns the time the game started.
+     * 
+     * @return the start time in milliseconds since the epoch
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Returns the name of the player.
+     * 
+     * @return the player name
+     */
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * Returns the dice rolled, in dice notation.
+     * 
+     * @return the dice specification, such as "2d6"
+     */
+    public String getDiceSpec() {
+        return diceSpec;
+    }
+
+    /**
+     * Returns the score at which the game ends.
+     * 
+     * @return the target score
+     */
+    public int getTargetScore() {
+        return targetScore;
+    }
+
+    /**
+     * Returns the scoring rules of the game.
+     * 
+     * @return the scoring rules
+     */
+    public ScoringRules getScoringRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the seed the dice were rolled from.
+     * 
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of rounds journaled.
+     * 
+     * @return the round count
+     */
+    public int getRounds() {
+        return guesses.length;
+    }
+
+    /**
+     * Returns the number of dice rolled each round.
+     * 
+     * @return the dice count
+     */
+    public int getDiceCount() {
+        return diceCount;
+    }
+
+    /**
+     * Returns the guess of a round.
+     * 
+     * @param round the index of the round, starting at 0
+     * @return the guess
+     */
+    public int getGuess(int round) {
+        return guesses[round];
+    }
+
+    /**
+     * Returns the result of a die in a round.
+     * 
+     * @param round the index of the round, starting at 0
+     * @param die   the index of the die, starting at 0
+     * @return the die's result
+     */
+    public int getDie(int round, int die) {
+        return dice[round * diceCount + die];
+    }
+
+    /**
+     * Returns the points earned in a round.
+     * 
+     * @param round the index of the round, starting at 0
+     * @return the points
+     */
+    public int getPoints(int round) {
+        return points[round];
+    }
+
+    /**
+     * Returns the time a round took, from the end of the previous round or the start of the game.
+     * 
+     * @param round the index of the round, starting at 0
+     * @return the round time in milliseconds
+     */
+    public int getRoundMillis(int round) {
+        return roundMillis[round];
+    }
+
+    /**
+     * Returns the score at the end of the game.
+     * 
+     * @return the final score
+     */
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    /**
+     * Returns whether the game reached its target score, false if it was abandoned.
+     * 
+     * @return true if the game finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+}
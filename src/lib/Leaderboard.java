@@ -0,0 +1,515 @@
+package lib;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory leaderboard index over game records, built once at startup and then kept up to date
+ * as a {@link RecordListener} of {@link GameRecord}.
+ * All data is held in primitive arrays indexed by player id or record number:
+ * <ul>
+ * <li>the distinct scores are kept in a sorted array, and the per-score structures are indexed by
+ * a score's position in it, so their size follows the number of distinct scores, not the largest;</li>
+ * <li>records are chained into one list per score, so the top K records are found by walking
+ * the scores downwards;</li>
+ * <li>each player's best score is counted in a Fenwick tree over the distinct scores, so a player's
+ * rank is found in O(log distinctScores);</li>
+ * <li>per-player best, total and game count give the best and average score in O(1).</li>
+ * </ul>
+ * The index can be saved as a snapshot and reloaded, catching up on any records appended to the
+ * record file since; without a snapshot it is built by a parallel scan of the file.
+ */
+public class Leaderboard implements RecordListener {
+
+    private static final int SNAPSHOT_MAGIC = 0x4C444C42; // "LDLB"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int NONE = -1;
+
+    private final Map<String, Integer> playerIds = new HashMap<>();
+    private final List<String> playerNames = new ArrayList<>();
+    private int[] playerBest = new int[16];
+    private long[] playerTotal = new long[16];
+    private int[] playerGames = new int[16];
+
+    private int recordCount;
+    private int[] recordPlayer = new int[64];
+    private int[] recordScore = new int[64];
+    private long[] recordTime = new long[64];
+    private long[] recordDuration = new long[64];
+    private int[] nextWithScore = new int[64];
+
+    // Indexed by score rank, the position of a score among the distinct scores
+    private int[] distinctScores = new int[0];
+    private int[] newestWithScore = new int[0];
+    private int[] bestCounts = new int[0];
+    private int[] bestTree = new int[1];
+
+    /**
+     * Constructor for an empty Leaderboard.
+     */
+    public Leaderboard() {
+    }
+
+    /**
+     * Opens the leaderboard for a record file. If a snapshot exists, it is loaded and only the records
+     * appended to the file after the snapshot was saved are scanned; otherwise the whole file is scanned
+     * in parallel.
+     * 
+     * @param recordsFile  the text record file
+     * @param snapshotFile the snapshot file written by {@link #save}
+     * @return the leaderboard covering every record in the file
+     * @throws IOException if the record file cannot be read
+     */
+    public static Leaderboard open(Path recordsFile, Path snapshotFile) throws IOException {
+        if (Files.exists(snapshotFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+                Leaderboard leaderboard = new Leaderboard();
+                long covered = leaderboard.readSnapshot(in);
+                long length = Files.exists(recordsFile) ? Files.size(recordsFile) : 0;
+                if (covered <= length) {
+                    leaderboard.addAll(parseRange(recordsFile, covered, length));
+                    return leaderboard;
+                }
+                // The record file is shorter than when the snapshot was saved, so it has been replaced
+            } catch (IOException e) {
+                System.err.println("Error reading leaderboard snapshot, rebuilding: " + e.getMessage());
+            }
+        }
+        return build(recordsFile);
+    }
+
+    /**
+     * Builds the leaderboard by scanning the record file. The file is split into chunks at line
+     * boundaries, the chunks are parsed in parallel, and the results are added in file order.
+     * 
+     * @param recordsFile the text record file
+     * @return the leaderboard covering every record in the file
+     * @throws IOException if the record file cannot be read
+     */
+    public static Leaderboard build(Path recordsFile) throws IOException {
+        Leaderboard leaderboard = new Leaderboard();
+        if (!Files.exists(recordsFile)) {
+            return leaderboard;
+        }
+
+        long length = Files.size(recordsFile);
+        int chunks = (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4L,
+                length / (1 << 20)));
+        long[] boundaries = new long[chunks + 1];
+        try (FileChannel channel = FileChannel.open(recordsFile, StandardOpenOption.READ)) {
+            for (int i = 1; i < chunks; i++) {
+                boundaries[i] = nextLineStart(channel, Math.max(boundaries[i - 1], length * i / chunks), length);
+            }
+        }
+        boundaries[chunks] = length;
+
+        List<ParsedChunk> parsed;
+        try {
+            parsed = IntStream.range(0, chunks).parallel()
+                    .mapToObj(i -> {
+                        try {
+                            return parseRange(recordsFile, boundaries[i], boundaries[i + 1]);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } catch (IllegalStateException e) {
+            throw (IOException) e.getCause();
+        }
+        for (ParsedChunk chunk : parsed) {
+            leaderboard.addAll(chunk);
+        }
+        return leaderboard;
+    }
+
+    /**
+     * Returns the position just after the first line separator at or after the specified position.
+     * 
+     * @param channel  the open record file
+     * @param position the position to search from
+     * @param length   the length of the file
+     * @return the start of the next line, or the file length if there is none
+     * @throws IOException if the file cannot be read
+     */
+    private static long nextLineStart(FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < length) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return length;
+    }
+
+    /**
+     * Parses the complete lines of a byte range of the record file.
+     * 
+     * @param recordsFile the text record file
+     * @param from        the position of the first byte, at the start of a line
+     * @param to          the position after the last byte
+     * @return the records found in the range
+     * @throws IOException if the file cannot be read
+     */
+    private static ParsedChunk parseRange(Path recordsFile, long from, long to) throws IOException {
+        ParsedChunk chunk = new ParsedChunk();
+        if (to <= from) {
+            return chunk;
+        }
+
+        byte[] bytes = new byte[(int) (to - from)];
+        try (FileChannel channel = FileChannel.open(recordsFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) > 0) {
+                // Keep reading until the range is filled
+            }
+        }
+
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                RecordEntry entry = RecordEntry.parse(new String(bytes, lineStart, lineEnd - lineStart,
+                        StandardCharsets.UTF_8));
+                if (entry != null) {
+                    chunk.entries.add(entry);
+                }
+                lineStart = i + 1;
+            }
+        }
+        return chunk; // A trailing line without a separator is still being written and is left out
+    }
+
+    /**
+     * Adds every record of a parsed chunk.
+     * 
+     * @param chunk the parsed records
+     */
+    private synchronized void addAll(ParsedChunk chunk) {
+        addScores(chunk.entries.stream().mapToInt(entry -> Math.max(0, entry.getScore())).sorted().distinct()
+                .toArray());
+        for (RecordEntry entry : chunk.entries) {
+            recordAdded(entry);
+        }
+    }
+
+    /**
+     * Adds a new record to the index.
+     * 
+     * @param entry the new record
+     */
+    @Override
+    public void recordAdded(RecordEntry entry) {
+        add(entry.getPlayerName(), entry.getScore(), entry.getEpochMillis(), entry.getDurationMicros());
+    }
+
+    /**
+     * Adds a record to the index.
+     * 
+     * @param playerName     the name of the player
+     * @param score          the score achieved by the player
+     * @param epochMillis    the time the record was saved, in milliseconds since the epoch
+     * @param durationMicros the game duration in microseconds, or {@link RecordEntry#UNKNOWN_DURATION}
+     */
+    public synchronized void add(String playerName, int score, long epochMillis, long durationMicros) {
+        score = Math.max(0, score);
+        int rank = rankOf(score);
+        if (rank < 0) {
+            addScores(new int[] { score });
+            rank = rankOf(score);
+        }
+
+        Integer id = playerIds.get(playerName);
+        if (id == null) {
+            id = playerNames.size();
+            playerIds.put(playerName, id);
+            playerNames.add(playerName);
+            if (id == playerBest.length) {
+                playerBest = Arrays.copyOf(playerBest, id * 2);
+                playerTotal = Arrays.copyOf(playerTotal, id * 2);
+                playerGames = Arrays.copyOf(playerGames, id * 2);
+            }
+            playerBest[id] = score;
+            treeAdd(rank, 1);
+        } else if (score > playerBest[id]) {
+            treeAdd(rankOf(playerBest[id]), -1);
+            treeAdd(rank, 1);
+            playerBest[id] = score;
+        }
+        playerTotal[id] += score;
+        playerGames[id]++;
+
+        if (recordCount == recordScore.length) {
+            int capacity = recordCount * 2;
+            recordPlayer = Arrays.copyOf(recordPlayer, capacity);
+            recordScore = Arrays.copyOf(recordScore, capacity);
+            recordTime = Arrays.copyOf(recordTime, capacity);
+            recordDuration = Arrays.copyOf(recordDuration, capacity);
+            nextWithScore = Arrays.copyOf(nextWithScore, capacity);
+        }
+        int record = recordCount++;
+        recordPlayer[record] = id;
+        recordScore[record] = score;
+        recordTime[record] = epochMillis;
+        recordDuration[record] = durationMicros;
+        nextWithScore[record] = newestWithScore[rank];
+        newestWithScore[rank] = record;
+    }
+
+    /**
+     * Returns the highest-scoring records, most recent first among equal scores.
+     * 
+     * @param count the maximum number of records to return
+     * @return up to count records in descending order of score
+     */
+    public synchronized List<RecordEntry> top(int count) {
+        List<RecordEntry> top = new ArrayList<>(Math.min(count, recordCount));
+        for (int rank = distinctScores.length - 1; rank >= 0 && top.size() < count; rank--) {
+            for (int record = newestWithScore[rank]; record != NONE && top.size() < count;
+                    record = nextWithScore[record]) {
+                top.add(new RecordEntry(playerNames.get(recordPlayer[record]), distinctScores[rank],
+                        recordTime[record], recordDuration[record]));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Returns the player's best score.
+     * 
+     * @param playerName the name of the player
+     * @return the best score, or -1 if the player has no records
+     */
+    public synchronized int getBestScore(String playerName) {
+        Integer id = playerIds.get(playerName);
+        return id == null ? -1 : playerBest[id];
+    }
+
+    /**
+     * Returns the player's average score.
+     * 
+     * @param playerName the name of the player
+     * @return the average score, or 0 if the player has no records
+     */
+    public synchronized double getAverageScore(String playerName) {
+        Integer id = playerIds.get(playerName);
+        return id == null ? 0 : (double) playerTotal[id] / playerGames[id];
+    }
+
+    /**
+     * Returns the number of games the player has recorded.
+     * 
+     * @param playerName the name of the player
+     * @return the number of games
+     */
+    public synchronized int getGamesPlayed(String playerName) {
+        Integer id = playerIds.get(playerName);
+        return id == null ? 0 : playerGames[id];
+    }
+
+    /**
+     * Returns the player's rank by best score: one more than the number of players with a higher best score.
+     * 
+     * @param playerName the name of the player
+     * @return the rank starting at 1, or -1 if the player has no records
+     */
+    public synchronized int getRank(String playerName) {
+        Integer id = playerIds.get(playerName);
+        if (id == null) {
+            return -1;
+        }
+        return 1 + playerNames.size() - treePrefix(rankOf(playerBest[id]));
+    }
+
+    /**
+     * Returns the number of players with at least one record.
+     * 
+     * @return the player count
+     */
+    public synchronized int getPlayerCount() {
+        return playerNames.size();
+    }
+
+    /**
+     * Returns the number of records in the index.
+     * 
+     * @return the record count
+     */
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the rank of a score, its position among the distinct scores.
+     * 
+     * @param score the score
+     * @return the rank, or a negative number if no record has the score
+     */
+    private int rankOf(int score) {
+        return Arrays.binarySearch(distinctScores, score);
+    }
+
+    /**
+     * Adds scores to the distinct scores, moving the per-score structures to the new ranks in one pass
+     * and rebuilding the Fenwick tree from the per-rank counts in linear time.
+     * 
+     * @param scores the scores to add, sorted and distinct
+     */
+    private void addScores(int[] scores) {
+        int added = 0;
+        for (int score : scores) {
+            if (rankOf(score) < 0) {
+                added++;
+            }
+        }
+        if (added == 0) {
+            return;
+        }
+        int length = distinctScores.length + added;
+        int[] merged = new int[length];
+        int[] newest = new int[length];
+        int[] counts = new int[length];
+        for (int rank = 0, oldRank = 0, i = 0; rank < length; rank++) {
+            if (i < scores.length && (oldRank == distinctScores.length || scores[i] < distinctScores[oldRank])) {
+                merged[rank] = scores[i++];
+                newest[rank] = NONE;
+            } else {
+                if (i < scores.length && scores[i] == distinctScores[oldRank]) {
+                    i++; // Already a distinct score
+                }
+                merged[rank] = distinctScores[oldRank];
+                newest[rank] = newestWithScore[oldRank];
+                counts[rank] = bestCounts[oldRank];
+                oldRank++;
+            }
+        }
+        distinctScores = merged;
+        newestWithScore = newest;
+        bestCounts = counts;
+
+        bestTree = new int[length + 1];
+        for (int i = 1; i <= length; i++) {
+            bestTree[i] += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= length) {
+                bestTree[parent] += bestTree[i];
+            }
+        }
+    }
+
+    /**
+     * Adds to the number of players whose best score has the specified rank.
+     * 
+     * @param rank  the rank of the best score
+     * @param delta the change in the number of players
+     */
+    private void treeAdd(int rank, int delta) {
+        bestCounts[rank] += delta;
+        for (int i = rank + 1; i < bestTree.length; i += i & -i) {
+            bestTree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the number of players whose best score is at most the score of the specified rank.
+     * 
+     * @param rank the rank of the score
+     * @return the number of players at or below the score
+     */
+    private int treePrefix(int rank) {
+        int count = 0;
+        for (int i = rank + 1; i > 0; i -= i & -i) {
+            count += bestTree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Saves the index as a snapshot, written to a temporary file and then moved into place.
+     * Call this once every record has been written to the record file, since the snapshot
+     * marks the file's current length as covered.
+     * 
+     * @param recordsFile  the text record file the index covers
+     * @param snapshotFile the snapshot file to write
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void save(Path recordsFile, Path snapshotFile) throws IOException {
+        long covered = Files.exists(recordsFile) ? Files.size(recordsFile) : 0;
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(covered);
+            out.writeInt(playerNames.size());
+            for (String name : playerNames) {
+                out.writeUTF(name);
+            }
+            out.writeInt(recordCount);
+            for (int record = 0; record < recordCount; record++) {
+                out.writeInt(recordPlayer[record]);
+                out.writeInt(recordScore[record]);
+                out.writeLong(recordTime[record]);
+                out.writeLong(recordDuration[record]);
+            }
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot into this empty index.
+     * 
+     * @param in the snapshot stream
+     * @return the length of the record file covered by the snapshot
+     * @throws IOException if the snapshot cannot be read or is not a leaderboard snapshot
+     */
+    private synchronized long readSnapshot(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Not a leaderboard snapshot");
+        }
+        long covered = in.readLong();
+        String[] names = new String[in.readInt()];
+        for (int id = 0; id < names.length; id++) {
+            names[id] = in.readUTF();
+        }
+        int records = in.readInt();
+        ParsedChunk chunk = new ParsedChunk();
+        for (int record = 0; record < records; record++) {
+            int player = in.readInt();
+            chunk.entries.add(new RecordEntry(names[player], in.readInt(), in.readLong(), in.readLong()));
+        }
+        addAll(chunk);
+        return covered;
+    }
+
+    /**
+     * Records parsed from one byte range of the record file.
+     */
+    private static class ParsedChunk {
+        private final List<RecordEntry> entries = new ArrayList<>();
+    }
+}
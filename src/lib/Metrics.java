@@ -0,0 +1,430 @@
+package lib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Runtime metrics of the game: rounds, games, dice rolls, record I/O and active sessions.
+ * Counters are {@link LongAdder}s and latencies go to {@link StripedHistogram}s, so recording from
+ * many threads costs an uncontended update on the hot path, and all aggregation happens only when
+ * the metrics are read. Every recording is also emitted as a custom JFR event in the "LuckyDie"
+ * category, which costs nothing unless a flight recording with these events enabled is running.
+ * 
+ * The metrics can be written periodically to a local file in the Prometheus text format, or as JSON
+ * when the file name ends with ".json", see {@link #startDump(Path, long)}. Programs start the dump
+ * when the system property {@value #DUMP_FILE_PROPERTY} names a file, see {@link #startConfiguredDump()}.
+ * Dumps include the smallest p-value of the {@link FairnessMonitor}'s tests for each dice configuration.
+ */
+public final class Metrics {
+
+    /** System property naming the file the metrics are dumped to. */
+    public static final String DUMP_FILE_PROPERTY = "luckydie.metrics.file";
+    /** System property giving the dump period in milliseconds, 10 seconds by default. */
+    public static final String DUMP_PERIOD_PROPERTY = "luckydie.metrics.periodMillis";
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder diceRolled = new LongAdder();
+    private final LongAdder recordsAppended = new LongAdder();
+    private final LongAdder recordErrors = new LongAdder();
+    private final LongAdder recordsRead = new LongAdder();
+    private final LongAdder activeSessions = new LongAdder();
+    private final StripedHistogram roundLatency = new StripedHistogram();
+    private final StripedHistogram gameDuration = new StripedHistogram();
+    private final StripedHistogram recordAppendLatency = new StripedHistogram();
+    private final StripedHistogram recordReadTime = new StripedHistogram();
+
+    /**
+     * Returns the metrics shared by the whole process.
+     * 
+     * @return the global metrics
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Records a round played in a game session.
+     * 
+     * @param nanos  the time since the previous round of the session, or since it started
+     * @param dice   the number of dice rolled
+     * @param guess  the guessed combined roll
+     * @param sum    the actual combined roll
+     * @param points the points earned
+     */
+    public void roundPlayed(long nanos, int dice, int guess, int sum, int points) {
+        rounds.increment();
+        diceRolled.add(dice);
+        roundLatency.record(nanos);
+
+        RoundEvent event = new RoundEvent();
+        if (event.shouldCommit()) {
+            event.latency = nanos;
+            event.guess = guess;
+            event.sum = sum;
+            event.points = points;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a finished game.
+     * 
+     * @param nanos  the duration of the game
+     * @param rounds the number of rounds the game took
+     * @param score  the final score
+     */
+    public void gameFinished(long nanos, int rounds, int score) {
+        games.increment();
+        gameDuration.record(nanos);
+
+        GameEvent event = new GameEvent();
+        if (event.shouldCommit()) {
+            event.gameDuration = nanos;
+            event.rounds = rounds;
+            event.score = score;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records dice rolled outside game sessions, such as by the simulator.
+     * 
+     * @param count the number of dice rolled
+     */
+    public void diceRolled(long count) {
+        diceRolled.add(count);
+    }
+
+    /**
+     * Records a game record being appended.
+     * 
+     * @param nanos the time taken to append or queue the record
+     * @param saved whether the record was saved, false if the append failed
+     */
+    public void recordAppended(long nanos, boolean saved) {
+        recordAppendLatency.record(nanos);
+        if (saved) {
+            recordsAppended.increment();
+        } else {
+            recordErrors.increment();
+        }
+
+        RecordAppendEvent event = new RecordAppendEvent();
+        if (event.shouldCommit()) {
+            event.latency = nanos;
+            event.saved = saved;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records game records being read.
+     * 
+     * @param nanos the time taken to read the records
+     * @param count the number of records read
+     */
+    public void recordsRead(long nanos, long count) {
+        recordReadTime.record(nanos);
+        recordsRead.add(count);
+
+        RecordReadEvent event = new RecordReadEvent();
+        if (event.shouldCommit()) {
+            event.readTime = nanos;
+            event.records = count;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a failed record read or write.
+     */
+    public void recordError() {
+        recordErrors.increment();
+    }
+
+    /**
+     * Records a game session starting.
+     */
+    public void sessionStarted() {
+        activeSessions.increment();
+    }
+
+    /**
+     * Records a game session ending, finished or abandoned.
+     */
+    public void sessionEnded() {
+        activeSessions.decrement();
+    }
+
+    /**
+     * Returns the number of rounds played.
+     * 
+     * @return the round count
+     */
+    public long getRounds() {
+        return rounds.sum();
+    }
+
+    /**
+     * Returns the number of games finished.
+     * 
+     * @return the game count
+     */
+    public long getGames() {
+        return games.sum();
+    }
+
+    /**
+     * Returns the number of dice rolled, in games and simulations.
+     * 
+     * @return the dice count
+     */
+    public long getDiceRolled() {
+        return diceRolled.sum();
+    }
+
+    /**
+     * Returns the number of sessions currently being played.
+     * 
+     * @return the active session count
+     */
+    public long getActiveSessions() {
+        return activeSessions.sum();
+    }
+
+    /**
+     * Returns the average number of dice rolled per second since the metrics were created.
+     * 
+     * @return the rolls per second
+     */
+    public double getRollsPerSecond() {
+        return diceRolled.sum() / ((System.nanoTime() - startNanos) / 1e9);
+    }
+
+    /**
+     * Formats the metrics in the Prometheus text exposition format. Latencies are summaries in seconds.
+     * 
+     * @return the metrics text
+     */
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder(2048);
+        counter(text, "luckydie_rounds_total", "Rounds played", rounds.sum());
+        counter(text, "luckydie_games_total", "Games finished", games.sum());
+        counter(text, "luckydie_dice_rolled_total", "Dice rolled in games and simulations", diceRolled.sum());
+        counter(text, "luckydie_records_appended_total", "Game records appended", recordsAppended.sum());
+        counter(text, "luckydie_record_errors_total", "Failed game record reads and writes", recordErrors.sum());
+        counter(text, "luckydie_records_read_total", "Game records read", recordsRead.sum());
+        text.append("# HELP luckydie_active_sessions Game sessions in progress\n")
+                .append("# TYPE luckydie_active_sessions gauge\n")
+                .append("luckydie_active_sessions ").append(activeSessions.sum()).append('\n');
+        text.append("# HELP luckydie_rolls_per_second Average dice rolled per second since start\n")
+                .append("# TYPE luckydie_rolls_per_second gauge\n")
+                .append("luckydie_rolls_per_second ").append(format(getRollsPerSecond())).append('\n');
+        summary(text, "luckydie_round_latency_seconds", "Time between rounds of a session", roundLatency.snapshot());
+        summary(text, "luckydie_game_duration_seconds", "Duration of finished games", gameDuration.snapshot());
+        summary(text, "luckydie_record_append_seconds", "Time to append a game record",
+                recordAppendLatency.snapshot());
+        summary(text, "luckydie_record_read_seconds", "Time to read the game records", recordReadTime.snapshot());
+        text.append("# HELP luckydie_fairness_min_pvalue Smallest p-value of the fairness tests of each dice configuration\n")
+                .append("# TYPE luckydie_fairness_min_pvalue gauge\n");
+        for (FairnessReport report : FairnessMonitor.global().reports()) {
+            text.append("luckydie_fairness_min_pvalue{dice=\"").append(report.getDice()).append("\"} ")
+                    .append(format(report.getMinPValue())).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Formats the metrics as a JSON object. Latencies are objects of nanosecond values.
+     * 
+     * @return the metrics JSON
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(1024).append("{\n");
+        json.append("  \"rounds\": ").append(rounds.sum()).append(",\n");
+        json.append("  \"games\": ").append(games.sum()).append(",\n");
+        json.append("  \"diceRolled\": ").append(diceRolled.sum()).append(",\n");
+        json.append("  \"recordsAppended\": ").append(recordsAppended.sum()).append(",\n");
+        json.append("  \"recordErrors\": ").append(recordErrors.sum()).append(",\n");
+        json.append("  \"recordsRead\": ").append(recordsRead.sum()).append(",\n");
+        json.append("  \"activeSessions\": ").append(activeSessions.sum()).append(",\n");
+        json.append("  \"rollsPerSecond\": ").append(format(getRollsPerSecond())).append(",\n");
+        latencies(json, "roundLatencyNanos", roundLatency.snapshot()).append(",\n");
+        latencies(json, "gameDurationNanos", gameDuration.snapshot()).append(",\n");
+        latencies(json, "recordAppendNanos", recordAppendLatency.snapshot()).append(",\n");
+        latencies(json, "recordReadNanos", recordReadTime.snapshot()).append(",\n");
+        json.append("  \"fairnessMinPValue\": {");
+        List<FairnessReport> reports = FairnessMonitor.global().reports();
+        for (int i = 0; i < reports.size(); i++) {
+            json.append(i == 0 ? "" : ", ").append('"').append(reports.get(i).getDice()).append("\": ")
+                    .append(format(reports.get(i).getMinPValue()));
+        }
+        json.append("}\n");
+        return json.append("}\n").toString();
+    }
+
+    /**
+     * Writes the metrics to a file now and then every period on a background thread, replacing the
+     * file atomically each time so readers never see a partial dump. The format is JSON when the
+     * file name ends with ".json", and Prometheus text otherwise.
+     * 
+     * @param file         the file to write
+     * @param periodMillis the time between dumps
+     * @return a handle that stops the dump and writes the file a last time when closed
+     */
+    public Closeable startDump(Path file, long periodMillis) {
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> dump(file), 0, periodMillis, TimeUnit.MILLISECONDS);
+        return () -> {
+            dumper.shutdownNow();
+            dump(file);
+        };
+    }
+
+    /**
+     * Starts the dump configured by the {@value #DUMP_FILE_PROPERTY} and {@value #DUMP_PERIOD_PROPERTY}
+     * system properties, and writes it a last time when the process exits.
+     * Does nothing if no dump file is configured.
+     */
+    public static void startConfiguredDump() {
+        String file = System.getProperty(DUMP_FILE_PROPERTY);
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        long periodMillis = Long.getLong(DUMP_PERIOD_PROPERTY, 10_000);
+        Closeable dump = GLOBAL.startDump(Paths.get(file), periodMillis);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                dump.close();
+            } catch (IOException e) {
+                System.err.println("Error writing metrics: " + e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Writes the metrics to a file through a temporary file and an atomic move.
+     * 
+     * @param file the file to write
+     */
+    private void dump(Path file) {
+        String text = file.getFileName().toString().endsWith(".json") ? toJson() : toPrometheus();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, text.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing metrics: " + e.getMessage());
+        }
+    }
+
+    private static void counter(StringBuilder text, String name, String help, long value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" counter\n")
+                .append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void summary(StringBuilder text, String name, String help, LatencyHistogram histogram) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : new double[] { 0.5, 0.9, 0.99 }) {
+            text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(format(histogram.getPercentile(quantile) / 1e9)).append('\n');
+        }
+        text.append(name).append("_sum ").append(format(histogram.getMean() * histogram.getCount() / 1e9)).append('\n')
+                .append(name).append("_count ").append(histogram.getCount()).append('\n');
+    }
+
+    private static StringBuilder latencies(StringBuilder json, String name, LatencyHistogram histogram) {
+        return json.append("  \"").append(name).append("\": {\"count\": ").append(histogram.getCount())
+                .append(", \"mean\": ").append(format(histogram.getMean()))
+                .append(", \"p50\": ").append(histogram.getPercentile(0.5))
+                .append(", \"p90\": ").append(histogram.getPercentile(0.9))
+                .append(", \"p99\": ").append(histogram.getPercentile(0.99))
+                .append(", \"max\": ").append(histogram.getMax()).append('}');
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.9g", value);
+    }
+
+    @Name("luckydie.Round")
+    @Label("Round")
+    @Category("LuckyDie")
+    @Description("A round played in a game session")
+    static final class RoundEvent extends Event {
+        @Label("Latency")
+        @Timespan
+        long latency;
+        @Label("Guess")
+        int guess;
+        @Label("Sum")
+        int sum;
+        @Label("Points")
+        int points;
+    }
+
+    @Name("luckydie.Game")
+    @Label("Game")
+    @Category("LuckyDie")
+    @Description("A finished game")
+    static final class GameEvent extends Event {
+        @Label("Game Duration")
+        @Timespan
+        long gameDuration;
+        @Label("Rounds")
+        int rounds;
+        @Label("Score")
+        int score;
+    }
+
+    @Name("luckydie.RecordAppend")
+    @Label("Record Append")
+    @Category("LuckyDie")
+    @Description("A game record appended to the record file")
+    static final class RecordAppendEvent extends Event {
+        @Label("Latency")
+        @Timespan
+        long latency;
+        @Label("Saved")
+        boolean saved;
+    }
+
+    @Name("luckydie.RecordRead")
+    @Label("Record Read")
+    @Category("LuckyDie")
+    @Description("Game records read from the record file")
+    static final class RecordReadEvent extends Event {
+        @Label("Read Time")
+        @Timespan
+        long readTime;
+        @Label("Records")
+        long records;
+    }
+}
@@ -1,5 +1,9 @@
 package lib;
 
+import java.nio.IntBuffer;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
 /**
  * Class representing a pair of dice, each of which can roll independently.
  * This class allows rolling two dice simultaneously and provides their combined result.
@@ -10,13 +14,25 @@ public class PairOfDice {
     private Dice die2;
 
     /**
-     * Constructor for PairOfDice with a specified number of sides on each die.
+     * Constructor for PairOfDice with a specified number of sides on each die,
+     * rolled with the per-thread random source.
      * 
      * @param sides the number of sides on each die (e.g., 6 for standard dice)
      */
     public PairOfDice(int sides) {
-        this.die1 = new Dice(sides);
-        this.die2 = new Dice(sides);
+        this(sides, RandomSource.threadLocal());
+    }
+
+    /**
+     * Constructor for PairOfDice with a specified number of sides on each die,
+     * where both dice roll from the same random source.
+     * 
+     * @param sides  the number of sides on each die (e.g., 6 for standard dice)
+     * @param random the random source shared by both dice
+     */
+    public PairOfDice(int sides, RandomSource random) {
+        this.die1 = new Dice(sides, random);
+        this.die2 = new Dice(sides, random);
     }
 
     /**
@@ -38,6 +54,107 @@ public class PairOfDice {
         return new int[] { die1.roll(), die2.roll() };
     }
 
+    /**
+     * Rolls each die individually and stores their separate results in a caller-supplied array,
+     * avoiding the allocation of {@link #rollEach()}.
+     * 
+     * @param results an array of at least two elements, receiving die1's result in the first
+     *                element and die2's result in the second
+     * @return the results array
+     */
+    public int[] rollEach(int[] results) {
+        results[0] = die1.roll();
+        results[1] = die2.roll();
+        return results;
+    }
+
+    /**
+     * Rolls the pair the specified number of times, storing each die's result in turn
+     * (die1, die2, die1, die2, ...) starting at the given offset.
+     * 
+     * @param results the array receiving 2 * count results
+     * @param offset  the index of the first result
+     * @param count   the number of times to roll the pair
+     */
+    public void fillRolls(int[] results, int offset, int count) {
+        RandomSource random1 = die1.getRandom();
+        RandomSource random2 = die2.getRandom();
+        int sides1 = die1.getSides();
+        int sides2 = die2.getSides();
+        int end = offset + 2 * count;
+        for (int i = offset; i < end; i += 2) {
+            results[i] = random1.nextInt(sides1) + 1;
+            results[i + 1] = random2.nextInt(sides2) + 1;
+        }
+    }
+
+    /**
+     * Rolls the pair the specified number of times, storing each combined result
+     * starting at the given offset.
+     * 
+     * @param sums   the array receiving count sums
+     * @param offset the index of the first sum
+     * @param count  the number of times to roll the pair
+     */
+    public void fillSums(int[] sums, int offset, int count) {
+        RandomSource random1 = die1.getRandom();
+        RandomSource random2 = die2.getRandom();
+        int sides1 = die1.getSides();
+        int sides2 = die2.getSides();
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            sums[i] = random1.nextInt(sides1) + random2.nextInt(sides2) + 2;
+        }
+    }
+
+    /**
+     * Rolls the pair the specified number of times, putting each combined result
+     * at the buffer's current position.
+     * 
+     * @param sums  the buffer receiving count sums, which must have that many elements remaining
+     * @param count the number of times to roll the pair
+     */
+    public void fillSums(IntBuffer sums, int count) {
+        RandomSource random1 = die1.getRandom();
+        RandomSource random2 = die2.getRandom();
+        int sides1 = die1.getSides();
+        int sides2 = die2.getSides();
+        for (int i = 0; i < count; i++) {
+            sums.put(random1.nextInt(sides1) + random2.nextInt(sides2) + 2);
+        }
+    }
+
+    /**
+     * Returns an endless iterator of combined results, each produced by rolling the pair
+     * when it is requested.
+     * 
+     * @return a primitive iterator of roll sums
+     */
+    public PrimitiveIterator.OfInt sumIterator() {
+        return new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public int nextInt() {
+                return rollBoth();
+            }
+        };
+    }
+
+    /**
+     * Returns an endless sequential stream of combined results; use {@link IntStream#limit(long)}
+     * to bound it. The stream rolls this pair's dice, so it must not be consumed in parallel
+     * unless the dice use the per-thread random source.
+     * 
+     * @return a stream of roll sums
+     */
+    public IntStream sums() {
+        return IntStream.generate(this::rollBoth);
+    }
+
     /**
      * Returns the number of sides on each die.
      * 
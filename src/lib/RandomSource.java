@@ -0,0 +1,115 @@
+package lib;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of random numbers used to roll dice.
+ * Use {@link #threadLocal()} for fast, contention-free rolls with no reproducibility, or
+ * {@link #seeded(long)} for a reproducible stream that can be {@link #split() split} into
+ * independent streams for parallel workers.
+ */
+public interface RandomSource {
+
+    /**
+     * Returns a random integer between 0 (inclusive) and the specified bound (exclusive).
+     * 
+     * @param bound the upper bound, which must be positive
+     * @return a uniformly distributed random integer in the range 0 to bound - 1
+     */
+    int nextInt(int bound);
+
+    /**
+     * Returns a random 64-bit value.
+     * 
+     * @return a uniformly distributed random long
+     */
+    long nextLong();
+
+    /**
+     * Returns a new source whose stream is independent of this one, for handing to another thread.
+     * 
+     * @return an independent random source
+     */
+    RandomSource split();
+
+    /**
+     * Returns the seed from which this source's stream can be reproduced.
+     * 
+     * @return the seed of the stream
+     * @throws UnsupportedOperationException if the source is not reproducible
+     */
+    long getSeed();
+
+    /**
+     * Returns whether this source's stream can be reproduced from {@link #getSeed()}.
+     * 
+     * @return true if the source is seeded
+     */
+    boolean isSeeded();
+
+    /**
+     * Returns the shared source that rolls through the calling thread's own generator,
+     * so threads never contend on a common seed.
+     * 
+     * @return the per-thread random source
+     */
+    static RandomSource threadLocal() {
+        return ThreadLocalSource.INSTANCE;
+    }
+
+    /**
+     * Returns a new reproducible source that starts from the specified seed.
+     * The source is not thread-safe; give each thread its own {@link #split()} instead.
+     * 
+     * @param seed the seed of the stream
+     * @return a seeded random source
+     */
+    static SeededRandom seeded(long seed) {
+        return new SeededRandom(seed);
+    }
+
+    /**
+     * Returns a new reproducible source with a freshly chosen seed.
+     * 
+     * @return a seeded random source
+     */
+    static SeededRandom seeded() {
+        return new SeededRandom(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Random source backed by {@link ThreadLocalRandom}, which keeps a separate generator per thread.
+     */
+    final class ThreadLocalSource implements RandomSource {
+
+        private static final ThreadLocalSource INSTANCE = new ThreadLocalSource();
+
+        private ThreadLocalSource() {
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return ThreadLocalRandom.current().nextInt(bound);
+        }
+
+        @Override
+        public long nextLong() {
+            return ThreadLocalRandom.current().nextLong();
+        }
+
+        @Override
+        public RandomSource split() {
+            return this; // Every thread already has its own generator
+        }
+
+        @Override
+        public long getSeed() {
+            throw new UnsupportedOperationException("Thread-local random source has no seed");
+        }
+
+        @Override
+        public boolean isSeeded() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * Column store of game records for analytics: one primitive column per field instead of one object
+ * per record, so a scan touches only the columns it needs, sequentially, without pointers or boxing.
+ * <ul>
+ * <li>player names are dictionary-encoded to ints, with the names kept once in a string table;</li>
+ * <li>scores are ints, save times are epoch milliseconds in longs, and game durations are seconds in
+ * floats, NaN for older records without a duration.</li>
+ * </ul>
+ * A record takes 20 bytes. The columns are either heap arrays or direct buffers outside the heap,
+ * so millions of records can be analysed with a small heap; direct buffers are limited by
+ * {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size.
+ * Aggregates are computed by {@link #statistics} as a parallel scan on a {@link ForkJoinPool}: every
+ * worker adds its ranges into one partial result of its own, and the partial results are merged at the
+ * end. All aggregates are exact integers, so the result does not depend on the pool size. Once loaded, the columns are kept up to
+ * date as a {@link RecordListener} of {@link GameRecord}; a scan sees the records added before it started.
+ */
+public class RecordColumns implements RecordListener {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int ROWS_PER_TASK = 1 << 18;
+    private static final int MAX_BINS = 100; // Higher scores share the last bin
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    private final boolean offHeap;
+    private final Map<String, Integer> playerIds = new HashMap<>();
+    private final List<String> playerNames = new ArrayList<>();
+    private IntBuffer players;
+    private IntBuffer scores;
+    private LongBuffer times;
+    private FloatBuffer durations;
+    private int size;
+    private int maxScore;
+
+    /**
+     * Constructor for empty RecordColumns.
+     *
+     * @param offHeap true to keep the columns in direct buffers outside the heap
+     */
+    public RecordColumns(boolean offHeap) {
+        this(INITIAL_CAPACITY, offHeap);
+    }
+
+    /**
+     * Constructor for empty RecordColumns with room for the specified number of records.
+     *
+     * @param capacity the number of records the columns hold before growing
+     * @param offHeap  true to keep the columns in direct buffers outside the heap
+     */
+    public RecordColumns(int capacity, boolean offHeap) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.offHeap = offHeap;
+        allocate(Math.max(capacity, 1));
+    }
+
+    /**
+     * Loads every record of a text query into new columns.
+     *
+     * @param query   the query whose records are loaded
+     * @param offHeap true to keep the columns in direct buffers outside the heap
+     * @return the loaded columns
+     * @throws java.io.UncheckedIOException if the record file cannot be read
+     */
+    public static RecordColumns load(RecordQuery query, boolean offHeap) {
+        RecordColumns columns = new RecordColumns(offHeap);
+        try (Stream<RecordEntry> entries = query.stream()) {
+            entries.forEachOrdered(columns::recordAdded);
+        }
+        return columns;
+    }
+
+    /**
+     * Loads every record of a binary record log into new columns, sized once for the whole log.
+     * Player ids are taken over from the log's string table, which is already dictionary-encoded.
+     *
+     * @param log     the record log to load
+     * @param offHeap true to keep the columns in direct buffers outside the heap
+     * @return the loaded columns
+     * @throws IOException if the log cannot be read
+     * @throws IllegalArgumentException if the log holds more records than a column can
+     */
+    public static RecordColumns load(RecordLog log, boolean offHeap) throws IOException {
+        long records = log.size();
+        if (records > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many records for one column store: " + records);
+        }
+        RecordColumns columns = new RecordColumns((int) records, offHeap);
+        synchronized (columns) {
+            for (int id = 0; id < log.getPlayerCount(); id++) {
+                columns.playerId(log.getPlayerName(id));
+            }
+            log.scan(0, records, columns::append);
+        }
+        return columns;
+    }
+
+    /**
+     * Adds a new record to the columns.
+     *
+     * @param entry the new record
+     */
+    @Override
+    public void recordAdded(RecordEntry entry) {
+        add(entry.getPlayerName(), entry.getScore(), entry.getEpochMillis(), entry.getDurationMicros());
+    }
+
+    /**
+     * Adds a record to the columns.
+     *
+     * @param playerName     the name of the player
+     * @param score          the score achieved by the player
+     * @param epochMillis    the time the record was saved, in milliseconds since the epoch
+     * @param durationMicros the game duration in microseconds, or {@link RecordEntry#UNKNOWN_DURATION}
+     */
+    public synchronized void add(String playerName, int score, long epochMillis, long durationMicros) {
+        append(playerId(playerName), score, epochMillis, durationMicros);
+    }
+
+    /**
+     * Appends a record whose player is already in the string table, growing the columns if needed.
+     *
+     * @param playerId       the id of the player
+     * @param score          the score achieved by the player
+     * @param epochMillis    the time the record was saved, in milliseconds since the epoch
+     * @param durationMicros the game duration in microseconds, or {@link RecordEntry#UNKNOWN_DURATION}
+     */
+    private void append(int playerId, int score, long epochMillis, long durationMicros) {
+        if (size == players.capacity()) {
+            allocate(size * 2);
+        }
+        score = Math.max(0, score); // The score histogram starts at zero
+        players.put(size, playerId);
+        scores.put(size, score);
+        times.put(size, epochMillis);
+        durations.put(size, durationMicros < 0 ? Float.NaN : (float) (durationMicros / 1e6));
+        maxScore = Math.max(maxScore, score);
+        size++;
+    }
+
+    /**
+     * Returns the id of a player, adding the name to the string table if it is new.
+     *
+     * @param playerName the name of the player
+     * @return the player's id
+     */
+    private int playerId(String playerName) {
+        Integer id = playerIds.get(playerName);
+        if (id == null) {
+            id = playerNames.size();
+            playerIds.put(playerName, id);
+            playerNames.add(playerName);
+        }
+        return id;
+    }
+
+    /**
+     * Replaces the columns with larger ones, copying the records already held.
+     *
+     * @param capacity the new number of records the columns hold
+     */
+    private void allocate(int capacity) {
+        IntBuffer newPlayers = offHeap ? direct(capacity, 4).asIntBuffer() : IntBuffer.allocate(capacity);
+        IntBuffer newScores = offHeap ? direct(capacity, 4).asIntBuffer() : IntBuffer.allocate(capacity);
+        LongBuffer newTimes = offHeap ? direct(capacity, 8).asLongBuffer() : LongBuffer.allocate(capacity);
+        FloatBuffer newDurations = offHeap ? direct(capacity, 4).asFloatBuffer() : FloatBuffer.allocate(capacity);
+        if (players != null) {
+            newPlayers.put(players.duplicate().position(0).limit(size));
+            newScores.put(scores.duplicate().position(0).limit(size));
+            newTimes.put(times.duplicate().position(0).limit(size));
+            newDurations.put(durations.duplicate().position(0).limit(size));
+        }
+        players = newPlayers;
+        scores = newScores;
+        times = newTimes;
+        durations = newDurations;
+    }
+
+    /**
+     * Allocates a direct buffer in the platform's byte order.
+     *
+     * @param capacity    the number of values
+     * @param valueBytes  the size of one value in bytes
+     * @return the buffer
+     */
+    private static ByteBuffer direct(int capacity, int valueBytes) {
+        return ByteBuffer.allocateDirect(capacity * valueBytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns the number of records held.
+     *
+     * @return the record count
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct players.
+     *
+     * @return the player count
+     */
+    public synchronized int getPlayerCount() {
+        return playerNames.size();
+    }
+
+    /**
+     * Returns whether the columns are kept outside the heap.
+     *
+     * @return true for direct buffers, false for heap arrays
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Aggregates every record on the common fork/join pool.
+     *
+     * @param zone      the time zone the hour of day is taken in
+     * @param binWidth  the width of the score histogram's bins
+     * @return the statistics of the records
+     */
+    public RecordStatistics statistics(ZoneId zone, int binWidth) {
+        return statistics(zone, binWidth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Aggregates every record on the specified pool: games, average score and average duration per
+     * player, games per hour of day, and a histogram of the scores. The histogram has at most 100 bins;
+     * when the highest score needs more, the last bin counts every score from its start up.
+     *
+     * @param zone      the time zone the hour of day is taken in
+     * @param binWidth  the width of the score histogram's bins
+     * @param pool      the pool the scan runs on
+     * @return the statistics of the records
+     * @throws IllegalArgumentException if the bin width is not positive
+     */
+    public RecordStatistics statistics(ZoneId zone, int binWidth, ForkJoinPool pool) {
+        if (binWidth < 1) {
+            throw new IllegalArgumentException("Invalid bin width: " + binWidth);
+        }
+        long start = System.nanoTime();
+        Snapshot snapshot;
+        synchronized (this) { // Records below the snapshot's size are never written again
+            snapshot = new Snapshot(List.copyOf(playerNames), players, scores, times, durations, size,
+                    (int) Math.min((long) maxScore / binWidth + 1, MAX_BINS + 1L), binWidth, zone.getRules());
+        }
+        pool.invoke(new ScanRange(snapshot, 0, snapshot.size));
+        RecordStatistics result = snapshot.newStatistics();
+        for (RecordStatistics partial : snapshot.partials.values()) {
+            result.merge(partial);
+        }
+        result.setWallTimeNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Aggregates a range of rows on the calling thread into the thread's partial result, reading each
+     * column by absolute index. The zone offset is looked up only when a row falls outside the period
+     * between the transitions around the last one, which for records saved in time order is a few times
+     * a year.
+     *
+     * @param snapshot the columns to scan
+     * @param from     the first row
+     * @param to       the row after the last
+     */
+    private static void scanRange(Snapshot snapshot, int from, int to) {
+        RecordStatistics result = snapshot.partials.computeIfAbsent(Thread.currentThread(),
+                thread -> snapshot.newStatistics());
+        long[] games = result.games;
+        long[] scoreTotals = result.scoreTotals;
+        int[] bestScores = result.bestScores;
+        long[] timedGames = result.timedGames;
+        long[] durationTotals = result.durationTotals;
+        long[] hourGames = result.hourGames;
+        long[] histogram = result.histogram;
+        int binWidth = snapshot.binWidth;
+        int lastBin = histogram.length - 1;
+        IntBuffer players = snapshot.players;
+        IntBuffer scores = snapshot.scores;
+        LongBuffer times = snapshot.times;
+        FloatBuffer durations = snapshot.durations;
+
+        long offsetFrom = Long.MAX_VALUE;
+        long offsetTo = Long.MIN_VALUE;
+        long offsetMillis = 0;
+        for (int row = from; row < to; row++) {
+            int player = players.get(row);
+            int score = scores.get(row);
+            long time = times.get(row);
+            float duration = durations.get(row);
+
+            games[player]++;
+            scoreTotals[player] += score;
+            bestScores[player] = Math.max(bestScores[player], score);
+            if (duration == duration) { // Not NaN
+                timedGames[player]++;
+                durationTotals[player] += Math.round(duration * 1e6);
+            }
+            histogram[Math.min(score / binWidth, lastBin)]++;
+
+            if (time < offsetFrom || time >= offsetTo) {
+                Instant instant = Instant.ofEpochMilli(time);
+                offsetMillis = snapshot.rules.getOffset(instant).getTotalSeconds() * 1000L;
+                ZoneOffsetTransition previous = snapshot.rules.previousTransition(instant.plusMillis(1));
+                ZoneOffsetTransition next = snapshot.rules.nextTransition(instant);
+                offsetFrom = previous == null ? Long.MIN_VALUE : previous.toEpochSecond() * 1000;
+                offsetTo = next == null ? Long.MAX_VALUE : next.toEpochSecond() * 1000;
+            }
+            hourGames[(int) (Math.floorMod(time + offsetMillis, DAY_MILLIS) / HOUR_MILLIS)]++;
+        }
+    }
+
+    /**
+     * The columns and settings of one scan, taken under the lock so the scan runs without it,
+     * and the partial result of every thread taking part in the scan.
+     */
+    private static final class Snapshot {
+
+        private final List<String> names;
+        private final IntBuffer players;
+        private final IntBuffer scores;
+        private final LongBuffer times;
+        private final FloatBuffer durations;
+        private final int size;
+        private final int bins;
+        private final boolean lastBinOpen;
+        private final int binWidth;
+        private final ZoneRules rules;
+        private final Map<Thread, RecordStatistics> partials = new ConcurrentHashMap<>();
+
+        Snapshot(List<String> names, IntBuffer players, IntBuffer scores, LongBuffer times, FloatBuffer durations,
+                int size, int bins, int binWidth, ZoneRules rules) {
+            this.names = names;
+            this.players = players;
+            this.scores = scores;
+            this.times = times;
+            this.durations = durations;
+            this.size = size;
+            this.bins = Math.min(bins, MAX_BINS);
+            this.lastBinOpen = bins > MAX_BINS;
+            this.binWidth = binWidth;
+            this.rules = rules;
+        }
+
+        /**
+         * Returns empty statistics over the snapshot's players and bins.
+         *
+         * @return the statistics
+         */
+        RecordStatistics newStatistics() {
+            return new RecordStatistics(names, bins, binWidth, lastBinOpen);
+        }
+    }
+
+    /**
+     * Fork/join task splitting a range of rows in halves until it is small enough to scan directly.
+     */
+    private static final class ScanRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Snapshot snapshot;
+        private final int from;
+        private final int to;
+
+        ScanRange(Snapshot snapshot, int from, int to) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                scanRange(snapshot, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScanRange(snapshot, from, middle), new ScanRange(snapshot, middle, to));
+        }
+    }
+}
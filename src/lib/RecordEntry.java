@@ -0,0 +1,177 @@
+package lib;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * A single game record: the player's name, score, the time the game was saved and how long it took.
+ * Records can be parsed from both shapes of line found in the text record file: older lines
+ * without a game duration, and lines written by {@link GameRecord#addRecord}.
+ */
+public class RecordEntry {
+
+    /** Duration value used for older records that did not store the game time. */
+    public static final long UNKNOWN_DURATION = -1;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final String playerName;
+    private final int score;
+    private final long epochMillis;
+    private final long durationMicros;
+
+    /**
+     * Constructor for RecordEntry.
+     * 
+     * @param playerName     the name of the player
+     * @param score          the score achieved by the player
+     * @param epochMillis    the time the record was saved, in milliseconds since the epoch
+     * @param durationMicros the game duration in microseconds, or {@link #UNKNOWN_DURATION}
+     */
+    public RecordEntry(String playerName, int score, long epochMillis, long durationMicros) {
+        this.playerName = playerName;
+        this.score = score;
+        this.epochMillis = epochMillis;
+        this.durationMicros = durationMicros;
+    }
+
+    /**
+     * Parses a line of the text record file. Both the older
+     * "Player: name | Score: n | Date: yyyy-MM-dd HH:mm:ss" shape and the current shape with
+     * separate Date, Time and ScoreTime fields are accepted.
+     * Fields are located with indexOf and numbers are read digit by digit, since this runs
+     * once per line whenever a record file is scanned.
+     * 
+     * @param line the line to parse
+     * @return the parsed record, or null if the line is not a valid record
+     */
+    public static RecordEntry parse(String line) {
+        if (!line.startsWith("Player: ")) {
+            return null;
+        }
+        int scoreField = line.indexOf(" | Score: ", 8);
+        int dateField = scoreField < 0 ? -1 : line.indexOf(" | Date: ", scoreField);
+        if (dateField < 0 || line.length() < dateField + 28) {
+            return null;
+        }
+
+        int score = number(line, scoreField + 10, dateField);
+        int date = dateField + 9;
+        int time;
+        if (line.startsWith(" | Time: ", date + 10)) {
+            time = date + 19;
+        } else if (line.charAt(date + 10) == ' ') {
+            time = date + 11;
+        } else {
+            return null;
+        }
+        if (score < 0 || line.length() < time + 8 || line.charAt(date + 4) != '-' || line.charAt(date + 7) != '-'
+                || line.charAt(time + 2) != ':' || line.charAt(time + 5) != ':') {
+            return null;
+        }
+
+        long durationMicros = UNKNOWN_DURATION;
+        int totalTime = line.indexOf("Total time: ", time + 8);
+        try {
+            LocalDateTime dateTime = LocalDateTime.of(number(line, date, date + 4), number(line, date + 5, date + 7),
+                    number(line, date + 8, date + 10), number(line, time, time + 2), number(line, time + 3, time + 5),
+                    number(line, time + 6, time + 8));
+            if (totalTime >= 0) {
+                int end = line.indexOf(" seconds", totalTime);
+                String value = line.substring(totalTime + 12, end < 0 ? line.length() : end).trim();
+                // Older writers formatted the time with the default locale, which may use a decimal comma
+                durationMicros = Math.round(Double.parseDouble(value.replace(',', '.')) * 1_000_000);
+            }
+            long epochMillis = dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return new RecordEntry(line.substring(8, scoreField), score, epochMillis, durationMicros);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads a non-negative decimal number from part of a string.
+     * 
+     * @param text  the string holding the number
+     * @param start the index of the first digit
+     * @param end   the index after the last digit
+     * @return the number, or -1 if the part is empty, too long or holds anything but digits
+     */
+    static int number(CharSequence text, int start, int end) {
+        if (end <= start || end - start > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Formats the record as a line of the text record file.
+     * 
+     * @return the formatted record line
+     */
+    public String format() {
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+        if (durationMicros == UNKNOWN_DURATION) {
+            return String.format("Player: %s | Score: %d | Date: %s", playerName, score,
+                    dateTime.format(DATE_TIME_FORMATTER));
+        }
+        return String.format(Locale.ROOT,
+                "Player: %s | Score: %d | Date: %s | Time: %s | ScoreTime: Total time: %.3f seconds",
+                playerName, score, dateTime.format(DATE_FORMATTER), dateTime.format(TIME_FORMATTER),
+                durationMicros / 1_000_000.0);
+    }
+
+    /**
+     * Returns the name of the player.
+     * 
+     * @return the player's name
+     */
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * Returns the score achieved by the player.
+     * 
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the time the record was saved.
+     * 
+     * @return the timestamp in milliseconds since the epoch
+     */
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    /**
+     * Returns how long the game took.
+     * 
+     * @return the duration in microseconds, or {@link #UNKNOWN_DURATION} for older records
+     */
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
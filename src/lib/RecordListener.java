@@ -0,0 +1,15 @@
+package lib;
+
+/**
+ * Listener notified by {@link GameRecord} each time a new record is added.
+ */
+@FunctionalInterface
+public interface RecordListener {
+
+    /**
+     * Called after a record has been added.
+     * 
+     * @param entry the new record
+     */
+    void recordAdded(RecordEntry entry);
+}
@@ -0,0 +1,325 @@
+package lib;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary, append-only storage for game records.
+ * Records are fixed-width entries of a player id, score, timestamp in epoch milliseconds and
+ * game duration in microseconds, so record N is found at a fixed offset without any parsing.
+ * Player names are stored once each in a separate string table file next to the log
+ * (the log's file name with ".names" appended), and entries refer to them by id.
+ * Reads go through memory-mapped regions of the log file.
+ */
+public class RecordLog implements Closeable {
+
+    private static final int MAGIC = 0x4C44524C; // "LDRL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int ENTRY_SIZE = 24;
+    private static final long REGION_SIZE = (Integer.MAX_VALUE / ENTRY_SIZE) * (long) ENTRY_SIZE;
+
+    private final Path filePath;
+    private final FileChannel entries;
+    private final FileChannel names;
+    private final List<String> playerNames = new ArrayList<>();
+    private final Map<String, Integer> playerIds = new HashMap<>();
+    private final ByteBuffer entryBuffer = ByteBuffer.allocate(ENTRY_SIZE);
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private long size;
+    private long mappedSize;
+
+    /**
+     * Opens the record log at the specified path, creating it and its string table if they do not exist.
+     * A partially written entry at the end of the file, left by a crash, is ignored and overwritten.
+     * 
+     * @param filePath the path of the binary log file
+     * @throws IOException if the files cannot be opened or are not a record log
+     */
+    public RecordLog(Path filePath) throws IOException {
+        this.filePath = filePath;
+        this.entries = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.names = FileChannel.open(namesPath(filePath), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (entries.size() < HEADER_SIZE) {
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            entries.write(header, 0);
+        } else {
+            entries.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                close();
+                throw new IOException("Not a LuckyDie record log: " + filePath);
+            }
+        }
+        this.size = (entries.size() - HEADER_SIZE) / ENTRY_SIZE;
+        loadNames();
+    }
+
+    /**
+     * Returns the path of the string table belonging to a log file.
+     * 
+     * @param filePath the path of the binary log file
+     * @return the path of its string table
+     */
+    private static Path namesPath(Path filePath) {
+        return Paths.get(filePath.toString() + ".names");
+    }
+
+    /**
+     * Reads the string table into memory. Each name is stored as a two-byte length followed by its UTF-8 bytes.
+     * 
+     * @throws IOException if the string table cannot be read
+     */
+    private void loadNames() throws IOException {
+        long length = names.size();
+        if (length == 0) {
+            return;
+        }
+        ByteBuffer table = names.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        while (table.remaining() >= 2) {
+            int nameLength = table.getShort() & 0xFFFF;
+            if (table.remaining() < nameLength) {
+                break; // Partially written name
+            }
+            byte[] bytes = new byte[nameLength];
+            table.get(bytes);
+            String name = new String(bytes, StandardCharsets.UTF_8);
+            playerIds.put(name, playerNames.size());
+            playerNames.add(name);
+        }
+        names.truncate(table.position());
+    }
+
+    /**
+     * Appends a record to the log, adding the player's name to the string table if it is new.
+     * 
+     * @param playerName     the name of the player
+     * @param score          the score achieved by the player
+     * @param epochMillis    the time the record was saved, in milliseconds since the epoch
+     * @param durationMicros the game duration in microseconds, or {@link RecordEntry#UNKNOWN_DURATION}
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void append(String playerName, int score, long epochMillis, long durationMicros)
+            throws IOException {
+        int playerId = playerId(playerName);
+        entryBuffer.clear();
+        entryBuffer.putInt(playerId).putInt(score).putLong(epochMillis).putLong(durationMicros).flip();
+        long position = HEADER_SIZE + size * ENTRY_SIZE;
+        while (entryBuffer.hasRemaining()) {
+            position += entries.write(entryBuffer, position);
+        }
+        size++;
+    }
+
+    /**
+     * Appends a record to the log.
+     * 
+     * @param entry the record to append
+     * @throws IOException if the record cannot be written
+     */
+    public void append(RecordEntry entry) throws IOException {
+        append(entry.getPlayerName(), entry.getScore(), entry.getEpochMillis(), entry.getDurationMicros());
+    }
+
+    /**
+     * Returns the id of a player's name, writing it to the string table first if it is new.
+     * 
+     * @param playerName the name of the player
+     * @return the player's id
+     * @throws IOException if the name cannot be written
+     */
+    private int playerId(String playerName) throws IOException {
+        Integer id = playerIds.get(playerName);
+        if (id != null) {
+            return id;
+        }
+        byte[] bytes = playerName.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Player name is too long to store");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + bytes.length);
+        buffer.putShort((short) bytes.length).put(bytes).flip();
+        long position = names.size();
+        while (buffer.hasRemaining()) {
+            position += names.write(buffer, position);
+        }
+        id = playerNames.size();
+        playerIds.put(playerName, id);
+        playerNames.add(playerName);
+        return id;
+    }
+
+    /**
+     * Passes every record to the visitor in the order they were appended, reading straight
+     * from the mapped file without creating objects.
+     * 
+     * @param visitor the visitor receiving each record
+     * @throws IOException if the log cannot be mapped
+     */
+    public void scan(RecordVisitor visitor) throws IOException {
+        scan(0, size(), visitor);
+    }
+
+    /**
+     * Passes a range of records to the visitor in the order they were appended.
+     * 
+     * @param from    the index of the first record
+     * @param to      the index after the last record
+     * @param visitor the visitor receiving each record
+     * @throws IOException if the log cannot be mapped
+     */
+    public void scan(long from, long to, RecordVisitor visitor) throws IOException {
+        List<MappedByteBuffer> mapped = mapTo(to);
+        for (long index = from; index < to; index++) {
+            long offset = index * ENTRY_SIZE;
+            MappedByteBuffer region = mapped.get((int) (offset / REGION_SIZE));
+            int position = (int) (offset % REGION_SIZE);
+            visitor.visit(region.getInt(position), region.getInt(position + 4), region.getLong(position + 8),
+                    region.getLong(position + 16));
+        }
+    }
+
+    /**
+     * Returns a single record as an object.
+     * 
+     * @param index the index of the record
+     * @return the record
+     * @throws IOException if the log cannot be mapped
+     */
+    public RecordEntry get(long index) throws IOException {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + size());
+        }
+        RecordEntry[] entry = new RecordEntry[1];
+        scan(index, index + 1, (playerId, score, epochMillis, durationMicros) ->
+                entry[0] = new RecordEntry(getPlayerName(playerId), score, epochMillis, durationMicros));
+        return entry[0];
+    }
+
+    /**
+     * Makes sure the mapped regions cover the specified number of records, mapping newly appended data.
+     * Regions never span more than 2 GB, the limit of a single mapping, and always hold whole entries.
+     * 
+     * @param records the number of records that must be readable
+     * @return the mapped regions
+     * @throws IOException if the file cannot be mapped
+     */
+    private synchronized List<MappedByteBuffer> mapTo(long records) throws IOException {
+        long needed = records * ENTRY_SIZE;
+        if (needed > mappedSize) {
+            // The last region may be partial, so it is mapped again at its full new length
+            if (!regions.isEmpty() && mappedSize % REGION_SIZE != 0) {
+                regions.remove(regions.size() - 1);
+                mappedSize -= mappedSize % REGION_SIZE;
+            }
+            while (mappedSize < needed) {
+                long length = Math.min(REGION_SIZE, needed - mappedSize);
+                regions.add(entries.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + mappedSize, length));
+                mappedSize += length;
+            }
+        }
+        return new ArrayList<>(regions);
+    }
+
+    /**
+     * Imports a text record file written by {@link GameRecord}, appending each valid line to this log.
+     * Both the older line shape without a game duration and the current shape are accepted;
+     * lines that are not records are skipped.
+     * 
+     * @param textFile the path of the text record file
+     * @return the number of records imported
+     * @throws IOException if the text file cannot be read or the log cannot be written
+     */
+    public int importText(Path textFile) throws IOException {
+        int imported = 0;
+        try (BufferedReader reader = Files.newBufferedReader(textFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                RecordEntry entry = RecordEntry.parse(line);
+                if (entry != null) {
+                    append(entry);
+                    imported++;
+                }
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * Returns the number of records in the log.
+     * 
+     * @return the record count
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Returns the name stored in the string table under the specified id.
+     * 
+     * @param playerId the player's id
+     * @return the player's name
+     */
+    public synchronized String getPlayerName(int playerId) {
+        return playerNames.get(playerId);
+    }
+
+    /**
+     * Returns the number of distinct player names in the string table.
+     * 
+     * @return the number of players
+     */
+    public synchronized int getPlayerCount() {
+        return playerNames.size();
+    }
+
+    /**
+     * Returns the path of the binary log file.
+     * 
+     * @return the log's path
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Writes any buffered data to the storage device.
+     * 
+     * @throws IOException if the data cannot be forced to disk
+     */
+    public void force() throws IOException {
+        names.force(false);
+        entries.force(false);
+    }
+
+    /**
+     * Closes the log files. Mapped regions are released by the garbage collector.
+     * 
+     * @throws IOException if a file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            entries.close();
+        } finally {
+            names.close();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package lib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page-by-page reader of the text record file, for viewing files far too large to print at once.
+ * A sparse offset index holds the position of the first line of every page, so any page is read
+ * with one seek and one read of the page's own bytes, whatever its number. The index is built by
+ * one pass over the file and then only extended over the lines appended since; as a
+ * {@link RecordListener} of {@link GameRecord} the pager notices new records and extends it on
+ * the next read. Recently viewed pages are held in a bounded least-recently-used cache.
+ * A trailing line without a separator is still being written and is left out until it is complete.
+ */
+public class RecordPager implements RecordListener, Closeable {
+
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    private final GameRecord gameRecord;
+    private final FileChannel channel;
+    private final int pageSize;
+    private final Map<Integer, List<String>> cache;
+    private long[] pageStarts = new long[16];
+    private long lineCount;
+    private long indexedLength; // End of the last complete line indexed
+    private boolean stale = true;
+
+    /**
+     * Constructor for RecordPager over a record file that is not being written.
+     *
+     * @param filePath    the text record file
+     * @param pageSize    the number of lines on a page
+     * @param cachedPages the largest number of pages kept in the cache
+     * @throws IOException if the file cannot be opened
+     */
+    public RecordPager(Path filePath, int pageSize, int cachedPages) throws IOException {
+        this(null, filePath, pageSize, cachedPages);
+    }
+
+    /**
+     * Constructor for RecordPager over the record file of a game record object. Records still queued
+     * in its asynchronous writer are written before the file is read, and the pager should be added as
+     * a listener so that new records are paged.
+     *
+     * @param gameRecord  the game record object whose file is paged
+     * @param pageSize    the number of lines on a page
+     * @param cachedPages the largest number of pages kept in the cache
+     * @throws IOException if the file cannot be opened
+     */
+    public RecordPager(GameRecord gameRecord, int pageSize, int cachedPages) throws IOException {
+        this(gameRecord, gameRecord.getFilePath(), pageSize, cachedPages);
+    }
+
+    /**
+     * Constructor for RecordPager.
+     *
+     * @param gameRecord  the game record object whose writer is flushed before reads, or null
+     * @param filePath    the text record file
+     * @param pageSize    the number of lines on a page
+     * @param cachedPages the largest number of pages kept in the cache
+     * @throws IOException if the file cannot be opened
+     */
+    private RecordPager(GameRecord gameRecord, Path filePath, int pageSize, int cachedPages) throws IOException {
+        if (pageSize < 1 || cachedPages < 1) {
+            throw new IllegalArgumentException("Invalid page size or cache size: " + pageSize + ", " + cachedPages);
+        }
+        this.gameRecord = gameRecord;
+        this.pageSize = pageSize;
+        this.cache = new LinkedHashMap<>(cachedPages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<String>> eldest) {
+                return size() > cachedPages;
+            }
+        };
+        this.channel = FileChannel.open(filePath, StandardOpenOption.READ);
+    }
+
+    /**
+     * Notes that the file has grown, so the index is extended before the next read.
+     *
+     * @param entry the new record
+     */
+    @Override
+    public synchronized void recordAdded(RecordEntry entry) {
+        stale = true;
+    }
+
+    /**
+     * Returns the lines of a page, from the cache if it was viewed recently.
+     *
+     * @param page the number of the page, from 0
+     * @return the lines of the page, fewer than the page size on the last page
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if there is no such page
+     */
+    public synchronized List<String> page(int page) throws IOException {
+        refresh();
+        if (page < 0 || page >= getPageCount()) {
+            throw new IllegalArgumentException("No page " + page + " of " + getPageCount());
+        }
+        List<String> lines = cache.get(page);
+        if (lines == null) {
+            lines = readPage(page);
+            cache.put(page, lines);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the number of pages, at least one even for an empty file.
+     *
+     * @return the page count
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized int getPageCount() throws IOException {
+        refresh();
+        return (int) Math.max(1, (lineCount + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Returns the number of complete lines in the file.
+     *
+     * @return the line count
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized long getLineCount() throws IOException {
+        refresh();
+        return lineCount;
+    }
+
+    /**
+     * Returns the number of lines on a page.
+     *
+     * @return the page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Reads the lines of a page from its indexed position up to the start of the next page.
+     *
+     * @param page the number of the page
+     * @return the lines of the page
+     * @throws IOException if the file cannot be read
+     */
+    private List<String> readPage(int page) throws IOException {
+        long start = System.nanoTime();
+        long from = pageStarts[page];
+        long to = (long) (page + 1) * pageSize < lineCount ? pageStarts[page + 1] : indexedLength;
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) > 0) {
+            // Keep reading until the page is filled
+        }
+        byte[] bytes = buffer.array();
+        List<String> lines = new ArrayList<>(pageSize);
+        int lineStart = 0;
+        for (int i = 0; i < buffer.position(); i++) {
+            if (bytes[i] == '\n') {
+                int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                lines.add(new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+                lineStart = i + 1;
+            }
+        }
+        Metrics.global().recordsRead(System.nanoTime() - start, lines.size());
+        return List.copyOf(lines); // Cached pages are shared between callers
+    }
+
+    /**
+     * Extends the index over the lines appended since the last read, after writing any queued records.
+     * If the file has shrunk it was rewritten, and the index and cache are rebuilt from the start.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private void refresh() throws IOException {
+        if (!stale) {
+            return;
+        }
+        if (gameRecord != null) {
+            try {
+                gameRecord.flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        long length = channel.size();
+        if (length < indexedLength) {
+            lineCount = 0;
+            indexedLength = 0;
+            cache.clear();
+        }
+        if (lineCount % pageSize != 0) {
+            cache.remove((int) (lineCount / pageSize)); // The last page is about to grow
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        long position = indexedLength;
+        while (position < length) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] == '\n') {
+                    if (lineCount % pageSize == 0) {
+                        addPageStart(indexedLength);
+                    }
+                    lineCount++;
+                    indexedLength = position + i + 1;
+                }
+            }
+            position += read;
+        }
+        stale = gameRecord == null; // Without listener updates, check the file on every read
+    }
+
+    /**
+     * Records the start position of the next page.
+     *
+     * @param position the position of the page's first line
+     */
+    private void addPageStart(long position) {
+        int page = (int) (lineCount / pageSize);
+        if (page == pageStarts.length) {
+            pageStarts = Arrays.copyOf(pageStarts, pageStarts.length * 2);
+        }
+        pageStarts[page] = position;
+    }
+
+    /**
+     * Closes the record file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,344 @@
+package lib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy, streaming query over the text record file.
+ * The file is read through one fixed-size buffer, and each line is checked against the filters
+ * directly on its bytes: the player name is compared byte by byte, and the score and date are read
+ * digit by digit. Only lines that match are decoded into {@link RecordEntry} objects, and the offset
+ * and limit count only the lines that decode, so files of any size are scanned in constant memory.
+ * 
+ * <pre>
+ * try (Stream&lt;RecordEntry&gt; records = new RecordQuery(path).player("Andrzej").minScore(100).limit(10).stream()) {
+ *     records.forEach(System.out::println);
+ * }
+ * </pre>
+ */
+public class RecordQuery {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] PLAYER = "Player: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SCORE = " | Score: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATE = " | Date: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TIME = " | Time: ".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path filePath;
+    private byte[] playerName;
+    private int minScore = Integer.MIN_VALUE;
+    private long fromKey = Long.MIN_VALUE;
+    private long toKey = Long.MAX_VALUE;
+    private long offset;
+    private long limit = Long.MAX_VALUE;
+
+    /**
+     * Constructor for a RecordQuery matching every record in the file.
+     * 
+     * @param filePath the path of the text record file
+     */
+    public RecordQuery(Path filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Restricts the query to records of one player.
+     * 
+     * @param playerName the exact name of the player
+     * @return this query
+     */
+    public RecordQuery player(String playerName) {
+        this.playerName = playerName.getBytes(StandardCharsets.UTF_8);
+        return this;
+    }
+
+    /**
+     * Restricts the query to records with at least the specified score.
+     * 
+     * @param minScore the lowest score to include
+     * @return this query
+     */
+    public RecordQuery minScore(int minScore) {
+        this.minScore = minScore;
+        return this;
+    }
+
+    /**
+     * Restricts the query to records saved within a time range.
+     * 
+     * @param fromMillis the earliest time to include, in milliseconds since the epoch
+     * @param toMillis   the time to stop before, in milliseconds since the epoch
+     * @return this query
+     */
+    public RecordQuery between(long fromMillis, long toMillis) {
+        this.fromKey = dateKey(fromMillis);
+        this.toKey = dateKey(toMillis);
+        return this;
+    }
+
+    /**
+     * Skips the first matching records.
+     * 
+     * @param offset the number of matching records to skip
+     * @return this query
+     */
+    public RecordQuery offset(long offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Stops the query after the specified number of records.
+     * 
+     * @param limit the maximum number of records to return
+     * @return this query
+     */
+    public RecordQuery limit(long limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Returns a lazy stream of the matching records in file order. The stream holds the file open
+     * and must be closed, for example with try-with-resources.
+     * 
+     * @return the matching records
+     * @throws UncheckedIOException if the file cannot be opened or read
+     */
+    public Stream<RecordEntry> stream() {
+        LineScanner scanner = new LineScanner();
+        return StreamSupport.stream(scanner, false).onClose(scanner::close);
+    }
+
+    /**
+     * Runs the query and collects the matching records.
+     * 
+     * @return the matching records in file order
+     * @throws UncheckedIOException if the file cannot be opened or read
+     */
+    public List<RecordEntry> list() {
+        try (Stream<RecordEntry> records = stream()) {
+            return records.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Converts a time to a comparable local date-time key of the form yyyyMMddHHmmss, matching
+     * how the record file stores times, so lines can be compared without converting their dates.
+     * 
+     * @param epochMillis the time in milliseconds since the epoch
+     * @return the local date-time key
+     */
+    private static long dateKey(long epochMillis) {
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+        if (dateTime.getNano() > 0) {
+            dateTime = dateTime.withNano(0).plusSeconds(1); // Lines have whole seconds, so round the bound up
+        }
+        return dateTime.getYear() * 10_000_000_000L + dateTime.getMonthValue() * 100_000_000L
+                + dateTime.getDayOfMonth() * 1_000_000L + dateTime.getHour() * 10_000L
+                + dateTime.getMinute() * 100L + dateTime.getSecond();
+    }
+
+    /**
+     * Spliterator that reads the file buffer by buffer and yields the records of matching lines.
+     */
+    private class LineScanner extends Spliterators.AbstractSpliterator<RecordEntry> {
+
+        private final FileChannel channel;
+        private byte[] bytes = new byte[BUFFER_SIZE];
+        private int start;
+        private int end;
+        private boolean endOfFile;
+        private long skipped;
+        private long returned;
+
+        LineScanner() {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            try {
+                this.channel = FileChannel.open(filePath, StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super RecordEntry> action) {
+            while (returned < limit) {
+                int lineEnd = nextLineEnd();
+                if (lineEnd < 0) {
+                    return false;
+                }
+                int lineStart = start;
+                start = lineEnd + 1;
+                int contentEnd = lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                if (!matches(lineStart, contentEnd)) {
+                    continue;
+                }
+                RecordEntry entry = RecordEntry.parse(new String(bytes, lineStart, contentEnd - lineStart,
+                        StandardCharsets.UTF_8));
+                if (entry == null) {
+                    continue; // Passed the byte checks but is not a record, so not counted by the offset
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                returned++;
+                action.accept(entry);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Finds the end of the next line, refilling or growing the buffer as needed.
+         * The last line of the file is returned even without a trailing separator.
+         * 
+         * @return the index of the line's separator, or of the end of the data for the last line,
+         *         or -1 at the end of the file
+         */
+        private int nextLineEnd() {
+            int searchFrom = start;
+            while (true) {
+                for (int i = searchFrom; i < end; i++) {
+                    if (bytes[i] == '\n') {
+                        return i;
+                    }
+                }
+                if (endOfFile) {
+                    return start < end ? end : -1;
+                }
+                searchFrom = end - start;
+                fill();
+            }
+        }
+
+        /**
+         * Moves the unread bytes to the front of the buffer, doubling it if a single line fills it,
+         * and reads more of the file after them.
+         */
+        private void fill() {
+            int remaining = end - start;
+            if (remaining == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            } else {
+                System.arraycopy(bytes, start, bytes, 0, remaining);
+            }
+            start = 0;
+            end = remaining;
+            try {
+                ByteBuffer target = ByteBuffer.wrap(bytes, end, bytes.length - end);
+                int read = channel.read(target);
+                if (read < 0) {
+                    endOfFile = true;
+                } else {
+                    end += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Checks the raw bytes of a line against the query's filters.
+         * 
+         * @param from the index of the first byte of the line
+         * @param to   the index after the last byte of the line
+         * @return true if the line is a record matching every filter
+         */
+        private boolean matches(int from, int to) {
+            if (!startsWith(from, to, PLAYER)) {
+                return false;
+            }
+            int scoreField;
+            if (playerName != null) {
+                scoreField = from + PLAYER.length + playerName.length;
+                if (!startsWith(from + PLAYER.length, to, playerName) || !startsWith(scoreField, to, SCORE)) {
+                    return false;
+                }
+            } else {
+                scoreField = indexOf(from + PLAYER.length, to, SCORE);
+                if (scoreField < 0) {
+                    return false;
+                }
+            }
+
+            // At most 9 digits, like RecordEntry.number, so the score cannot overflow
+            int scoreStart = scoreField + SCORE.length;
+            int digits = scoreStart;
+            int score = 0;
+            while (digits < to && digits - scoreStart < 9 && bytes[digits] >= '0' && bytes[digits] <= '9') {
+                score = score * 10 + (bytes[digits++] - '0');
+            }
+            if (digits == scoreStart || score < minScore || !startsWith(digits, to, DATE)) {
+                return false;
+            }
+
+            if (fromKey != Long.MIN_VALUE || toKey != Long.MAX_VALUE) {
+                int date = digits + DATE.length;
+                int time = startsWith(date + 10, to, TIME) ? date + 10 + TIME.length : date + 11;
+                if (time + 8 > to) {
+                    return false;
+                }
+                long key = digits(date, 4) * 10_000_000_000L + digits(date + 5, 2) * 100_000_000L
+                        + digits(date + 8, 2) * 1_000_000L + digits(time, 2) * 10_000L
+                        + digits(time + 3, 2) * 100L + digits(time + 6, 2);
+                return key >= fromKey && key < toKey;
+            }
+            return true;
+        }
+
+        private boolean startsWith(int from, int to, byte[] prefix) {
+            if (to - from < prefix.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (bytes[from + i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int indexOf(int from, int to, byte[] pattern) {
+            for (int i = from; i <= to - pattern.length; i++) {
+                if (startsWith(i, to, pattern)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private long digits(int from, int count) {
+            long value = 0;
+            for (int i = from; i < from + count; i++) {
+                value = value * 10 + (bytes[i] - '0');
+            }
+            return value;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing record file: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Aggregates of game records computed by {@link RecordColumns#statistics}: games, best and average
+ * score and average game duration per player, games per hour of day, and a histogram of the scores.
+ * Per-player values are held in arrays indexed by player id. Counts, score totals and duration totals,
+ * in whole microseconds, are exact integers, so merging results in any order gives the same result.
+ * The histogram has a bounded number of bins; when the scores need more, the last bin is open and
+ * also counts every higher score. Results of separate tasks are combined with {@link #merge}.
+ */
+public class RecordStatistics {
+
+    private final List<String> names;
+    private final int binWidth;
+    final long[] games;
+    final long[] scoreTotals;
+    final int[] bestScores;
+    final long[] timedGames; // Games with a known duration
+    final long[] durationTotals; // Microseconds
+    final long[] hourGames = new long[24];
+    final long[] histogram;
+    private final boolean lastBinOpen;
+    private long wallTimeNanos;
+
+    /**
+     * Constructor for empty RecordStatistics.
+     *
+     * @param names    the names of the players, indexed by player id
+     * @param bins        the number of bins of the score histogram
+     * @param binWidth    the width of each bin
+     * @param lastBinOpen whether the last bin also counts every score above it
+     */
+    RecordStatistics(List<String> names, int bins, int binWidth, boolean lastBinOpen) {
+        this.names = names;
+        this.binWidth = binWidth;
+        this.lastBinOpen = lastBinOpen;
+        this.games = new long[names.size()];
+        this.scoreTotals = new long[names.size()];
+        this.bestScores = new int[names.size()];
+        this.timedGames = new long[names.size()];
+        this.durationTotals = new long[names.size()];
+        this.histogram = new long[bins];
+    }
+
+    /**
+     * Sets the wall time taken to produce this result.
+     *
+     * @param wallTimeNanos the elapsed time in nanoseconds
+     */
+    void setWallTimeNanos(long wallTimeNanos) {
+        this.wallTimeNanos = wallTimeNanos;
+    }
+
+    /**
+     * Adds the records of another result over the same players and bins to this one. Wall time is not merged.
+     *
+     * @param other the result to merge into this one
+     */
+    public void merge(RecordStatistics other) {
+        if (other.games.length != games.length || other.histogram.length != histogram.length
+                || other.binWidth != binWidth || other.lastBinOpen != lastBinOpen) {
+            throw new IllegalArgumentException("Cannot merge statistics of different players or bins");
+        }
+        for (int p = 0; p < games.length; p++) {
+            games[p] += other.games[p];
+            scoreTotals[p] += other.scoreTotals[p];
+            bestScores[p] = Math.max(bestScores[p], other.bestScores[p]);
+            timedGames[p] += other.timedGames[p];
+            durationTotals[p] += other.durationTotals[p];
+        }
+        for (int h = 0; h < hourGames.length; h++) {
+            hourGames[h] += other.hourGames[h];
+        }
+        for (int b = 0; b < histogram.length; b++) {
+            histogram[b] += other.histogram[b];
+        }
+    }
+
+    /**
+     * Returns the number of records aggregated.
+     *
+     * @return the record count
+     */
+    public long getGames() {
+        long total = 0;
+        for (long g : hourGames) {
+            total += g;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the mean score of all records.
+     *
+     * @return the average score, or 0 without records
+     */
+    public double getAverageScore() {
+        long total = 0;
+        for (long s : scoreTotals) {
+            total += s;
+        }
+        long count = getGames();
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Returns the number of players.
+     *
+     * @return the player count
+     */
+    public int getPlayerCount() {
+        return names.size();
+    }
+
+    /**
+     * Returns the name of a player.
+     *
+     * @param player the id of the player
+     * @return the player's name
+     */
+    public String getPlayerName(int player) {
+        return names.get(player);
+    }
+
+    /**
+     * Returns the id of a player.
+     *
+     * @param playerName the name of the player
+     * @return the player's id, or -1 if the player has no records
+     */
+    public int getPlayerId(String playerName) {
+        return names.indexOf(playerName);
+    }
+
+    /**
+     * Returns the number of games a player played.
+     *
+     * @param player the id of the player
+     * @return the game count
+     */
+    public long getGames(int player) {
+        return games[player];
+    }
+
+    /**
+     * Returns a player's best score.
+     *
+     * @param player the id of the player
+     * @return the best score, or 0 without games
+     */
+    public int getBestScore(int player) {
+        return bestScores[player];
+    }
+
+    /**
+     * Returns a player's mean score.
+     *
+     * @param player the id of the player
+     * @return the average score, or 0 without games
+     */
+    public double getAverageScore(int player) {
+        return games[player] == 0 ? 0 : (double) scoreTotals[player] / games[player];
+    }
+
+    /**
+     * Returns a player's mean game duration, over the games whose duration is known.
+     *
+     * @param player the id of the player
+     * @return the average duration in seconds, or NaN if no duration is known
+     */
+    public double getAverageDurationSeconds(int player) {
+        return timedGames[player] == 0 ? Double.NaN : durationTotals[player] / 1e6 / timedGames[player];
+    }
+
+    /**
+     * Returns the number of games saved in an hour of the day.
+     *
+     * @param hour the hour, from 0 to 23
+     * @return the game count
+     */
+    public long getGamesInHour(int hour) {
+        return hourGames[hour];
+    }
+
+    /**
+     * Returns the width of the score histogram's bins; bin b counts scores from b * width to (b + 1) * width - 1.
+     *
+     * @return the bin width
+     */
+    public int getBinWidth() {
+        return binWidth;
+    }
+
+    /**
+     * Returns whether the last bin of the histogram is open, counting every score from its start up.
+     *
+     * @return true if the scores needed more bins than the histogram has
+     */
+    public boolean isLastBinOpen() {
+        return lastBinOpen;
+    }
+
+    /**
+     * Returns the number of bins of the score histogram, up to the bin of the highest score or the
+     * bound on the number of bins.
+     *
+     * @return the bin count
+     */
+    public int getBinCount() {
+        return histogram.length;
+    }
+
+    /**
+     * Returns the number of scores in a bin of the histogram.
+     *
+     * @param bin the index of the bin
+     * @return the score count
+     */
+    public long getBinGames(int bin) {
+        return histogram[bin];
+    }
+
+    /**
+     * Returns the players ordered from the most games to the fewest, then by name.
+     *
+     * @param count the largest number of players to return
+     * @return the ids of the most active players
+     */
+    public int[] mostActivePlayers(int count) {
+        return IntStream.range(0, games.length).boxed()
+                .filter(p -> games[p] > 0)
+                .sorted(Comparator.<Integer>comparingLong(p -> -games[p]).thenComparing(names::get))
+                .limit(count).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the wall time taken to produce this result.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public double getWallTimeMillis() {
+        return wallTimeNanos / 1_000_000.0;
+    }
+
+    /**
+     * Returns a report of the most active players, the games per hour and the score histogram,
+     * with bars scaled to the largest count.
+     *
+     * @param players the largest number of players to list
+     * @return the formatted report
+     */
+    public String format(int players) {
+        StringBuilder text = new StringBuilder(String.format("%d games by %d players, average score %.1f%n",
+                getGames(), names.size(), getAverageScore()));
+        text.append(String.format("%n%-20s %8s %8s %6s %10s%n", "Player", "Games", "Average", "Best", "Time (s)"));
+        for (int p : mostActivePlayers(players)) {
+            double duration = getAverageDurationSeconds(p);
+            text.append(String.format("%-20s %8d %8.1f %6d %10s%n", names.get(p), games[p], getAverageScore(p),
+                    bestScores[p], Double.isNaN(duration) ? "-" : String.format("%.1f", duration)));
+        }
+        text.append(String.format("%nGames per hour of day%n"));
+        List<String> hours = new ArrayList<>();
+        for (int h = 0; h < hourGames.length; h++) {
+            hours.add(String.format("%02d:00", h));
+        }
+        appendBars(text, hours, hourGames);
+        text.append(String.format("%nScores%n"));
+        List<String> bins = new ArrayList<>();
+        for (int b = 0; b < histogram.length; b++) {
+            bins.add(lastBinOpen && b == histogram.length - 1 ? (long) b * binWidth + "+"
+                    : String.format("%d-%d", (long) b * binWidth, (long) (b + 1) * binWidth - 1));
+        }
+        appendBars(text, bins, histogram);
+        text.append(String.format("Aggregated in %.1f ms", getWallTimeMillis()));
+        return text.toString();
+    }
+
+    /**
+     * Appends one line per count, with a bar of up to 40 characters.
+     *
+     * @param text   the report being built
+     * @param labels the label of each count
+     * @param counts the counts
+     */
+    private static void appendBars(StringBuilder text, List<String> labels, long[] counts) {
+        long max = 1;
+        for (long c : counts) {
+            max = Math.max(max, c);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            text.append(String.format("%-9s %10d %s%n", labels.get(i), counts[i], "#".repeat((int) (counts[i] * 40 / max))));
+        }
+    }
+
+    /**
+     * Returns the full report, listing the ten most active players.
+     *
+     * @return the formatted report
+     */
+    @Override
+    public String toString() {
+        return format(10);
+    }
+}
@@ -0,0 +1,19 @@
+package lib;
+
+/**
+ * Callback receiving the fields of each record during a scan of a {@link RecordLog},
+ * without creating an object per record.
+ */
+@FunctionalInterface
+public interface RecordVisitor {
+
+    /**
+     * Receives one record.
+     * 
+     * @param playerId       the index of the player's name in the log's string table
+     * @param score          the score achieved by the player
+     * @param epochMillis    the time the record was saved, in milliseconds since the epoch
+     * @param durationMicros the game duration in microseconds, or {@link RecordEntry#UNKNOWN_DURATION}
+     */
+    void visit(int playerId, int score, long epochMillis, long durationMicros);
+}
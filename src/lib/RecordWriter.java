@@ -0,0 +1,308 @@
+package lib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous group-commit writer for record lines.
+ * Any number of threads submit lines through a bounded lock-free queue, and a single writer
+ * thread appends them to one channel that stays open. Lines are written in batches, as soon as
+ * a batch is full or the oldest pending line has waited for the maximum delay, optionally
+ * followed by an fsync per batch. When the queue is full, submitting threads wait for room.
+ * A batch that cannot be written is dropped and its error is kept until {@link #flush()} or
+ * {@link #close()} reports it, so lost lines are never taken for saved ones.
+ */
+public class RecordWriter implements Closeable {
+
+    private static final long BACK_PRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long CLOSED = Long.MIN_VALUE; // Sign bit of the state; the other bits count submitted lines
+
+    private final FileChannel channel;
+    private final BoundedQueue<String> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final boolean syncEachBatch;
+    private final Thread writerThread;
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong state = new AtomicLong(); // Closed flag and submitted line count, changed together
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private volatile long flushTarget;
+    private IOException failure; // Guarded by this; the first error not yet reported
+    // Only changed by the writer thread
+    private volatile long processed; // Lines written or dropped
+    private volatile long written;
+    private volatile long failed;
+    private volatile long batches;
+    private volatile int maxBatchSize;
+
+    /**
+     * Constructor for RecordWriter, opening the file for appending and starting the writer thread.
+     * 
+     * @param filePath      the file the lines are appended to, created if it does not exist
+     * @param capacity      the number of lines the queue can hold before submitters wait
+     * @param batchSize     the number of lines that triggers an immediate write
+     * @param maxDelayMillis the longest a line waits before a partial batch is written
+     * @param syncEachBatch whether each batch is forced to the storage device after it is written
+     * @throws IOException if the file cannot be opened
+     */
+    public RecordWriter(Path filePath, int capacity, int batchSize, long maxDelayMillis, boolean syncEachBatch)
+            throws IOException {
+        this.channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.queue = new BoundedQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.syncEachBatch = syncEachBatch;
+        this.writerThread = new Thread(this::writeLoop, "record-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a line to be appended to the file, followed by a line separator.
+     * If the queue is full, the calling thread waits until the writer makes room.
+     * 
+     * @param line the line to append
+     * @throws IllegalStateException if the writer has been closed
+     */
+    public void submit(String line) {
+        long current;
+        do { // Checking for close and counting the line in one step, so the writer never exits with it in flight
+            current = state.get();
+            if (current < 0) {
+                throw new IllegalStateException("Record writer is closed");
+            }
+        } while (!state.compareAndSet(current, current + 1));
+        while (!queue.offer(line)) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(this, BACK_PRESSURE_PARK_NANOS);
+        }
+
+        int depth = queue.size();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        if (depth >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Waits until every line submitted before this call has been written.
+     * 
+     * @throws UncheckedIOException if a batch could not be written since the last error was reported
+     */
+    public void flush() {
+        long target = state.get() & ~CLOSED;
+        synchronized (this) {
+            flushTarget = Math.max(flushTarget, target);
+        }
+        while (processed < target && writerThread.isAlive()) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(this, BACK_PRESSURE_PARK_NANOS);
+        }
+        IOException error = takeFailure();
+        if (error != null) {
+            throw new UncheckedIOException("Records could not be written", error);
+        }
+    }
+
+    /**
+     * Returns the first error not yet reported, and forgets it.
+     * 
+     * @return the error, or null if every batch since the last report was written
+     */
+    private synchronized IOException takeFailure() {
+        IOException error = failure;
+        failure = null;
+        return error;
+    }
+
+    /**
+     * Body of the writer thread: collects lines into batches and writes each batch when it is full,
+     * when its oldest line has waited for the maximum delay, or when the writer is closing.
+     */
+    private void writeLoop() {
+        int pending = 0;
+        long deadline = 0;
+
+        while (true) {
+            String line = queue.poll();
+            if (line == null) {
+                long current = state.get();
+                boolean closing = current < 0;
+                boolean flushRequested = processed < flushTarget;
+                if (pending > 0 && (closing || flushRequested || System.nanoTime() - deadline >= 0)) {
+                    writeBatch(pending);
+                    pending = 0;
+                } else if (closing && processed == (current & ~CLOSED)) {
+                    return;
+                } else {
+                    LockSupport.parkNanos(this, pending > 0 ? deadline - System.nanoTime() : maxDelayNanos);
+                }
+                continue;
+            }
+
+            if (pending == 0) {
+                deadline = System.nanoTime() + maxDelayNanos;
+            }
+            append(line);
+            pending++;
+            if (pending >= batchSize) {
+                writeBatch(pending);
+                pending = 0;
+            }
+        }
+    }
+
+    /**
+     * Encodes a line and its separator into the batch buffer, growing the buffer if needed.
+     * 
+     * @param line the line to add to the batch
+     */
+    private void append(String line) {
+        byte[] bytes = (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        if (buffer.remaining() < bytes.length) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2,
+                    buffer.position() + bytes.length));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes the current batch to the channel and updates the statistics. A batch that fails is dropped
+     * and its error kept for the next flush or close.
+     * 
+     * @param lines the number of lines in the batch
+     */
+    private void writeBatch(int lines) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (syncEachBatch) {
+                channel.force(false);
+            }
+            written += lines;
+        } catch (IOException e) {
+            System.err.println("Error writing records: " + e.getMessage());
+            Metrics.global().recordError();
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            failed += lines;
+        }
+        buffer.clear();
+
+        batches++;
+        maxBatchSize = Math.max(maxBatchSize, lines);
+        processed += lines;
+    }
+
+    /**
+     * Returns the number of lines written so far.
+     * 
+     * @return the written line count
+     */
+    public long getRecordsWritten() {
+        return written;
+    }
+
+    /**
+     * Returns the number of lines dropped because their batch could not be written.
+     * 
+     * @return the failed line count
+     */
+    public long getRecordsFailed() {
+        return failed;
+    }
+
+    /**
+     * Returns the number of batches written so far.
+     * 
+     * @return the batch count
+     */
+    public long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * Returns the mean number of lines per batch written so far.
+     * 
+     * @return the average batch size, or 0 if nothing has been written
+     */
+    public double getAverageBatchSize() {
+        long count = batches;
+        return count == 0 ? 0 : (double) processed / count;
+    }
+
+    /**
+     * Returns the largest batch written so far.
+     * 
+     * @return the maximum batch size
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Returns the number of lines currently waiting in the queue.
+     * 
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the deepest the queue has been since the writer was opened.
+     * 
+     * @return the maximum queue depth
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Stops accepting lines, writes everything still queued and closes the file.
+     * 
+     * @throws IOException if the file cannot be closed, or a batch could not be written since the last
+     *                     error was reported
+     */
+    @Override
+    public void close() throws IOException {
+        state.getAndUpdate(current -> current | CLOSED);
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (syncEachBatch) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+        IOException error = takeFailure();
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,490 @@
+package lib;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of every round of every game, compact enough to stay on for all games.
+ * Each game is one block, written when the game finishes or is abandoned, so games played at the
+ * same time never interleave. A block starts with its length and a CRC32 of its payload, followed by:
+ * <ul>
+ * <li>the start time, player name, dice specification, target score, scoring rules and the seed
+ * the dice were rolled from, which is all a replay needs;</li>
+ * <li>for each round, as unsigned or zigzag varints: the change of the guess from the previous round,
+ * each die's result, the points earned and the milliseconds since the previous round;</li>
+ * <li>the final score and whether the game finished.</li>
+ * </ul>
+ * A round of two dice typically takes 5 or 6 bytes. Blocks are read back as {@link JournalGame}s,
+ * which replay the game from its seed to verify it.
+ */
+public class RoundJournal implements Closeable {
+
+    private static final int MAGIC = 0x4C44524A; // "LDRJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int BLOCK_HEADER_SIZE = 8; // Payload length and CRC32
+
+    private final Path filePath;
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+    private long end;
+    private long games;
+
+    /**
+     * Opens the journal at the specified path, creating it if it does not exist.
+     * A partially written block at the end of the file, left by a crash, is cut off.
+     * 
+     * @param filePath the path of the journal file
+     * @throws IOException if the file cannot be opened or is not a round journal
+     */
+    public RoundJournal(Path filePath) throws IOException {
+        this.filePath = filePath;
+        this.channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.size() < HEADER_SIZE) {
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            channel.write(header, 0);
+            end = HEADER_SIZE;
+        } else {
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                close();
+                throw new IOException("Not a LuckyDie round journal: " + filePath);
+            }
+            findEnd();
+        }
+    }
+
+    /**
+     * Walks the block lengths to the end of the last complete block and truncates anything after it.
+     * 
+     * @throws IOException if the file cannot be read
+     */
+    private void findEnd() throws IOException {
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(filePath)))) {
+            in.skipNBytes(HEADER_SIZE);
+            while (position + BLOCK_HEADER_SIZE <= size) {
+                int length = in.readInt();
+                if (length < 0 || position + BLOCK_HEADER_SIZE + length > size) {
+                    break;
+                }
+                in.skipNBytes(4L + length);
+                position += BLOCK_HEADER_SIZE + length;
+                games++;
+            }
+        }
+        end = position;
+        channel.truncate(end);
+    }
+
+    /**
+     * Starts journaling a game. The session must roll from a seeded random source that has not been
+     * used yet, so the seed alone reproduces its rolls.
+     * 
+     * @param playerName the name of the player
+     * @param session    the session whose rounds are journaled
+     * @return the writer receiving the session's rounds
+     * @throws IllegalArgumentException if the session's dice are not seeded
+     */
+    public GameWriter begin(String playerName, GameSession session) {
+        if (!session.getRandom().isSeeded()) {
+            throw new IllegalArgumentException("Only games rolled from a seed can be journaled");
+        }
+        return new GameWriter(playerName, session);
+    }
+
+    /**
+     * Appends a block to the journal.
+     * 
+     * @param payload the encoded game
+     * @param length  the number of bytes of the payload
+     * @throws IOException if the block cannot be written
+     */
+    private synchronized void append(byte[] payload, int length) throws IOException {
+        crc.reset();
+        crc.update(payload, 0, length);
+        blockHeader.clear();
+        blockHeader.putInt(length).putInt((int) crc.getValue()).flip();
+        ByteBuffer[] block = { blockHeader, ByteBuffer.wrap(payload, 0, length) };
+        long position = end;
+        channel.position(position);
+        while (block[1].hasRemaining()) {
+            position += channel.write(block);
+        }
+        end = position;
+        games++;
+    }
+
+    /**
+     * Reads every game in a journal, in the order they were written.
+     * Blocks failing their checksum are reported as corrupt games rather than decoded. The block
+     * length is not covered by the checksum, so reading stops at a length that is negative or runs
+     * past the end of the file, as it does at a block cut off by a crash.
+     * 
+     * @param filePath the path of the journal file
+     * @param visitor  receives each game
+     * @throws IOException if the file cannot be read or is not a round journal
+     */
+    public static void read(Path filePath, Consumer<JournalGame> visitor) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(filePath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a LuckyDie round journal: " + filePath);
+            }
+            CRC32 crc = new CRC32();
+            byte[] payload = new byte[256];
+            long size = Files.size(filePath);
+            long position = HEADER_SIZE;
+            long index = 0;
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 0 || position + BLOCK_HEADER_SIZE + length > size) {
+                        return; // A damaged length, or a block cut off by a crash
+                    }
+                    position += BLOCK_HEADER_SIZE + length;
+                    if (length > payload.length) {
+                        payload = new byte[Math.max(length, payload.length * 2)];
+                    }
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    return; // End of the journal, or a block cut off by a crash
+                }
+                crc.reset();
+                crc.update(payload, 0, length);
+                JournalGame game;
+                try {
+                    game = (int) crc.getValue() == checksum ? decode(index, payload, length) : JournalGame.corrupt(index);
+                } catch (IllegalStateException | IllegalArgumentException e) {
+                    game = JournalGame.corrupt(index);
+                }
+                visitor.accept(game);
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Decodes one game from its block payload.
+     * 
+     * @param index   the position of the game in the journal
+     * @param payload the block payload
+     * @param length  the number of bytes of the payload
+     * @return the decoded game
+     */
+    private static JournalGame decode(long index, byte[] payload, int length) {
+        Decoder in = new Decoder(payload, length);
+        long startMillis = in.readVarLong();
+        String playerName = in.readString();
+        String diceSpec = in.readString();
+        int targetScore = in.readVarInt();
+        int bandCount = in.readCount(2);
+        int[] maxDifferences = new int[bandCount];
+        int[] bandPoints = new int[bandCount];
+        for (int i = 0; i < bandCount; i++) {
+            maxDifferences[i] = in.readVarInt();
+            bandPoints[i] = in.readVarInt();
+        }
+        long seed = in.readFixedLong();
+        int diceCount = in.readCount(1);
+        int rounds = in.readCount(diceCount + 3L);
+
+        int[] guesses = new int[rounds];
+        int[] dice = new int[rounds * diceCount];
+        int[] points = new int[rounds];
+        int[] roundMillis = new int[rounds];
+        int guess = 0;
+        for (int r = 0; r < rounds; r++) {
+            guess += in.readZigzag();
+            guesses[r] = guess;
+            for (int d = 0; d < diceCount; d++) {
+                dice[r * diceCount + d] = in.readVarInt() + 1;
+            }
+            points[r] = in.readVarInt();
+            roundMillis[r] = in.readVarInt();
+        }
+        int finalScore = in.readVarInt();
+        boolean finished = in.readVarInt() == 1;
+        return new JournalGame(index, startMillis, playerName, diceSpec, targetScore,
+                new ScoringRules(maxDifferences, bandPoints), seed, diceCount, guesses, dice, points, roundMillis,
+                finalScore, finished);
+    }
+
+    /**
+     * Returns the number of games in the journal.
+     * 
+     * @return the game count
+     */
+    public synchronized long getGameCount() {
+        return games;
+    }
+
+    /**
+     * Returns the path of the journal file.
+     * 
+     * @return the file path
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Forces all appended games to the storage device.
+     * 
+     * @throws IOException if the file cannot be synced
+     */
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Collects the rounds of one game in memory and appends the game to the journal when it finishes
+     * or is abandoned. Each round costs a handful of byte writes into a reused buffer.
+     * Not thread-safe; a writer belongs to its session.
+     */
+    public final class GameWriter {
+
+        private final String playerName;
+        private final String diceSpec;
+        private final int targetScore;
+        private final ScoringRules rules;
+        private final long seed;
+        private final int diceCount;
+        private final long startMillis = System.currentTimeMillis();
+        private final Encoder rounds = new Encoder(64);
+        private long lastRoundNanos = System.nanoTime();
+        private int roundCount;
+        private int lastGuess;
+        private int score;
+        private boolean written;
+
+        private GameWriter(String playerName, GameSession session) {
+            this.playerName = playerName;
+            this.diceSpec = session.getDice().toString();
+            this.targetScore = session.getTargetScore();
+            this.rules = session.getScoringRules();
+            this.seed = session.getRandom().getSeed();
+            this.diceCount = session.getDice().getDiceCount();
+        }
+
+        /**
+         * Adds a round to the game, and appends the game to the journal if the round finished it.
+         * 
+         * @param round the outcome of the round
+         */
+        public void recordRound(RoundResult round) {
+            long now = System.nanoTime();
+            rounds.writeZigzag(round.getGuess() - lastGuess);
+            for (int d = 0; d < diceCount; d++) {
+                rounds.writeVarLong(round.getDie(d) - 1);
+            }
+            rounds.writeVarLong(round.getPoints());
+            rounds.writeVarLong((now - lastRoundNanos) / 1_000_000);
+            lastRoundNanos = now;
+            lastGuess = round.getGuess();
+            score = round.getScore();
+            roundCount++;
+            if (round.isFinished()) {
+                write(true);
+            }
+        }
+
+        /**
+         * Appends the game as it stands to the journal, marked as not finished. Does nothing if the
+         * game was already written.
+         */
+        public void abandon() {
+            write(false);
+        }
+
+        /**
+         * Encodes the game and appends it to the journal, logging any error rather than failing the game.
+         * 
+         * @param finished whether the game reached its target score
+         */
+        private void write(boolean finished) {
+            if (written) {
+                return;
+            }
+            written = true;
+            byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+            Encoder block = new Encoder(48 + name.length + rounds.length);
+            block.writeVarLong(startMillis);
+            block.writeBytes(name);
+            block.writeBytes(diceSpec.getBytes(StandardCharsets.US_ASCII));
+            block.writeVarLong(targetScore);
+            block.writeVarLong(rules.getBandCount());
+            for (int i = 0; i < rules.getBandCount(); i++) {
+                block.writeVarLong(rules.getBandMaxDifference(i));
+                block.writeVarLong(rules.getBandPoints(i));
+            }
+            block.writeFixedLong(seed);
+            block.writeVarLong(diceCount);
+            block.writeVarLong(roundCount);
+            block.writeRaw(rounds.bytes, rounds.length);
+            block.writeVarLong(score);
+            block.writeVarLong(finished ? 1 : 0);
+            try {
+                append(block.bytes, block.length);
+            } catch (IOException e) {
+                System.err.println("Error saving round journal: " + e.getMessage());
+                Metrics.global().recordError();
+            }
+        }
+    }
+
+    /**
+     * Growable byte buffer writing varints: 7 bits per byte, low bits first, high bit set on all but the last.
+     */
+    private static final class Encoder {
+
+        private byte[] bytes;
+        private int length;
+
+        Encoder(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void writeVarLong(long value) {
+            if (length + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2 + 10);
+            }
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeZigzag(int value) {
+            writeVarLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+        }
+
+        void writeFixedLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                writeRawByte((byte) (value >>> shift));
+            }
+        }
+
+        void writeBytes(byte[] value) {
+            writeVarLong(value.length);
+            writeRaw(value, value.length);
+        }
+
+        void writeRaw(byte[] value, int count) {
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+            }
+            System.arraycopy(value, 0, bytes, length, count);
+            length += count;
+        }
+
+        private void writeRawByte(byte value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2 + 1);
+            }
+            bytes[length++] = value;
+        }
+    }
+
+    /**
+     * Reads the values written by an {@link Encoder}.
+     */
+    private static final class Decoder {
+
+        private final byte[] bytes;
+        private final int length;
+        private int position;
+
+        Decoder(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= length) {
+                    throw new IllegalStateException("Journal block ends inside a value");
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint in journal block");
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        /**
+         * Reads a count of entries, each taking at least the specified number of bytes in the rest of the block.
+         * 
+         * @param entryBytes the fewest bytes one entry is encoded in
+         * @return the count
+         * @throws IllegalStateException if the count is negative or more than the block can hold
+         */
+        int readCount(long entryBytes) {
+            long count = readVarLong();
+            if (count < 0 || count > (length - position) / entryBytes) {
+                throw new IllegalStateException("Invalid count in journal block: " + count);
+            }
+            return (int) count;
+        }
+
+        int readZigzag() {
+            int value = (int) readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readFixedLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            int size = readCount(1);
+            String value = new String(bytes, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+
+        private byte readByte() {
+            if (position >= length) {
+                throw new IllegalStateException("Journal block ends inside a value");
+            }
+            return bytes[position++];
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package lib;
+
+/**
+ * Outcome of a single round of a {@link GameSession}: the guess, each die's result,
+ * the points earned and the score after the round.
+ * Each session reuses one instance for every round, so read the values before submitting the next guess.
+ */
+public class RoundResult {
+
+    private int round;
+    private int guess;
+    private int[] dice;
+    private int sum;
+    private int points;
+    private int score;
+    private boolean finished;
+
+    /**
+     * Stores the outcome of a round.
+     * 
+     * @param round    the number of the round, starting at 1
+     * @param guess    the guessed combined roll
+     * @param dice     the result of each die, owned by the session and overwritten every round
+     * @param sum      the combined roll
+     * @param points   the points earned in the round
+     * @param score    the total score after the round
+     * @param finished whether the round reached the target score
+     */
+    void set(int round, int guess, int[] dice, int sum, int points, int score, boolean finished) {
+        this.round = round;
+        this.guess = guess;
+        this.dice = dice;
+        this.sum = sum;
+        this.points = points;
+        this.score = score;
+        this.finished = finished;
+    }
+
+    /**
+     * Returns the number of the round.
+     * 
+     * @return the round number, starting at 1
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Returns the guess made for the round.
+     * 
+     * @return the guessed combined roll
+     */
+    public int getGuess() {
+        return guess;
+    }
+
+    /**
+     * Returns the number of dice rolled in the round.
+     * 
+     * @return the dice count
+     */
+    public int getDiceCount() {
+        return dice.length;
+    }
+
+    /**
+     * Returns the result of a die.
+     * 
+     * @param index the position of the die, starting at 0
+     * @return the die's result
+     */
+    public int getDie(int index) {
+        return dice[index];
+    }
+
+    /**
+     * Returns the result of the first die.
+     * 
+     * @return the first die's result
+     */
+    public int getDie1() {
+        return dice[0];
+    }
+
+    /**
+     * Returns the result of the second die.
+     * 
+     * @return the second die's result
+     */
+    public int getDie2() {
+        return dice[1];
+    }
+
+    /**
+     * Returns the combined roll of both dice.
+     * 
+     * @return the sum of the dice
+     */
+    public int getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the points earned in the round.
+     * 
+     * @return the points earned
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * Returns the total score after the round.
+     * 
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns whether the round reached the target score and finished the game.
+     * 
+     * @return true if the game is finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+}
@@ -0,0 +1,187 @@
+package lib;
+
+import java.util.function.Supplier;
+
+/**
+ * Exact distribution of the number of rounds needed to reach a target score, as computed by
+ * {@link RoundsSolver}, together with its moments and the distribution of the final overshoot.
+ * The moments and overshoot are known on construction; the per-round probabilities come from the
+ * solver's forward sweep, which is started on first use and stepped only as far as each query needs,
+ * together with their running sum so cumulative probabilities and percentiles already swept are lookups.
+ */
+public class RoundsDistribution {
+
+    private final int targetScore;
+    private final double meanRounds;
+    private final double roundsVariance;
+    private final double[] overshootProbabilities;
+    private Supplier<RoundsSolver.Sweep> start;
+    private RoundsSolver.Sweep sweep;
+
+    /**
+     * Constructor for RoundsDistribution.
+     * 
+     * @param targetScore            the score the distribution was solved for
+     * @param meanRounds             the exact mean number of rounds
+     * @param roundsVariance         the exact variance of the number of rounds
+     * @param overshootProbabilities the probability of each overshoot past the target, indexed by points
+     * @param start                  starts the solver's sweep of the finishing probability of each round
+     */
+    RoundsDistribution(int targetScore, double meanRounds, double roundsVariance, double[] overshootProbabilities,
+            Supplier<RoundsSolver.Sweep> start) {
+        this.targetScore = targetScore;
+        this.meanRounds = meanRounds;
+        this.roundsVariance = roundsVariance;
+        this.overshootProbabilities = overshootProbabilities;
+        this.start = start;
+    }
+
+    /**
+     * Returns the solver's sweep, stepped until it covers the specified rounds and cumulative probability,
+     * or until it has settled. Callers hold the lock while they read the sweep.
+     * 
+     * @param rounds   the number of rounds to cover
+     * @param fraction the cumulative probability to reach
+     * @return the sweep
+     */
+    private RoundsSolver.Sweep sweepUntil(int rounds, double fraction) {
+        if (sweep == null) {
+            sweep = start.get();
+            start = null;
+        }
+        while ((sweep.getRounds() < rounds || sweep.cumulativeProbability(sweep.getRounds()) < fraction)
+                && sweep.step()) {
+            // Stepping
+        }
+        return sweep;
+    }
+
+    /**
+     * Returns the probability that the game finishes in exactly the specified number of rounds.
+     * 
+     * @param rounds the number of rounds
+     * @return the probability of finishing in that many rounds
+     */
+    public synchronized double probability(int rounds) {
+        RoundsSolver.Sweep sweep = sweepUntil(rounds, 0);
+        return rounds > 0 && rounds <= sweep.getRounds() ? sweep.probability(rounds) : 0;
+    }
+
+    /**
+     * Returns the probability that the game finishes within the specified number of rounds.
+     * 
+     * @param rounds the number of rounds
+     * @return the cumulative probability of finishing in at most that many rounds
+     */
+    public synchronized double cumulativeProbability(int rounds) {
+        if (rounds < 0) {
+            return 0;
+        }
+        RoundsSolver.Sweep sweep = sweepUntil(rounds, 0);
+        return sweep.cumulativeProbability(Math.min(rounds, sweep.getRounds()));
+    }
+
+    /**
+     * Returns the smallest number of rounds within which the game finishes with at least the given probability.
+     * 
+     * @param fraction the probability, between 0 and 1
+     * @return the rounds percentile
+     */
+    public synchronized int getRoundsPercentile(double fraction) {
+        RoundsSolver.Sweep sweep = sweepUntil(0, fraction);
+        int low = 0;
+        int high = sweep.getRounds();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sweep.cumulativeProbability(middle) >= fraction) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the largest number of rounds with a non-zero probability in the computed distribution.
+     * 
+     * @return the longest game length covered
+     */
+    public synchronized int getMaxRounds() {
+        return sweepUntil(Integer.MAX_VALUE, 0).getRounds();
+    }
+
+    /**
+     * Returns the exact mean number of rounds to reach the target.
+     * 
+     * @return the mean rounds
+     */
+    public double getMeanRounds() {
+        return meanRounds;
+    }
+
+    /**
+     * Returns the exact standard deviation of the number of rounds to reach the target.
+     * 
+     * @return the standard deviation of the rounds
+     */
+    public double getRoundsStandardDeviation() {
+        return Math.sqrt(roundsVariance);
+    }
+
+    /**
+     * Returns the probability of finishing exactly the specified number of points past the target.
+     * 
+     * @param overshoot the points scored past the target
+     * @return the probability of that overshoot
+     */
+    public double overshootProbability(int overshoot) {
+        return overshoot >= 0 && overshoot < overshootProbabilities.length ? overshootProbabilities[overshoot] : 0;
+    }
+
+    /**
+     * Returns the expected number of points scored past the target.
+     * 
+     * @return the expected final overshoot
+     */
+    public double getExpectedOvershoot() {
+        double expected = 0;
+        for (int i = 0; i < overshootProbabilities.length; i++) {
+            expected += i * overshootProbabilities[i];
+        }
+        return expected;
+    }
+
+    /**
+     * Returns the probability mass dropped from the far tails while computing the rounds distribution.
+     * The mean, deviation and overshoot are computed separately and are not affected.
+     * 
+     * @return the truncated probability
+     */
+    public synchronized double getTruncatedProbability() {
+        return sweepUntil(Integer.MAX_VALUE, 0).getTruncatedProbability();
+    }
+
+    /**
+     * Returns the score the distribution was solved for.
+     * 
+     * @return the target score
+     */
+    public int getTargetScore() {
+        return targetScore;
+    }
+
+    /**
+     * Returns a short multi-line summary of the distribution.
+     * 
+     * @return the formatted summary
+     */
+    @Override
+    public String toString() {
+        return String.format("Target: %d%n"
+                + "Mean rounds: %.3f (sd %.3f) | Median: %d | 99th percentile: %d%n"
+                + "Expected overshoot: %.3f points",
+                targetScore, meanRounds, getRoundsStandardDeviation(), getRoundsPercentile(0.5),
+                getRoundsPercentile(0.99), getExpectedOvershoot());
+    }
+}
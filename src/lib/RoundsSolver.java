@@ -0,0 +1,594 @@
+package lib;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Analytic solver for the number of rounds needed to reach a target score.
+ * The score is treated as a Markov chain over 0 to the target, where each round moves the score
+ * up by the points earned with the strategy's guess for that score, under the scoring rules of the
+ * distribution. Scores are counted in units of the greatest common divisor of the reachable points, and every pass is a dynamic program over
+ * primitive arrays:
+ * <ul>
+ * <li>the mean and variance of the rounds and the overshoot distribution take one linear pass each;</li>
+ * <li>the full rounds distribution is swept forward round by round over the window of scores
+ * that still hold probability mass. The sweep costs O(rounds * window), so it only runs as far as
+ * the distribution's queries need: a median stops at the median, and later queries resume it.</li>
+ * </ul>
+ * No game can finish before the mass has crossed the scores below the target where every score
+ * plays the same guess. Those rounds are independent and identically distributed, so the sweep skips
+ * them: the score after them is the step distribution raised to that many rounds by repeated
+ * squaring with FFT convolutions, and only the rounds around the percentiles are stepped.
+ * The chain assumes the guess depends only on the current score, so the strategy is queried
+ * once per reachable score, as in round 1.
+ */
+public class RoundsSolver {
+
+    private static final double NEGLIGIBLE = 1e-18; // Mass below this is dropped from the sweep window
+    private static final double SETTLED = 1e-15;    // The sweep stops once this little mass remains
+    private static final double SPREAD = 12;        // Standard deviations kept either side of a skipped sum
+    private static final int DIRECT_CONVOLUTION = 1 << 14; // Products below this size skip the FFT
+
+    private SumDistribution distribution;
+    private GuessStrategy strategy;
+
+    /**
+     * Constructor for RoundsSolver for the standard game of two dice.
+     * 
+     * @param sides    the number of sides on each die
+     * @param strategy the strategy supplying the guess for each score, from the score alone
+     */
+    public RoundsSolver(int sides, GuessStrategy strategy) {
+        this(SumDistribution.of(2, sides), strategy);
+    }
+
+    /**
+     * Constructor for RoundsSolver for any dice configuration. The strategy must choose its guess from
+     * the score alone: it is asked once per score, as in round 1, so a strategy that changes its guess
+     * with the round, such as one alternating between two guesses, is solved as if it always played
+     * its round 1 guess.
+     * 
+     * @param distribution the distribution of the combined roll
+     * @param strategy     the strategy supplying the guess for each score, from the score alone
+     */
+    public RoundsSolver(SumDistribution distribution, GuessStrategy strategy) {
+        this.distribution = distribution;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Computes the exact distribution of rounds needed to reach the specified target score.
+     * The mean, variance and overshoot are computed immediately; the rounds distribution itself
+     * is swept as far as its queries need.
+     * 
+     * @param targetScore the score at which the game ends
+     * @return the rounds distribution with its moments and overshoot distribution
+     * @throws IllegalStateException if the strategy can reach a score from which it never scores
+     */
+    public RoundsDistribution solve(int targetScore) {
+        if (targetScore <= 0) {
+            throw new IllegalArgumentException("Target score must be positive: " + targetScore);
+        }
+        int unit = distribution.getScoringRules().getScoringUnit(); // Chain needs one state per reachable score
+        int states = (targetScore + unit - 1) / unit;
+
+        // One transition profile per distinct guess: step sizes in score units and their probabilities
+        Map<Integer, Integer> profileOfGuess = new HashMap<>();
+        int[][] profileSteps = new int[8][];
+        double[][] profileProbabilities = new double[8][];
+        double[] profileStay = new double[8];
+        int[] stateProfile = new int[states];
+        int maxStep = 0;
+
+        for (int i = 0; i < states; i++) {
+            int guess = strategy.nextGuess(1, i * unit, targetScore);
+            Integer profile = profileOfGuess.get(guess);
+            if (profile == null) {
+                profile = profileOfGuess.size();
+                profileOfGuess.put(guess, profile);
+                if (profile == profileSteps.length) {
+                    profileSteps = Arrays.copyOf(profileSteps, profile * 2);
+                    profileProbabilities = Arrays.copyOf(profileProbabilities, profile * 2);
+                    profileStay = Arrays.copyOf(profileStay, profile * 2);
+                }
+                double[] byStep = stepProbabilities(guess, unit);
+                profileStay[profile] = byStep[0];
+                int moves = 0;
+                for (int k = 1; k < byStep.length; k++) {
+                    if (byStep[k] > 0) {
+                        moves++;
+                    }
+                }
+                profileSteps[profile] = new int[moves];
+                profileProbabilities[profile] = new double[moves];
+                for (int k = 1, m = 0; k < byStep.length; k++) {
+                    if (byStep[k] > 0) {
+                        profileSteps[profile][m] = k;
+                        profileProbabilities[profile][m++] = byStep[k];
+                        maxStep = Math.max(maxStep, k);
+                    }
+                }
+            }
+            stateProfile[i] = profile;
+        }
+
+        // Backward pass: mean and second moment of the rounds left from each state
+        double[] mean = new double[states + maxStep];
+        double[] secondMoment = new double[states + maxStep];
+        for (int i = states - 1; i >= 0; i--) {
+            int profile = stateProfile[i];
+            double move = 1 - profileStay[profile];
+            if (move <= 0) {
+                mean[i] = Double.POSITIVE_INFINITY;
+                secondMoment[i] = Double.POSITIVE_INFINITY;
+                continue;
+            }
+            int[] steps = profileSteps[profile];
+            double[] probabilities = profileProbabilities[profile];
+            double nextMean = 0;
+            double nextSecond = 0;
+            for (int k = 0; k < steps.length; k++) {
+                double p = probabilities[k] / move;
+                nextMean += p * mean[i + steps[k]];
+                nextSecond += p * secondMoment[i + steps[k]];
+            }
+            // Rounds spent at this score are geometric with success probability 'move'
+            double waitMean = 1 / move;
+            double waitSecond = (2 - move) / (move * move);
+            mean[i] = waitMean + nextMean;
+            secondMoment[i] = waitSecond + 2 * waitMean * nextMean + nextSecond;
+        }
+        if (Double.isInfinite(mean[0])) {
+            throw new IllegalStateException("Strategy can reach a score from which it never scores");
+        }
+
+        // Forward pass: probability of visiting each state, and of each final overshoot
+        double[] visit = new double[states];
+        double[] overshoot = new double[maxStep * unit];
+        visit[0] = 1;
+        for (int i = 0; i < states; i++) {
+            if (visit[i] == 0) {
+                continue;
+            }
+            int profile = stateProfile[i];
+            double move = 1 - profileStay[profile];
+            int[] steps = profileSteps[profile];
+            double[] probabilities = profileProbabilities[profile];
+            for (int k = 0; k < steps.length; k++) {
+                int next = i + steps[k];
+                double p = visit[i] * probabilities[k] / move;
+                if (next >= states) {
+                    overshoot[next * unit - targetScore] += p;
+                } else {
+                    visit[next] += p;
+                }
+            }
+        }
+
+        int[][] steps = Arrays.copyOf(profileSteps, profileOfGuess.size());
+        double[][] probabilities = Arrays.copyOf(profileProbabilities, profileOfGuess.size());
+        double[] stay = Arrays.copyOf(profileStay, profileOfGuess.size());
+        int windowGrowth = maxStep;
+        int uniform = 1; // Scores below this all play the guess of score 0
+        while (uniform < states && stateProfile[uniform] == stateProfile[0]) {
+            uniform++;
+        }
+        int uniformStates = uniform;
+        return new RoundsDistribution(targetScore, mean[0], secondMoment[0] - mean[0] * mean[0], overshoot,
+                () -> new Sweep(states, stateProfile, steps, probabilities, stay, windowGrowth, uniformStates));
+    }
+
+    /**
+     * Forward sweep of the probability mass, round by round over the live window of states,
+     * collecting the probability of finishing in each round. States whose mass falls below
+     * a negligible level at either edge of the window are dropped. The sweep is stepped one round
+     * at a time, so a query stops as soon as it has its answer.
+     */
+    static final class Sweep {
+
+        private final int states;
+        private final int[] stateProfile;
+        private final int[][] steps;
+        private final double[][] probabilities;
+        private final double[] stay;
+        private final int maxStep;
+        private final int uniform;
+        private final int[] steps0;
+        private final double[] probabilities0;
+        private final double stay0;
+        private final double[] mass;
+        private int low;
+        private int high;
+        private int rounds;
+        private double remaining = 1;
+        private double truncated;
+        private double[] finished; // Probability of finishing in each number of rounds
+        private double[] cumulative; // Probability of finishing within each number of rounds
+
+        /**
+         * Constructor for Sweep, which starts after the rounds it can skip.
+         * 
+         * @param states        the number of states below the target
+         * @param stateProfile  the transition profile of each state
+         * @param steps         the step sizes of each profile
+         * @param probabilities the probabilities of the steps of each profile
+         * @param stay          the probability of scoring nothing for each profile
+         * @param maxStep       the largest step of any profile
+         * @param uniform       the number of states from 0 that share the profile of state 0
+         */
+        private Sweep(int states, int[] stateProfile, int[][] steps, double[][] probabilities, double[] stay,
+                int maxStep, int uniform) {
+            this.states = states;
+            this.stateProfile = stateProfile;
+            this.steps = steps;
+            this.probabilities = probabilities;
+            this.stay = stay;
+            this.maxStep = maxStep;
+            this.uniform = uniform;
+            this.steps0 = steps[stateProfile[0]];
+            this.probabilities0 = probabilities[stateProfile[0]];
+            this.stay0 = stay[stateProfile[0]];
+            this.mass = new double[states];
+            mass[0] = 1;
+
+            double[] kernel = new double[maxStep + 1];
+            kernel[0] = stay0;
+            for (int k = 0; k < steps0.length; k++) {
+                kernel[steps0[k]] = probabilities0[k];
+            }
+            int skipped = skippableRounds(kernel, uniform);
+            if (skipped > 0) {
+                ScoreBand band = ScoreBand.of(kernel).power(skipped);
+                mass[0] = 0;
+                remaining = 0;
+                low = band.offset;
+                high = band.offset + band.mass.length - 1;
+                for (int i = 0; i < band.mass.length; i++) {
+                    mass[low + i] = band.mass[i];
+                    remaining += band.mass[i];
+                }
+                while (low < high && mass[low] == 0) {
+                    low++;
+                }
+                while (high > low && mass[high] == 0) {
+                    high--;
+                }
+                truncated = Math.max(1 - remaining, 0);
+                rounds = skipped;
+            }
+            finished = new double[rounds + 64];
+            cumulative = new double[rounds + 64];
+        }
+
+        /**
+         * Steps the mass forward one round, unless the sweep has settled.
+         * 
+         * @return true if a round was stepped, false once so little mass remains that the sweep is done
+         */
+        boolean step() {
+            if (isSettled()) {
+                return false;
+            }
+            rounds++;
+            if (rounds == finished.length) {
+                finished = Arrays.copyOf(finished, rounds * 2);
+                cumulative = Arrays.copyOf(cumulative, rounds * 2);
+            }
+            double done = 0;
+            // Descending order lets the update run in place: higher states already hold next-round mass.
+            // States that play the guess of score 0 and cannot finish take the branch-free loop below.
+            int plain = Math.max(Math.min(high, Math.min(uniform, states - maxStep) - 1), low - 1);
+            for (int i = high; i > plain; i--) {
+                double m = mass[i];
+                if (m == 0) {
+                    continue;
+                }
+                int profile = stateProfile[i];
+                mass[i] = m * stay[profile];
+                int[] profileSteps = steps[profile];
+                double[] profileProbabilities = probabilities[profile];
+                for (int k = 0; k < profileSteps.length; k++) {
+                    int next = i + profileSteps[k];
+                    if (next >= states) {
+                        done += m * profileProbabilities[k];
+                    } else {
+                        mass[next] += m * profileProbabilities[k];
+                    }
+                }
+            }
+            for (int i = plain; i >= low; i--) {
+                double m = mass[i];
+                mass[i] = m * stay0;
+                for (int k = 0; k < steps0.length; k++) {
+                    mass[i + steps0[k]] += m * probabilities0[k];
+                }
+            }
+            finished[rounds] = done;
+            cumulative[rounds] = cumulative[rounds - 1] + done;
+            remaining -= done;
+            high = Math.min(high + maxStep, states - 1);
+            while (low <= high && mass[low] < NEGLIGIBLE) {
+                truncated += mass[low];
+                remaining -= mass[low];
+                mass[low++] = 0;
+            }
+            while (high >= low && mass[high] < NEGLIGIBLE) {
+                truncated += mass[high];
+                remaining -= mass[high];
+                mass[high--] = 0;
+            }
+            return true;
+        }
+
+        /**
+         * Returns whether the sweep is done: so little mass remains that no later round matters.
+         * 
+         * @return true once the sweep has settled
+         */
+        boolean isSettled() {
+            return remaining <= SETTLED || low > high;
+        }
+
+        /**
+         * Returns the number of rounds swept so far, including the skipped ones.
+         * 
+         * @return the rounds swept
+         */
+        int getRounds() {
+            return rounds;
+        }
+
+        /**
+         * Returns the probability of finishing in exactly the specified number of swept rounds.
+         * 
+         * @param round the number of rounds, from 1 to the rounds swept
+         * @return the probability of finishing in that round
+         */
+        double probability(int round) {
+            return finished[round];
+        }
+
+        /**
+         * Returns the probability of finishing within the specified number of swept rounds.
+         * 
+         * @param round the number of rounds, from 0 to the rounds swept
+         * @return the cumulative probability of finishing in at most that many rounds
+         */
+        double cumulativeProbability(int round) {
+            return cumulative[round];
+        }
+
+        /**
+         * Returns the probability mass dropped from the far tails so far, and once settled the mass
+         * left unfinished.
+         * 
+         * @return the truncated probability
+         */
+        double getTruncatedProbability() {
+            return truncated + (isSettled() ? Math.max(remaining, 0) : 0);
+        }
+    }
+
+    /**
+     * Returns how many rounds the sweep can skip: the most rounds after which the score stays, with all
+     * but negligible probability, below the states that share the profile of state 0.
+     * 
+     * @param kernel  the probability of each step from state 0, in score units
+     * @param uniform the number of states from 0 that share the profile of state 0
+     * @return the rounds to skip, or 0 if too few to be worth it
+     */
+    private static int skippableRounds(double[] kernel, int uniform) {
+        double mean = 0;
+        double secondMoment = 0;
+        for (int k = 0; k < kernel.length; k++) {
+            mean += k * kernel[k];
+            secondMoment += (double) k * k * kernel[k];
+        }
+        double deviation = Math.sqrt(Math.max(secondMoment - mean * mean, 0));
+        // Largest n with n * mean + SPREAD * deviation * sqrt(n) + step below the uniform states
+        double room = uniform - kernel.length - 1;
+        if (mean <= 0 || room <= 0) {
+            return 0;
+        }
+        double b = SPREAD * deviation;
+        double root = (-b + Math.sqrt(b * b + 4 * mean * room)) / (2 * mean);
+        int rounds = (int) Math.min(root * root, Integer.MAX_VALUE / kernel.length);
+        return rounds >= 64 ? rounds : 0;
+    }
+
+    /**
+     * Distribution of the score units earned over a number of rounds that all play the same guess,
+     * kept within {@link #SPREAD} standard deviations of its mean.
+     */
+    private static class ScoreBand {
+
+        private final int offset;
+        private final double[] mass;
+        private final int rounds;
+        private final double mean;
+        private final double deviation;
+
+        /**
+         * Constructor for ScoreBand.
+         * 
+         * @param offset    the score units of the first entry
+         * @param mass      the probability of each score from the offset
+         * @param rounds    the number of rounds summed
+         * @param mean      the mean step of one round
+         * @param deviation the standard deviation of the step of one round
+         */
+        private ScoreBand(int offset, double[] mass, int rounds, double mean, double deviation) {
+            this.offset = offset;
+            this.mass = mass;
+            this.rounds = rounds;
+            this.mean = mean;
+            this.deviation = deviation;
+        }
+
+        /**
+         * Creates the band of a single round.
+         * 
+         * @param kernel the probability of each step, in score units
+         * @return the band of one round
+         */
+        private static ScoreBand of(double[] kernel) {
+            double mean = 0;
+            double secondMoment = 0;
+            for (int k = 0; k < kernel.length; k++) {
+                mean += k * kernel[k];
+                secondMoment += (double) k * k * kernel[k];
+            }
+            return new ScoreBand(0, kernel.clone(), 1, mean, Math.sqrt(Math.max(secondMoment - mean * mean, 0)));
+        }
+
+        /**
+         * Raises the band to the specified number of rounds by repeated squaring.
+         * 
+         * @param count the number of rounds, at least 1
+         * @return the band of the sum over that many rounds
+         */
+        private ScoreBand power(int count) {
+            ScoreBand result = null;
+            ScoreBand square = this;
+            for (int bits = count; bits > 0; bits >>>= 1) {
+                if ((bits & 1) != 0) {
+                    result = result == null ? square : result.plus(square);
+                }
+                if (bits > 1) {
+                    square = square.plus(square);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the band of this sum plus another independent one, trimmed to the kept spread.
+         * 
+         * @param other the other band, over the same kernel
+         * @return the band of the combined rounds
+         */
+        private ScoreBand plus(ScoreBand other) {
+            double[] sum = convolve(mass, other.mass);
+            int rounds = this.rounds + other.rounds;
+            int offset = this.offset + other.offset;
+            double halfWidth = SPREAD * deviation * Math.sqrt(rounds) + 1;
+            int from = (int) Math.max(Math.floor(rounds * mean - halfWidth) - offset, 0);
+            int to = (int) Math.min(Math.ceil(rounds * mean + halfWidth) - offset, sum.length - 1);
+            double[] kept = Arrays.copyOfRange(sum, from, to + 1);
+            for (int i = 0; i < kept.length; i++) {
+                if (kept[i] < NEGLIGIBLE) {
+                    kept[i] = 0; // Also clears the rounding noise of the transform
+                }
+            }
+            return new ScoreBand(offset + from, kept, rounds, mean, deviation);
+        }
+    }
+
+    /**
+     * Returns the convolution of two arrays, directly when small and through an FFT otherwise.
+     * 
+     * @param a the first array
+     * @param b the second array
+     * @return the convolution, of length a.length + b.length - 1
+     */
+    private static double[] convolve(double[] a, double[] b) {
+        double[] result = new double[a.length + b.length - 1];
+        if ((long) a.length * b.length <= DIRECT_CONVOLUTION) {
+            for (int i = 0; i < a.length; i++) {
+                for (int j = 0; j < b.length; j++) {
+                    result[i + j] += a[i] * b[j];
+                }
+            }
+            return result;
+        }
+        int size = Integer.highestOneBit(result.length - 1) << 1;
+        double[] aReal = Arrays.copyOf(a, size);
+        double[] aImaginary = new double[size];
+        double[] bReal = Arrays.copyOf(b, size);
+        double[] bImaginary = new double[size];
+        transform(aReal, aImaginary, false);
+        transform(bReal, bImaginary, false);
+        for (int i = 0; i < size; i++) {
+            double real = aReal[i] * bReal[i] - aImaginary[i] * bImaginary[i];
+            aImaginary[i] = aReal[i] * bImaginary[i] + aImaginary[i] * bReal[i];
+            aReal[i] = real;
+        }
+        transform(aReal, aImaginary, true);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = aReal[i] / size;
+        }
+        return result;
+    }
+
+    /**
+     * Runs an in-place radix-2 FFT, without the 1/n scaling of the inverse.
+     * 
+     * @param real      the real parts, of a power of two length
+     * @param imaginary the imaginary parts
+     * @param inverse   whether to run the inverse transform
+     */
+    private static void transform(double[] real, double[] imaginary, boolean inverse) {
+        int n = real.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double swap = real[i];
+                real[i] = real[j];
+                real[j] = swap;
+                swap = imaginary[i];
+                imaginary[i] = imaginary[j];
+                imaginary[j] = swap;
+            }
+        }
+        double[] cos = new double[n / 2];
+        double[] sin = new double[n / 2];
+        for (int i = 0; i < n / 2; i++) {
+            double angle = 2 * Math.PI * i / n * (inverse ? 1 : -1);
+            cos[i] = Math.cos(angle);
+            sin[i] = Math.sin(angle);
+        }
+        for (int length = 2; length <= n; length <<= 1) {
+            int half = length >> 1;
+            int stride = n / length;
+            for (int start = 0; start < n; start += length) {
+                for (int k = 0; k < half; k++) {
+                    int even = start + k;
+                    int odd = even + half;
+                    double c = cos[k * stride];
+                    double s = sin[k * stride];
+                    double oddReal = real[odd] * c - imaginary[odd] * s;
+                    double oddImaginary = real[odd] * s + imaginary[odd] * c;
+                    real[odd] = real[even] - oddReal;
+                    imaginary[odd] = imaginary[even] - oddImaginary;
+                    real[even] += oddReal;
+                    imaginary[even] += oddImaginary;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the probability of each number of score units earned in a round with the specified guess.
+     * 
+     * @param guess the guessed combined roll
+     * @param unit  the score unit
+     * @return the probabilities indexed by points divided by the unit
+     */
+    private double[] stepProbabilities(int guess, int unit) {
+        ScoringRules rules = distribution.getScoringRules();
+        double[] byStep = new double[1];
+        for (int sum = distribution.getMinSum(); sum <= distribution.getMaxSum(); sum++) {
+            int step = rules.points(guess, sum) / unit;
+            if (step >= byStep.length) {
+                byStep = Arrays.copyOf(byStep, step + 1);
+            }
+            byStep[step] += distribution.probability(sum);
+        }
+        return byStep;
+    }
+}
@@ -0,0 +1,243 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scoring rules of the game: a set of bands, each giving the points earned for a guess within a
+ * maximum difference of the actual roll. A guess further away than every band earns nothing.
+ * The bands are compiled into a flat table indexed by the absolute difference, so scoring a guess
+ * is a single array read with the difference clamped to the table's last entry, without branches.
+ * 
+ * Rules are immutable, and can be loaded from a small text file with one band per line:
+ * <pre>
+ * # maximum difference = points
+ * 0=50
+ * 2=20
+ * </pre>
+ */
+public final class ScoringRules {
+
+    /** The standard LuckyDie rules: 50 for an exact guess, then 20, 10 and 5 points within 2, 4 and 6. */
+    public static final ScoringRules DEFAULT = new ScoringRules(new int[] { 0, 2, 4, 6 }, new int[] { 50, 20, 10, 5 });
+
+    private final int[] maxDifferences;
+    private final int[] bandPoints;
+    private final int[] table; // Points by difference; the last entry is the miss beyond every band
+
+    /**
+     * Constructor for ScoringRules from its bands, given in order of increasing difference.
+     * 
+     * @param maxDifferences the largest difference of each band, strictly increasing from 0 or more
+     * @param points         the points earned within each band, not negative
+     * @throws IllegalArgumentException if the bands are empty, out of order or award negative points
+     */
+    public ScoringRules(int[] maxDifferences, int[] points) {
+        if (maxDifferences.length == 0 || maxDifferences.length != points.length) {
+            throw new IllegalArgumentException("Each band needs a maximum difference and points");
+        }
+        for (int i = 0; i < maxDifferences.length; i++) {
+            if (maxDifferences[i] < (i == 0 ? 0 : maxDifferences[i - 1] + 1)) {
+                throw new IllegalArgumentException("Band differences must be increasing: " + maxDifferences[i]);
+            }
+            if (points[i] < 0) {
+                throw new IllegalArgumentException("Points must not be negative: " + points[i]);
+            }
+        }
+        this.maxDifferences = maxDifferences.clone();
+        this.bandPoints = points.clone();
+        this.table = pointsTable(maxDifferences[maxDifferences.length - 1] + 1);
+    }
+
+    /**
+     * Loads scoring rules from a text file of "difference=points" lines. Blank lines and lines
+     * starting with # are ignored.
+     * 
+     * @param file the rules file
+     * @return the loaded rules
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed or the bands are invalid
+     */
+    public static ScoringRules load(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses scoring rules from "difference=points" lines, in any order. Blank lines and lines
+     * starting with # are ignored.
+     * 
+     * @param lines the lines of the rules
+     * @return the parsed rules
+     * @throws IllegalArgumentException if a line is malformed or the bands are invalid
+     */
+    public static ScoringRules parse(List<String> lines) {
+        List<int[]> bands = new ArrayList<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separator = line.indexOf('=');
+            try {
+                if (separator < 0) {
+                    throw new NumberFormatException();
+                }
+                bands.add(new int[] { Integer.parseInt(line.substring(0, separator).trim()),
+                        Integer.parseInt(line.substring(separator + 1).trim()) });
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected difference=points but found: " + line);
+            }
+        }
+        bands.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        int[] maxDifferences = new int[bands.size()];
+        int[] points = new int[bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            maxDifferences[i] = bands.get(i)[0];
+            points[i] = bands.get(i)[1];
+        }
+        return new ScoringRules(maxDifferences, points);
+    }
+
+    /**
+     * Returns the points earned for a guess against the actual roll.
+     * 
+     * @param guess  the guessed roll total
+     * @param actual the actual roll total
+     * @return the points earned
+     */
+    public int points(int guess, int actual) {
+        return table[(int) Math.min(Math.abs((long) guess - actual), table.length - 1)]; // No int overflow
+    }
+
+    /**
+     * Returns the points earned for a guess the specified distance from the actual roll.
+     * 
+     * @param difference the absolute difference between the guess and the roll
+     * @return the points earned
+     */
+    public int points(int difference) {
+        return table[Math.min(difference, table.length - 1)];
+    }
+
+    /**
+     * Returns a table of the points for every difference from 0 up to the specified maximum,
+     * sized for a dice configuration whose sums span that many values, so callers that only
+     * compare guesses within the range of sums can index it directly without clamping.
+     * 
+     * @param maxDifference the largest difference the table covers
+     * @return the points indexed by difference
+     */
+    public int[] pointsTable(int maxDifference) {
+        int[] points = new int[maxDifference + 1];
+        int band = 0;
+        for (int difference = 0; difference <= maxDifference && band < maxDifferences.length; difference++) {
+            while (band < maxDifferences.length && difference > maxDifferences[band]) {
+                band++;
+            }
+            points[difference] = band < maxDifferences.length ? bandPoints[band] : 0;
+        }
+        return points;
+    }
+
+    /**
+     * Returns the greatest common divisor of all points a round can earn, 1 if no band awards points.
+     * 
+     * @return the score unit of the rules
+     */
+    public int getScoringUnit() {
+        int unit = 0;
+        for (int points : bandPoints) {
+            int a = unit;
+            int b = points;
+            while (b != 0) {
+                int t = a % b;
+                a = b;
+                b = t;
+            }
+            unit = a;
+        }
+        return unit == 0 ? 1 : unit;
+    }
+
+    /**
+     * Returns the most points a single round can earn.
+     * 
+     * @return the largest points of any band
+     */
+    public int getMaxPoints() {
+        return Arrays.stream(bandPoints).max().orElse(0);
+    }
+
+    /**
+     * Returns the number of scoring bands.
+     * 
+     * @return the band count
+     */
+    public int getBandCount() {
+        return maxDifferences.length;
+    }
+
+    /**
+     * Returns the largest difference of a band.
+     * 
+     * @param band the index of the band, in order of increasing difference
+     * @return the band's maximum difference
+     */
+    public int getBandMaxDifference(int band) {
+        return maxDifferences[band];
+    }
+
+    /**
+     * Returns the points earned within a band.
+     * 
+     * @param band the index of the band, in order of increasing difference
+     * @return the band's points
+     */
+    public int getBandPoints(int band) {
+        return bandPoints[band];
+    }
+
+    /**
+     * Describes each band in words, for display to the player.
+     * 
+     * @return one line per band, such as "Difference of 1 to 2: 20 points"
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>(maxDifferences.length);
+        for (int i = 0; i < maxDifferences.length; i++) {
+            int from = i == 0 ? 0 : maxDifferences[i - 1] + 1;
+            int to = maxDifferences[i];
+            String band = to == 0 ? "Exact Guess"
+                    : from == to ? "Difference of " + to
+                    : "Difference of " + from + " to " + to;
+            lines.add(band + ": " + bandPoints[i] + " points");
+        }
+        return lines;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ScoringRules rules && Arrays.equals(maxDifferences, rules.maxDifferences)
+                && Arrays.equals(bandPoints, rules.bandPoints);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(maxDifferences) + Arrays.hashCode(bandPoints);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < maxDifferences.length; i++) {
+            text.append(i == 0 ? "" : ", ").append(maxDifferences[i]).append('=').append(bandPoints[i]);
+        }
+        return text.toString();
+    }
+}
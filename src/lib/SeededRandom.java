@@ -0,0 +1,123 @@
+package lib;
+
+/**
+ * Reproducible random source based on the SplitMix64 generator, the same algorithm used by
+ * {@link java.util.SplittableRandom}. The whole stream is described by a single seed, so the
+ * seed can be stored with a game and used to replay it.
+ * Instances are not thread-safe; use {@link #split()} to give each thread its own stream.
+ */
+public class SeededRandom implements RandomSource {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+    private long state;
+
+    /**
+     * Constructor for SeededRandom starting from the specified seed.
+     * 
+     * @param seed the seed of the stream
+     */
+    public SeededRandom(long seed) {
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    /**
+     * Returns a random 64-bit value and advances the stream.
+     * 
+     * @return a uniformly distributed random long
+     */
+    @Override
+    public long nextLong() {
+        return mix64(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * Returns a random integer below the bound using integer multiply-and-shift with rejection,
+     * which is unbiased and avoids floating-point arithmetic.
+     * 
+     * @param bound the upper bound, which must be positive
+     * @return a uniformly distributed random integer in the range 0 to bound - 1
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive: " + bound);
+        }
+        long product = (nextLong() >>> 32) * bound;
+        long low = product & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                product = (nextLong() >>> 32) * bound;
+                low = product & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * Returns a new source seeded from the next value of this stream. Splitting in the same order
+     * from the same seed always produces the same child streams.
+     * 
+     * @return an independent seeded random source
+     */
+    @Override
+    public SeededRandom split() {
+        return new SeededRandom(mix64(nextLong() ^ GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns the generator that the given call to {@link #split()} would return on a fresh generator
+     * with this generator's seed, without generating the ones before it. Lets parallel workers pick
+     * independent, reproducible streams by index, whatever order they run in.
+     * 
+     * @param index the number of splits before the wanted one
+     * @return the split generator
+     */
+    public SeededRandom splitAt(long index) {
+        return new SeededRandom(mix64(mix64(seed + (index + 1) * GOLDEN_GAMMA) ^ GOLDEN_GAMMA));
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public boolean isSeeded() {
+        return true;
+    }
+
+    /**
+     * Returns the current position of the stream, which together with {@link #setState(long)}
+     * allows a game to be suspended and resumed exactly.
+     * 
+     * @return the internal state of the generator
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Moves the stream to a position previously returned by {@link #getState()}.
+     * 
+     * @param state the internal state of the generator
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * Scrambles the bits of a 64-bit value (the SplitMix64 finalizer).
+     * 
+     * @param z the value to mix
+     * @return the mixed value
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
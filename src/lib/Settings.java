@@ -3,24 +3,36 @@ package lib;
 import java.util.Scanner;
 
 /**
- * Settings class for the LuckyDie game, allowing the player to select colors for each die.
- * Displays an ASCII-style menu and returns to the main menu after colors are chosen.
+ * Settings class for the LuckyDie game, allowing the player to select colors for each die,
+ * the dice to play with and whether the die results are animated. Displays an ASCII-style menu and returns to the main menu after colors are chosen.
  */
 public class Settings {
 
     private String colorDie1 = "Default";
     private String colorDie2 = "Default";
+    private long animationDelayMillis = ConsoleRenderer.DEFAULT_DELAY_MILLIS;
+    private String diceSpec = "2d6";
 
     // Array of available colors
     private final String[] colors = {"Red", "Blue", "Green", "Yellow", "Purple", "Cyan", "Pink"};
 
+    // Array of available dice variants
+    private final String[] diceVariants = {"2d6", "3d6", "4d6", "d6+d8+d12", "5d10", "10d6"};
+
     /**
-     * Displays the settings menu, allowing the player to select colors for each die.
-     * Returns to the main menu after both colors are selected.
+     * Displays the settings menu, reading the choices from the shared {@link ConsoleInput}.
      */
     public void displaySettingsMenu() {
-        Scanner scanner = new Scanner(System.in);
+        displaySettingsMenu(ConsoleInput.shared());
+    }
 
+    /**
+     * Displays the settings menu, allowing the player to select colors for each die.
+     * Returns to the main menu after both colors are selected.
+     * 
+     * @param scanner Scanner object for input, shared with the rest of the program
+     */
+    public void displaySettingsMenu(Scanner scanner) {
         System.out.println("\n====================");
         System.out.println("  LuckyDie Settings ");
         System.out.println("====================");
@@ -33,6 +45,13 @@ public class Settings {
         colorDie2 = chooseColor(scanner, "second");
 
         System.out.println("Colors selected: Die 1 - " + colorDie1 + ", Die 2 - " + colorDie2);
+
+        // Select the dice to play with
+        diceSpec = chooseDice(scanner);
+        System.out.println("Dice selected: " + diceSpec);
+
+        // Choose between animated and fast display of die results
+        animationDelayMillis = chooseAnimation(scanner) ? ConsoleRenderer.DEFAULT_DELAY_MILLIS : 0;
         System.out.println("Returning to main menu...");
     }
 
@@ -62,6 +81,56 @@ public class Settings {
         return colors[choice - 1];
     }
 
+    /**
+     * Presents the dice variants to the player and returns the chosen dice specification.
+     * 
+     * @param scanner Scanner object for input
+     * @return the chosen dice, such as "3d6" or "d6+d8+d12"
+     */
+    private String chooseDice(Scanner scanner) {
+        System.out.println("\nChoose the dice to play with:");
+
+        for (int i = 0; i < diceVariants.length; i++) {
+            DicePool dice = DicePool.parse(diceVariants[i], RandomSource.threadLocal());
+            System.out.println((i + 1) + " - " + diceVariants[i] + " (sums " + dice.getMinSum() + " to "
+                    + dice.getMaxSum() + ")");
+        }
+
+        int choice;
+        do {
+            System.out.print("Enter a number (1 to " + diceVariants.length + "): ");
+            choice = scanner.nextInt();
+            if (choice < 1 || choice > diceVariants.length) {
+                System.out.println("Invalid choice. Please try again.");
+            }
+        } while (choice < 1 || choice > diceVariants.length);
+
+        return diceVariants[choice - 1];
+    }
+
+    /**
+     * Asks the player whether the die results should be revealed one by one or shown at once.
+     * 
+     * @param scanner Scanner object for input
+     * @return true if the die results should be animated
+     */
+    private boolean chooseAnimation(Scanner scanner) {
+        System.out.println("\nDisplay of die results:");
+        System.out.println("1 - Animated");
+        System.out.println("2 - Fast (no delay)");
+
+        int choice;
+        do {
+            System.out.print("Enter a number (1 to 2): ");
+            choice = scanner.nextInt();
+            if (choice < 1 || choice > 2) {
+                System.out.println("Invalid choice. Please try again.");
+            }
+        } while (choice < 1 || choice > 2);
+
+        return choice == 1;
+    }
+
     /**
      * Returns the color selected for the first die.
      * 
@@ -79,4 +148,41 @@ public class Settings {
     public String getColorDie2() {
         return colorDie2;
     }
+
+    /**
+     * Returns the delay between revealing each die result, 0 when the fast display is selected.
+     * 
+     * @return the animation delay in milliseconds
+     */
+    public long getAnimationDelayMillis() {
+        return animationDelayMillis;
+    }
+
+    /**
+     * Sets the delay between revealing each die result, 0 for the fast display.
+     * 
+     * @param animationDelayMillis the animation delay in milliseconds
+     */
+    public void setAnimationDelayMillis(long animationDelayMillis) {
+        this.animationDelayMillis = animationDelayMillis;
+    }
+
+    /**
+     * Returns the dice selected to play with, in dice notation.
+     * 
+     * @return the dice specification, such as "2d6" or "d6+d8+d12"
+     */
+    public String getDiceSpec() {
+        return diceSpec;
+    }
+
+    /**
+     * Sets the dice to play with.
+     * 
+     * @param diceSpec the dice specification, such as "2d6" or "d6+d8+d12"
+     */
+    public void setDiceSpec(String diceSpec) {
+        DicePool.parse(diceSpec, RandomSource.threadLocal()); // Reject invalid specifications here
+        this.diceSpec = diceSpec;
+    }
 }
@@ -0,0 +1,250 @@
+package lib;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Aggregate results of a batch of headless games played by the {@link Simulator}.
+ * Holds the distribution of rounds needed to win, the total score overshoot past the target
+ * and the wall time of the run. Results from separate workers can be combined with {@link #merge}.
+ * Every count and moment is an exact integer, so merging in any order gives the same result, and a
+ * result can be sent between processes with {@link #writeTo} and {@link #readFrom}.
+ */
+public class SimulationResult {
+
+    private final long[] roundsHistogram;
+    private long games;
+    private long unfinishedGames;
+    private long totalRounds;
+    private long totalSquaredRounds;
+    private long totalOvershoot;
+    private long wallTimeNanos;
+
+    /**
+     * Constructor for SimulationResult able to count games of up to the specified number of rounds.
+     * 
+     * @param maxRounds the largest number of rounds a finished game can take
+     */
+    public SimulationResult(int maxRounds) {
+        this.roundsHistogram = new long[maxRounds + 1];
+    }
+
+    /**
+     * Records a game that reached the target score.
+     * 
+     * @param rounds    the number of rounds the game took
+     * @param overshoot the number of points scored past the target
+     */
+    void recordGame(int rounds, int overshoot) {
+        roundsHistogram[rounds]++;
+        games++;
+        totalRounds += rounds;
+        totalSquaredRounds += (long) rounds * rounds;
+        totalOvershoot += overshoot;
+    }
+
+    /**
+     * Records a game that was abandoned after reaching the round limit without winning.
+     */
+    void recordUnfinishedGame() {
+        unfinishedGames++;
+    }
+
+    /**
+     * Sets the wall time taken to produce this result.
+     * 
+     * @param wallTimeNanos the elapsed time in nanoseconds
+     */
+    void setWallTimeNanos(long wallTimeNanos) {
+        this.wallTimeNanos = wallTimeNanos;
+    }
+
+    /**
+     * Adds the counts of another result to this one. Wall time is not merged,
+     * since results of parallel workers overlap in time.
+     * 
+     * @param other the result to merge into this one
+     */
+    public void merge(SimulationResult other) {
+        if (other.roundsHistogram.length != roundsHistogram.length) {
+            throw new IllegalArgumentException("Cannot merge results with different round limits");
+        }
+        for (int i = 0; i < roundsHistogram.length; i++) {
+            roundsHistogram[i] += other.roundsHistogram[i];
+        }
+        games += other.games;
+        unfinishedGames += other.unfinishedGames;
+        totalRounds += other.totalRounds;
+        totalSquaredRounds += other.totalSquaredRounds;
+        totalOvershoot += other.totalOvershoot;
+    }
+
+    /**
+     * Writes the counts of this result, with the histogram trimmed to its first and last non-zero
+     * rounds. Wall time is not written.
+     * 
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        int first = 0;
+        int last = roundsHistogram.length - 1;
+        while (first <= last && roundsHistogram[first] == 0) {
+            first++;
+        }
+        while (last >= first && roundsHistogram[last] == 0) {
+            last--;
+        }
+        out.writeInt(getMaxRounds());
+        out.writeLong(games);
+        out.writeLong(unfinishedGames);
+        out.writeLong(totalRounds);
+        out.writeLong(totalSquaredRounds);
+        out.writeLong(totalOvershoot);
+        out.writeInt(first);
+        out.writeInt(last - first + 1);
+        for (int rounds = first; rounds <= last; rounds++) {
+            out.writeLong(roundsHistogram[rounds]);
+        }
+    }
+
+    /**
+     * Reads a result written by {@link #writeTo}.
+     * 
+     * @param in the stream to read from
+     * @return the result
+     * @throws IOException if the stream cannot be read or does not hold a valid result
+     */
+    public static SimulationResult readFrom(DataInputStream in) throws IOException {
+        int maxRounds = in.readInt();
+        if (maxRounds < 0) {
+            throw new IOException("Invalid round limit: " + maxRounds);
+        }
+        SimulationResult result = new SimulationResult(maxRounds);
+        result.games = in.readLong();
+        result.unfinishedGames = in.readLong();
+        result.totalRounds = in.readLong();
+        result.totalSquaredRounds = in.readLong();
+        result.totalOvershoot = in.readLong();
+        int first = in.readInt();
+        int count = in.readInt();
+        if (first < 0 || count < 0 || first + count > maxRounds + 1) {
+            throw new IOException("Invalid histogram range: " + first + " + " + count);
+        }
+        for (int rounds = first; rounds < first + count; rounds++) {
+            result.roundsHistogram[rounds] = in.readLong();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of games that reached the target score.
+     * 
+     * @return the number of finished games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of games abandoned at the round limit.
+     * 
+     * @return the number of unfinished games
+     */
+    public long getUnfinishedGames() {
+        return unfinishedGames;
+    }
+
+    /**
+     * Returns how many finished games took exactly the specified number of rounds.
+     * 
+     * @param rounds the number of rounds
+     * @return the number of games that were won in that many rounds
+     */
+    public long getGamesWonIn(int rounds) {
+        return rounds >= 0 && rounds < roundsHistogram.length ? roundsHistogram[rounds] : 0;
+    }
+
+    /**
+     * Returns the largest number of rounds this result can count.
+     * 
+     * @return the round limit
+     */
+    public int getMaxRounds() {
+        return roundsHistogram.length - 1;
+    }
+
+    /**
+     * Returns the mean number of rounds taken by finished games.
+     * 
+     * @return the mean rounds to win, or 0 if no game finished
+     */
+    public double getMeanRounds() {
+        return games == 0 ? 0 : (double) totalRounds / games;
+    }
+
+    /**
+     * Returns the sample standard deviation of the rounds taken by finished games.
+     * 
+     * @return the standard deviation of rounds to win, or 0 with fewer than two finished games
+     */
+    public double getRoundsStandardDeviation() {
+        if (games < 2) {
+            return 0;
+        }
+        double variance = (totalSquaredRounds - (double) totalRounds * totalRounds / games) / (games - 1);
+        return Math.sqrt(Math.max(0, variance));
+    }
+
+    /**
+     * Returns the mean number of points finished games scored past the target.
+     * 
+     * @return the mean score overshoot, or 0 if no game finished
+     */
+    public double getMeanOvershoot() {
+        return games == 0 ? 0 : (double) totalOvershoot / games;
+    }
+
+    /**
+     * Returns the smallest number of rounds within which the given fraction of finished games were won.
+     * 
+     * @param fraction the fraction of games, between 0 and 1
+     * @return the rounds percentile, or 0 if no game finished
+     */
+    public int getRoundsPercentile(double fraction) {
+        long threshold = (long) Math.ceil(fraction * games);
+        long seen = 0;
+        for (int rounds = 0; rounds < roundsHistogram.length; rounds++) {
+            seen += roundsHistogram[rounds];
+            if (seen >= threshold && seen > 0) {
+                return rounds;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the wall time taken to produce this result.
+     * 
+     * @return the elapsed time in milliseconds
+     */
+    public double getWallTimeMillis() {
+        return wallTimeNanos / 1_000_000.0;
+    }
+
+    /**
+     * Returns a short multi-line summary of the result.
+     * 
+     * @return the formatted summary
+     */
+    @Override
+    public String toString() {
+        return String.format("Games won: %d (unfinished: %d)%n"
+                + "Mean rounds: %.3f | Median: %d | 99th percentile: %d%n"
+                + "Mean overshoot: %.3f points%n"
+                + "Wall time: %.1f ms",
+                games, unfinishedGames, getMeanRounds(), getRoundsPercentile(0.5), getRoundsPercentile(0.99),
+                getMeanOvershoot(), getWallTimeMillis());
+    }
+}
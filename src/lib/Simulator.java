@@ -0,0 +1,199 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless engine that plays complete LuckyDie games without any console input, output or delays.
+ * Guesses come from a {@link GuessStrategy}, and batches of games are spread across worker threads
+ * whose results are merged into a single {@link SimulationResult}.
+ */
+public class Simulator {
+
+    public static final int DEFAULT_MAX_ROUNDS = 10_000;
+    private static final int ROLL_BATCH = 1024; // Sums rolled ahead per refill of a worker's buffer
+    private static final long GAMES_PER_BLOCK = 1 << 14; // Games rolled from each stream split from the seed
+
+    private int sides;
+    private int targetScore;
+    private int maxRounds;
+    private GuessStrategy strategy;
+    private ScoringRules rules;
+    private SeededRandom seedSource;
+
+    /**
+     * Constructor for Simulator with the default round limit.
+     * 
+     * @param sides       the number of sides on each die
+     * @param targetScore the score at which each game ends
+     * @param strategy    the strategy supplying the guesses, shared by all worker threads
+     */
+    public Simulator(int sides, int targetScore, GuessStrategy strategy) {
+        this(sides, targetScore, strategy, DEFAULT_MAX_ROUNDS);
+    }
+
+    /**
+     * Constructor for Simulator with a round limit, after which a game that has not reached
+     * the target is abandoned. This stops strategies that never score from running forever.
+     * 
+     * @param sides       the number of sides on each die
+     * @param targetScore the score at which each game ends
+     * @param strategy    the strategy supplying the guesses, shared by all worker threads
+     * @param maxRounds   the largest number of rounds a game may take
+     */
+    public Simulator(int sides, int targetScore, GuessStrategy strategy, int maxRounds) {
+        this(sides, targetScore, strategy, maxRounds, ScoringRules.DEFAULT);
+    }
+
+    /**
+     * Constructor for Simulator scoring guesses under the specified rules, so rule sets can be
+     * compared by simulating each one with the same seed.
+     * 
+     * @param sides       the number of sides on each die
+     * @param targetScore the score at which each game ends
+     * @param strategy    the strategy supplying the guesses, shared by all worker threads
+     * @param maxRounds   the largest number of rounds a game may take
+     * @param rules       the scoring rules of the games
+     */
+    public Simulator(int sides, int targetScore, GuessStrategy strategy, int maxRounds, ScoringRules rules) {
+        this.sides = sides;
+        this.targetScore = targetScore;
+        this.strategy = strategy;
+        this.maxRounds = maxRounds;
+        this.rules = rules;
+    }
+
+    /**
+     * Makes the following runs reproducible. The games are played in blocks of a fixed size, block k
+     * rolling from {@code splitAt(k)} of the seed whichever worker plays it, so a run with the same seed
+     * and game count produces the same result on any number of threads.
+     * Without a seed, workers roll from the per-thread random source.
+     * 
+     * @param seed the seed from which worker streams are split
+     */
+    public void setSeed(long seed) {
+        this.seedSource = RandomSource.seeded(seed);
+    }
+
+    /**
+     * Plays the specified number of games using all available processors.
+     * 
+     * @param games the number of games to play
+     * @return the aggregate results of all games
+     */
+    public SimulationResult run(long games) {
+        return run(games, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Plays the specified number of games spread evenly across the given number of worker threads.
+     * 
+     * @param games   the number of games to play
+     * @param threads the number of worker threads
+     * @return the aggregate results of all games
+     */
+    public SimulationResult run(long games, int threads) {
+        long start = System.nanoTime();
+        SimulationResult total = new SimulationResult(maxRounds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationResult>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int worker = i;
+                long batch = games / threads + (i < games % threads ? 1 : 0);
+                futures.add(executor.submit(() -> seedSource != null ? playBlocks(games, worker, threads)
+                        : playBatch(batch, RandomSource.threadLocal())));
+            }
+            for (Future<SimulationResult> future : futures) {
+                total.merge(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+
+        total.setWallTimeNanos(System.nanoTime() - start);
+        return total;
+    }
+
+    /**
+     * Plays the specified number of games on the calling thread, rolling from the specified source.
+     * The same source state, game count and settings always produce the same result.
+     * 
+     * @param games  the number of games to play
+     * @param random the random source of the dice
+     * @return the aggregate results of all games
+     */
+    public SimulationResult run(long games, RandomSource random) {
+        long start = System.nanoTime();
+        SimulationResult result = playBatch(games, random);
+        result.setWallTimeNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Plays every stride-th block of the seeded games from the first, each block rolling from its own
+     * stream split from the seed.
+     * 
+     * @param games  the number of games in all blocks
+     * @param first  the first block to play
+     * @param stride the number of blocks between the ones played
+     * @return the results of the blocks
+     */
+    private SimulationResult playBlocks(long games, int first, int stride) {
+        SimulationResult result = new SimulationResult(maxRounds);
+        for (long block = first; block * GAMES_PER_BLOCK < games; block += stride) {
+            long count = Math.min(GAMES_PER_BLOCK, games - block * GAMES_PER_BLOCK);
+            result.merge(playBatch(count, seedSource.splitAt(block)));
+        }
+        return result;
+    }
+
+    /**
+     * Plays a batch of games on the calling thread.
+     * 
+     * @param games  the number of games to play
+     * @param random the random source of the worker
+     * @return the results of the batch
+     */
+    private SimulationResult playBatch(long games, RandomSource random) {
+        PairOfDice dicePair = new PairOfDice(sides, random);
+        ScoringRules rules = this.rules;
+        SimulationResult result = new SimulationResult(maxRounds);
+        int[] sums = new int[ROLL_BATCH];
+        int next = ROLL_BATCH;
+        long rolled = 0;
+
+        for (long i = 0; i < games; i++) {
+            int score = 0;
+            int rounds = 0;
+            while (score < targetScore && rounds < maxRounds) {
+                if (next == ROLL_BATCH) {
+                    dicePair.fillSums(sums, 0, ROLL_BATCH);
+                    next = 0;
+                    rolled += ROLL_BATCH;
+                }
+                rounds++;
+                int guess = strategy.nextGuess(rounds, score, targetScore);
+                score += rules.points(guess, sums[next++]);
+            }
+
+            if (score >= targetScore) {
+                result.recordGame(rounds, score - targetScore);
+            } else {
+                result.recordUnfinishedGame();
+            }
+        }
+        Metrics.global().diceRolled(2 * rolled); // Once per batch, off the hot loop
+        return result;
+    }
+}
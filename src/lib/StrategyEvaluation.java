@@ -0,0 +1,238 @@
+package lib;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Results of a {@link StrategyEvaluator} run: for every strategy the mean rounds to win with a
+ * 95% confidence interval, and for every pair of strategies the interval of their difference.
+ * All strategies play the same games with the same rolls, so their round counts are strongly
+ * correlated and the paired difference intervals are much narrower than the individual ones.
+ * A game abandoned at the round limit counts as the limit, and is reported separately.
+ * Sums are kept as exact integers, so merging in any order gives the same result.
+ * Results of separate tasks are combined with {@link #merge}.
+ */
+public class StrategyEvaluation {
+
+    private static final double Z_95 = 1.959963984540054;
+
+    private final List<String> names;
+    private final int strategies;
+    private long games;
+    private final long[] totalRounds;
+    private final long[] unfinishedGames;
+    private final long[] products; // Exact sum of rounds(i) * rounds(j) over games, i <= j, row-major upper triangle
+    private long wallTimeNanos;
+
+    /**
+     * Constructor for an empty StrategyEvaluation of the named strategies.
+     *
+     * @param names the names of the strategies, in the order they were added to the evaluator
+     */
+    StrategyEvaluation(List<String> names) {
+        this.names = List.copyOf(names);
+        this.strategies = names.size();
+        this.totalRounds = new long[strategies];
+        this.unfinishedGames = new long[strategies];
+        this.products = new long[strategies * (strategies + 1) / 2];
+    }
+
+    /**
+     * Records one game, played by every strategy with the same rolls.
+     *
+     * @param rounds     the rounds each strategy took, indexed by strategy
+     * @param unfinished whether each strategy gave up at the round limit
+     */
+    void recordGame(int[] rounds, boolean[] unfinished) {
+        games++;
+        for (int i = 0, k = 0; i < strategies; i++) {
+            totalRounds[i] += rounds[i];
+            if (unfinished[i]) {
+                unfinishedGames[i]++;
+            }
+            long r = rounds[i];
+            for (int j = i; j < strategies; j++) {
+                products[k++] += r * rounds[j];
+            }
+        }
+    }
+
+    /**
+     * Sets the wall time taken to produce this result.
+     *
+     * @param wallTimeNanos the elapsed time in nanoseconds
+     */
+    void setWallTimeNanos(long wallTimeNanos) {
+        this.wallTimeNanos = wallTimeNanos;
+    }
+
+    /**
+     * Adds the games of another result of the same strategies to this one. Wall time is not merged.
+     *
+     * @param other the result to merge into this one
+     */
+    public void merge(StrategyEvaluation other) {
+        if (!other.names.equals(names)) {
+            throw new IllegalArgumentException("Cannot merge evaluations of different strategies");
+        }
+        games += other.games;
+        for (int i = 0; i < strategies; i++) {
+            totalRounds[i] += other.totalRounds[i];
+            unfinishedGames[i] += other.unfinishedGames[i];
+        }
+        for (int k = 0; k < products.length; k++) {
+            products[k] += other.products[k];
+        }
+    }
+
+    /**
+     * Returns the number of games every strategy played.
+     *
+     * @return the number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of strategies evaluated.
+     *
+     * @return the strategy count
+     */
+    public int getStrategyCount() {
+        return strategies;
+    }
+
+    /**
+     * Returns the name of a strategy.
+     *
+     * @param strategy the index of the strategy
+     * @return the name of the strategy
+     */
+    public String getName(int strategy) {
+        return names.get(strategy);
+    }
+
+    /**
+     * Returns the mean number of rounds a strategy took to win.
+     *
+     * @param strategy the index of the strategy
+     * @return the mean rounds to win, or 0 if no game was played
+     */
+    public double getMeanRounds(int strategy) {
+        return games == 0 ? 0 : (double) totalRounds[strategy] / games;
+    }
+
+    /**
+     * Returns the number of games a strategy abandoned at the round limit.
+     *
+     * @param strategy the index of the strategy
+     * @return the number of unfinished games
+     */
+    public long getUnfinishedGames(int strategy) {
+        return unfinishedGames[strategy];
+    }
+
+    /**
+     * Returns the half-width of the 95% confidence interval of a strategy's mean rounds.
+     *
+     * @param strategy the index of the strategy
+     * @return the half-width, or infinity with fewer than two games
+     */
+    public double getHalfWidth(int strategy) {
+        return games < 2 ? Double.POSITIVE_INFINITY : halfWidth(covariance(strategy, strategy));
+    }
+
+    /**
+     * Returns the mean number of rounds by which the first strategy was slower than the second.
+     *
+     * @param first  the index of the first strategy
+     * @param second the index of the second strategy
+     * @return the mean difference in rounds, negative if the first strategy was faster
+     */
+    public double getMeanDifference(int first, int second) {
+        return getMeanRounds(first) - getMeanRounds(second);
+    }
+
+    /**
+     * Returns the half-width of the 95% confidence interval of the paired difference of two strategies'
+     * rounds, from Var(a - b) = Var(a) + Var(b) - 2 Cov(a, b).
+     *
+     * @param first  the index of the first strategy
+     * @param second the index of the second strategy
+     * @return the half-width, or infinity with fewer than two games
+     */
+    public double getDifferenceHalfWidth(int first, int second) {
+        if (games < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return halfWidth(covariance(first, first) + covariance(second, second) - 2 * covariance(first, second));
+    }
+
+    /**
+     * Returns the strategies ordered from the fewest mean rounds to the most.
+     *
+     * @return the strategy indexes in rank order
+     */
+    public int[] ranking() {
+        return IntStream.range(0, strategies).boxed()
+                .sorted(Comparator.comparingDouble(this::getMeanRounds))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the wall time taken to produce this result.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public double getWallTimeMillis() {
+        return wallTimeNanos / 1_000_000.0;
+    }
+
+    /**
+     * Returns the sample covariance of two strategies' rounds.
+     *
+     * @param first  the index of the first strategy
+     * @param second the index of the second strategy
+     * @return the covariance, with at least two games
+     */
+    private double covariance(int first, int second) {
+        int i = Math.min(first, second);
+        int j = Math.max(first, second);
+        double product = products[i * strategies - i * (i - 1) / 2 + (j - i)];
+        double meanProduct = (double) totalRounds[i] * totalRounds[j] / games;
+        return (product - meanProduct) / (games - 1);
+    }
+
+    /**
+     * Converts a variance of single-game rounds to the half-width of the 95% interval of its mean.
+     *
+     * @param variance the variance of one game
+     * @return the half-width
+     */
+    private double halfWidth(double variance) {
+        return Z_95 * Math.sqrt(Math.max(0, variance) / games);
+    }
+
+    /**
+     * Returns a ranking table of the strategies, each compared to the best.
+     *
+     * @return the formatted table
+     */
+    @Override
+    public String toString() {
+        int[] ranking = ranking();
+        int best = ranking[0];
+        StringBuilder table = new StringBuilder(String.format("%-4s %-16s %18s %24s %10s%n",
+                "Rank", "Strategy", "Mean rounds", "vs " + getName(best), "Unfinished"));
+        for (int rank = 0; rank < ranking.length; rank++) {
+            int s = ranking[rank];
+            table.append(String.format("%-4d %-16s %9.4f +/- %6.4f %+13.4f +/- %6.4f %10d%n", rank + 1, getName(s),
+                    getMeanRounds(s), getHalfWidth(s), getMeanDifference(s, best),
+                    s == best ? 0 : getDifferenceHalfWidth(s, best), getUnfinishedGames(s)));
+        }
+        table.append(String.format("%d games per strategy, %.1f ms", games, getWallTimeMillis()));
+        return table.toString();
+    }
+}
@@ -0,0 +1,198 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ranks guessing strategies by the mean rounds they take to reach the target score, playing
+ * every strategy through the same games with common random numbers: game i of every strategy rolls
+ * the same sums, from the stream {@code splitAt(i)} of the seed, and strategies that guess at random
+ * draw from {@code splitAt(i).split()}, restarted for every strategy. Differences between strategies then
+ * come from their guesses rather than from their luck, which narrows the paired confidence
+ * intervals by an order of magnitude for the same number of games.
+ * Games are split into ranges on a work-stealing {@link ForkJoinPool}; each range rolls each game's
+ * sums once, in fixed chunks, and replays them for every strategy, so the result does not depend
+ * on the pool size or the order tasks run in.
+ */
+public class StrategyEvaluator {
+
+    private static final int GAMES_PER_TASK = 4096;
+    private static final int ROLL_CHUNK = 32; // Sums rolled at a time when a game needs more
+
+    private final String diceSpec;
+    private final int targetScore;
+    private final ScoringRules rules;
+    private final int maxRounds;
+    private final List<String> names = new ArrayList<>();
+    private final List<GuessStrategy> strategies = new ArrayList<>();
+    private SeededRandom seedSource = new SeededRandom(RandomSource.threadLocal().nextLong());
+
+    /**
+     * Constructor for StrategyEvaluator with the default round limit.
+     *
+     * @param diceSpec    the dice every game rolls, such as "2d6"
+     * @param targetScore the score every game is played to
+     * @param rules       the scoring rules of every game
+     * @throws IllegalArgumentException if the dice are invalid
+     */
+    public StrategyEvaluator(String diceSpec, int targetScore, ScoringRules rules) {
+        this(diceSpec, targetScore, rules, Simulator.DEFAULT_MAX_ROUNDS);
+    }
+
+    /**
+     * Constructor for StrategyEvaluator with a round limit, after which a strategy's game is abandoned.
+     *
+     * @param diceSpec    the dice every game rolls, such as "2d6"
+     * @param targetScore the score every game is played to
+     * @param rules       the scoring rules of every game
+     * @param maxRounds   the largest number of rounds a game may take
+     * @throws IllegalArgumentException if the dice are invalid
+     */
+    public StrategyEvaluator(String diceSpec, int targetScore, ScoringRules rules, int maxRounds) {
+        DicePool.parse(diceSpec, RandomSource.threadLocal()); // Reject invalid dice before any game
+        this.diceSpec = diceSpec;
+        this.targetScore = targetScore;
+        this.rules = rules;
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Adds a strategy to the evaluation. Strategies are called from many threads at once and must be thread-safe.
+     *
+     * @param name     the name the strategy is reported under
+     * @param strategy the strategy
+     */
+    public void add(String name, GuessStrategy strategy) {
+        names.add(name);
+        strategies.add(strategy);
+    }
+
+    /**
+     * Makes the following evaluations reproducible: the same seed, strategies and game count
+     * produce the same result.
+     *
+     * @param seed the seed every game's rolls are split from
+     */
+    public void setSeed(long seed) {
+        this.seedSource = new SeededRandom(seed);
+    }
+
+    /**
+     * Plays the specified number of games with every strategy on the common fork/join pool.
+     *
+     * @param games the number of games each strategy plays
+     * @return the evaluation of the strategies
+     */
+    public StrategyEvaluation evaluate(long games) {
+        return evaluate(games, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays the specified number of games with every strategy on the specified pool.
+     *
+     * @param games the number of games each strategy plays
+     * @param pool  the pool the games are played on
+     * @return the evaluation of the strategies
+     * @throws IllegalStateException if no strategy was added
+     */
+    public StrategyEvaluation evaluate(long games, ForkJoinPool pool) {
+        if (strategies.isEmpty()) {
+            throw new IllegalStateException("No strategies to evaluate");
+        }
+        long start = System.nanoTime();
+        StrategyEvaluation result = pool.invoke(new GameRange(List.copyOf(names), List.copyOf(strategies), 0, games));
+        result.setWallTimeNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Plays a range of games on the calling thread.
+     *
+     * @param names      the names of the strategies
+     * @param strategies the strategies, in evaluation order
+     * @param from       the number of the first game
+     * @param to         the number after the last game
+     * @return the evaluation of the range
+     */
+    private StrategyEvaluation playRange(List<String> names, List<GuessStrategy> strategies, long from, long to) {
+        SeededRandom random = new SeededRandom(0);
+        SeededRandom guessRandom = new SeededRandom(0);
+        DicePool dice = DicePool.parse(diceSpec, random);
+        ScoringRules rules = this.rules;
+        GuessStrategy[] players = new GuessStrategy[strategies.size()];
+        for (int s = 0; s < players.length; s++) {
+            players[s] = strategies.get(s).withRandom(guessRandom);
+        }
+        StrategyEvaluation result = new StrategyEvaluation(names);
+        int[] rounds = new int[players.length];
+        boolean[] unfinished = new boolean[players.length];
+        int[] sums = new int[ROLL_CHUNK * 4];
+        long rolled = 0;
+
+        for (long game = from; game < to; game++) {
+            SeededRandom stream = seedSource.splitAt(game);
+            random.setState(stream.getSeed());
+            long guessSeed = stream.split().getSeed();
+            int available = 0;
+            for (int s = 0; s < players.length; s++) {
+                GuessStrategy strategy = players[s];
+                guessRandom.setState(guessSeed); // Random strategies draw the same guesses too
+                int score = 0;
+                int round = 0;
+                while (score < targetScore && round < maxRounds) {
+                    if (round == available) { // Every strategy replays the same sums, rolled on first need
+                        if (available + ROLL_CHUNK > sums.length) {
+                            sums = Arrays.copyOf(sums, sums.length * 2);
+                        }
+                        dice.fillSums(sums, available, ROLL_CHUNK);
+                        available += ROLL_CHUNK;
+                    }
+                    int guess = strategy.nextGuess(round + 1, score, targetScore);
+                    score += rules.points(guess, sums[round++]);
+                }
+                rounds[s] = round;
+                unfinished[s] = score < targetScore;
+            }
+            rolled += available;
+            result.recordGame(rounds, unfinished);
+        }
+        Metrics.global().diceRolled(rolled * dice.getDiceCount()); // Once per range, off the hot loop
+        return result;
+    }
+
+    /**
+     * Fork/join task splitting a range of games in halves until it is small enough to play directly.
+     */
+    private final class GameRange extends RecursiveTask<StrategyEvaluation> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> names;
+        private final List<GuessStrategy> strategies;
+        private final long from;
+        private final long to;
+
+        GameRange(List<String> names, List<GuessStrategy> strategies, long from, long to) {
+            this.names = names;
+            this.strategies = strategies;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected StrategyEvaluation compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                return playRange(names, strategies, from, to);
+            }
+            long middle = (from + to) >>> 1;
+            GameRange second = new GameRange(names, strategies, middle, to);
+            second.fork();
+            StrategyEvaluation result = new GameRange(names, strategies, from, middle).compute();
+            result.merge(second.join());
+            return result;
+        }
+    }
+}
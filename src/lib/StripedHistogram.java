@@ -0,0 +1,53 @@
+package lib;
+
+/**
+ * Thread-safe latency histogram for recording from many threads at once.
+ * Recordings are spread over a power-of-two number of {@link LatencyHistogram} stripes chosen by
+ * thread id, each guarded by its own lock, so concurrent threads rarely wait for each other.
+ * Reading merges the stripes into a snapshot, which is only done when metrics are reported.
+ */
+public class StripedHistogram {
+
+    private final LatencyHistogram[] stripes;
+    private final int mask;
+
+    /**
+     * Constructor for StripedHistogram with the next power of two above the number of available processors
+     * as its stripe count.
+     */
+    public StripedHistogram() {
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 1;
+        this.stripes = new LatencyHistogram[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new LatencyHistogram();
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    /**
+     * Records a latency in the stripe of the calling thread.
+     * 
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        LatencyHistogram stripe = stripes[(int) Thread.currentThread().getId() & mask];
+        synchronized (stripe) {
+            stripe.record(nanos);
+        }
+    }
+
+    /**
+     * Returns a snapshot of every latency recorded so far.
+     * 
+     * @return a new histogram merging all stripes
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram snapshot = new LatencyHistogram();
+        for (LatencyHistogram stripe : stripes) {
+            synchronized (stripe) {
+                snapshot.merge(stripe);
+            }
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,234 @@
+package lib;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Exact probability distribution of the sum of N dice with S sides each, built by convolution.
+ * Alongside the distribution it precomputes, for every guess in the range of possible sums,
+ * the expected points and the variance of the points under a set of {@link ScoringRules}, so these
+ * and the optimal guess are available in constant time.
+ * Distributions are immutable and cached per dice configuration and rules, see {@link #of(int, int)}.
+ */
+public class SumDistribution {
+
+    private static final ConcurrentMap<Key, SumDistribution> CACHE = new ConcurrentHashMap<>();
+
+    private final int dice;
+    private final int sides;
+    private final ScoringRules rules;
+    private final int minSum;
+    private final int maxSum;
+    private final double[] probabilities;
+    private final double[] expectedPoints;
+    private final double[] pointsVariance;
+    private final int optimalGuess;
+
+    /**
+     * Returns the distribution for the specified dice configuration under the default scoring rules,
+     * building it on first use.
+     * 
+     * @param dice  the number of dice rolled together
+     * @param sides the number of sides on each die
+     * @return the cached distribution of the sum of the dice
+     */
+    public static SumDistribution of(int dice, int sides) {
+        return of(dice, sides, ScoringRules.DEFAULT);
+    }
+
+    /**
+     * Returns the distribution for the specified dice configuration scored under the specified rules,
+     * building it on first use.
+     * 
+     * @param dice  the number of dice rolled together
+     * @param sides the number of sides on each die
+     * @param rules the scoring rules the expected points are computed under
+     * @return the cached distribution of the sum of the dice
+     */
+    public static SumDistribution of(int dice, int sides, ScoringRules rules) {
+        if (dice < 1 || sides < 1) {
+            throw new IllegalArgumentException("Dice and sides must be positive: " + dice + "d" + sides);
+        }
+        return CACHE.computeIfAbsent(new Key(dice, sides, rules), key -> new SumDistribution(dice, sides, rules));
+    }
+
+    /**
+     * Constructor for SumDistribution, computing the distribution and the per-guess scoring tables.
+     * 
+     * @param dice  the number of dice rolled together
+     * @param sides the number of sides on each die
+     * @param rules the scoring rules the expected points are computed under
+     */
+    private SumDistribution(int dice, int sides, ScoringRules rules) {
+        this.dice = dice;
+        this.sides = sides;
+        this.rules = rules;
+        this.minSum = dice;
+        this.maxSum = dice * sides;
+        this.probabilities = convolve(dice, sides);
+
+        int range = maxSum - minSum + 1;
+        int[] pointsByDifference = rules.pointsTable(range - 1);
+        this.expectedPoints = new double[range];
+        this.pointsVariance = new double[range];
+        int best = minSum;
+        for (int guess = minSum; guess <= maxSum; guess++) {
+            double mean = 0;
+            double meanSquare = 0;
+            for (int sum = minSum; sum <= maxSum; sum++) {
+                double p = probabilities[sum - minSum];
+                int points = pointsByDifference[Math.abs(guess - sum)];
+                mean += p * points;
+                meanSquare += p * points * points;
+            }
+            expectedPoints[guess - minSum] = mean;
+            pointsVariance[guess - minSum] = meanSquare - mean * mean;
+            if (mean > expectedPoints[best - minSum]) {
+                best = guess;
+            }
+        }
+        this.optimalGuess = best;
+    }
+
+    /**
+     * Convolves the uniform distribution of a single die with itself once per die.
+     * Each step uses a sliding window sum so it costs O(range) rather than O(range * sides), and
+     * divides by the sides so the values stay probabilities: raw counts overflow past about 400 dice.
+     * Subtracting from the window leaves round-off around zero in the far tails, which is clamped
+     * so no probability is negative.
+     * 
+     * @param dice  the number of dice
+     * @param sides the number of sides on each die
+     * @return the probability of each sum, indexed from the minimum sum
+     */
+    private static double[] convolve(int dice, int sides) {
+        double[] probabilities = { 1 }; // Zero dice always sum to 0
+        for (int d = 1; d <= dice; d++) {
+            double[] next = new double[probabilities.length + sides - 1];
+            double window = 0;
+            for (int i = 0; i < next.length; i++) {
+                if (i < probabilities.length) {
+                    window += probabilities[i];
+                }
+                if (i - sides >= 0) {
+                    window -= probabilities[i - sides];
+                }
+                next[i] = Math.max(window, 0) / sides;
+            }
+            probabilities = next;
+        }
+        return probabilities;
+    }
+
+    /**
+     * Returns the probability of rolling the specified sum.
+     * 
+     * @param sum the combined roll
+     * @return the probability of the sum, or 0 if it cannot be rolled
+     */
+    public double probability(int sum) {
+        return sum < minSum || sum > maxSum ? 0 : probabilities[sum - minSum];
+    }
+
+    /**
+     * Returns the expected points earned in a round with the specified guess.
+     * 
+     * @param guess the guessed combined roll, between the minimum and maximum sum
+     * @return the expected points for the guess
+     */
+    public double expectedPoints(int guess) {
+        return expectedPoints[checkGuess(guess)];
+    }
+
+    /**
+     * Returns the variance of the points earned in a round with the specified guess.
+     * 
+     * @param guess the guessed combined roll, between the minimum and maximum sum
+     * @return the variance of the points for the guess
+     */
+    public double pointsVariance(int guess) {
+        return pointsVariance[checkGuess(guess)];
+    }
+
+    /**
+     * Returns the guess with the highest expected points per round, the lowest such guess if several tie.
+     * 
+     * @return the optimal guess
+     */
+    public int getOptimalGuess() {
+        return optimalGuess;
+    }
+
+    /**
+     * Returns the expected value of the sum of the dice.
+     * 
+     * @return the mean combined roll
+     */
+    public double getMean() {
+        return dice * (sides + 1) / 2.0;
+    }
+
+    /**
+     * Returns the smallest possible combined roll.
+     * 
+     * @return the minimum sum
+     */
+    public int getMinSum() {
+        return minSum;
+    }
+
+    /**
+     * Returns the largest possible combined roll.
+     * 
+     * @return the maximum sum
+     */
+    public int getMaxSum() {
+        return maxSum;
+    }
+
+    /**
+     * Returns the number of dice rolled together.
+     * 
+     * @return the number of dice
+     */
+    public int getDice() {
+        return dice;
+    }
+
+    /**
+     * Returns the number of sides on each die.
+     * 
+     * @return the number of sides
+     */
+    public int getSides() {
+        return sides;
+    }
+
+    /**
+     * Returns the scoring rules the expected points are computed under.
+     * 
+     * @return the scoring rules
+     */
+    public ScoringRules getScoringRules() {
+        return rules;
+    }
+
+    /**
+     * Cache key of a distribution: the dice configuration and the scoring rules.
+     */
+    private record Key(int dice, int sides, ScoringRules rules) {
+    }
+
+    /**
+     * Converts a guess to its index in the per-guess tables.
+     * 
+     * @param guess the guessed combined roll
+     * @return the table index of the guess
+     */
+    private int checkGuess(int guess) {
+        if (guess < minSum || guess > maxSum) {
+            throw new IllegalArgumentException("Guess " + guess + " is outside " + minSum + " to " + maxSum);
+        }
+        return guess - minSum;
+    }
+}
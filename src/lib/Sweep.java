@@ -0,0 +1,560 @@
+package lib;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * Parameter sweep of headless games over every combination of target score, dice sides and guessing
+ * strategy, for sweeps too large for one JVM. Each point of the sweep is split into shards of a fixed
+ * number of games; shard s of every point rolls from the stream {@code splitAt(s)} of the seed, so
+ * points with the same dice see the same rolls. Shards are played in this process or by worker JVMs on
+ * the same machine, which take shards over their standard input and return a {@link SimulationResult}
+ * per shard over their standard output. A worker that crashes is restarted and only its shard is
+ * played again. Results hold only exact integer counts and moments, and the shards do not depend on
+ * the number of workers, so the merged results are bit-identical however many workers are used.
+ * Strategies are named "optimal", "finisher", "min-rounds" or "fixed:guess"; random guessing is left
+ * out because it would not be reproducible.
+ */
+public class Sweep {
+
+    /** System property making a worker halt on the first attempt at the shard with this index, for testing. */
+    public static final String CRASH_SHARD_PROPERTY = "luckydie.sweep.crashShard";
+
+    private static final int MAGIC = 0x4C445357; // "LDSW"
+    private static final int VERSION = 1;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final List<Point> points = new ArrayList<>();
+    private final long gamesPerPoint;
+    private final long shardGames;
+    private final int maxRounds;
+    private long seed = 1;
+
+    /**
+     * Constructor for Sweep with the default round limit.
+     *
+     * @param targets       the target scores
+     * @param sides         the numbers of sides of the pair of dice
+     * @param strategies    the names of the guessing strategies
+     * @param gamesPerPoint the number of games played at each point
+     * @param shardGames    the largest number of games in one shard
+     * @throws IllegalArgumentException if a strategy is unknown or a count is not positive
+     */
+    public Sweep(int[] targets, int[] sides, List<String> strategies, long gamesPerPoint, long shardGames) {
+        this(targets, sides, strategies, gamesPerPoint, shardGames, Simulator.DEFAULT_MAX_ROUNDS);
+    }
+
+    /**
+     * Constructor for Sweep.
+     *
+     * @param targets       the target scores
+     * @param sides         the numbers of sides of the pair of dice
+     * @param strategies    the names of the guessing strategies
+     * @param gamesPerPoint the number of games played at each point
+     * @param shardGames    the largest number of games in one shard
+     * @param maxRounds     the largest number of rounds a game may take
+     * @throws IllegalArgumentException if a strategy is unknown or a count is not positive
+     */
+    public Sweep(int[] targets, int[] sides, List<String> strategies, long gamesPerPoint, long shardGames,
+            int maxRounds) {
+        if (gamesPerPoint < 1 || shardGames < 1 || maxRounds < 1) {
+            throw new IllegalArgumentException("Games, shard size and round limit must be positive");
+        }
+        for (int target : targets) {
+            for (int s : sides) {
+                for (String strategy : strategies) {
+                    strategy(strategy, s, target); // Reject unknown strategies before any shard runs
+                    points.add(new Point(target, s, strategy));
+                }
+            }
+        }
+        this.gamesPerPoint = gamesPerPoint;
+        this.shardGames = shardGames;
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Sets the seed every shard's stream is split from. The same seed and parameters always give the same results.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the number of points of the sweep.
+     *
+     * @return the point count
+     */
+    public int getPointCount() {
+        return points.size();
+    }
+
+    /**
+     * Returns the number of shards the sweep is split into.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shards().size();
+    }
+
+    /**
+     * Returns the target score of a point.
+     *
+     * @param point the index of the point
+     * @return the target score
+     */
+    public int getTarget(int point) {
+        return points.get(point).target;
+    }
+
+    /**
+     * Returns the number of sides of the dice of a point.
+     *
+     * @param point the index of the point
+     * @return the number of sides
+     */
+    public int getSides(int point) {
+        return points.get(point).sides;
+    }
+
+    /**
+     * Returns the strategy of a point.
+     *
+     * @param point the index of the point
+     * @return the strategy name
+     */
+    public String getStrategy(int point) {
+        return points.get(point).strategy;
+    }
+
+    /**
+     * Plays every shard in this process, one after another.
+     *
+     * @return the results of each point, in point order
+     */
+    public SimulationResult[] runLocal() {
+        long start = System.nanoTime();
+        List<Shard> shards = shards();
+        SimulationResult[] shardResults = new SimulationResult[shards.size()];
+        for (Shard shard : shards) {
+            shardResults[shard.index] = shard.play();
+        }
+        return merge(shards, shardResults, start);
+    }
+
+    /**
+     * Plays every shard on worker processes, each started with the specified command, which must run
+     * {@link #serve} on the process's standard input and output. A worker whose pipe breaks is
+     * destroyed and replaced, and its shard is queued again, up to {@value #MAX_ATTEMPTS} attempts per shard.
+     *
+     * @param workers       the number of worker processes
+     * @param workerCommand the command starting one worker
+     * @return the results of each point, in point order
+     * @throws IOException if a shard failed on every attempt
+     */
+    public SimulationResult[] run(int workers, List<String> workerCommand) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Invalid worker count: " + workers);
+        }
+        long start = System.nanoTime();
+        List<Shard> shards = shards();
+        SimulationResult[] shardResults = new SimulationResult[shards.size()];
+        int[] attempts = new int[shards.size()];
+        BlockingDeque<Shard> pending = new LinkedBlockingDeque<>(shards);
+        CountDownLatch done = new CountDownLatch(shards.size());
+        AtomicReference<IOException> failure = new AtomicReference<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                executor.submit(() -> driveWorker(workerCommand, pending, shardResults, attempts, done, failure));
+            }
+            while (!done.await(100, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    throw failure.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Sweep interrupted", e);
+        } finally {
+            executor.shutdown();
+        }
+        return merge(shards, shardResults, start);
+    }
+
+    /**
+     * Feeds shards to one worker process until every shard is done, starting the process on first
+     * use and again after it fails.
+     *
+     * @param workerCommand the command starting a worker
+     * @param pending       the shards waiting to be played, shards to play again first
+     * @param shardResults  the result of each shard, by shard index
+     * @param attempts      the failed attempts of each shard, by shard index
+     * @param done          counted down once per finished shard
+     * @param failure       set to the error of a shard that failed on every attempt
+     */
+    private static void driveWorker(List<String> workerCommand, BlockingDeque<Shard> pending,
+            SimulationResult[] shardResults, int[] attempts, CountDownLatch done,
+            AtomicReference<IOException> failure) {
+        WorkerProcess worker = null;
+        try {
+            while (done.getCount() > 0 && failure.get() == null) {
+                Shard shard = pending.poll(50, TimeUnit.MILLISECONDS);
+                if (shard == null) {
+                    continue;
+                }
+                int attempt;
+                synchronized (attempts) {
+                    attempt = attempts[shard.index];
+                }
+                try {
+                    if (worker == null) {
+                        worker = new WorkerProcess(workerCommand);
+                    }
+                    shardResults[shard.index] = worker.play(shard, attempt);
+                    done.countDown(); // Publishes the result to the coordinator
+                } catch (IOException e) {
+                    if (worker != null) {
+                        worker.destroy();
+                        worker = null;
+                    }
+                    synchronized (attempts) {
+                        attempt = ++attempts[shard.index];
+                    }
+                    if (attempt >= MAX_ATTEMPTS) {
+                        failure.compareAndSet(null, new IOException("Shard " + shard.index + " failed " + attempt
+                                + " times: " + e, e));
+                    } else {
+                        System.err.println("Worker failed on shard " + shard.index + ", playing it again: " + e);
+                        pending.addFirst(shard); // Played again next, so a shard that always fails ends the sweep early
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (worker != null) {
+                worker.close();
+            }
+        }
+    }
+
+    /**
+     * Serves shards as a worker: writes the protocol header, then reads shards from the input until it
+     * ends and writes the result of each, flushing after every result.
+     *
+     * @param in  the input the coordinator writes shards to
+     * @param out the output the coordinator reads results from
+     * @throws IOException if the streams fail or the input is not a valid shard
+     */
+    public static void serve(InputStream in, OutputStream out) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(in));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.flush();
+        long crashShard = Long.getLong(CRASH_SHARD_PROPERTY, -1);
+
+        while (true) {
+            int attempt;
+            try {
+                attempt = input.readInt();
+            } catch (EOFException e) {
+                return; // The coordinator has no more shards
+            }
+            Shard shard = Shard.readFrom(input);
+            if (shard.index == crashShard && attempt == 0) {
+                Runtime.getRuntime().halt(3); // Fault injection, to test that the shard is played again
+            }
+            SimulationResult result = shard.play();
+            output.writeInt(shard.index);
+            result.writeTo(output);
+            output.flush();
+        }
+    }
+
+    /**
+     * Returns the command starting a Java worker with this JVM's executable and class path.
+     *
+     * @param mainClass  the worker's main class, which calls {@link #serve}
+     * @param jvmOptions options for the worker JVM, such as system properties
+     * @return the command
+     */
+    public static List<String> javaCommand(String mainClass, List<String> jvmOptions) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+        return command;
+    }
+
+    /**
+     * Returns a checksum of results, equal for bit-identical results.
+     *
+     * @param results the results
+     * @return the CRC32 of the serialized results
+     */
+    public static long checksum(SimulationResult[] results) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (SimulationResult result : results) {
+                result.writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Not thrown by an in-memory stream
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        return crc.getValue();
+    }
+
+    /**
+     * Returns the named strategy for a pair of dice and a target score.
+     *
+     * @param name   the strategy name
+     * @param sides  the number of sides of each die
+     * @param target the target score
+     * @return the strategy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    private static GuessStrategy strategy(String name, int sides, int target) {
+        SumDistribution distribution = SumDistribution.of(2, sides);
+        if (name.startsWith("fixed:")) {
+            return GuessStrategies.fixed(Integer.parseInt(name.substring(6)));
+        }
+        switch (name) {
+            case "optimal":
+                return GuessStrategies.fixed(distribution.getOptimalGuess());
+            case "finisher":
+                return GuessStrategies.finisher(distribution);
+            case "min-rounds":
+                return GuessStrategies.minRounds(distribution, target);
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    /**
+     * Splits every point into shards, numbered point by point.
+     *
+     * @return the shards
+     */
+    private List<Shard> shards() {
+        List<Shard> shards = new ArrayList<>();
+        for (int p = 0; p < points.size(); p++) {
+            Point point = points.get(p);
+            for (long stream = 0; stream * shardGames < gamesPerPoint; stream++) {
+                long games = Math.min(shardGames, gamesPerPoint - stream * shardGames);
+                shards.add(new Shard(shards.size(), p, point.target, point.sides, point.strategy, maxRounds, seed,
+                        stream, games));
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Merges the shard results of each point in shard order.
+     *
+     * @param shards       the shards
+     * @param shardResults the result of each shard
+     * @param start        the time the sweep started, from {@link System#nanoTime}
+     * @return the results of each point
+     */
+    private SimulationResult[] merge(List<Shard> shards, SimulationResult[] shardResults, long start) {
+        SimulationResult[] results = new SimulationResult[points.size()];
+        for (int p = 0; p < results.length; p++) {
+            results[p] = new SimulationResult(maxRounds);
+        }
+        for (Shard shard : shards) {
+            results[shard.point].merge(shardResults[shard.index]);
+        }
+        for (SimulationResult result : results) {
+            result.setWallTimeNanos(System.nanoTime() - start);
+        }
+        return results;
+    }
+
+    /**
+     * One combination of target score, dice and strategy.
+     */
+    private static final class Point {
+
+        private final int target;
+        private final int sides;
+        private final String strategy;
+
+        Point(int target, int sides, String strategy) {
+            this.target = target;
+            this.sides = sides;
+            this.strategy = strategy;
+        }
+    }
+
+    /**
+     * A range of the games of one point, with everything a worker needs to play it.
+     */
+    private static final class Shard {
+
+        private final int index;
+        private final int point;
+        private final int target;
+        private final int sides;
+        private final String strategy;
+        private final int maxRounds;
+        private final long seed;
+        private final long stream;
+        private final long games;
+
+        Shard(int index, int point, int target, int sides, String strategy, int maxRounds, long seed, long stream,
+                long games) {
+            this.index = index;
+            this.point = point;
+            this.target = target;
+            this.sides = sides;
+            this.strategy = strategy;
+            this.maxRounds = maxRounds;
+            this.seed = seed;
+            this.stream = stream;
+            this.games = games;
+        }
+
+        /**
+         * Plays the shard's games on the calling thread.
+         *
+         * @return the results of the games
+         */
+        SimulationResult play() {
+            Simulator simulator = new Simulator(sides, target, strategy(strategy, sides, target), maxRounds);
+            return simulator.run(games, new SeededRandom(seed).splitAt(stream));
+        }
+
+        /**
+         * Writes the shard.
+         *
+         * @param out the stream to write to
+         * @throws IOException if the stream cannot be written
+         */
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(index);
+            out.writeInt(point);
+            out.writeInt(target);
+            out.writeInt(sides);
+            out.writeUTF(strategy);
+            out.writeInt(maxRounds);
+            out.writeLong(seed);
+            out.writeLong(stream);
+            out.writeLong(games);
+        }
+
+        /**
+         * Reads a shard written by {@link #writeTo}.
+         *
+         * @param in the stream to read from
+         * @return the shard
+         * @throws IOException if the stream cannot be read
+         */
+        static Shard readFrom(DataInputStream in) throws IOException {
+            return new Shard(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readUTF(), in.readInt(),
+                    in.readLong(), in.readLong(), in.readLong());
+        }
+    }
+
+    /**
+     * A worker process and the pipes to it.
+     */
+    private static final class WorkerProcess {
+
+        private final Process process;
+        private final DataOutputStream toWorker;
+        private final DataInputStream fromWorker;
+
+        /**
+         * Starts a worker and checks its protocol header.
+         *
+         * @param command the command starting the worker
+         * @throws IOException if the worker cannot be started or does not speak the protocol
+         */
+        WorkerProcess(List<String> command) throws IOException {
+            this.process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            this.toWorker = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.fromWorker = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            try {
+                int magic = fromWorker.readInt();
+                int version = fromWorker.readInt();
+                if (magic != MAGIC || version != VERSION) {
+                    throw new IOException("Worker does not speak sweep protocol version " + VERSION);
+                }
+            } catch (IOException e) {
+                destroy();
+                throw e;
+            }
+        }
+
+        /**
+         * Sends a shard to the worker and waits for its result.
+         *
+         * @param shard   the shard to play
+         * @param attempt the number of earlier failed attempts at the shard
+         * @return the result of the shard
+         * @throws IOException if the pipe breaks or the worker answers for another shard
+         */
+        SimulationResult play(Shard shard, int attempt) throws IOException {
+            toWorker.writeInt(attempt);
+            shard.writeTo(toWorker);
+            toWorker.flush();
+            int index = fromWorker.readInt();
+            if (index != shard.index) {
+                throw new IOException("Worker answered shard " + index + " instead of " + shard.index);
+            }
+            return SimulationResult.readFrom(fromWorker);
+        }
+
+        /**
+         * Ends the worker by closing its input, and destroys it if it does not exit.
+         */
+        void close() {
+            try {
+                toWorker.close();
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    destroy();
+                }
+            } catch (IOException e) {
+                destroy();
+            } catch (InterruptedException e) {
+                destroy();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Kills the worker.
+         */
+        void destroy() {
+            process.destroyForcibly();
+        }
+    }
+}
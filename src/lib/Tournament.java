@@ -0,0 +1,584 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tournament of head-to-head matches between any number of entrants, bots or humans.
+ * In a match both entrants play one game each to the same target score with their own dice, and the
+ * entrant who needs fewer rounds wins; a tie goes to the higher final score, then to the entrant listed first.
+ * 
+ * A tournament is played in rounds in which every entrant plays at most one match:
+ * <ul>
+ * <li>{@link Format#KNOCKOUT}: winners advance until one champion remains, with a bye for the odd entrant out;</li>
+ * <li>{@link Format#ROUND_ROBIN}: everyone meets everyone once, scheduled by the circle method.</li>
+ * </ul>
+ * The bot games of a round are spread over a work-stealing {@link ForkJoinPool}, while the games of
+ * interactive entrants are played first on the calling thread. Every game rolls from its own stream
+ * split from the tournament seed by match number, and bots that guess at random draw from a stream split
+ * from that one, so a tournament with the same seed and entrants produces the same results however its
+ * matches are scheduled.
+ */
+public class Tournament {
+
+    /**
+     * The ways entrants are paired.
+     */
+    public enum Format {
+        /** Single elimination: losers leave after each round. */
+        KNOCKOUT,
+        /** Every entrant plays every other entrant once. */
+        ROUND_ROBIN
+    }
+
+    /**
+     * Plays one game of an interactive entrant, submitting guesses to the session until it finishes.
+     */
+    @FunctionalInterface
+    public interface MatchPlayer {
+        /**
+         * Plays the game.
+         * 
+         * @param session the game to play, finished when this method returns
+         */
+        void play(GameSession session);
+    }
+
+    /**
+     * Receives the results of a tournament as it is played.
+     */
+    public interface StandingsListener {
+        /**
+         * Called for every match once its round has been played, on the calling thread.
+         * 
+         * @param match the decided match
+         */
+        default void matchCompleted(Match match) {
+        }
+
+        /**
+         * Called on the calling thread after every round of the tournament.
+         * 
+         * @param round     the number of the round, starting at 1
+         * @param standings the standings after the round
+         */
+        default void roundCompleted(int round, Standings standings) {
+        }
+    }
+
+    /**
+     * An entrant of the tournament: a bot playing with a guess strategy, or an interactive player.
+     */
+    public static final class Entrant {
+
+        private final String name;
+        private final GuessStrategy strategy;
+        private final MatchPlayer player;
+
+        private Entrant(String name, GuessStrategy strategy, MatchPlayer player) {
+            this.name = name;
+            this.strategy = strategy;
+            this.player = player;
+        }
+
+        /**
+         * Creates a bot entrant. Its games are played on the tournament's pool, so the strategy must be
+         * thread-safe.
+         * 
+         * @param name     the name of the bot
+         * @param strategy the strategy supplying its guesses
+         * @return the entrant
+         */
+        public static Entrant bot(String name, GuessStrategy strategy) {
+            return new Entrant(name, strategy, null);
+        }
+
+        /**
+         * Creates an interactive entrant, whose games are played one at a time on the calling thread.
+         * 
+         * @param name   the name of the player
+         * @param player plays each of the entrant's games
+         * @return the entrant
+         */
+        public static Entrant interactive(String name, MatchPlayer player) {
+            return new Entrant(name, null, player);
+        }
+
+        /**
+         * Returns the name of the entrant.
+         * 
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns whether the entrant's games are played interactively.
+         * 
+         * @return true for an interactive entrant, false for a bot
+         */
+        public boolean isInteractive() {
+            return player != null;
+        }
+    }
+
+    /**
+     * A match between two entrants and, once played, its outcome.
+     */
+    public static final class Match {
+
+        private final int round;
+        private final long number;
+        private final int first;
+        private final int second;
+        private int firstRounds;
+        private int firstScore;
+        private long firstNanos;
+        private int secondRounds;
+        private int secondScore;
+        private long secondNanos;
+
+        private Match(int round, long number, int first, int second) {
+            this.round = round;
+            this.number = number;
+            this.first = first;
+            this.second = second;
+        }
+
+        /**
+         * Returns the tournament round the match was played in, starting at 1.
+         * 
+         * @return the round
+         */
+        public int getRound() {
+            return round;
+        }
+
+        /**
+         * Returns the index of the first entrant.
+         * 
+         * @return the first entrant's index
+         */
+        public int getFirst() {
+            return first;
+        }
+
+        /**
+         * Returns the index of the second entrant.
+         * 
+         * @return the second entrant's index
+         */
+        public int getSecond() {
+            return second;
+        }
+
+        /**
+         * Returns the rounds the first entrant's game took.
+         * 
+         * @return the first entrant's rounds
+         */
+        public int getFirstRounds() {
+            return firstRounds;
+        }
+
+        /**
+         * Returns the rounds the second entrant's game took.
+         * 
+         * @return the second entrant's rounds
+         */
+        public int getSecondRounds() {
+            return secondRounds;
+        }
+
+        /**
+         * Returns the index of the winner: fewer rounds, then the higher score, then the first entrant.
+         * 
+         * @return the winning entrant's index
+         */
+        public int getWinner() {
+            if (firstRounds != secondRounds) {
+                return firstRounds < secondRounds ? first : second;
+            }
+            return secondScore > firstScore ? second : first;
+        }
+
+        /**
+         * Returns the index of the loser.
+         * 
+         * @return the losing entrant's index
+         */
+        public int getLoser() {
+            return getWinner() == first ? second : first;
+        }
+    }
+
+    private static final int MAX_ROUNDS = 10_000; // A bot still short of the target by now gives up
+    private static final int MATCHES_PER_TASK = 64;
+
+    private final List<Entrant> entrants;
+    private final Format format;
+    private final String diceSpec;
+    private final int targetScore;
+    private final ScoringRules rules;
+    private final ForkJoinPool pool;
+    private SeededRandom seedSource = new SeededRandom(RandomSource.threadLocal().nextLong());
+    private StandingsListener listener = new StandingsListener() {
+    };
+
+    /**
+     * Constructor for Tournament played on the common fork/join pool.
+     * 
+     * @param entrants    the entrants, listed in seeding order
+     * @param format      how entrants are paired
+     * @param diceSpec    the dice every game rolls, such as "2d6"
+     * @param targetScore the score every game is played to
+     * @param rules       the scoring rules of every game
+     */
+    public Tournament(List<Entrant> entrants, Format format, String diceSpec, int targetScore, ScoringRules rules) {
+        this(entrants, format, diceSpec, targetScore, rules, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for Tournament played on the specified pool.
+     * 
+     * @param entrants    the entrants, listed in seeding order
+     * @param format      how entrants are paired
+     * @param diceSpec    the dice every game rolls, such as "2d6"
+     * @param targetScore the score every game is played to
+     * @param rules       the scoring rules of every game
+     * @param pool        the pool bot games are played on
+     * @throws IllegalArgumentException if there are fewer than two entrants or the dice are invalid
+     */
+    public Tournament(List<Entrant> entrants, Format format, String diceSpec, int targetScore, ScoringRules rules,
+            ForkJoinPool pool) {
+        if (entrants.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two entrants");
+        }
+        DicePool.parse(diceSpec, RandomSource.threadLocal()); // Reject invalid dice before any match
+        this.entrants = List.copyOf(entrants);
+        this.format = format;
+        this.diceSpec = diceSpec;
+        this.targetScore = targetScore;
+        this.rules = rules;
+        this.pool = pool;
+    }
+
+    /**
+     * Makes the tournament reproducible: the same seed and entrants produce the same results.
+     * 
+     * @param seed the seed every game's dice are split from
+     */
+    public void setSeed(long seed) {
+        this.seedSource = new SeededRandom(seed);
+    }
+
+    /**
+     * Sets the listener receiving match results and standings while the tournament is played.
+     * 
+     * @param listener the standings listener
+     */
+    public void setListener(StandingsListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Plays the whole tournament.
+     * 
+     * @return the final standings
+     */
+    public Standings play() {
+        Standings standings = new Standings(entrants, format);
+        long matchNumber = 0;
+        int round = 0;
+
+        if (format == Format.KNOCKOUT) {
+            List<Integer> remaining = new ArrayList<>(entrants.size());
+            for (int i = 0; i < entrants.size(); i++) {
+                remaining.add(i);
+            }
+            while (remaining.size() > 1) {
+                round++;
+                List<Match> matches = new ArrayList<>(remaining.size() / 2);
+                for (int i = 0; i + 1 < remaining.size(); i += 2) {
+                    matches.add(new Match(round, matchNumber++, remaining.get(i), remaining.get(i + 1)));
+                }
+                playRound(matches, standings);
+
+                List<Integer> advancing = new ArrayList<>(remaining.size() / 2 + 1);
+                for (Match match : matches) {
+                    advancing.add(match.getWinner());
+                }
+                if (remaining.size() % 2 == 1) {
+                    advancing.add(remaining.get(remaining.size() - 1)); // Bye for the last entrant
+                }
+                for (int entrant : advancing) {
+                    standings.roundReached[entrant] = round + 1;
+                }
+                remaining = advancing;
+                listener.roundCompleted(round, standings);
+            }
+        } else {
+            // Circle method: fix the last slot and rotate the others, with an empty slot for a bye
+            int slots = entrants.size() + entrants.size() % 2;
+            for (round = 1; round < slots; round++) {
+                List<Match> matches = new ArrayList<>(slots / 2);
+                for (int i = 0; i < slots / 2; i++) {
+                    int a = (round - 1 + i) % (slots - 1);
+                    int b = i == 0 ? slots - 1 : (round - 1 + slots - 1 - i) % (slots - 1);
+                    if (a < entrants.size() && b < entrants.size()) {
+                        matches.add(new Match(round, matchNumber++, Math.min(a, b), Math.max(a, b)));
+                    }
+                }
+                playRound(matches, standings);
+                listener.roundCompleted(round, standings);
+            }
+        }
+        return standings;
+    }
+
+    /**
+     * Plays the matches of one round: games of interactive entrants first on the calling thread,
+     * then every bot game on the pool, and records the results.
+     * 
+     * @param matches   the matches of the round
+     * @param standings the standings to update
+     */
+    private void playRound(List<Match> matches, Standings standings) {
+        for (Match match : matches) {
+            if (entrants.get(match.first).isInteractive() || entrants.get(match.second).isInteractive()) {
+                playMatch(match, true);
+            }
+        }
+        pool.invoke(new MatchBatch(matches, 0, matches.size()));
+
+        for (Match match : matches) {
+            standings.record(match);
+            listener.matchCompleted(match);
+        }
+    }
+
+    /**
+     * Plays both games of a match.
+     * 
+     * @param match       the match to play
+     * @param interactive whether to play the interactive games (on the calling thread) or the bot games
+     */
+    private void playMatch(Match match, boolean interactive) {
+        Entrant first = entrants.get(match.first);
+        Entrant second = entrants.get(match.second);
+        if (first.isInteractive() == interactive) {
+            GameSession session = playGame(first, 2 * match.number);
+            match.firstRounds = session.isFinished() ? session.getRoundsPlayed() : MAX_ROUNDS + 1;
+            match.firstScore = session.getCurrentScore();
+            match.firstNanos = session.getElapsedNanos();
+        }
+        if (second.isInteractive() == interactive) {
+            GameSession session = playGame(second, 2 * match.number + 1);
+            match.secondRounds = session.isFinished() ? session.getRoundsPlayed() : MAX_ROUNDS + 1;
+            match.secondScore = session.getCurrentScore();
+            match.secondNanos = session.getElapsedNanos();
+        }
+    }
+
+    /**
+     * Plays one game of an entrant.
+     * 
+     * @param entrant the entrant playing
+     * @param game    the number of the game's stream split from the tournament seed
+     * @return the played session, unfinished if a bot reached the round limit
+     */
+    private GameSession playGame(Entrant entrant, long game) {
+        GameSession session = new GameSession(DicePool.parse(diceSpec, seedSource.splitAt(game)), targetScore, rules);
+        if (entrant.isInteractive()) {
+            entrant.player.play(session);
+            return session;
+        }
+        GuessStrategy strategy = entrant.strategy.withRandom(seedSource.splitAt(game).split());
+        while (!session.isFinished() && session.getRoundsPlayed() < MAX_ROUNDS) {
+            session.submitGuess(
+                    strategy.nextGuess(session.getRoundsPlayed() + 1, session.getCurrentScore(), targetScore));
+        }
+        return session;
+    }
+
+    /**
+     * Plays the bot games of a range of matches, splitting the range until it is small enough.
+     */
+    private final class MatchBatch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Match> matches;
+        private final int from;
+        private final int to;
+
+        MatchBatch(List<Match> matches, int from, int to) {
+            this.matches = matches;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MATCHES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    playMatch(matches.get(i), false);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MatchBatch(matches, from, middle), new MatchBatch(matches, middle, to));
+        }
+    }
+
+    /**
+     * Standings of a tournament: each entrant's wins, losses, rounds played and, in a knockout, the
+     * round reached. Updated after each round of the tournament, between rounds it can be read freely.
+     */
+    public static final class Standings {
+
+        private final List<Entrant> entrants;
+        private final Format format;
+        private final int[] wins;
+        private final int[] losses;
+        private final long[] gameRounds;
+        private final int[] roundReached;
+        private final int[] lastScore;
+        private final long[] lastNanos;
+
+        private Standings(List<Entrant> entrants, Format format) {
+            int count = entrants.size();
+            this.entrants = entrants;
+            this.format = format;
+            this.wins = new int[count];
+            this.losses = new int[count];
+            this.gameRounds = new long[count];
+            this.roundReached = new int[count];
+            this.lastScore = new int[count];
+            this.lastNanos = new long[count];
+            Arrays.fill(roundReached, 1);
+        }
+
+        /**
+         * Records the outcome of a match. Each entrant plays at most one match per round, so the
+         * matches of a round never update the same entrant.
+         * 
+         * @param match the decided match
+         */
+        private void record(Match match) {
+            wins[match.getWinner()]++;
+            losses[match.getLoser()]++;
+            gameRounds[match.first] += match.firstRounds;
+            gameRounds[match.second] += match.secondRounds;
+            lastScore[match.first] = match.firstScore;
+            lastScore[match.second] = match.secondScore;
+            lastNanos[match.first] = match.firstNanos;
+            lastNanos[match.second] = match.secondNanos;
+        }
+
+        /**
+         * Returns the entrants in order of standing, best first: in a knockout by the round reached,
+         * in a round robin by wins, and then by the fewest mean rounds per game.
+         * 
+         * @param count the number of places wanted
+         * @return the indices of the top entrants
+         */
+        public int[] top(int count) {
+            List<Integer> order = new ArrayList<>(entrants.size());
+            for (int i = 0; i < entrants.size(); i++) {
+                order.add(i);
+            }
+            Collections.sort(order, (a, b) -> {
+                if (format == Format.KNOCKOUT && roundReached[a] != roundReached[b]) {
+                    return Integer.compare(roundReached[b], roundReached[a]);
+                }
+                if (wins[a] != wins[b]) {
+                    return Integer.compare(wins[b], wins[a]);
+                }
+                int byRounds = Double.compare(getMeanRounds(a), getMeanRounds(b));
+                return byRounds != 0 ? byRounds : Integer.compare(a, b);
+            });
+            return order.subList(0, Math.min(count, order.size())).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Saves a record for each of the top places: the entrant's name with the score and duration of
+         * their last game, so the final results appear in the game records and the leaderboard.
+         * 
+         * @param gameRecord the game records to write to
+         * @param places     the number of top places to record
+         */
+        public void writeResults(GameRecord gameRecord, int places) {
+            long now = System.currentTimeMillis();
+            for (int entrant : top(places)) {
+                gameRecord.addRecord(new RecordEntry(getEntrant(entrant).getName(), lastScore[entrant], now,
+                        lastNanos[entrant] / 1000));
+            }
+        }
+
+        /**
+         * Returns an entrant.
+         * 
+         * @param entrant the index of the entrant
+         * @return the entrant
+         */
+        public Entrant getEntrant(int entrant) {
+            return entrants.get(entrant);
+        }
+
+        /**
+         * Returns the number of entrants.
+         * 
+         * @return the entrant count
+         */
+        public int getEntrantCount() {
+            return entrants.size();
+        }
+
+        /**
+         * Returns the matches an entrant has won.
+         * 
+         * @param entrant the index of the entrant
+         * @return the wins
+         */
+        public int getWins(int entrant) {
+            return wins[entrant];
+        }
+
+        /**
+         * Returns the matches an entrant has lost.
+         * 
+         * @param entrant the index of the entrant
+         * @return the losses
+         */
+        public int getLosses(int entrant) {
+            return losses[entrant];
+        }
+
+        /**
+         * Returns the mean rounds an entrant's games took.
+         * 
+         * @param entrant the index of the entrant
+         * @return the mean rounds per game, or 0 before the entrant has played
+         */
+        public double getMeanRounds(int entrant) {
+            int games = wins[entrant] + losses[entrant];
+            return games == 0 ? 0 : (double) gameRounds[entrant] / games;
+        }
+
+        /**
+         * Returns the knockout round an entrant has reached, 1 before any match.
+         * 
+         * @param entrant the index of the entrant
+         * @return the round reached
+         */
+        public int getRoundReached(int entrant) {
+            return roundReached[entrant];
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package main;
+
+import lib.RecordColumns;
+import lib.RecordLog;
+import lib.RecordQuery;
+import lib.RecordStatistics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+
+/**
+ * Command-line entry point printing statistics of a record file: the most active players with their
+ * average score and game time, games per hour of day and the score histogram.
+ * Text files (".txt") are loaded through a streaming query; any other file is read as a binary
+ * record log. With "offheap" the columns are kept outside the heap, so a small -Xmx is enough.
+ *
+ * Usage: Analyze [file] [binWidth] [heap|offheap] [zone] [players]
+ */
+public class Analyze {
+
+    public static void main(String[] args) {
+        Path file = Paths.get(args.length > 0 ? args[0] : "gameRecords.txt");
+        int binWidth = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        boolean offHeap = args.length > 2 && args[2].equals("offheap");
+        ZoneId zone = args.length > 3 ? ZoneId.of(args[3]) : ZoneId.systemDefault();
+        int players = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        long start = System.nanoTime();
+        RecordColumns columns;
+        try {
+            if (file.toString().endsWith(".txt")) {
+                columns = RecordColumns.load(new RecordQuery(file), offHeap);
+            } else {
+                try (RecordLog log = new RecordLog(file)) {
+                    columns = RecordColumns.load(log, offHeap);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error loading records: " + e.getMessage());
+            return;
+        }
+        double loadSeconds = (System.nanoTime() - start) / 1e9;
+
+        RecordStatistics statistics = columns.statistics(zone, binWidth);
+        System.out.println(statistics.format(players));
+        System.out.printf("Loaded %d records %s in %.2f s; %.1f million records/s aggregated%n", columns.size(),
+                offHeap ? "off heap" : "on heap", loadSeconds, columns.size() / statistics.getWallTimeMillis() / 1e3);
+    }
+}
@@ -0,0 +1,92 @@
+package main;
+
+import lib.FairnessMonitor;
+import lib.FairnessReport;
+import lib.RandomSource;
+import lib.SeededRandom;
+
+import java.util.function.LongFunction;
+
+/**
+ * Command-line entry point certifying a random generator before rollout: rolls the dice billions of
+ * times in parallel, runs the fairness tests of {@link FairnessReport} and exits with status 1 if the
+ * generator fails them at the significance level.
+ * 
+ * Usage: Certify [rolls] [dice] [generator] [alpha]
+ * where generator is "seeded[:seed]" (SplitMix64 streams split by block), "threadLocal", or "legacy"
+ * for the former {@code (int) (Math.random() * sides)} rolls.
+ */
+public class Certify {
+
+    public static void main(String[] args) {
+        long rolls = args.length > 0 ? Long.parseLong(args[0]) : 100_000_000;
+        String dice = args.length > 1 ? args[1] : "2d6";
+        String generator = args.length > 2 ? args[2] : "seeded";
+        double alpha = args.length > 3 ? Double.parseDouble(args[3]) : 0.001;
+
+        long start = System.nanoTime();
+        FairnessReport report = FairnessMonitor.certify(dice, rolls, generators(generator));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(report);
+        System.out.printf("%d rolls in %.2f s (%.0f million rolls/s)%n", rolls, seconds, rolls / seconds / 1e6);
+        boolean fair = report.isFair(alpha);
+        System.out.println((fair ? "PASS" : "FAIL") + ": smallest p-value " + report.getMinPValue() + " against "
+                + alpha + " / " + report.getTestCount() + " tests");
+        if (!fair) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the generator of each block of rolls for a generator name.
+     * 
+     * @param name the generator name
+     * @return the generator of each block, by block number
+     */
+    private static LongFunction<RandomSource> generators(String name) {
+        if (name.startsWith("seeded")) {
+            SeededRandom seeds = new SeededRandom(name.contains(":") ? Long.parseLong(name.substring(7)) : 1);
+            return seeds::splitAt;
+        }
+        switch (name) {
+            case "threadLocal":
+                return block -> RandomSource.threadLocal();
+            case "legacy":
+                return block -> new LegacyRandom();
+            default:
+                throw new IllegalArgumentException("Unknown generator: " + name);
+        }
+    }
+
+    /**
+     * The rolls of the original game, {@code (int) (Math.random() * sides)}, kept to compare against.
+     */
+    private static final class LegacyRandom implements RandomSource {
+
+        @Override
+        public int nextInt(int bound) {
+            return (int) (Math.random() * bound);
+        }
+
+        @Override
+        public long nextLong() {
+            return (long) (Math.random() * Long.MAX_VALUE);
+        }
+
+        @Override
+        public RandomSource split() {
+            return this;
+        }
+
+        @Override
+        public long getSeed() {
+            throw new UnsupportedOperationException("Math.random() has no seed");
+        }
+
+        @Override
+        public boolean isSeeded() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package main;
+
+import lib.GuessStrategies;
+import lib.GuessStrategy;
+import lib.Metrics;
+import lib.ScoringRules;
+import lib.StrategyEvaluation;
+import lib.StrategyEvaluator;
+import lib.SumDistribution;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Command-line entry point ranking the built-in guessing strategies. Every strategy plays the same
+ * games with the same rolls, and the ranking shows each strategy's mean rounds to win with its
+ * 95% confidence interval, and its paired difference from the best strategy.
+ * 
+ * Usage: Evaluate [games] [targetScore] [dice] [sides] [seed] [rulesFile]
+ */
+public class Evaluate {
+
+    public static void main(String[] args) throws IOException {
+        Metrics.startConfiguredDump(); // Only when -Dluckydie.metrics.file is set
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int targetScore = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int dice = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int sides = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+        ScoringRules rules = args.length > 5 ? ScoringRules.load(Paths.get(args[5])) : ScoringRules.DEFAULT;
+
+        SumDistribution distribution = SumDistribution.of(dice, sides, rules);
+        StrategyEvaluator evaluator = new StrategyEvaluator(dice + "d" + sides, targetScore, rules);
+        if (args.length > 4) {
+            evaluator.setSeed(Long.parseLong(args[4]));
+        }
+        for (Map.Entry<String, GuessStrategy> strategy : GuessStrategies.builtIns(distribution, targetScore).entrySet()) {
+            evaluator.add(strategy.getKey(), strategy.getValue());
+        }
+
+        StrategyEvaluation evaluation = evaluator.evaluate(games);
+        System.out.println("Evaluated " + evaluation.getStrategyCount() + " strategies over " + games + " games of "
+                + dice + "d" + sides + " to " + targetScore + " points");
+        System.out.println(evaluation);
+    }
+}
@@ -1,27 +1,155 @@
 package main;
 
+import lib.CheckpointFile;
 import lib.Game;
+import lib.FairnessMonitor;
 import lib.GameRecord;
+import lib.GameSession;
+import lib.GuessStrategies;
 import lib.Settings;
+import lib.ConsoleInput;
 import lib.Credits;
+import lib.DicePool;
+import lib.ConsoleRenderer;
+import lib.Leaderboard;
+import lib.Metrics;
+import lib.RandomSource;
+import lib.RecordColumns;
+import lib.RecordEntry;
+import lib.RecordPager;
+import lib.RecordWriter;
+import lib.RoundJournal;
+import lib.ScoringRules;
+import lib.SeededRandom;
+import lib.Tournament;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
  * Main class for running the interactive menu for the LuckyDie game.
- * Allows the player to start a new game, view settings, see game credits, view records, and exit.
+ * Allows the player to start a new game, view settings, see game credits, view records,
+ * play a tournament, view statistics of all records, and exit.
+ * With {@code --script file|- [seed [directory]]} the menu is driven from a script file or a pipe at
+ * full speed, replaying any number of sessions back to back, as an end-to-end regression and throughput
+ * test. A script saves its records, leaderboard snapshot and journal in the given directory, or in a fresh
+ * temporary one, never over the player's own files.
+ * {@link MakeScript} writes such a script and gives the command and throughput to expect.
  */
 public class GameMenu {
 
     private static final String RECORDS_FILE_PATH = "gameRecords.txt";
+    private static final String LEADERBOARD_SNAPSHOT_PATH = "gameRecords.leaderboard";
+    private static final String SCORING_RULES_PATH = "scoringRules.txt";
+    private static final String JOURNAL_PATH = "gameRecords.journal";
+    private static final String CHECKPOINT_PATH = "gameRecords.checkpoint";
+    private static final int CHECKPOINT_SLOTS = 16;
+    private static final int LEADERBOARD_SIZE = 10;
+    private static final int STATISTICS_BIN_WIDTH = 10;
+    private static final int RECORDS_PAGE_SIZE = 20;
+    private static final int RECORDS_CACHED_PAGES = 16;
     private static final int TARGET_SCORE = 100; // Fixed target score
+    private static final String SCRIPT_OPTION = "--script";
+    private static final String USAGE = "Usage: GameMenu [" + SCRIPT_OPTION + " file|- [seed [directory]]]";
+    private static final int SCRIPT_BUFFER_SIZE = 1 << 16;
+
+    private static SeededRandom gameSeeds; // Set in scripted mode only
+    private static Path saveDirectory = Paths.get(""); // The current directory, or the script's directory
+    private static long gamesStarted;
+    private static RecordColumns recordColumns; // Loaded on first use, then kept up to date
+    private static RecordPager recordPager; // Indexed on first use, then kept up to date
+    private static CheckpointFile checkpoints; // Not used in scripted mode
 
     public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in); // Keep scanner open until the program ends
-        GameRecord gameRecord = new GameRecord(Paths.get(RECORDS_FILE_PATH));
+        Metrics.startConfiguredDump(); // Only when -Dluckydie.metrics.file is set
+        FairnessMonitor.startConfiguredCheck(); // Only when -Dluckydie.fairness.periodMillis is set
+        if (args.length > 0 && !args[0].equals(SCRIPT_OPTION) || args.length > 4) {
+            System.err.println(USAGE);
+            return;
+        }
+        if (args.length > 0) {
+            long seed;
+            try {
+                seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid seed: " + args[2]);
+                System.err.println(USAGE);
+                return;
+            }
+            try {
+                startScript(args.length > 1 ? args[1] : "-", seed, args.length > 3 ? Paths.get(args[3]) : null);
+            } catch (IOException e) {
+                System.err.println("Error opening script: " + e.getMessage());
+                return;
+            }
+        }
+        Scanner scanner = ConsoleInput.shared(); // The one scanner every menu reads from
+        GameRecord gameRecord = new GameRecord(saveDirectory.resolve(RECORDS_FILE_PATH));
+        try {
+            gameRecord.setWriter(new RecordWriter(saveDirectory.resolve(RECORDS_FILE_PATH), 1024, 64, 50, false));
+        } catch (IOException e) {
+            System.err.println("Error opening record writer, saving records directly: " + e.getMessage());
+        }
+        Leaderboard leaderboard = openLeaderboard(gameRecord);
+        RoundJournal journal = openJournal();
+        ScoringRules rules = loadScoringRules();
+        Credits credits = new Credits(rules);
+        if (gameSeeds == null) {
+            openCheckpoints();
+            resumeUnfinishedGames(scanner, gameRecord, rules);
+        }
+
+        long start = System.nanoTime();
+        int sessions = 0;
+        try {
+            do {
+                runSession(scanner, gameRecord, leaderboard, journal, rules, credits);
+                sessions++;
+            } while (gameSeeds != null && scanner.hasNext()); // A script holds any number of sessions
+        } finally {
+            System.out.flush();
+        }
+        if (gameSeeds != null) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("Replayed %d sessions with %d games in %.3f s (%.0f sessions/s), saved in %s%n",
+                    sessions, gamesStarted, seconds, sessions / seconds, saveDirectory);
+        }
+        gameRecord.close(); // Write any queued records before exiting
+        closeRecordPager();
+        saveLeaderboard(leaderboard);
+        closeJournal(journal);
+        closeCheckpoints();
+        ConsoleInput.close(); // Close the input only at the end of the program
+    }
+
+    /**
+     * Runs one menu session, from the welcome message until the player exits or the input ends.
+     * 
+     * @param scanner the scanner for player input
+     * @param gameRecord the game record object games are saved to
+     * @param leaderboard the leaderboard, or null if it could not be opened
+     * @param journal the journal every round is saved to, or null if it could not be opened
+     * @param rules the scoring rules of every game
+     * @param credits the credits screen
+     */
+    private static void runSession(Scanner scanner, GameRecord gameRecord, Leaderboard leaderboard,
+            RoundJournal journal, ScoringRules rules, Credits credits) {
         Settings settings = new Settings();
-        Credits credits = new Credits();
         boolean exit = false;
 
         System.out.println("Welcome to LuckyDie Game!");
@@ -35,27 +163,43 @@ public class GameMenu {
             System.out.println("1 - Start New Game");
             System.out.println("2 - Settings");
             System.out.println("3 - View Game Records");
-            System.out.println("4 - Credits");
-            System.out.println("5 - Exit");
+            System.out.println("4 - Leaderboard");
+            System.out.println("5 - Tournament");
+            System.out.println("6 - Statistics");
+            System.out.println("7 - Credits");
+            System.out.println("8 - Exit");
 
             System.out.print("Choose an option: ");
+            if (!scanner.hasNext()) {
+                System.out.println();
+                return; // End of input, treated as Exit
+            }
             int choice = scanner.nextInt();
             scanner.nextLine(); // Consume newline
 
             switch (choice) {
                 case 1:
-                    startNewGame(scanner, gameRecord, settings);
+                    startNewGame(scanner, gameRecord, journal, settings, rules);
                     break;
                 case 2:
-                    settings.displaySettingsMenu();
+                    settings.displaySettingsMenu(scanner);
                     break;
                 case 3:
-                    viewRecords(gameRecord);
+                    viewRecords(scanner, gameRecord);
                     break;
                 case 4:
-                    credits.displayCredits();
+                    viewLeaderboard(scanner, leaderboard);
                     break;
                 case 5:
+                    playTournament(scanner, gameRecord, settings, rules);
+                    break;
+                case 6:
+                    viewStatistics(gameRecord);
+                    break;
+                case 7:
+                    credits.displayCredits();
+                    break;
+                case 8:
                     exit = true;
                     System.out.println("Thank you for playing LuckyDie!");
                     break;
@@ -63,7 +207,52 @@ public class GameMenu {
                     System.out.println("Invalid choice. Please try again.");
             }
         }
-        scanner.close(); // Close scanner only at the end of the program
+    }
+
+    /**
+     * Switches the program to scripted mode: input comes from the script through a large buffer,
+     * output is buffered instead of flushed on every line, die results are never animated, and
+     * game number k rolls from {@code splitAt(k)} of the seed, so a recorded script replays exactly.
+     * Records, the leaderboard snapshot and the journal are saved in the given directory, which is
+     * created if needed, or in a fresh temporary directory.
+     * 
+     * @param script the script file, or "-" for standard input
+     * @param seed the seed the games' dice are split from
+     * @param directory the directory to save in, or null for a fresh temporary directory
+     * @throws IOException if the script cannot be opened or the directory cannot be created
+     */
+    private static void startScript(String script, long seed, Path directory) throws IOException {
+        Reader reader = script.equals("-") ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(script));
+        ConsoleInput.use(new Scanner(new BufferedReader(reader, SCRIPT_BUFFER_SIZE)));
+        System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out),
+                SCRIPT_BUFFER_SIZE), false));
+        gameSeeds = new SeededRandom(seed);
+        saveDirectory = directory == null ? Files.createTempDirectory("luckydie-script")
+                : Files.createDirectories(directory);
+    }
+
+    /**
+     * Returns the random source of the next game: a fresh seed when played interactively,
+     * or the next stream split from the script's seed.
+     * 
+     * @return the random source the game's dice roll from
+     */
+    private static RandomSource nextGameRandom() {
+        return gameSeeds == null ? RandomSource.seeded() : gameSeeds.splitAt(gamesStarted++);
+    }
+
+    /**
+     * Creates the renderer of a game: as chosen in the settings, or without delays in scripted mode.
+     * 
+     * @param settings the settings object for color and animation preferences
+     * @return the renderer for the console
+     */
+    private static ConsoleRenderer renderer(Settings settings) {
+        if (gameSeeds == null) {
+            return ConsoleRenderer.forSettings(settings);
+        }
+        return new ConsoleRenderer(System.out, settings.getColorDie1(), settings.getColorDie2(), 0);
     }
 
     /**
@@ -71,24 +260,374 @@ public class GameMenu {
      * 
      * @param scanner the scanner for player input
      * @param gameRecord the game record object to log the player's score
-     * @param settings the settings object for color preferences
+     * @param journal the journal every round is saved to, or null if it could not be opened
+     * @param settings the settings object for color, dice and animation preferences
+     * @param rules the scoring rules of the game
      */
-    private static void startNewGame(Scanner scanner, GameRecord gameRecord, Settings settings) {
+    private static void startNewGame(Scanner scanner, GameRecord gameRecord, RoundJournal journal, Settings settings,
+            ScoringRules rules) {
         System.out.print("Enter your name: ");
         String playerName = scanner.nextLine();
 
-        Game game = new Game(6, TARGET_SCORE, settings.getColorDie1(), settings.getColorDie2());
+        DicePool dice = DicePool.parse(settings.getDiceSpec(), nextGameRandom());
+        Game game = new Game(dice, TARGET_SCORE, renderer(settings), rules);
+        if (journal != null) {
+            game.journalTo(journal, playerName);
+        }
+        if (checkpoints != null && !game.checkpointTo(checkpoints, playerName, settings.getColorDie1(),
+                settings.getColorDie2())) {
+            System.err.println("Every checkpoint slot is taken, this game cannot be resumed if interrupted.");
+        }
         game.start();
-        gameRecord.addRecord(playerName, game.getCurrentScore());
+        gameRecord.addRecord(playerName, game.getCurrentScore(), game.getTotalTime());
+    }
+
+    /**
+     * Runs a tournament between bots and, optionally, the player. Matches are decided by the fewest
+     * rounds to the target score; the player's games are played on the console and the bots' games in parallel.
+     * The top three places are saved to the game records.
+     * 
+     * @param scanner the scanner for player input
+     * @param gameRecord the game record object the final results are saved to
+     * @param settings the settings object for color, dice and animation preferences
+     * @param rules the scoring rules of every game
+     */
+    private static void playTournament(Scanner scanner, GameRecord gameRecord, Settings settings, ScoringRules rules) {
+        System.out.print("Enter your name (leave empty to watch the bots): ");
+        String playerName = scanner.nextLine().trim();
+        System.out.print("Number of bot entrants: ");
+        int bots = scanner.nextInt();
+        System.out.println("1 - Knockout");
+        System.out.println("2 - Round robin");
+        System.out.print("Choose a format: ");
+        Tournament.Format format = scanner.nextInt() == 2 ? Tournament.Format.ROUND_ROBIN : Tournament.Format.KNOCKOUT;
+        scanner.nextLine(); // Consume newline
+
+        List<Tournament.Entrant> entrants = new ArrayList<>();
+        if (!playerName.isEmpty()) {
+            entrants.add(Tournament.Entrant.interactive(playerName, session -> {
+                System.out.println("\nYour match: reach " + session.getTargetScore() + " points in as few rounds as you can!");
+                new Game(session, renderer(settings), scanner).start();
+            }));
+        }
+        DicePool dice = DicePool.parse(settings.getDiceSpec(), RandomSource.threadLocal());
+        for (int i = 0; i < bots; i++) {
+            entrants.add(botEntrant(i + 1, dice.getMinSum(), dice.getMaxSum()));
+        }
+        if (entrants.size() < 2) {
+            System.out.println("A tournament needs at least two entrants.");
+            return;
+        }
+
+        Tournament tournament = new Tournament(entrants, format, settings.getDiceSpec(), TARGET_SCORE, rules);
+        if (gameSeeds != null) {
+            tournament.setSeed(nextGameRandom().nextLong());
+        }
+        tournament.setListener(new Tournament.StandingsListener() {
+            @Override
+            public void matchCompleted(Tournament.Match match) {
+                if (!playerName.isEmpty() && (match.getFirst() == 0 || match.getSecond() == 0)) {
+                    int opponent = match.getFirst() == 0 ? match.getSecond() : match.getFirst();
+                    int opponentRounds = match.getFirst() == 0 ? match.getSecondRounds() : match.getFirstRounds();
+                    System.out.println((match.getWinner() == 0 ? "You beat " : "You lost to ")
+                            + entrants.get(opponent).getName() + ", who took " + opponentRounds + " rounds.");
+                }
+            }
+
+            @Override
+            public void roundCompleted(int round, Tournament.Standings standings) {
+                int leader = standings.top(1)[0];
+                System.out.println("Round " + round + " complete. Leader: " + standings.getEntrant(leader).getName()
+                        + " (" + standings.getWins(leader) + " wins)");
+            }
+        });
+
+        long start = System.nanoTime();
+        Tournament.Standings standings = tournament.play();
+        System.out.printf("%nTournament of %d entrants finished in %.2f s%n", entrants.size(),
+                (System.nanoTime() - start) / 1e9);
+        int[] podium = standings.top(3);
+        for (int place = 0; place < podium.length; place++) {
+            int entrant = podium[place];
+            System.out.printf("%d. %s - %d wins, %.2f rounds per game%n", place + 1,
+                    standings.getEntrant(entrant).getName(), standings.getWins(entrant),
+                    standings.getMeanRounds(entrant));
+        }
+        standings.writeResults(gameRecord, podium.length);
+    }
+
+    /**
+     * Creates a bot entrant, cycling through a few guessing styles.
+     * 
+     * @param number the number of the bot
+     * @param minSum the smallest sum of the dice
+     * @param maxSum the largest sum of the dice
+     * @return the bot entrant
+     */
+    private static Tournament.Entrant botEntrant(int number, int minSum, int maxSum) {
+        int middle = (minSum + maxSum) / 2;
+        return switch (number % 4) {
+            case 0 -> Tournament.Entrant.bot("Steady Bot " + number, GuessStrategies.fixed(middle));
+            case 1 -> Tournament.Entrant.bot("Lucky Bot " + number, GuessStrategies.random(minSum, maxSum));
+            case 2 -> Tournament.Entrant.bot("Zigzag Bot " + number,
+                    (round, score, target) -> round % 2 == 0 ? middle - 1 : middle + 1);
+            default -> Tournament.Entrant.bot("Bold Bot " + number,
+                    (round, score, target) -> Math.min(maxSum, middle + 2));
+        };
+    }
+
+    /**
+     * Loads the scoring rules from the rules file next to the records, falling back to
+     * the default rules if there is no such file or it cannot be used.
+     * 
+     * @return the scoring rules the games are played with
+     */
+    private static ScoringRules loadScoringRules() {
+        Path rulesFile = Paths.get(SCORING_RULES_PATH);
+        if (!Files.exists(rulesFile)) {
+            return ScoringRules.DEFAULT;
+        }
+        try {
+            return ScoringRules.load(rulesFile);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error loading scoring rules, using the default rules: " + e.getMessage());
+            return ScoringRules.DEFAULT;
+        }
     }
 
     /**
-     * Displays all saved game records.
+     * Opens the round journal, where every round of every game is saved for auditing and replay.
      * 
-     * @param gameRecord the game record object used to read records
+     * @return the journal, or null if it could not be opened
      */
-    private static void viewRecords(GameRecord gameRecord) {
-        System.out.println("\n--- Game Records ---");
-        System.out.println(gameRecord.readAllRecords());
+    private static RoundJournal openJournal() {
+        try {
+            return new RoundJournal(saveDirectory.resolve(JOURNAL_PATH));
+        } catch (IOException e) {
+            System.err.println("Error opening round journal, rounds will not be saved: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Closes the round journal.
+     * 
+     * @param journal the journal to close, or null if it could not be opened
+     */
+    private static void closeJournal(RoundJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error closing round journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens the checkpoint file, where every round of the games in progress is saved so they can be
+     * resumed if the program dies mid-game.
+     */
+    private static void openCheckpoints() {
+        try {
+            checkpoints = new CheckpointFile(saveDirectory.resolve(CHECKPOINT_PATH), CHECKPOINT_SLOTS);
+        } catch (IOException e) {
+            System.err.println("Error opening checkpoint file, games will not be resumable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Offers to resume every game left unfinished when the program last died, and saves the record of
+     * each resumed game. A game that is not resumed is discarded.
+     * 
+     * @param scanner the scanner for player input
+     * @param gameRecord the game record object to log the players' scores
+     * @param rules the scoring rules of the resumed games
+     */
+    private static void resumeUnfinishedGames(Scanner scanner, GameRecord gameRecord, ScoringRules rules) {
+        if (checkpoints == null) {
+            return;
+        }
+        for (CheckpointFile.Checkpoint checkpoint : checkpoints.getUnfinishedGames()) {
+            System.out.print("Resume the unfinished game of " + checkpoint + "? (y/n): ");
+            if (!scanner.hasNextLine()) {
+                return; // End of input; the games stay unfinished
+            }
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                checkpoints.discard(checkpoint);
+                continue;
+            }
+            GameSession session = checkpoints.resume(checkpoint, rules);
+            Game game = new Game(session, new ConsoleRenderer(System.out, checkpoint.getColorDie1(),
+                    checkpoint.getColorDie2(), ConsoleRenderer.DEFAULT_DELAY_MILLIS), scanner);
+            game.start();
+            gameRecord.addRecord(checkpoint.getPlayerName(), game.getCurrentScore(), game.getTotalTime());
+        }
+    }
+
+    /**
+     * Closes the checkpoint file.
+     */
+    private static void closeCheckpoints() {
+        if (checkpoints == null) {
+            return;
+        }
+        try {
+            checkpoints.close();
+        } catch (IOException e) {
+            System.err.println("Error closing checkpoint file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens the leaderboard index from its snapshot, or by scanning the record file,
+     * and keeps it updated with every new record.
+     * 
+     * @param gameRecord the game record object whose records are indexed
+     * @return the leaderboard, or null if the record file could not be read
+     */
+    private static Leaderboard openLeaderboard(GameRecord gameRecord) {
+        try {
+            Leaderboard leaderboard = Leaderboard.open(gameRecord.getFilePath(), saveDirectory.resolve(LEADERBOARD_SNAPSHOT_PATH));
+            gameRecord.addListener(leaderboard);
+            return leaderboard;
+        } catch (IOException e) {
+            System.err.println("Error building leaderboard: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves the leaderboard snapshot so the next start does not have to scan the record file.
+     * 
+     * @param leaderboard the leaderboard to save, or null if it could not be opened
+     */
+    private static void saveLeaderboard(Leaderboard leaderboard) {
+        if (leaderboard == null) {
+            return;
+        }
+        try {
+            leaderboard.save(saveDirectory.resolve(RECORDS_FILE_PATH), saveDirectory.resolve(LEADERBOARD_SNAPSHOT_PATH));
+        } catch (IOException e) {
+            System.err.println("Error saving leaderboard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Displays the top scores and, optionally, the rank and statistics of one player.
+     * 
+     * @param scanner the scanner for player input
+     * @param leaderboard the leaderboard to display
+     */
+    private static void viewLeaderboard(Scanner scanner, Leaderboard leaderboard) {
+        if (leaderboard == null) {
+            System.out.println("Leaderboard is not available.");
+            return;
+        }
+
+        System.out.println("\n--- Leaderboard ---");
+        List<RecordEntry> top = leaderboard.top(LEADERBOARD_SIZE);
+        for (int i = 0; i < top.size(); i++) {
+            System.out.println((i + 1) + ". " + top.get(i).getPlayerName() + " - " + top.get(i).getScore());
+        }
+
+        System.out.print("Enter a player name to look up (or press Enter to return): ");
+        String playerName = scanner.nextLine().trim();
+        if (playerName.isEmpty()) {
+            return;
+        }
+        int rank = leaderboard.getRank(playerName);
+        if (rank < 0) {
+            System.out.println("No records for player: " + playerName);
+        } else {
+            System.out.printf("%s - Rank: %d of %d | Best: %d | Average: %.1f | Games: %d%n", playerName, rank,
+                    leaderboard.getPlayerCount(), leaderboard.getBestScore(playerName),
+                    leaderboard.getAverageScore(playerName), leaderboard.getGamesPlayed(playerName));
+        }
+    }
+
+    /**
+     * Displays the saved game records a page at a time. The player moves to the next or previous page,
+     * jumps to any page by number, or returns to the menu. The record file is indexed the first time,
+     * so later views open any page directly, and new records are added to the index as they are saved.
+     * 
+     * @param scanner the scanner for player input
+     * @param gameRecord the game record object whose records are displayed
+     */
+    private static void viewRecords(Scanner scanner, GameRecord gameRecord) {
+        try {
+            if (recordPager == null) {
+                recordPager = new RecordPager(gameRecord, RECORDS_PAGE_SIZE, RECORDS_CACHED_PAGES);
+                gameRecord.addListener(recordPager);
+            }
+            System.out.println("\n--- Game Records ---");
+            int page = 0;
+            while (true) {
+                int pages = recordPager.getPageCount();
+                page = Math.min(page, pages - 1);
+                for (String line : recordPager.page(page)) {
+                    System.out.println(line);
+                }
+                System.out.printf("Page %d of %d (%d records)%n", page + 1, pages, recordPager.getLineCount());
+                System.out.print("n - Next, p - Previous, page number - Go to page, Enter - Return: ");
+                if (!scanner.hasNextLine()) {
+                    System.out.println();
+                    return;
+                }
+                String input = scanner.nextLine().trim();
+                if (input.isEmpty()) {
+                    return;
+                } else if (input.equalsIgnoreCase("n")) {
+                    page = Math.min(page + 1, pages - 1);
+                } else if (input.equalsIgnoreCase("p")) {
+                    page = Math.max(page - 1, 0);
+                } else {
+                    try {
+                        page = Math.max(1, Math.min(Integer.parseInt(input), pages)) - 1;
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid choice. Please try again.");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading records: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the record file held open by the record pager.
+     */
+    private static void closeRecordPager() {
+        if (recordPager == null) {
+            return;
+        }
+        try {
+            recordPager.close();
+        } catch (IOException e) {
+            System.err.println("Error closing record pager: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Displays statistics of all saved game records: the most active players with their average
+     * score and game time, games per hour of day, and the score histogram. The records are loaded
+     * into columns the first time and then kept up to date with every new record.
+     * 
+     * @param gameRecord the game record object whose records are aggregated
+     */
+    private static void viewStatistics(GameRecord gameRecord) {
+        if (recordColumns == null) {
+            try {
+                recordColumns = RecordColumns.load(gameRecord.query(), false);
+            } catch (UncheckedIOException e) {
+                System.out.println("Statistics are not available: " + e.getCause().getMessage());
+                return;
+            }
+            gameRecord.addListener(recordColumns);
+        }
+        System.out.println("\n--- Statistics ---");
+        System.out.println(recordColumns.statistics(ZoneId.systemDefault(), STATISTICS_BIN_WIDTH)
+                .format(LEADERBOARD_SIZE));
     }
 }
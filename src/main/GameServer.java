@@ -0,0 +1,349 @@
+package main;
+
+import lib.CheckpointFile;
+import lib.FairnessMonitor;
+import lib.GameRecord;
+import lib.GameSession;
+import lib.Metrics;
+import lib.RandomSource;
+import lib.RecordEntry;
+import lib.RecordWriter;
+import lib.RoundJournal;
+import lib.RoundResult;
+import lib.ScoringRules;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local TCP server hosting many simultaneous LuckyDie sessions, one per connection.
+ * Each connection plays a {@link GameSession} over a line-based text protocol:
+ * <pre>
+ * server: WELCOME &lt;targetScore&gt; &lt;minGuess&gt; &lt;maxGuess&gt;
+ * server: NAME?
+ * client: &lt;player name&gt;
+ * server: RESUME &lt;rounds&gt; &lt;score&gt;   (only when the player has an unfinished game)
+ * server: GUESS &lt;round&gt;
+ * client: &lt;guess&gt;
+ * server: ROLL &lt;die1&gt; &lt;die2&gt; &lt;sum&gt; &lt;points&gt; &lt;score&gt;
+ * ...     (GUESS and ROLL repeat until the target is reached)
+ * server: WIN &lt;rounds&gt; &lt;score&gt; &lt;milliseconds&gt; &lt;seed&gt;
+ * </pre>
+ * A guess that is not a whole number from minGuess to maxGuess is answered with "ERROR &lt;message&gt;"
+ * and the same GUESS prompt.
+ * Sessions run on virtual threads when the Java runtime provides them, and on a cached thread pool
+ * otherwise. Finished games are queued to the record file by an asynchronous writer, so saving a
+ * record never blocks a session.
+ * Every round of every game is checkpointed; if the server dies, a player reconnecting under the same
+ * name after the restart resumes their unfinished game where it stopped.
+ * 
+ * Usage: GameServer [port] [recordsFile] [journalFile] [checkpointFile]
+ * (add -Dluckydie.metrics.file=metrics.prom to dump runtime metrics, see {@link Metrics})
+ */
+public class GameServer {
+
+    private static final int DEFAULT_PORT = 5050;
+    private static final int SIDES = 6;
+    private static final int TARGET_SCORE = 100;
+    private static final int CHECKPOINT_SLOTS = 4096;
+    private static final long STOP_GRACE_SECONDS = 5;
+
+    private final ServerSocket serverSocket;
+    private final GameRecord gameRecord;
+    private RoundJournal journal;
+    private CheckpointFile checkpoints;
+    private final Map<String, Queue<CheckpointFile.Checkpoint>> unfinishedGames = new ConcurrentHashMap<>();
+    private final ExecutorService sessions = sessionExecutor();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopping;
+
+    /**
+     * Constructor for GameServer, binding the listening socket.
+     * 
+     * @param port       the local port to listen on, or 0 for any free port
+     * @param gameRecord the record file finished games are saved to
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, GameRecord gameRecord) throws IOException {
+        this.serverSocket = new ServerSocket(port, 1024);
+        this.gameRecord = gameRecord;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String recordsFile = args.length > 1 ? args[1] : "gameRecords.txt";
+        String journalFile = args.length > 2 ? args[2] : "gameRecords.journal";
+        String checkpointFile = args.length > 3 ? args[3] : "gameRecords.checkpoint";
+
+        GameRecord gameRecord = new GameRecord(Paths.get(recordsFile));
+        gameRecord.setWriter(new RecordWriter(Paths.get(recordsFile), 65_536, 512, 100, false));
+        GameServer server = new GameServer(port, gameRecord);
+        server.setJournal(new RoundJournal(Paths.get(journalFile)));
+        server.setCheckpoints(new CheckpointFile(Paths.get(checkpointFile), CHECKPOINT_SLOTS));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        Metrics.startConfiguredDump();
+        FairnessMonitor.startConfiguredCheck();
+
+        System.out.println("LuckyDie server listening on port " + port + ", saving records to " + recordsFile);
+        if (server.getUnfinishedGames() > 0) {
+            System.out.println(server.getUnfinishedGames() + " unfinished games can be resumed");
+        }
+        server.serve();
+    }
+
+    /**
+     * Journals every round of every following session, finished or abandoned.
+     * 
+     * @param journal the journal games are appended to
+     */
+    public void setJournal(RoundJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Checkpoints every round of every following session, and lets the players of the file's unfinished
+     * games resume them by connecting under the same name.
+     * 
+     * @param checkpoints the checkpoint file
+     */
+    public void setCheckpoints(CheckpointFile checkpoints) {
+        this.checkpoints = checkpoints;
+        for (CheckpointFile.Checkpoint checkpoint : checkpoints.getUnfinishedGames()) {
+            unfinishedGames.computeIfAbsent(checkpoint.getPlayerName(), name -> new ConcurrentLinkedQueue<>())
+                    .add(checkpoint);
+        }
+    }
+
+    /**
+     * Returns the local port the server listens on, such as the one picked for port 0.
+     * 
+     * @return the listening port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of unfinished games waiting for their players to reconnect.
+     * 
+     * @return the unfinished game count
+     */
+    public int getUnfinishedGames() {
+        return unfinishedGames.values().stream().mapToInt(Queue::size).sum();
+    }
+
+    /**
+     * Accepts connections until the server is stopped, starting a session for each.
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> playSession(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Error accepting connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays one game with the client on the other end of the socket, then saves its record.
+     * A client that disconnects before finishing abandons the game; no record is saved, but its rounds
+     * are still journaled. A player with an unfinished game from before a restart resumes it instead of
+     * starting a new one; the resumed rest of the game is not journaled, since it no longer replays
+     * from the seed alone. A game cut off by the server stopping keeps its checkpoint, so it can be
+     * resumed after the restart.
+     * 
+     * @param socket the client connection
+     */
+    private void playSession(Socket socket) {
+        connections.add(socket);
+        activeSessions.incrementAndGet();
+        Metrics.global().sessionStarted();
+        GameSession session = null;
+        try (Socket connection = socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+            connection.setTcpNoDelay(true);
+            session = new GameSession(SIDES, TARGET_SCORE, RandomSource.seeded());
+
+            out.write("WELCOME " + TARGET_SCORE + " " + session.getMinSum() + " " + session.getMaxSum() + "\n");
+            out.write("NAME?\n");
+            out.flush();
+            String playerName = in.readLine();
+            if (playerName == null) {
+                return;
+            }
+            Queue<CheckpointFile.Checkpoint> waiting = unfinishedGames.get(playerName);
+            CheckpointFile.Checkpoint unfinished = waiting == null ? null : waiting.poll();
+            if (unfinished != null) {
+                session = checkpoints.resume(unfinished, ScoringRules.DEFAULT);
+                out.write("RESUME " + session.getRoundsPlayed() + " " + session.getCurrentScore() + "\n");
+            } else {
+                if (journal != null) {
+                    session.setJournal(journal.begin(playerName, session));
+                }
+                if (checkpoints != null) {
+                    session.setCheckpoint(checkpoints.begin(playerName, session, "Default", "Default"));
+                }
+            }
+
+            out.write("GUESS " + (session.getRoundsPlayed() + 1) + "\n");
+            out.flush();
+            while (!session.isFinished()) {
+                String line = in.readLine();
+                if (line == null) {
+                    return;
+                }
+                int guess;
+                try {
+                    guess = Integer.parseInt(line.trim());
+                } catch (NumberFormatException e) {
+                    out.write("ERROR Guess must be a whole number\nGUESS " + (session.getRoundsPlayed() + 1) + "\n");
+                    out.flush();
+                    continue;
+                }
+                if (guess < session.getMinSum() || guess > session.getMaxSum()) {
+                    out.write("ERROR Guess must be from " + session.getMinSum() + " to " + session.getMaxSum()
+                            + "\nGUESS " + (session.getRoundsPlayed() + 1) + "\n");
+                    out.flush();
+                    continue;
+                }
+
+                RoundResult round = session.submitGuess(guess);
+                out.write("ROLL " + round.getDie1() + " " + round.getDie2() + " " + round.getSum() + " "
+                        + round.getPoints() + " " + round.getScore() + "\n");
+                if (!round.isFinished()) {
+                    out.write("GUESS " + (round.getRound() + 1) + "\n");
+                }
+                out.flush();
+            }
+
+            long elapsedNanos = session.getElapsedNanos();
+            out.write("WIN " + session.getRoundsPlayed() + " " + session.getCurrentScore() + " "
+                    + elapsedNanos / 1_000_000 + " " + session.getRandom().getSeed() + "\n");
+            out.flush();
+            gameRecord.addRecord(new RecordEntry(playerName, session.getCurrentScore(), System.currentTimeMillis(),
+                    elapsedNanos / 1000));
+        } catch (IOException e) {
+            // The client went away, or the server is stopping; the game is abandoned
+        } catch (RuntimeException e) {
+            System.err.println("Session failed: " + e);
+        } finally {
+            if (session != null && session.getJournal() != null) {
+                session.getJournal().abandon(); // Does nothing if the game finished and was written
+            }
+            if (session != null && session.getCheckpoint() != null && !stopping) {
+                session.getCheckpoint().release(); // Does nothing if the game finished
+            }
+            connections.remove(socket);
+            activeSessions.decrementAndGet();
+            Metrics.global().sessionEnded();
+        }
+    }
+
+    /**
+     * Returns the number of sessions currently being played.
+     * 
+     * @return the active session count
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Stops accepting connections, gives running sessions a few seconds to finish, then disconnects the
+     * rest, whose games stay checkpointed, and only once every session has ended writes every queued
+     * record and closes the checkpoint file and the journal.
+     */
+    public void stop() {
+        stopping = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing server socket: " + e.getMessage());
+        }
+        sessions.shutdown();
+        if (!awaitSessions()) {
+            for (Socket connection : connections) {
+                try {
+                    connection.close(); // Ends the session's blocked read
+                } catch (IOException e) {
+                    // Already closed
+                }
+            }
+            if (!awaitSessions()) {
+                System.err.println(activeSessions.get() + " sessions did not stop in time");
+            }
+        }
+        gameRecord.close();
+        if (checkpoints != null) {
+            checkpoints.force(); // Games still in progress are resumed after the restart
+            try {
+                checkpoints.close();
+            } catch (IOException e) {
+                System.err.println("Error closing checkpoint file: " + e.getMessage());
+            }
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Error closing round journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits for the running sessions to end, for at most the stop grace period.
+     * 
+     * @return true if every session has ended
+     */
+    private boolean awaitSessions() {
+        try {
+            return sessions.awaitTermination(STOP_GRACE_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Returns an executor running each session on its own virtual thread when the runtime supports
+     * them (Java 21 and later), found by reflection since the project compiles for Java 17.
+     * Older runtimes fall back to a cached pool of platform threads.
+     * 
+     * @return the session executor
+     */
+    private static ExecutorService sessionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
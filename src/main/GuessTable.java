@@ -0,0 +1,35 @@
+package main;
+
+import lib.SumDistribution;
+
+/**
+ * Prints the optimal guess, with its expected points and standard deviation per round,
+ * for common dice configurations, computed exactly by {@link SumDistribution}.
+ * 
+ * Usage: GuessTable [maxDice]
+ */
+public class GuessTable {
+
+    private static final int[] SIDES = { 4, 6, 8, 10, 12, 20 };
+
+    public static void main(String[] args) {
+        int maxDice = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+        System.out.printf("%-6s", "Dice");
+        for (int sides : SIDES) {
+            System.out.printf("| %-20s", "d" + sides);
+        }
+        System.out.println();
+
+        for (int dice = 1; dice <= maxDice; dice++) {
+            System.out.printf("%-6d", dice);
+            for (int sides : SIDES) {
+                SumDistribution distribution = SumDistribution.of(dice, sides);
+                int guess = distribution.getOptimalGuess();
+                System.out.printf("| %3d: %6.2f +- %5.2f ", guess, distribution.expectedPoints(guess),
+                        Math.sqrt(distribution.pointsVariance(guess)));
+            }
+            System.out.println();
+        }
+    }
+}
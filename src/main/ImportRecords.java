@@ -0,0 +1,28 @@
+package main;
+
+import lib.RecordLog;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * One-time importer converting the text game record file into the binary record log format.
+ * 
+ * Usage: ImportRecords [textFile] [binaryFile]
+ */
+public class ImportRecords {
+
+    public static void main(String[] args) {
+        String textFile = args.length > 0 ? args[0] : "gameRecords.txt";
+        String binaryFile = args.length > 1 ? args[1] : "gameRecords.bin";
+
+        try (RecordLog log = new RecordLog(Paths.get(binaryFile))) {
+            long before = log.size();
+            int imported = log.importText(Paths.get(textFile));
+            System.out.println("Imported " + imported + " records from " + textFile + " into " + binaryFile
+                    + " (" + (before + imported) + " records in total)");
+        } catch (IOException e) {
+            System.err.println("Error importing records: " + e.getMessage());
+        }
+    }
+}
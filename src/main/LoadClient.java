@@ -0,0 +1,104 @@
+package main;
+
+import lib.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for the {@link GameServer}. A number of concurrent bot players each play
+ * complete games back to back, always guessing 7, until the requested number of sessions
+ * has been played. Reports sessions per second and the round latency, measured from sending
+ * a guess to receiving its roll.
+ * 
+ * Usage: LoadClient [host] [port] [sessions] [concurrency]
+ */
+public class LoadClient {
+
+    private static final int GUESS = 7;
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 5050;
+        long sessions = args.length > 2 ? Long.parseLong(args[2]) : 10_000;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        AtomicLong remaining = new AtomicLong(sessions);
+        AtomicLong failures = new AtomicLong();
+        List<Thread> players = new ArrayList<>();
+        List<LatencyHistogram> histograms = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            Thread player = new Thread(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    try {
+                        playSession(host, port, histogram);
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            players.add(player);
+            player.start();
+        }
+        for (Thread player : players) {
+            player.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        LatencyHistogram rounds = new LatencyHistogram();
+        histograms.forEach(rounds::merge);
+        long completed = sessions - failures.get();
+        System.out.printf("Sessions: %d completed, %d failed in %.2f s (%.0f sessions/s)%n", completed,
+                failures.get(), seconds, completed / seconds);
+        System.out.printf("Rounds: %d | latency p50 %.1f us | p99 %.1f us | max %.1f us%n", rounds.getCount(),
+                rounds.getPercentile(0.5) / 1000.0, rounds.getPercentile(0.99) / 1000.0, rounds.getMax() / 1000.0);
+    }
+
+    /**
+     * Plays one complete game against the server.
+     * 
+     * @param host      the server host
+     * @param port      the server port
+     * @param histogram the histogram receiving each round's latency
+     * @throws IOException if the connection fails or the server ends the game early
+     */
+    private static void playSession(String host, int port, LatencyHistogram histogram) throws IOException {
+        try (Socket socket = new Socket(host, port);
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            long sent = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("NAME?")) {
+                    out.write("LoadBot\n");
+                    out.flush();
+                } else if (line.startsWith("GUESS")) {
+                    sent = System.nanoTime();
+                    out.write(GUESS + "\n");
+                    out.flush();
+                } else if (line.startsWith("ROLL")) {
+                    histogram.record(System.nanoTime() - sent);
+                } else if (line.startsWith("WIN")) {
+                    return;
+                }
+            }
+            throw new IOException("Server closed the connection before the game finished");
+        }
+    }
+}
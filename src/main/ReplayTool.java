@@ -0,0 +1,91 @@
+package main;
+
+import lib.JournalGame;
+import lib.RoundJournal;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Command-line tool that replays games from a round journal.
+ * Without a game number it replays and verifies every game in the journal, listing any whose
+ * journaled rolls, points or final score differ from what its seed produces. With a game number
+ * it prints that game round by round, as it was played, and verifies it.
+ * 
+ * Usage: ReplayTool [journalFile] [gameNumber]
+ */
+public class ReplayTool {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    public static void main(String[] args) throws IOException {
+        String journalFile = args.length > 0 ? args[0] : "gameRecords.journal";
+        long gameNumber = args.length > 1 ? Long.parseLong(args[1]) : -1;
+
+        long[] counts = new long[3]; // Games, verified, failed
+        RoundJournal.read(Paths.get(journalFile), game -> {
+            counts[0]++;
+            if (gameNumber >= 0 && game.getIndex() != gameNumber) {
+                return;
+            }
+            String mismatch = game.verify();
+            if (mismatch == null) {
+                counts[1]++;
+            } else {
+                counts[2]++;
+            }
+            if (gameNumber >= 0) {
+                printGame(game, mismatch);
+            } else if (mismatch != null) {
+                System.out.println("Game " + game.getIndex() + " (" + game.getPlayerName() + "): " + mismatch);
+            }
+        });
+
+        if (gameNumber >= 0 && counts[1] + counts[2] == 0) {
+            System.out.println("No game " + gameNumber + " in " + journalFile + ", which holds " + counts[0] + " games");
+        } else if (gameNumber < 0) {
+            System.out.println("Replayed " + counts[0] + " games: " + counts[1] + " verified, " + counts[2] + " failed");
+        }
+        if (counts[2] > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints a game round by round, followed by the outcome of its verification.
+     * 
+     * @param game     the journaled game
+     * @param mismatch the first difference found by the replay, or null if it matched
+     */
+    private static void printGame(JournalGame game, String mismatch) {
+        if (game.isCorrupt()) {
+            System.out.println("Game " + game.getIndex() + ": " + mismatch);
+            return;
+        }
+        System.out.println("Game " + game.getIndex() + " played by " + game.getPlayerName() + " on "
+                + DATE_FORMAT.format(Instant.ofEpochMilli(game.getStartMillis())));
+        System.out.println("Dice: " + game.getDiceSpec() + " | Target: " + game.getTargetScore() + " | Rules: "
+                + game.getScoringRules() + " | Seed: " + game.getSeed());
+
+        int score = 0;
+        for (int r = 0; r < game.getRounds(); r++) {
+            StringBuilder dice = new StringBuilder();
+            int sum = 0;
+            for (int d = 0; d < game.getDiceCount(); d++) {
+                dice.append(d == 0 ? "" : "+").append(game.getDie(r, d));
+                sum += game.getDie(r, d);
+            }
+            score += game.getPoints(r);
+            System.out.printf("Round %d: guess %d, rolled %s = %d, %d points, score %d (%.1f s)%n", r + 1,
+                    game.getGuess(r), dice, sum, game.getPoints(r), score, game.getRoundMillis(r) / 1000.0);
+        }
+        System.out.println((game.isFinished() ? "Finished" : "Abandoned") + " with " + game.getFinalScore()
+                + " points after " + game.getRounds() + " rounds");
+        System.out.println(mismatch == null ? "Replay verified: rolls, points and final score match the seed"
+                : "Replay FAILED: " + mismatch);
+    }
+}
@@ -0,0 +1,66 @@
+package main;
+
+import lib.SimulationResult;
+import lib.Sweep;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command-line entry point for a parameter sweep of headless games over target scores, dice sides and
+ * strategies, played by worker JVMs (or in this process with 0 workers). Prints one line per point
+ * and a checksum of the results, which is the same for any number of workers.
+ *
+ * Usage: RunSweep [workers] [gamesPerPoint] [targets] [sides] [strategies] [seed] [shardGames]
+ * where targets, sides and strategies are comma-separated lists, such as "50,100" "6,8" "optimal,finisher".
+ */
+public class RunSweep {
+
+    public static void main(String[] args) {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        int[] targets = numbers(args.length > 2 ? args[2] : "50,100,200");
+        int[] sides = numbers(args.length > 3 ? args[3] : "6,8");
+        List<String> strategies = Arrays.asList((args.length > 4 ? args[4] : "optimal,finisher,min-rounds").split(","));
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+        long shardGames = args.length > 6 ? Long.parseLong(args[6]) : 250_000;
+
+        Sweep sweep = new Sweep(targets, sides, strategies, games, shardGames);
+        sweep.setSeed(seed);
+        long start = System.nanoTime();
+        SimulationResult[] results;
+        try {
+            results = workers == 0 ? sweep.runLocal()
+                    : sweep.run(workers, Sweep.javaCommand(SweepWorker.class.getName(), List.of()));
+        } catch (IOException e) {
+            System.err.println("Sweep failed: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%6s %5s %-12s %10s %8s %6s %6s %10s %10s%n", "Target", "Dice", "Strategy", "Mean", "StdDev",
+                "p50", "p99", "Overshoot", "Unfinished");
+        for (int p = 0; p < results.length; p++) {
+            SimulationResult result = results[p];
+            System.out.printf("%6d %5s %-12s %10.4f %8.4f %6d %6d %10.3f %10d%n", sweep.getTarget(p),
+                    "2d" + sweep.getSides(p), sweep.getStrategy(p), result.getMeanRounds(),
+                    result.getRoundsStandardDeviation(), result.getRoundsPercentile(0.5),
+                    result.getRoundsPercentile(0.99), result.getMeanOvershoot(), result.getUnfinishedGames());
+        }
+        System.out.printf("%d points x %d games in %d shards on %s in %.2f s; checksum %08x%n", results.length, games,
+                sweep.getShardCount(), workers == 0 ? "this process" : workers + " workers", seconds,
+                Sweep.checksum(results));
+    }
+
+    /**
+     * Parses a comma-separated list of numbers.
+     *
+     * @param list the list
+     * @return the numbers
+     */
+    private static int[] numbers(String list) {
+        return Arrays.stream(list.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,63 @@
+package main;
+
+import lib.Metrics;
+import lib.ScoringRules;
+import lib.SimulationResult;
+import lib.Simulator;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line entry point for the headless LuckyDie simulator.
+ * Plays a batch of games with a fixed guess on every round and prints the aggregate results.
+ * When scoring rule files are given, the games are played once under each set of rules, all from
+ * the same seed so every rule set sees the same rolls, and the results are compared side by side.
+ * 
+ * Usage: Simulate [games] [targetScore] [sides] [guess] [rulesFile...]
+ */
+public class Simulate {
+
+    private static final long COMPARISON_SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        Metrics.startConfiguredDump(); // Only when -Dluckydie.metrics.file is set
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int targetScore = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int sides = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int guess = args.length > 3 ? Integer.parseInt(args[3]) : sides + 1;
+
+        if (args.length <= 4) {
+            Simulator simulator = new Simulator(sides, targetScore, (round, score, target) -> guess);
+            SimulationResult result = simulator.run(games);
+
+            System.out.println("Simulated " + games + " games of 2d" + sides + " to " + targetScore
+                    + " points, always guessing " + guess);
+            System.out.println(result);
+            return;
+        }
+
+        List<String> names = new ArrayList<>();
+        List<ScoringRules> ruleSets = new ArrayList<>();
+        for (int i = 4; i < args.length; i++) {
+            names.add(args[i].equals("default") ? "default" : Paths.get(args[i]).getFileName().toString());
+            ruleSets.add(args[i].equals("default") ? ScoringRules.DEFAULT : ScoringRules.load(Paths.get(args[i])));
+        }
+
+        System.out.println("Simulated " + games + " games of 2d" + sides + " to " + targetScore
+                + " points per rule set, always guessing " + guess);
+        System.out.printf("%-20s %10s %6s %6s %10s %10s  %s%n", "Rules", "Mean", "p50", "p99", "Overshoot",
+                "Unfinished", "Bands");
+        for (int i = 0; i < ruleSets.size(); i++) {
+            Simulator simulator = new Simulator(sides, targetScore, (round, score, target) -> guess,
+                    Simulator.DEFAULT_MAX_ROUNDS, ruleSets.get(i));
+            simulator.setSeed(COMPARISON_SEED);
+            SimulationResult result = simulator.run(games);
+            System.out.printf("%-20s %10.3f %6d %6d %10.2f %10d  %s%n", names.get(i), result.getMeanRounds(),
+                    result.getRoundsPercentile(0.5), result.getRoundsPercentile(0.99), result.getMeanOvershoot(),
+                    result.getUnfinishedGames(), ruleSets.get(i));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package main;
+
+import lib.Sweep;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Worker process of a multi-process {@link Sweep}, started by the coordinator with
+ * {@link Sweep#javaCommand}. Reads shards from standard input and writes their results to
+ * standard output until the input ends. Anything printed is sent to standard error, so it
+ * cannot corrupt the results.
+ */
+public class SweepWorker {
+
+    public static void main(String[] args) {
+        FileOutputStream results = new FileOutputStream(FileDescriptor.out);
+        System.setOut(System.err);
+        try {
+            Sweep.serve(System.in, results);
+        } catch (IOException e) {
+            System.err.println("Sweep worker failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package lib;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Test class to verify the CheckpointFile: games resumed after the file is reopened continue with
+ * exactly the rolls they would have had, torn records fall back to the previous round, finished and
+ * discarded games free their slots, a file already open is refused, and checkpointing a round
+ * allocates nothing.
+ */
+public class CheckpointFileTest {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("checkpointFileTest");
+        Path file = directory.resolve("games.checkpoint");
+
+        // The uninterrupted game the resumed one must match
+        GameSession reference = new GameSession(DicePool.parse("d6+d8", new SeededRandom(42)), 300,
+                ScoringRules.DEFAULT);
+        StringBuilder expectedRolls = new StringBuilder();
+        while (!reference.isFinished()) {
+            expectedRolls.append(reference.submitGuess(8).getSum()).append(' ');
+        }
+
+        StringBuilder rolls = new StringBuilder();
+        CheckpointFile checkpoints = new CheckpointFile(file, 3);
+        GameSession session = new GameSession(DicePool.parse("d6+d8", new SeededRandom(42)), 300, ScoringRules.DEFAULT);
+        session.setCheckpoint(checkpoints.begin("Ola Nordmann", session, "Red", "Blue"));
+        GameSession other = new GameSession(6, 100, new SeededRandom(7));
+        other.setCheckpoint(checkpoints.begin("Kari", other, "Default", "Default"));
+        for (int i = 0; i < 5; i++) {
+            rolls.append(session.submitGuess(8).getSum()).append(' ');
+            other.submitGuess(7);
+        }
+        int score = session.getCurrentScore();
+        checkpoints.close(); // The process dies mid-game
+
+        checkpoints = new CheckpointFile(file, 99);
+        check(checkpoints.getSlotCount() == 3, "An existing file should keep its slot count");
+        List<CheckpointFile.Checkpoint> unfinished = checkpoints.getUnfinishedGames();
+        check(unfinished.size() == 2, "Both games should be unfinished");
+        CheckpointFile.Checkpoint checkpoint = unfinished.get(0);
+        check(checkpoint.getPlayerName().equals("Ola Nordmann") && checkpoint.getDiceSpec().equals("d6+d8")
+                && checkpoint.getColorDie1().equals("Red") && checkpoint.getColorDie2().equals("Blue")
+                && checkpoint.getSeed() == 42 && checkpoint.getTargetScore() == 300 && checkpoint.getScore() == score
+                && checkpoint.getRoundsPlayed() == 5 && checkpoint.getElapsedNanos() > 0,
+                "The snapshot should hold the game as of its last round");
+
+        GameSession resumed = checkpoints.resume(checkpoint, ScoringRules.DEFAULT);
+        check(resumed.getCurrentScore() == score && resumed.getRoundsPlayed() == 5
+                && resumed.getElapsedNanos() >= checkpoint.getElapsedNanos(), "The game should resume where it was");
+        rolls.append(resumed.submitGuess(8).getSum()).append(' ');
+        checkpoints.discard(unfinished.get(1));
+        checkpoints.close(); // Dies again one round later
+
+        checkpoints = new CheckpointFile(file, 3);
+        unfinished = checkpoints.getUnfinishedGames();
+        check(unfinished.size() == 1 && unfinished.get(0).getRoundsPlayed() == 6,
+                "A discarded game should be gone and a resumed one checkpointed further");
+        resumed = checkpoints.resume(unfinished.get(0), ScoringRules.DEFAULT);
+        while (!resumed.isFinished()) {
+            rolls.append(resumed.submitGuess(8).getSum()).append(' ');
+        }
+        check(rolls.toString().equals(expectedRolls.toString()), "A resumed game should roll exactly as uninterrupted");
+        check(resumed.getCheckpoint().isReleased(), "A finished game should free its slot");
+        checkpoints.close();
+
+        // A record torn mid-write falls back to the round before
+        checkpoints = new CheckpointFile(file, 3);
+        check(checkpoints.getUnfinishedGames().isEmpty(), "A finished game should not be resumed");
+        session = new GameSession(6, 100, new SeededRandom(3));
+        CheckpointFile.Slot slot = checkpoints.begin("Torn", session, "Default", "Default");
+        session.setCheckpoint(slot);
+        session.submitGuess(7);
+        session.submitGuess(7);
+        checkpoints.close();
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            long first = 16; // The slot's two records follow the header
+            long second = first + CheckpointFile.RECORD_SIZE;
+            raw.seek(first + 8);
+            long firstSequence = raw.readLong();
+            raw.seek(second + 8);
+            raw.seek((firstSequence > raw.readLong() ? first : second) + 100); // In the player name
+            raw.write(0x55);
+        }
+        checkpoints = new CheckpointFile(file, 3);
+        unfinished = checkpoints.getUnfinishedGames();
+        check(unfinished.size() == 1 && unfinished.get(0).getRoundsPlayed() == 1,
+                "A torn record should fall back to the previous round");
+        checkpoints.discard(unfinished.get(0));
+
+        // Every slot taken
+        GameSession[] sessions = new GameSession[4];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = new GameSession(6, 100, new SeededRandom(i));
+            sessions[i].setCheckpoint(checkpoints.begin("Player " + i, sessions[i], "Default", "Default"));
+        }
+        check(sessions[2].getCheckpoint() != null && sessions[3].getCheckpoint() == null,
+                "A full file should refuse more games");
+        sessions[0].getCheckpoint().release();
+        check(checkpoints.begin("Late", sessions[3], "Default", "Default") != null, "A released slot should be reused");
+        try {
+            checkpoints.begin("Unseeded", new GameSession(6, 100, RandomSource.threadLocal()), "Default", "Default");
+            check(false, "Unseeded games should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+
+        // A second opener, as a menu and a server sharing the default file would be, is refused
+        try {
+            new CheckpointFile(file, 3).close();
+            check(false, "A file already open should be refused");
+        } catch (IOException expected) {
+            check(expected.getMessage().contains("in use"), "The refusal should say the file is in use");
+        }
+        check(checkpoints.begin("Still mine", new GameSession(6, 100, new SeededRandom(6)), "Default", "Default") == null
+                && sessions[2].getCheckpoint() != null, "The refused opener should leave the open file untouched");
+
+        // Checkpointing allocates nothing
+        session = new GameSession(6, Integer.MAX_VALUE, new SeededRandom(5));
+        session.setCheckpoint(sessions[1].getCheckpoint());
+        for (int i = 0; i < 20_000; i++) {
+            sessions[1].getCheckpoint().update(session);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < 100_000; i++) {
+            sessions[1].getCheckpoint().update(session);
+        }
+        long nanos = (System.nanoTime() - start) / 100_000;
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+        check(allocated < 1024, "Checkpointing should not allocate, but allocated " + allocated + " bytes");
+        System.out.println("Checkpoint write: " + nanos + " ns");
+        checkpoints.close();
+
+        Files.delete(file);
+        Files.delete(directory);
+        System.out.println("All CheckpointFile checks passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
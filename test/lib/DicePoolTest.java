@@ -0,0 +1,69 @@
+package lib;
+
+/**
+ * Test class to verify DicePool: parsing dice notation, the range of sums, and that batched
+ * sums of a mixed pool follow the exact distribution of the sum.
+ */
+public class DicePoolTest {
+
+    public static void main(String[] args) {
+        DicePool mixed = DicePool.parse("d6+d8+d12", RandomSource.seeded(5));
+        check(mixed.getDiceCount() == 3 && mixed.getMinSum() == 3 && mixed.getMaxSum() == 26,
+                "d6+d8+d12 should have 3 dice summing 3 to 26");
+        check(DicePool.parse("2D6 + d20", RandomSource.seeded(1)).toString().equals("2d6+d20"),
+                "Specification should round-trip");
+        check(DicePool.of(10, 6, RandomSource.seeded(1)).toString().equals("10d6"), "10 equal dice should group");
+        expectInvalid("2x6");
+        expectInvalid("0d6");
+        expectInvalid("d0");
+        expectInvalid("");
+
+        // Each die's result is within its sides
+        int[] results = new int[3];
+        for (int i = 0; i < 10_000; i++) {
+            int sum = mixed.rollEach(results);
+            check(results[0] >= 1 && results[0] <= 6 && results[1] <= 8 && results[2] <= 12
+                    && sum == results[0] + results[1] + results[2], "Die results out of range");
+        }
+
+        // Batched sums of 3d6 must match the exact distribution, by a chi-square test over the 16 sums
+        DicePool threeD6 = DicePool.of(3, 6, RandomSource.seeded(9));
+        SumDistribution exact = SumDistribution.of(3, 6);
+        int rolls = 2_000_000;
+        int[] sums = new int[rolls];
+        threeD6.fillSums(sums, 0, rolls);
+        long[] counts = new long[19];
+        for (int sum : sums) {
+            check(sum >= 3 && sum <= 18, "Sum " + sum + " out of range");
+            counts[sum]++;
+        }
+        double chiSquare = 0;
+        for (int sum = 3; sum <= 18; sum++) {
+            double expected = rolls * exact.probability(sum);
+            chiSquare += (counts[sum] - expected) * (counts[sum] - expected) / expected;
+        }
+        check(chiSquare < 40, "Chi-square " + chiSquare + " too large for 15 degrees of freedom");
+
+        // A session adapts its guess range to the pool
+        GameSession session = new GameSession(mixed, 100, ScoringRules.DEFAULT);
+        check(session.getMinSum() == 3 && session.getMaxSum() == 26, "Session range should follow the pool");
+        check(session.submitGuess(14).getDiceCount() == 3, "Round should report all three dice");
+
+        System.out.println("All DicePool checks passed");
+    }
+
+    private static void expectInvalid(String spec) {
+        try {
+            DicePool.parse(spec, RandomSource.seeded(1));
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError("\"" + spec + "\" should be rejected");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package lib;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test class to verify the FairnessMonitor and FairnessReport: the p-value functions against tabulated
+ * values, that fair generators pass while biased and serially correlated ones fail, that offline
+ * certification does not depend on the pool size, and that game rounds are counted online.
+ */
+public class FairnessMonitorTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        // Critical values of the chi-square and normal distributions at 5%
+        check(Math.abs(FairnessReport.chiSquarePValue(11.0705, 5) - 0.05) < 1e-5, "chi-square df 5 at 5%");
+        check(Math.abs(FairnessReport.chiSquarePValue(18.3070, 10) - 0.05) < 1e-5, "chi-square df 10 at 5%");
+        check(Math.abs(FairnessReport.chiSquarePValue(3.84146, 1) - 0.05) < 1e-5, "chi-square df 1 at 5%");
+        check(Math.abs(FairnessReport.regularizedGammaQ(0.5, 1.959964 * 1.959964 / 2) - 0.05) < 1e-6,
+                "Two-sided normal tail at z = 1.96");
+        check(Math.abs(FairnessReport.logGamma(10) - Math.log(362_880)) < 1e-10, "ln Gamma(10) = ln 9!");
+
+        // A fair seeded generator passes, and the result does not depend on the pool size
+        SeededRandom seeds = new SeededRandom(2024);
+        FairnessReport fair = FairnessMonitor.certify("2d6", 10_000_000, seeds::splitAt, new ForkJoinPool(1));
+        FairnessReport parallel = FairnessMonitor.certify("2d6", 10_000_000, seeds::splitAt, new ForkJoinPool(4));
+        check(fair.getRolls() == 10_000_000, "Every roll should be counted");
+        check(fair.isFair(0.001), "Fair generator should pass:\n" + fair);
+        check(fair.getSumChiSquare() == parallel.getSumChiSquare()
+                && fair.getSerialCorrelation() == parallel.getSerialCorrelation(),
+                "Certification should not depend on the pool size");
+        check(fair.getSumDegrees() == 10, "2d6 sums should need no pooling, df " + fair.getSumDegrees());
+        FairnessReport sparse = FairnessMonitor.certify("10d6", 100_000, seeds::splitAt);
+        check(sparse.getSumDegrees() < 50, "Sparse tail sums of 10d6 should be pooled");
+
+        // A die rolling its top face 1% too often fails
+        FairnessReport biased = FairnessMonitor.certify("2d6", 10_000_000, block -> new SeededRandom(block) {
+            @Override
+            public int nextInt(int bound) {
+                return nextLong() % 100 == 0 ? bound - 1 : super.nextInt(bound);
+            }
+        });
+        check(!biased.isFair(0.001) && biased.getFacePValue(0) < 1e-6, "Biased die should fail:\n" + biased);
+
+        // A generator repeating its last roll 2% of the time fails the serial test only
+        FairnessReport sticky = FairnessMonitor.certify("2d6", 10_000_000, block -> new SeededRandom(block) {
+            private int last = -1;
+            private int count;
+
+            @Override
+            public int nextInt(int bound) {
+                if (count++ % 2 == 0 && last >= 0 && Math.floorMod(nextLong(), 50) == 0) {
+                    return last; // Repeat the first die of the previous roll
+                }
+                int value = super.nextInt(bound);
+                if (count % 2 == 1) {
+                    last = value;
+                }
+                return value;
+            }
+        });
+        check(sticky.getSerialPValue() < 1e-6, "Sticky generator should fail the serial test:\n" + sticky);
+
+        // Game rounds are counted online from many threads
+        FairnessMonitor.Tracker tracker = FairnessMonitor.global().track(DicePool.parse("3d6", RandomSource.seeded(1)));
+        long before = tracker.report().getRolls();
+        Thread[] players = new Thread[4];
+        for (int t = 0; t < players.length; t++) {
+            long seed = t;
+            players[t] = new Thread(() -> {
+                for (int game = 0; game < 1000; game++) {
+                    GameSession session = new GameSession(DicePool.parse("3d6", RandomSource.seeded(seed * 1000 + game)),
+                            1000, ScoringRules.DEFAULT);
+                    for (int round = 0; round < 25; round++) {
+                        session.submitGuess(10);
+                    }
+                }
+            });
+            players[t].start();
+        }
+        for (Thread player : players) {
+            player.join();
+        }
+        FairnessReport live = tracker.report();
+        check(live.getRolls() - before == 100_000, "Every game round should be counted, got " + (live.getRolls() - before));
+        check(live.isFair(0.001), "Game rolls should be fair:\n" + live);
+
+        System.out.println("All FairnessMonitor checks passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
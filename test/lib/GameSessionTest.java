@@ -0,0 +1,63 @@
+package lib;
+
+/**
+ * Test class to verify that a GameSession refuses guesses the dice cannot roll without playing a round,
+ * while a replay of a journaled game accepts whatever guesses the journal holds.
+ */
+public class GameSessionTest {
+
+    public static void main(String[] args) {
+        SeededRandom random = new SeededRandom(3);
+        GameSession session = new GameSession(6, 100, random);
+        GameSession twin = new GameSession(6, 100, new SeededRandom(3));
+        session.submitGuess(7);
+        twin.submitGuess(7);
+
+        int score = session.getCurrentScore();
+        int rounds = session.getRoundsPlayed();
+        long state = random.getState();
+        long metricsRounds = Metrics.global().getRounds();
+        for (int guess : new int[] { 1, 13, -7, Integer.MAX_VALUE }) {
+            try {
+                session.submitGuess(guess);
+                check(false, "Guess " + guess + " should be refused");
+            } catch (IllegalArgumentException expected) {
+                check(expected.getMessage().contains("2 to 12"), "The refusal should give the range");
+            }
+        }
+        check(session.getCurrentScore() == score && session.getRoundsPlayed() == rounds && random.getState() == state
+                && session.getPhase() == GameSession.Phase.AWAITING_GUESS,
+                "A refused guess should leave the score, rounds, dice and phase unchanged");
+        check(Metrics.global().getRounds() == metricsRounds, "A refused guess should not be counted as a round");
+
+        // The next valid guess rolls what it would have without the refused ones
+        RoundResult round = session.submitGuess(12);
+        RoundResult twinRound = twin.submitGuess(12);
+        check(round.getRound() == 2 && round.getSum() == twinRound.getSum() && round.getScore() == twinRound.getScore(),
+                "The round after refused guesses should match a session that never saw them");
+
+        // The dice bounds of a mixed pool apply too
+        GameSession mixed = new GameSession(DicePool.parse("d4+d20", new SeededRandom(4)), 50, ScoringRules.DEFAULT);
+        check(mixed.getMinSum() == 2 && mixed.getMaxSum() == 24, "d4+d20 should roll 2 to 24");
+        mixed.submitGuess(24);
+        try {
+            mixed.submitGuess(25);
+            check(false, "Guess 25 should be refused for d4+d20");
+        } catch (IllegalArgumentException expected) {
+            check(mixed.getRoundsPlayed() == 1, "The refused guess should not be played");
+        }
+
+        // A replay scores any journaled guess, as the game once did
+        GameSession replay = GameSession.replay(DicePool.of(2, 6, new SeededRandom(5)), 100, ScoringRules.DEFAULT);
+        replay.submitGuess(13);
+        check(replay.getRoundsPlayed() == 1, "A replay should play a guess the dice cannot roll");
+
+        System.out.println("All GameSession checks passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test class to verify the Leaderboard: top records, ranks, best and average scores per player,
+ * snapshots that catch up on records appended since, and outlier scores that must not blow up
+ * the per-score structures.
+ */
+public class LeaderboardTest {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("leaderboardTest");
+        Path recordsFile = directory.resolve("records.txt");
+        Path snapshotFile = directory.resolve("records.leaderboard");
+
+        List<String> lines = new ArrayList<>();
+        lines.add(new RecordEntry("Ola", 120, 1_700_000_000_000L, 5_000_000).format());
+        lines.add(new RecordEntry("Kari", 150, 1_700_000_001_000L, 4_000_000).format());
+        lines.add("not a record");
+        lines.add(new RecordEntry("Ola", 180, 1_700_000_002_000L, 6_000_000).format());
+        lines.add(new RecordEntry("Per", 110, 1_700_000_003_000L, 3_000_000).format());
+        lines.add(new RecordEntry("Kari", 150, 1_700_000_004_000L, 4_500_000).format());
+        Files.write(recordsFile, lines);
+
+        Leaderboard leaderboard = Leaderboard.open(recordsFile, snapshotFile);
+        check(leaderboard.getRecordCount() == 5 && leaderboard.getPlayerCount() == 3, "Every record should be indexed");
+        List<RecordEntry> top = leaderboard.top(3);
+        check(top.size() == 3 && top.get(0).getScore() == 180 && top.get(1).getScore() == 150
+                && top.get(1).getEpochMillis() == 1_700_000_004_000L && top.get(2).getEpochMillis() == 1_700_000_001_000L,
+                "Top records should be ordered by score, most recent first among equal scores");
+        check(leaderboard.getRank("Ola") == 1 && leaderboard.getRank("Kari") == 2 && leaderboard.getRank("Per") == 3
+                && leaderboard.getRank("Nobody") == -1, "Players should be ranked by their best score");
+        check(leaderboard.getBestScore("Ola") == 180 && leaderboard.getAverageScore("Ola") == 150
+                && leaderboard.getGamesPlayed("Kari") == 2, "Best, average and games should be kept per player");
+
+        // A hand-edited outlier must not size anything by its score
+        Files.writeString(recordsFile, "Player: Bob | Score: 999999999 | Date: 2024-10-30 14:56:08\n",
+                StandardOpenOption.APPEND);
+        leaderboard = Leaderboard.build(recordsFile);
+        check(leaderboard.getRank("Bob") == 1 && leaderboard.getRank("Ola") == 2 && leaderboard.top(1).get(0)
+                .getScore() == 999_999_999, "An outlier score should rank first");
+        leaderboard.add("Per", 160, 1_700_000_005_000L, RecordEntry.UNKNOWN_DURATION);
+        check(leaderboard.getRank("Per") == 3 && leaderboard.getRank("Kari") == 4,
+                "A new best between existing scores should move the player up");
+
+        // Snapshot round trip, catching up on a record appended afterwards
+        leaderboard.save(recordsFile, snapshotFile);
+        Files.writeString(recordsFile, new RecordEntry("Kari", 170, 1_700_000_006_000L, 4_000_000).format() + "\n",
+                StandardOpenOption.APPEND);
+        Leaderboard reopened = Leaderboard.open(recordsFile, snapshotFile);
+        check(reopened.getRecordCount() == leaderboard.getRecordCount() + 1, "The appended record should be caught up");
+        check(reopened.getRank("Kari") == 3 && reopened.getRank("Per") == 4 && reopened.getBestScore("Bob") == 999_999_999
+                && reopened.getAverageScore("Kari") == (150 + 150 + 170) / 3.0,
+                "A reloaded snapshot should answer like the original");
+        check(reopened.top(10).size() == 8 && reopened.top(10).get(7).getScore() == 110,
+                "Every record should be listed once");
+
+        for (Path file : List.of(recordsFile, snapshotFile, directory)) {
+            Files.delete(file);
+        }
+        System.out.println("All Leaderboard checks passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
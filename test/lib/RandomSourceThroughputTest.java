@@ -0,0 +1,73 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Test class comparing the dice roll throughput of the original Math.random() path
+ * with the per-thread and seeded random sources, on one thread and on all processors.
+ */
+public class RandomSourceThroughputTest {
+
+    private static final long ROLLS_PER_THREAD = 20_000_000L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        SeededRandom seeds = RandomSource.seeded(42);
+
+        for (int threads : new int[] { 1, processors }) {
+            System.out.println("Threads: " + threads);
+            measure("Math.random()", threads, () -> new Dice(6) {
+                @Override
+                public int roll() {
+                    return (int) (Math.random() * 6) + 1;
+                }
+            });
+            measure("Thread-local source", threads, () -> new Dice(6));
+            measure("Seeded split source", threads, () -> new Dice(6, seeds.split()));
+        }
+
+        // Same seed must give the same rolls
+        Dice first = new Dice(6, RandomSource.seeded(7));
+        Dice second = new Dice(6, RandomSource.seeded(7));
+        for (int i = 0; i < 1000; i++) {
+            if (first.roll() != second.roll()) {
+                throw new AssertionError("Seeded dice diverged at roll " + i);
+            }
+        }
+        System.out.println("Seeded streams are reproducible");
+    }
+
+    /**
+     * Rolls dice on the specified number of threads and prints the combined rolls per second.
+     * 
+     * @param label   the name of the roll path being measured
+     * @param threads the number of threads rolling at once
+     * @param dieFactory creates the die used by each thread
+     */
+    private static void measure(String label, int threads, Supplier<Dice> dieFactory) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        long[] checksums = new long[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            Dice die = dieFactory.get();
+            workers.add(new Thread(() -> {
+                long sum = 0;
+                for (long i = 0; i < ROLLS_PER_THREAD; i++) {
+                    sum += die.roll();
+                }
+                checksums[index] = sum;
+            }));
+        }
+
+        long start = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("  %-22s %8.1f M rolls/s%n", label, threads * ROLLS_PER_THREAD / seconds / 1e6);
+    }
+}
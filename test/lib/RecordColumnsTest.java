@@ -0,0 +1,106 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test class to verify the RecordColumns analytics: per-player aggregates, hours of day in a zone
+ * with daylight saving, the score histogram, loading from text and binary records, and that heap,
+ * off-heap and any pool size give the same statistics.
+ */
+public class RecordColumnsTest {
+
+    public static void main(String[] args) throws IOException {
+        long hour = 3_600_000L;
+        long midnight = 1_700_000_000_000L - 1_700_000_000_000L % (24 * hour); // A UTC midnight
+
+        RecordColumns columns = new RecordColumns(2, false); // Small, so adding grows the columns
+        columns.add("Andrew", 8, midnight + 14 * hour, RecordEntry.UNKNOWN_DURATION);
+        columns.add("Ola", 120, midnight + 9 * hour, 2_000_000);
+        columns.add("Andrew", 105, midnight + 14 * hour + 59 * 60_000, 3_500_000);
+        columns.recordAdded(new RecordEntry("Ola", 99, midnight + 23 * hour, 4_000_000));
+        check(columns.size() == 4 && columns.getPlayerCount() == 2, "Records and players should be counted");
+
+        RecordStatistics stats = columns.statistics(ZoneOffset.UTC, 10);
+        int andrew = stats.getPlayerId("Andrew");
+        int ola = stats.getPlayerId("Ola");
+        check(stats.getGames() == 4, "Every record should be aggregated");
+        check(stats.getGames(andrew) == 2 && stats.getBestScore(andrew) == 105, "Andrew's games and best");
+        check(stats.getAverageScore(andrew) == 56.5, "Andrew's average score");
+        check(stats.getAverageDurationSeconds(andrew) == 3.5, "Only known durations should be averaged");
+        check(stats.getAverageDurationSeconds(ola) == 3.0, "Ola's average duration");
+        check(stats.getGamesInHour(14) == 2 && stats.getGamesInHour(9) == 1 && stats.getGamesInHour(23) == 1,
+                "Games should be counted by UTC hour");
+        check(stats.getBinCount() == 13 && stats.getBinGames(0) == 1 && stats.getBinGames(9) == 1
+                && stats.getBinGames(10) == 1 && stats.getBinGames(12) == 1, "Scores should fall in their bins");
+        check(stats.mostActivePlayers(1)[0] == andrew, "Ties should be broken by name");
+        check(stats.getPlayerId("Nobody") == -1, "Unknown players should have no id");
+
+        // An outlier score shares the open last bin instead of sizing the histogram
+        columns.add("Outlier", 999_999_999, midnight, RecordEntry.UNKNOWN_DURATION);
+        RecordStatistics outlier = columns.statistics(ZoneOffset.UTC, 10);
+        check(outlier.getBinCount() == 100 && outlier.isLastBinOpen() && outlier.getBinGames(99) == 1
+                && outlier.getBinGames(12) == 1 && !stats.isLastBinOpen(), "Scores past the last bin should share it");
+        check(outlier.format(10).contains("990+"), "The open bin should be labelled as open");
+
+        // Hours follow daylight saving: 2024-03-31 01:30 UTC is 02:30 in Paris before the change at 01:00 UTC
+        ZoneId paris = ZoneId.of("Europe/Paris");
+        long change = 1_711_846_800_000L; // 2024-03-31T01:00:00Z
+        RecordColumns dst = new RecordColumns(false);
+        dst.add("A", 1, change - hour / 2, 0);
+        dst.add("A", 1, change + hour / 2, 0);
+        dst.add("A", 1, change - hour / 2, 0); // Out of time order, back before the transition
+        RecordStatistics dstStats = dst.statistics(paris, 10);
+        check(dstStats.getGamesInHour(1) == 2 && dstStats.getGamesInHour(3) == 1,
+                "Hours should use the offset in force at each record");
+
+        // Off-heap and heap columns, loaded from text and from the binary log, agree on any pool
+        Path directory = Files.createTempDirectory("recordColumnsTest");
+        Path textFile = directory.resolve("records.txt");
+        Path logFile = directory.resolve("records.bin");
+        GameRecord gameRecord = new GameRecord(textFile);
+        SeededRandom random = new SeededRandom(21);
+        try (RecordLog log = new RecordLog(logFile)) {
+            for (int i = 0; i < 2000; i++) {
+                RecordEntry entry = new RecordEntry("Player " + random.nextInt(50), random.nextInt(150),
+                        1_700_000_000_000L + i * 997_000L, (random.nextInt(100) + 1) * 1_000_000L);
+                gameRecord.addRecord(entry);
+                log.append(entry);
+            }
+            RecordStatistics fromText = RecordColumns.load(gameRecord.query(), false).statistics(paris, 7);
+            RecordColumns offHeap = RecordColumns.load(log, true);
+            check(offHeap.isOffHeap() && offHeap.size() == 2000, "Whole log should load off heap");
+            RecordStatistics fromLog = offHeap.statistics(paris, 7, new ForkJoinPool(3));
+            check(fromLog.format(50).equals(fromText.format(50).replace(timing(fromText), timing(fromLog))),
+                    "Text and binary records should give the same statistics");
+            check(fromLog.getGames() == 2000, "Every logged record should be aggregated");
+        }
+
+        RecordColumns live = RecordColumns.load(gameRecord.query(), false);
+        gameRecord.addListener(live);
+        gameRecord.addRecord(new RecordEntry("Newcomer", 5, 1_700_000_000_000L, 1_000_000));
+        check(live.size() == 2001 && live.statistics(paris, 7).getPlayerId("Newcomer") >= 0,
+                "Listening columns should pick up new records");
+        gameRecord.close();
+
+        for (Path file : List.of(textFile, logFile, directory.resolve("records.bin.names"), directory)) {
+            Files.delete(file);
+        }
+        System.out.println("All RecordColumns checks passed");
+    }
+
+    private static String timing(RecordStatistics stats) {
+        return String.format("Aggregated in %.1f ms", stats.getWallTimeMillis());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
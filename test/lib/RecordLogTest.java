@@ -0,0 +1,58 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Test class to verify the binary RecordLog: appending, reopening, scanning and importing both
+ * shapes of legacy text record line.
+ */
+public class RecordLogTest {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("recordLogTest");
+        Path textFile = directory.resolve("records.txt");
+        Path logFile = directory.resolve("records.bin");
+
+        Files.write(textFile, List.of(
+                "Player: Andrew | Score: 8 | Date: 2024-10-30 14:56:08",
+                "Player: Andrzej | Score: 115 | Date: 2024-10-30 | Time: 15:28:18 | ScoreTime: Total time: 12,345 seconds",
+                "not a record",
+                "Player: Andrew | Score: 105 | Date: 2024-10-31 | Time: 09:00:00 | ScoreTime: Total time: 3.500 seconds"));
+
+        try (RecordLog log = new RecordLog(logFile)) {
+            check(log.importText(textFile) == 3, "Three valid lines should be imported");
+            log.append("Ola", 120, 1_700_000_000_000L, 2_000_000);
+        }
+
+        // Reopen and check everything survived
+        try (RecordLog log = new RecordLog(logFile)) {
+            check(log.size() == 4, "Log should hold 4 records after reopening");
+            check(log.getPlayerCount() == 3, "Names should be stored once each");
+
+            RecordEntry legacy = log.get(0);
+            check(legacy.getScore() == 8 && legacy.getDurationMicros() == RecordEntry.UNKNOWN_DURATION,
+                    "Legacy line should import without a duration");
+            check(log.get(1).getDurationMicros() == 12_345_000, "Decimal comma duration should be parsed");
+            check(log.get(3).getPlayerName().equals("Ola"), "Appended record should keep its player");
+
+            long[] total = new long[1];
+            log.scan((playerId, score, epochMillis, durationMicros) -> total[0] += score);
+            check(total[0] == 8 + 115 + 105 + 120, "Scan should visit every score");
+        }
+
+        Files.delete(logFile);
+        Files.delete(directory.resolve("records.bin.names"));
+        Files.delete(textFile);
+        Files.delete(directory);
+        System.out.println("All RecordLog checks passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test class to verify the RecordPager: pages read through the sparse index, the LRU page cache,
+ * and the index following records appended through GameRecord and its asynchronous writer.
+ */
+public class RecordPagerTest {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("recordPagerTest");
+        Path textFile = directory.resolve("records.txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 95; i++) {
+            lines.add(new RecordEntry("Player " + i, i, 1_700_000_000_000L + i * 1000L, i * 1000L).format());
+        }
+        lines.add(3, "not a record, but still a line");
+        Files.write(textFile, lines);
+        Files.writeString(textFile, "Player: Half", StandardOpenOption.APPEND); // Still being written
+
+        try (RecordPager pager = new RecordPager(textFile, 10, 2)) {
+            check(pager.getLineCount() == 96 && pager.getPageCount() == 10, "Complete lines should be paged");
+            check(pager.page(0).equals(lines.subList(0, 10)), "First page should hold the first lines");
+            check(pager.page(7).equals(lines.subList(70, 80)), "A middle page should be read from its index entry");
+            check(pager.page(9).equals(lines.subList(90, 96)), "Last page should hold the remaining lines");
+
+            List<String> cached = pager.page(7);
+            check(pager.page(7) == cached, "A recent page should come from the cache");
+            pager.page(0);
+            pager.page(1); // Page 7 is now the least recently used of three
+            check(pager.page(7) != cached && pager.page(7).equals(cached), "An evicted page should be read again");
+
+            Files.writeString(textFile, " | Score: 1 | Date: 2024-10-30 14:56:08\n",
+                    StandardOpenOption.APPEND);
+            check(pager.getLineCount() == 97 && pager.page(9).size() == 7,
+                    "A completed trailing line should join the last page");
+            try {
+                pager.page(10);
+                check(false, "A page past the end should be rejected");
+            } catch (IllegalArgumentException expected) {
+                // Expected
+            }
+        }
+
+        Path gameFile = directory.resolve("game.txt");
+        GameRecord gameRecord = new GameRecord(gameFile);
+        gameRecord.setWriter(new RecordWriter(gameFile, 64, 8, 1000, false));
+        try (RecordPager pager = new RecordPager(gameRecord, 4, 8)) {
+            gameRecord.addListener(pager);
+            check(pager.getLineCount() == 0 && pager.getPageCount() == 1 && pager.page(0).isEmpty(),
+                    "An empty file should have one empty page");
+            for (int i = 0; i < 6; i++) {
+                gameRecord.addRecord(new RecordEntry("Ola", i, 1_700_000_000_000L, 1000));
+            }
+            check(pager.getPageCount() == 2 && pager.page(1).size() == 2, "Queued records should be flushed and paged");
+            pager.page(1);
+            gameRecord.addRecord(new RecordEntry("Ola", 99, 1_700_000_000_000L, 1000));
+            check(pager.page(1).size() == 3 && RecordEntry.parse(pager.page(1).get(2)).getScore() == 99,
+                    "A cached last page should be refreshed when a record is added");
+        }
+        gameRecord.close();
+
+        for (Path file : List.of(textFile, gameFile, directory)) {
+            Files.delete(file);
+        }
+        System.out.println("All RecordPager checks passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Test class to verify the RecordQuery filters: player, score, date range, offset and limit,
+ * with lines that pass the byte checks but are not records left out of the offset and limit.
+ */
+public class RecordQueryTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("recordQueryTest");
+        Path file = directory.resolve("records.txt");
+        long start = LocalDateTime.of(2024, 10, 30, 10, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        String text = new RecordEntry("Ola", 120, start, 5_000_000).format() + "\n"
+                + new RecordEntry("Kari", 150, start + HOUR, RecordEntry.UNKNOWN_DURATION).format() + "\n"
+                + "Player: Ola | Score: 130 | Date: 2024-13-45 10:00:00\n" // Passes the byte checks, not a date
+                + "Player: Ola | Score: 1000000130 | Date: 2024-10-30 10:00:00\n" // More digits than a score holds
+                + new RecordEntry("Ola", 180, start + 2 * HOUR, 6_000_000).format() + "\n"
+                + new RecordEntry("Per", 110, start + 3 * HOUR, 3_000_000).format() + "\n"
+                + "not a record\n"
+                + new RecordEntry("Ola", 90, start + 4 * HOUR, 7_000_000).format() + "\r\n"
+                + new RecordEntry("Ola", 200, start + 5 * HOUR, 4_000_000).format(); // No final separator
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+        check(scores(new RecordQuery(file)).equals(List.of(120, 150, 180, 110, 90, 200)),
+                "Every record should be returned in file order");
+        check(scores(new RecordQuery(file).player("Ola")).equals(List.of(120, 180, 90, 200)),
+                "Only the player's records should be returned");
+        check(scores(new RecordQuery(file).player("Ol")).isEmpty(), "Player names should match exactly");
+        check(scores(new RecordQuery(file).player("Ola").minScore(100)).equals(List.of(120, 180, 200)),
+                "Records below the minimum score should be left out");
+        check(scores(new RecordQuery(file).minScore(1_000_000_000)).isEmpty(),
+                "A score with too many digits should not match");
+        check(scores(new RecordQuery(file).between(start + HOUR, start + 4 * HOUR)).equals(List.of(150, 180, 110)),
+                "The date range should include its start and exclude its end");
+        check(scores(new RecordQuery(file).player("Ola").offset(2)).equals(List.of(90, 200)),
+                "The offset should count only records, not lines that fail to parse");
+        check(scores(new RecordQuery(file).player("Ola").offset(1).limit(2)).equals(List.of(180, 90)),
+                "The limit should apply after the offset");
+        check(scores(new RecordQuery(file).limit(0)).isEmpty() && scores(new RecordQuery(file).offset(6)).isEmpty(),
+                "An empty limit or an offset past the end should return nothing");
+
+        List<RecordEntry> latest = new RecordQuery(file).player("Ola").between(start + 4 * HOUR, start + 6 * HOUR).list();
+        check(latest.size() == 2 && latest.get(0).getDurationMicros() == 7_000_000
+                && latest.get(1).getEpochMillis() == start + 5 * HOUR,
+                "Records should decode fully, after a CRLF line and without a final separator");
+
+        Files.delete(file);
+        Files.delete(directory);
+        System.out.println("All RecordQuery checks passed");
+    }
+
+    private static List<Integer> scores(RecordQuery query) {
+        return query.list().stream().map(RecordEntry::getScore).collect(Collectors.toList());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
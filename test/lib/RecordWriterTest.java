@@ -0,0 +1,125 @@
+package lib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test class to verify that RecordWriter writes every line submitted from many threads exactly once,
+ * in batches, with back-pressure from a small queue, also while it is being closed, and that lines
+ * that cannot be written are reported instead of counted as written.
+ */
+public class RecordWriterTest {
+
+    private static final int THREADS = 8;
+    private static final int LINES_PER_THREAD = 50_000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path file = Files.createTempFile("recordWriterTest", ".txt");
+        RecordWriter writer = new RecordWriter(file, 256, 128, 5, false);
+
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < LINES_PER_THREAD; i++) {
+                    writer.submit("Player: T" + id + " | Score: " + i + " | Date: 2024-10-30 14:56:08");
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.flush();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Wrote %d lines in %d batches (average %.1f, max %d), max queue depth %d, %.0f lines/s%n",
+                writer.getRecordsWritten(), writer.getBatchCount(), writer.getAverageBatchSize(),
+                writer.getMaxBatchSize(), writer.getMaxQueueDepth(), writer.getRecordsWritten() / seconds);
+        writer.close();
+
+        List<String> lines = Files.readAllLines(file);
+        Set<String> unique = new HashSet<>(lines);
+        check(lines.size() == THREADS * LINES_PER_THREAD, "Every line should be written, got " + lines.size());
+        check(unique.size() == lines.size(), "No line should be written twice");
+
+        Files.delete(file);
+
+        for (int run = 0; run < 20; run++) {
+            submitWhileClosing(run);
+        }
+
+        Path full = Path.of("/dev/full"); // Every write fails with "No space left on device"
+        if (Files.isWritable(full)) {
+            RecordWriter failing = new RecordWriter(full, 16, 4, 5, false);
+            for (int i = 0; i < 10; i++) {
+                failing.submit("Player: Lost | Score: " + i + " | Date: 2024-10-30 14:56:08");
+            }
+            try {
+                failing.flush();
+                check(false, "A failed write should be reported by flush");
+            } catch (UncheckedIOException expected) {
+                // Expected
+            }
+            check(failing.getRecordsWritten() == 0 && failing.getRecordsFailed() == 10,
+                    "Failed lines should not be counted as written");
+            failing.flush(); // Already reported
+            failing.submit("Player: Lost | Score: 10 | Date: 2024-10-30 14:56:08");
+            try {
+                failing.close();
+                check(false, "A failed write should be reported by close");
+            } catch (IOException expected) {
+                // Expected
+            }
+        }
+        System.out.println("All RecordWriter checks passed");
+    }
+
+    /**
+     * Submits lines from many threads while another thread closes the writer, and checks that every
+     * line accepted before the close is written.
+     */
+    private static void submitWhileClosing(int run) throws IOException, InterruptedException {
+        Path file = Files.createTempFile("recordWriterCloseTest", ".txt");
+        RecordWriter writer = new RecordWriter(file, 64, 16, 1, false);
+        AtomicLong accepted = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0;; i++) {
+                    try {
+                        writer.submit("Player: T" + id + " | Score: " + i + " | Date: 2024-10-30 14:56:08");
+                    } catch (IllegalStateException closed) {
+                        return;
+                    }
+                    accepted.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        Thread.sleep(2 + run % 5);
+        writer.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long lines = Files.readAllLines(file).size();
+        check(lines == accepted.get(), "Every line accepted before close should be written, got " + lines + " of "
+                + accepted.get());
+        Files.delete(file);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
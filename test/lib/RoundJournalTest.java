@@ -0,0 +1,145 @@
+package lib;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Test class to verify the RoundJournal: games are journaled compactly, read back exactly,
+ * replay to the same result without being counted again in the global metrics, and tampering, a torn final block or a damaged block length is detected.
+ */
+public class RoundJournalTest {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("roundJournalTest");
+        Path file = directory.resolve("games.journal");
+
+        int games = 2000;
+        long rounds = 0;
+        try (RoundJournal journal = new RoundJournal(file)) {
+            for (int i = 0; i < games; i++) {
+                DicePool dice = DicePool.parse(i % 2 == 0 ? "2d6" : "d6+d8+d12", RandomSource.seeded(i));
+                GameSession session = new GameSession(dice, 100, ScoringRules.DEFAULT);
+                session.setJournal(journal.begin("Player " + i, session));
+                int guess = (dice.getMinSum() + dice.getMaxSum()) / 2;
+                while (!session.isFinished()) {
+                    session.submitGuess(guess + (session.getRoundsPlayed() % 3) - 1);
+                }
+                rounds += session.getRoundsPlayed();
+            }
+            // An abandoned game is journaled too
+            GameSession abandoned = new GameSession(6, 100, RandomSource.seeded(99));
+            abandoned.setJournal(journal.begin("Quitter", abandoned));
+            abandoned.submitGuess(7);
+            abandoned.getJournal().abandon();
+            check(journal.getGameCount() == games + 1, "Every game should be journaled");
+        }
+
+        long blockOverhead = 48; // Block header, names, dice, rules and seed
+        double bytesPerRound = (double) (Files.size(file) - (games + 1) * blockOverhead) / rounds;
+        check(bytesPerRound < 8, "Rounds should take a few bytes each, took " + bytesPerRound);
+
+        List<JournalGame> read = new ArrayList<>();
+        RoundJournal.read(file, read::add);
+        check(read.size() == games + 1, "All games should be read back, got " + read.size());
+        long metricsRounds = Metrics.global().getRounds();
+        long metricsGames = Metrics.global().getGames();
+        long fairnessRolls = fairnessRolls();
+        for (JournalGame game : read) {
+            check(game.verify() == null, "Game " + game.getIndex() + " should verify: " + game.verify());
+        }
+        check(Metrics.global().getRounds() == metricsRounds && Metrics.global().getGames() == metricsGames
+                && fairnessRolls() == fairnessRolls, "Verifying should not count the replayed rounds and rolls again");
+        JournalGame last = read.get(games);
+        check(last.getPlayerName().equals("Quitter") && !last.isFinished() && last.getRounds() == 1,
+                "Abandoned game should be journaled as unfinished");
+        check(read.get(1).getDiceSpec().equals("d6+d8+d12") && read.get(1).getDiceCount() == 3,
+                "Dice of mixed pools should be journaled");
+
+        // Tampering with a journaled die is caught by the checksum
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(8 + 8 + 20);
+            raw.write(raw.read() ^ 1);
+        }
+        List<JournalGame> tampered = new ArrayList<>();
+        RoundJournal.read(file, tampered::add);
+        check(tampered.get(0).isCorrupt() && tampered.get(0).verify() != null, "Tampered block should be corrupt");
+
+        // A torn final block is cut off when the journal is reopened
+        long size = Files.size(file);
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(size - 3);
+        }
+        try (RoundJournal journal = new RoundJournal(file)) {
+            check(journal.getGameCount() == games, "Torn block should be dropped");
+        }
+
+        // A damaged block length stops reading instead of allocating it
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(8);
+            int firstLength = raw.readInt();
+            raw.seek(8 + 8 + firstLength); // Length of the second block
+            raw.writeInt(Integer.MAX_VALUE - 16);
+        }
+        List<JournalGame> damaged = new ArrayList<>();
+        RoundJournal.read(file, damaged::add);
+        check(damaged.size() == 1, "Reading should stop at a damaged block length, read " + damaged.size());
+
+        // A negative count in a block with a valid checksum decodes as a corrupt game
+        byte[] negative = { 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01 }; // Start time 0, then a name of length -1
+        CRC32 crc = new CRC32();
+        crc.update(negative);
+        Path forged = directory.resolve("forged.journal");
+        try (RandomAccessFile raw = new RandomAccessFile(forged.toFile(), "rw");
+                RandomAccessFile original = new RandomAccessFile(file.toFile(), "r")) {
+            raw.writeLong(original.readLong()); // Magic and version
+            raw.writeInt(negative.length);
+            raw.writeInt((int) crc.getValue());
+            raw.write(negative);
+        }
+        List<JournalGame> forgedGames = new ArrayList<>();
+        RoundJournal.read(forged, forgedGames::add);
+        check(forgedGames.size() == 1 && forgedGames.get(0).isCorrupt(), "A negative count should be corrupt");
+        Files.delete(forged);
+
+        // Encoding cost per round
+        try (RoundJournal journal = new RoundJournal(directory.resolve("timing.journal"))) {
+            GameSession session = new GameSession(6, Integer.MAX_VALUE, RandomSource.seeded(1));
+            RoundJournal.GameWriter writer = journal.begin("Timing", session);
+            RoundResult round = session.submitGuess(7);
+            int count = 2_000_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                writer.recordRound(round);
+            }
+            double nanosPerRound = (System.nanoTime() - start) / (double) count;
+            System.out.printf("Journal encoding: %.1f ns per round, %.2f bytes per round%n", nanosPerRound,
+                    bytesPerRound);
+            check(nanosPerRound < 1000, "Encoding a round should take under 1 us");
+        }
+
+        System.out.println("All RoundJournal checks passed");
+    }
+
+    /**
+     * Returns the rolls counted by the global fairness monitor over every dice configuration.
+     */
+    private static long fairnessRolls() {
+        long rolls = 0;
+        for (FairnessReport report : FairnessMonitor.global().reports()) {
+            rolls += report.getRolls();
+        }
+        return rolls;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
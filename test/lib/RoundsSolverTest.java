@@ -0,0 +1,121 @@
+package lib;
+
+/**
+ * Test class to verify the RoundsSolver against the closed form of a chain that scores one point
+ * with a fixed probability each round, where the rounds to the target are negative binomial, and
+ * to verify that skipping the rounds played with a single guess leaves the distribution unchanged,
+ * that the strategy is asked as in round 1, and that sweeping only as far as each query needs gives
+ * the same answers as sweeping the whole distribution first.
+ */
+public class RoundsSolverTest {
+
+    public static void main(String[] args) {
+        // Only the exact sum scores, one point: with 7 on two dice each round scores with probability 1/6
+        ScoringRules exactOnly = new ScoringRules(new int[] { 0 }, new int[] { 1 });
+        SumDistribution twoD6 = SumDistribution.of(2, 6, exactOnly);
+        double p = 1.0 / 6;
+
+        for (int target : new int[] { 3, 2000 }) {
+            RoundsDistribution solved = new RoundsSolver(twoD6, GuessStrategies.fixed(7)).solve(target);
+            double[] pmf = negativeBinomial(target, p, (int) (target / p * 3) + 200);
+            check(Math.abs(solved.getMeanRounds() - target / p) < 1e-9 * target / p,
+                    "Mean for target " + target + " should be " + target / p + " but was " + solved.getMeanRounds());
+            double deviation = Math.sqrt(target * (1 - p)) / p;
+            check(Math.abs(solved.getRoundsStandardDeviation() - deviation) < 1e-6 * deviation,
+                    "Deviation for target " + target + " should be " + deviation);
+            for (double fraction : new double[] { 0.01, 0.25, 0.5, 0.9, 0.99 }) {
+                int expected = percentile(pmf, fraction);
+                check(solved.getRoundsPercentile(fraction) == expected, "Percentile " + fraction + " for target "
+                        + target + " should be " + expected + " but was " + solved.getRoundsPercentile(fraction));
+            }
+            double cumulative = 0;
+            double worst = 0;
+            double worstCumulative = 0; // Bounded by the rounding of the closed form's log space sum
+            for (int r = 0; r < pmf.length; r++) {
+                cumulative += pmf[r];
+                worst = Math.max(worst, Math.abs(solved.probability(r) - pmf[r]));
+                worstCumulative = Math.max(worstCumulative, Math.abs(solved.cumulativeProbability(r) - cumulative));
+            }
+            check(worst < 1e-12 && worstCumulative < 1e-9, "Probabilities for target " + target
+                    + " should match the closed form, off by " + worst + " and " + worstCumulative + " cumulative");
+        }
+
+        // Guesses 6 and 8 score alike, so changing the guess at score 0 only disables the skip
+        SumDistribution standard = SumDistribution.of(2, 6);
+        int target = 20_000;
+        RoundsDistribution skipped = new RoundsSolver(standard, GuessStrategies.fixed(6)).solve(target);
+        RoundsDistribution swept = new RoundsSolver(standard, (round, score, goal) -> score == 0 ? 8 : 6).solve(target);
+        double worst = 0;
+        for (int r = 0; r <= Math.max(skipped.getMaxRounds(), swept.getMaxRounds()); r++) {
+            worst = Math.max(worst, Math.abs(skipped.probability(r) - swept.probability(r)));
+        }
+        check(worst < 1e-13, "Skipping rounds should not change the distribution, off by " + worst);
+        check(skipped.getRoundsPercentile(0.5) == swept.getRoundsPercentile(0.5)
+                && skipped.getRoundsPercentile(0.99) == swept.getRoundsPercentile(0.99),
+                "Skipping rounds should not change the percentiles");
+
+        // Rounds start at 1, so the strategy is never asked about round 0
+        int[] firstRound = { Integer.MAX_VALUE };
+        new RoundsSolver(standard, (round, score, goal) -> {
+            firstRound[0] = Math.min(firstRound[0], round);
+            return 7;
+        }).solve(1000);
+        check(firstRound[0] == 1, "The strategy should be asked as in round 1, not round " + firstRound[0]);
+
+        // Queries that sweep part way, then resume, match a distribution swept in full first
+        RoundsDistribution whole = new RoundsSolver(standard, GuessStrategies.fixed(7)).solve(target);
+        RoundsDistribution partial = new RoundsSolver(standard, GuessStrategies.fixed(7)).solve(target);
+        int maxRounds = whole.getMaxRounds();
+        boolean same = partial.getRoundsPercentile(0.5) == whole.getRoundsPercentile(0.5)
+                && partial.probability(maxRounds / 2) == whole.probability(maxRounds / 2)
+                && partial.getRoundsPercentile(0.99) == whole.getRoundsPercentile(0.99)
+                && partial.cumulativeProbability(maxRounds - 1) == whole.cumulativeProbability(maxRounds - 1)
+                && partial.getMaxRounds() == maxRounds
+                && partial.getTruncatedProbability() == whole.getTruncatedProbability()
+                && partial.getRoundsPercentile(1) == whole.getRoundsPercentile(1);
+        check(same, "Sweeping as far as each query needs should not change the answers");
+
+        // A target of a million answers its percentiles in milliseconds
+        long start = System.nanoTime();
+        RoundsDistribution large = new RoundsSolver(standard, GuessStrategies.fixed(7)).solve(1_000_000);
+        int median = large.getRoundsPercentile(0.5);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        check(Math.abs(median - large.getMeanRounds()) < large.getRoundsStandardDeviation(),
+                "The median should lie near the mean");
+        System.out.println("Target 1000000 percentiles: " + millis + " ms");
+
+        System.out.println("All RoundsSolver checks passed");
+    }
+
+    /**
+     * Returns the negative binomial probability of needing each number of rounds to score the target.
+     */
+    private static double[] negativeBinomial(int target, double p, int maxRounds) {
+        double[] pmf = new double[maxRounds + 1];
+        double logChoose = 0; // log C(n - 1, target - 1)
+        for (int n = target; n <= maxRounds; n++) {
+            if (n > target) {
+                logChoose += Math.log((n - 1.0) / (n - target));
+            }
+            pmf[n] = Math.exp(logChoose + target * Math.log(p) + (n - target) * Math.log(1 - p));
+        }
+        return pmf;
+    }
+
+    private static int percentile(double[] pmf, double fraction) {
+        double total = 0;
+        for (int r = 0; r < pmf.length; r++) {
+            total += pmf[r];
+            if (total >= fraction) {
+                return r;
+            }
+        }
+        return pmf.length - 1;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package lib;
+
+import java.util.List;
+
+/**
+ * Test class to verify ScoringRules: the default table against the original scoring bands,
+ * parsing of rule files and the description shown in the credits.
+ */
+public class ScoringRulesTest {
+
+    public static void main(String[] args) {
+        // The default table must score exactly like the original if/else chain
+        for (int guess = -20; guess <= 40; guess++) {
+            for (int actual = 2; actual <= 12; actual++) {
+                int difference = Math.abs(guess - actual);
+                int expected = difference == 0 ? 50 : difference <= 2 ? 20 : difference <= 4 ? 10
+                        : difference <= 6 ? 5 : 0;
+                check(ScoringRules.DEFAULT.points(guess, actual) == expected,
+                        "Guess " + guess + " against " + actual + " should score " + expected);
+            }
+        }
+        check(ScoringRules.DEFAULT.getScoringUnit() == 5, "Default rules should score in units of 5");
+
+        // Bands may be listed in any order, with comments and blank lines
+        ScoringRules rules = ScoringRules.parse(List.of("# generous", "", "3=6", "0 = 30", "1=12"));
+        check(rules.points(7, 7) == 30, "Exact guess should score 30");
+        check(rules.points(5, 7) == 6, "Difference of 2 should score 6");
+        check(rules.points(3, 7) == 0, "Difference of 4 should score nothing");
+        check(rules.getScoringUnit() == 6, "Points 30, 12 and 6 should score in units of 6");
+        check(rules.equals(ScoringRules.parse(List.of("0=30", "1=12", "3=6"))), "Equal bands should be equal rules");
+        check(rules.describe().equals(List.of("Exact Guess: 30 points", "Difference of 1: 12 points",
+                "Difference of 2 to 3: 6 points")), "Unexpected description " + rules.describe());
+
+        // A dice-sized table needs no clamping
+        int[] table = ScoringRules.DEFAULT.pointsTable(10);
+        check(table.length == 11 && table[6] == 5 && table[7] == 0, "2d6 table should cover differences 0 to 10");
+
+        expectInvalid(List.of("0=50", "0=20"), "Repeated differences");
+        expectInvalid(List.of("0=-5"), "Negative points");
+        expectInvalid(List.of("exact=50"), "Malformed line");
+        expectInvalid(List.of("# nothing"), "No bands");
+
+        // Differences beyond the int range must not overflow into a negative index
+        check(ScoringRules.DEFAULT.points(Integer.MIN_VALUE + 2, 2) == ScoringRules.DEFAULT.points(Integer.MAX_VALUE)
+                && ScoringRules.DEFAULT.points(Integer.MAX_VALUE, Integer.MIN_VALUE) == 0
+                && rules.points(Integer.MIN_VALUE, Integer.MAX_VALUE) == rules.points(Integer.MAX_VALUE),
+                "Extreme guesses should earn the points of the farthest band");
+
+        // Simulating under the rules should agree with the exact solver for them
+        SumDistribution distribution = SumDistribution.of(2, 6, rules);
+        double exact = new RoundsSolver(distribution, (round, score, target) -> 7).solve(100).getMeanRounds();
+        Simulator simulator = new Simulator(6, 100, (round, score, target) -> 7, Simulator.DEFAULT_MAX_ROUNDS, rules);
+        simulator.setSeed(3);
+        double simulated = simulator.run(200_000, 2).getMeanRounds();
+        check(Math.abs(simulated - exact) < 0.05, "Simulated mean " + simulated + " should match exact " + exact);
+
+        System.out.println("All ScoringRules checks passed");
+    }
+
+    private static void expectInvalid(List<String> lines, String description) {
+        try {
+            ScoringRules.parse(lines);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError(description + " should be rejected");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package lib;
+
+/**
+ * Test class to verify the Simulator: a seeded run gives the same result on any number of threads,
+ * and the simulated rounds agree with the exact distribution of the RoundsSolver.
+ */
+public class SimulatorTest {
+
+    public static void main(String[] args) {
+        long games = 200_000;
+        int target = 100;
+
+        // The same seed rolls the same games whatever the number of threads
+        Simulator simulator = new Simulator(6, target, GuessStrategies.fixed(7));
+        simulator.setSeed(42);
+        SimulationResult single = simulator.run(games, 1);
+        for (int threads : new int[] { 3, 8 }) {
+            check(sameResult(single, simulator.run(games, threads)),
+                    "A seeded run on " + threads + " threads should match the run on one thread");
+        }
+        check(sameResult(single, simulator.run(games, 1)), "Repeating a seeded run should give the same result");
+        check(single.getGames() == games && single.getUnfinishedGames() == 0, "Every game should be played");
+        simulator.setSeed(43);
+        check(!sameResult(single, simulator.run(games, 1)), "Another seed should roll other games");
+
+        // Simulated rounds agree with the exact distribution, for a fixed guess and a score-dependent one
+        SumDistribution twoD6 = SumDistribution.of(2, 6);
+        for (GuessStrategy strategy : new GuessStrategy[] { GuessStrategies.fixed(7), GuessStrategies.finisher(twoD6) }) {
+            simulator = new Simulator(6, target, strategy);
+            simulator.setSeed(7);
+            SimulationResult simulated = simulator.run(games, 4);
+            RoundsDistribution exact = new RoundsSolver(twoD6, strategy).solve(target);
+            double tolerance = 5 * exact.getRoundsStandardDeviation() / Math.sqrt(games);
+            check(Math.abs(simulated.getMeanRounds() - exact.getMeanRounds()) < tolerance, "Simulated mean "
+                    + simulated.getMeanRounds() + " should match exact " + exact.getMeanRounds());
+            check(Math.abs(simulated.getRoundsPercentile(0.5) - exact.getRoundsPercentile(0.5)) <= 1,
+                    "Simulated median should match exact " + exact.getRoundsPercentile(0.5));
+        }
+
+        System.out.println("All Simulator checks passed");
+    }
+
+    /**
+     * Returns whether two results hold the same games, round for round.
+     */
+    private static boolean sameResult(SimulationResult a, SimulationResult b) {
+        if (a.getGames() != b.getGames() || a.getUnfinishedGames() != b.getUnfinishedGames()
+                || a.getMeanOvershoot() != b.getMeanOvershoot()) {
+            return false;
+        }
+        for (int rounds = 0; rounds <= a.getMaxRounds(); rounds++) {
+            if (a.getGamesWonIn(rounds) != b.getGamesWonIn(rounds)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package lib;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test class to verify the built-in guessing strategies and StrategyEvaluator: reproducibility
+ * whatever the parallelism, common random numbers, and agreement with the analytic RoundsSolver.
+ */
+public class StrategyEvaluatorTest {
+
+    public static void main(String[] args) {
+        SumDistribution twoD6 = SumDistribution.of(2, 6);
+
+        // Near the target the finisher plays the guess most likely to finish, otherwise the optimal guess
+        ScoringRules exactOnly = new ScoringRules(new int[] { 0, 3 }, new int[] { 20, 1 });
+        SumDistribution exact = SumDistribution.of(2, 6, exactOnly);
+        GuessStrategy finisher = GuessStrategies.finisher(exact);
+        check(finisher.nextGuess(1, 0, 100) == 7, "Finisher should play the optimal guess far from the target");
+        check(finisher.nextGuess(1, 99, 100) == 7, "Finisher should cover the most sums when 1 point is needed");
+        GuessStrategy random = GuessStrategies.random(2, 12);
+        GuessStrategy seeded = random.withRandom(new SeededRandom(5));
+        GuessStrategy again = GuessStrategies.random(2, 12, new SeededRandom(5));
+        for (int i = 0; i < 1000; i++) {
+            int guess = random.nextGuess(i, 0, 100);
+            check(guess >= 2 && guess <= 12, "Random guess " + guess + " out of range");
+            check(seeded.nextGuess(i, 0, 100) == again.nextGuess(i, 0, 100), "Seeded random guesses should repeat");
+        }
+
+        // The minimum-rounds strategy is never slower than the fixed optimal guess, by the exact solver
+        double fixedMean = new RoundsSolver(twoD6, GuessStrategies.fixed(7)).solve(100).getMeanRounds();
+        double minMean = new RoundsSolver(twoD6, GuessStrategies.minRounds(twoD6, 100)).solve(100).getMeanRounds();
+        check(minMean <= fixedMean + 1e-9, "min-rounds " + minMean + " should not exceed fixed 7 " + fixedMean);
+
+        // Same seed, same result on one thread and on many, the built-in random strategy included
+        StrategyEvaluation serial = evaluator().evaluate(50_000, new ForkJoinPool(1));
+        StrategyEvaluation parallel = evaluator().evaluate(50_000, new ForkJoinPool(4));
+        StrategyEvaluation repeated = evaluator().evaluate(50_000, new ForkJoinPool(3));
+        for (int s = 0; s < serial.getStrategyCount(); s++) {
+            check(serial.getMeanRounds(s) == parallel.getMeanRounds(s)
+                    && serial.getHalfWidth(s) == parallel.getHalfWidth(s)
+                    && serial.getMeanRounds(s) == repeated.getMeanRounds(s), "Result should not depend on parallelism");
+        }
+        check(serial.getMeanDifference(2, 3) == 0, "Random strategies should draw the same guesses in the same game");
+
+        // Common random numbers: identical strategies see identical rolls, so their difference is exactly 0
+        check(serial.getMeanDifference(0, 1) == 0 && serial.getDifferenceHalfWidth(0, 1) == 0,
+                "Identical strategies should tie exactly");
+        // and the paired interval against random guessing is narrower than the two separate intervals
+        check(serial.getDifferenceHalfWidth(2, 0) < serial.getHalfWidth(2) + serial.getHalfWidth(0),
+                "Paired interval should be narrower than the separate ones");
+        check(serial.ranking()[serial.getStrategyCount() - 1] >= 2, "Random guessing should rank last");
+        check(Math.abs(serial.getMeanRounds(0) - fixedMean) < serial.getHalfWidth(0) * 2,
+                "Simulated mean " + serial.getMeanRounds(0) + " should agree with the solver " + fixedMean);
+
+        System.out.println("All StrategyEvaluator checks passed");
+    }
+
+    private static StrategyEvaluator evaluator() {
+        StrategyEvaluator evaluator = new StrategyEvaluator("2d6", 100, ScoringRules.DEFAULT);
+        evaluator.setSeed(11);
+        evaluator.add("fixed 7", GuessStrategies.fixed(7));
+        evaluator.add("also 7", (round, score, target) -> 7);
+        evaluator.add("random", GuessStrategies.random(2, 12));
+        evaluator.add("also random", GuessStrategies.random(2, 12));
+        return evaluator;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
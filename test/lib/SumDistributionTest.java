@@ -0,0 +1,93 @@
+package lib;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Arrays;
+
+/**
+ * Test class to verify SumDistribution against known two-dice probabilities, exact counts for
+ * many dice, and the simulator.
+ */
+public class SumDistributionTest {
+
+    public static void main(String[] args) {
+        SumDistribution twoD6 = SumDistribution.of(2, 6);
+
+        // Known probabilities for two six-sided dice
+        check(Math.abs(twoD6.probability(2) - 1 / 36.0) < 1e-12, "P(2) should be 1/36");
+        check(Math.abs(twoD6.probability(7) - 6 / 36.0) < 1e-12, "P(7) should be 6/36");
+        check(twoD6.probability(13) == 0, "P(13) should be 0");
+        check(twoD6.getOptimalGuess() == 7, "Optimal guess for 2d6 should be 7");
+        check(SumDistribution.of(2, 6) == twoD6, "Distributions should be cached");
+
+        // Probabilities of a large pool must still sum to 1
+        SumDistribution tenD20 = SumDistribution.of(10, 20);
+        double total = 0;
+        for (int sum = tenD20.getMinSum(); sum <= tenD20.getMaxSum(); sum++) {
+            total += tenD20.probability(sum);
+        }
+        check(Math.abs(total - 1) < 1e-9, "10d20 probabilities should sum to 1");
+
+        // Many dice: 50d6 matches exact counts, and 400d6 would overflow raw counts
+        BigInteger[] counts = exactCounts(50, 6);
+        BigDecimal combinations = new BigDecimal(BigInteger.valueOf(6).pow(50));
+        SumDistribution fiftyD6 = SumDistribution.of(50, 6);
+        double worst = 0;
+        for (int sum = 50; sum <= 300; sum++) {
+            double exact = new BigDecimal(counts[sum - 50]).divide(combinations, MathContext.DECIMAL64).doubleValue();
+            worst = Math.max(worst, Math.abs(fiftyD6.probability(sum) - exact));
+        }
+        check(worst < 1e-15, "50d6 probabilities should match the exact counts, off by " + worst);
+        check(fiftyD6.getOptimalGuess() == 175, "Optimal guess for 50d6 should be 175");
+        SumDistribution fourHundredD6 = SumDistribution.of(400, 6);
+        total = 0;
+        boolean valid = true;
+        for (int sum = fourHundredD6.getMinSum(); sum <= fourHundredD6.getMaxSum(); sum++) {
+            double probability = fourHundredD6.probability(sum);
+            valid &= probability >= 0 && probability <= 1; // Also false for NaN
+            total += probability;
+        }
+        check(valid, "400d6 probabilities should all lie between 0 and 1");
+        check(Math.abs(total - 1) < 1e-9, "400d6 probabilities should sum to 1");
+        check(fourHundredD6.getOptimalGuess() == 1400, "Optimal guess for 400d6 should be 1400");
+
+        // Expected points of always guessing 7 should match the simulated mean within sampling error
+        long rolls = 5_000_000;
+        PairOfDice dicePair = new PairOfDice(6, RandomSource.seeded(1));
+        long points = 0;
+        for (long i = 0; i < rolls; i++) {
+            points += Game.calculatePoints(7, dicePair.rollBoth());
+        }
+        double simulated = (double) points / rolls;
+        double tolerance = 5 * Math.sqrt(twoD6.pointsVariance(7) / rolls);
+        check(Math.abs(simulated - twoD6.expectedPoints(7)) < tolerance,
+                "Simulated mean " + simulated + " should match exact " + twoD6.expectedPoints(7));
+
+        System.out.println("All SumDistribution checks passed");
+    }
+
+    /**
+     * Returns the number of ways each sum can be rolled, indexed from the minimum sum.
+     */
+    private static BigInteger[] exactCounts(int dice, int sides) {
+        BigInteger[] counts = { BigInteger.ONE };
+        for (int d = 1; d <= dice; d++) {
+            BigInteger[] next = new BigInteger[counts.length + sides - 1];
+            Arrays.fill(next, BigInteger.ZERO);
+            for (int i = 0; i < counts.length; i++) {
+                for (int face = 0; face < sides; face++) {
+                    next[i + face] = next[i + face].add(counts[i]);
+                }
+            }
+            counts = next;
+        }
+        return counts;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
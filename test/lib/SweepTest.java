@@ -0,0 +1,73 @@
+package lib;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Test class to verify the multi-process Sweep: compact result serialization, results that are
+ * bit-identical in this process and on any number of worker processes, and a crashed worker's shard
+ * being played again.
+ */
+public class SweepTest {
+
+    private static final String WORKER = "main.SweepWorker";
+
+    public static void main(String[] args) throws IOException {
+        Sweep sweep = new Sweep(new int[] { 30, 60 }, new int[] { 6, 4 }, List.of("optimal", "min-rounds", "fixed:5"),
+                5_000, 1_200);
+        sweep.setSeed(23);
+        check(sweep.getPointCount() == 12 && sweep.getShardCount() == 12 * 5, "Every point should be split in 5 shards");
+
+        SimulationResult[] local = sweep.runLocal();
+        SimulationResult first = local[0];
+        check(first.getGames() + first.getUnfinishedGames() == 5_000, "Every game of a point should be counted");
+        check(first.getRoundsStandardDeviation() > 0, "Rounds should vary between games");
+
+        // A result survives serialization exactly
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        first.writeTo(new DataOutputStream(bytes));
+        SimulationResult copy = SimulationResult.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        check(copy.getMeanRounds() == first.getMeanRounds() && copy.getRoundsPercentile(0.99) == first.getRoundsPercentile(0.99)
+                && copy.getRoundsStandardDeviation() == first.getRoundsStandardDeviation(),
+                "A serialized result should read back the same");
+        check(bytes.size() < 200 + 8 * first.getRoundsPercentile(1.0), "Serialized histograms should be trimmed");
+
+        long expected = Sweep.checksum(local);
+        check(Sweep.checksum(sweep.runLocal()) == expected, "Local runs should repeat exactly");
+        check(Sweep.checksum(sweep.run(1, Sweep.javaCommand(WORKER, List.of()))) == expected,
+                "One worker should match the local run");
+        check(Sweep.checksum(sweep.run(3, Sweep.javaCommand(WORKER, List.of()))) == expected,
+                "Three workers should match the local run");
+        check(Sweep.checksum(sweep.run(2, Sweep.javaCommand(WORKER, List.of("-D" + Sweep.CRASH_SHARD_PROPERTY + "=7"))))
+                == expected, "A crashed worker's shard should be played again with the same result");
+
+        Sweep reseeded = new Sweep(new int[] { 30, 60 }, new int[] { 6, 4 }, List.of("optimal", "min-rounds", "fixed:5"),
+                5_000, 1_200);
+        reseeded.setSeed(24);
+        check(Sweep.checksum(reseeded.runLocal()) != expected, "Another seed should give other results");
+
+        try {
+            new Sweep(new int[] { 30 }, new int[] { 6 }, List.of("random"), 10, 10);
+            check(false, "Unreproducible strategies should be rejected");
+        } catch (IllegalArgumentException expectedException) {
+            // Expected
+        }
+        try {
+            sweep.run(1, List.of("java", "-version")); // Not a worker: every attempt fails
+            check(false, "A shard failing every attempt should fail the sweep");
+        } catch (IOException expectedException) {
+            // Expected
+        }
+        System.out.println("All Sweep checks passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class to verify Tournament: bracket sizes of both formats, that standings are reproducible
+ * from a seed whatever the parallelism, random bots included, and that interactive entrants play on the calling thread.
+ */
+public class TournamentTest {
+
+    public static void main(String[] args) {
+        // Knockout with a bye: 1001 entrants need exactly 1000 matches and leave one unbeaten entrant
+        List<Tournament.Entrant> bots = bots(1001);
+        AtomicInteger matches = new AtomicInteger();
+        Tournament knockout = new Tournament(bots, Tournament.Format.KNOCKOUT, "2d6", 100, ScoringRules.DEFAULT);
+        knockout.setSeed(7);
+        knockout.setListener(new Tournament.StandingsListener() {
+            @Override
+            public void matchCompleted(Tournament.Match match) {
+                matches.incrementAndGet();
+            }
+        });
+        Tournament.Standings standings = knockout.play();
+        check(matches.get() == 1000, "Knockout of 1001 should play 1000 matches, played " + matches.get());
+        int unbeaten = 0;
+        for (int i = 0; i < standings.getEntrantCount(); i++) {
+            unbeaten += standings.getLosses(i) == 0 ? 1 : 0;
+        }
+        check(unbeaten == 1, "Knockout should leave one unbeaten entrant, left " + unbeaten);
+        check(standings.getLosses(standings.top(1)[0]) == 0, "The winner should be placed first");
+
+        // The same seed gives the same standings on one thread and on many
+        Tournament serial = new Tournament(bots, Tournament.Format.KNOCKOUT, "2d6", 100, ScoringRules.DEFAULT,
+                new ForkJoinPool(1));
+        serial.setSeed(7);
+        check(Arrays.equals(serial.play().top(16), standings.top(16)), "Standings should not depend on parallelism");
+
+        // Bots guessing at random are reproducible from the seed too
+        List<Tournament.Entrant> lucky = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            lucky.add(Tournament.Entrant.bot("Lucky " + i, GuessStrategies.random(2, 12)));
+        }
+        Tournament.Standings[] luckyTables = new Tournament.Standings[2];
+        for (int run = 0; run < 2; run++) {
+            Tournament tournament = new Tournament(lucky, Tournament.Format.ROUND_ROBIN, "2d6", 100,
+                    ScoringRules.DEFAULT, new ForkJoinPool(run == 0 ? 1 : 4));
+            tournament.setSeed(5);
+            luckyTables[run] = tournament.play();
+        }
+        for (int i = 0; i < lucky.size(); i++) {
+            check(luckyTables[0].getWins(i) == luckyTables[1].getWins(i)
+                    && luckyTables[0].getMeanRounds(i) == luckyTables[1].getMeanRounds(i),
+                    "Random bots should play the same games from the same seed");
+        }
+
+        // Round robin: every entrant meets every other exactly once
+        Tournament roundRobin = new Tournament(bots(9), Tournament.Format.ROUND_ROBIN, "3d6", 100,
+                ScoringRules.DEFAULT);
+        roundRobin.setSeed(3);
+        Tournament.Standings table = roundRobin.play();
+        int wins = 0;
+        for (int i = 0; i < 9; i++) {
+            check(table.getWins(i) + table.getLosses(i) == 8, "Entrant " + i + " should play 8 matches");
+            wins += table.getWins(i);
+        }
+        check(wins == 36, "Round robin of 9 should play 36 matches, played " + wins);
+
+        // Interactive entrants play on the calling thread
+        Thread caller = Thread.currentThread();
+        AtomicInteger interactiveGames = new AtomicInteger();
+        List<Tournament.Entrant> mixed = new ArrayList<>(bots(3));
+        mixed.add(Tournament.Entrant.interactive("Player", session -> {
+            check(Thread.currentThread() == caller, "Interactive game should run on the calling thread");
+            interactiveGames.incrementAndGet();
+            while (!session.isFinished()) {
+                session.submitGuess(7);
+            }
+        }));
+        new Tournament(mixed, Tournament.Format.ROUND_ROBIN, "2d6", 100, ScoringRules.DEFAULT).play();
+        check(interactiveGames.get() == 3, "Player should play 3 games, played " + interactiveGames.get());
+
+        System.out.println("All Tournament checks passed");
+    }
+
+    private static List<Tournament.Entrant> bots(int count) {
+        List<Tournament.Entrant> bots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int guess = 5 + i % 5;
+            bots.add(Tournament.Entrant.bot("Bot " + i, (round, score, target) -> guess));
+        }
+        return bots;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
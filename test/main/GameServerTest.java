@@ -0,0 +1,145 @@
+package main;
+
+import lib.CheckpointFile;
+import lib.GameRecord;
+import lib.JournalGame;
+import lib.RecordEntry;
+import lib.RecordQuery;
+import lib.RecordWriter;
+import lib.RoundJournal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Test class to verify the GameServer protocol's refusal of out-of-range guesses, and its drain on stop:
+ * a game finished while the server stops still has its record saved, and a game still idle after the
+ * grace period is disconnected with its checkpoint kept, so it can be resumed after the restart.
+ * Takes the server's stop grace period, a few seconds, to run.
+ */
+public class GameServerTest {
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("gameServerTest");
+        Path records = directory.resolve("records.txt");
+        Path journalFile = directory.resolve("games.journal");
+        Path checkpointFile = directory.resolve("games.checkpoint");
+
+        GameRecord gameRecord = new GameRecord(records);
+        gameRecord.setWriter(new RecordWriter(records, 1024, 64, 50, false));
+        GameServer server = new GameServer(0, gameRecord);
+        server.setJournal(new RoundJournal(journalFile));
+        server.setCheckpoints(new CheckpointFile(checkpointFile, 16));
+        Thread serving = new Thread(server::serve, "serve");
+        serving.start();
+
+        try (Client finisher = new Client(server.getPort(), "Ada"); Client idle = new Client(server.getPort(), "Bob")) {
+            check(finisher.welcome.equals("WELCOME 100 2 12"), "Welcome should give the guess range: " + finisher.welcome);
+            finisher.send("13");
+            check(finisher.read().startsWith("ERROR Guess must be from 2 to 12") && finisher.read().equals("GUESS 1"),
+                    "An out-of-range guess should be refused and asked again");
+            finisher.send("x");
+            check(finisher.read().startsWith("ERROR") && finisher.read().equals("GUESS 1"),
+                    "A guess that is not a number should be refused and asked again");
+
+            idle.send("7");
+            check(idle.read().startsWith("ROLL ") && idle.read().equals("GUESS 2"), "Bob should play one round");
+
+            Thread stopping = new Thread(server::stop, "stop");
+            stopping.start();
+            Thread.sleep(200); // Let the stop begin before Ada plays
+
+            // Ada finishes her game during the grace period; Bob stays idle past it
+            String line = "";
+            while (!line.startsWith("WIN ")) {
+                finisher.send("7");
+                line = finisher.read();
+                if (line.startsWith("ROLL ")) {
+                    line = finisher.read(); // GUESS, or WIN after the last roll
+                }
+            }
+            check(idle.read() == null, "An idle session should be disconnected after the grace period");
+            stopping.join();
+            serving.join(1000);
+            check(!serving.isAlive() && server.getActiveSessions() == 0, "Every session should have ended");
+        }
+
+        List<RecordEntry> saved = new RecordQuery(records).list();
+        check(saved.size() == 1 && saved.get(0).getPlayerName().equals("Ada") && saved.get(0).getScore() >= 100,
+                "The game finished while stopping should have its record saved, got " + saved.size());
+
+        try (CheckpointFile checkpoints = new CheckpointFile(checkpointFile, 16)) {
+            List<CheckpointFile.Checkpoint> unfinished = checkpoints.getUnfinishedGames();
+            check(unfinished.size() == 1 && unfinished.get(0).getPlayerName().equals("Bob")
+                    && unfinished.get(0).getRoundsPlayed() == 1,
+                    "The game cut off by the stop should keep its checkpoint");
+        }
+
+        List<JournalGame> journaled = new ArrayList<>();
+        RoundJournal.read(journalFile, journaled::add);
+        check(journaled.size() == 2, "Both games should be journaled, got " + journaled.size());
+        for (JournalGame game : journaled) {
+            check(game.verify() == null, "Journaled game of " + game.getPlayerName() + " should verify");
+            check(game.isFinished() == game.getPlayerName().equals("Ada"), "Only Ada's game should be finished");
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+        System.out.println("All GameServer checks passed");
+    }
+
+    /**
+     * Client end of a session, connected and named, waiting at its first guess.
+     */
+    private static final class Client implements AutoCloseable {
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+        private final String welcome;
+
+        Client(int port, String name) throws IOException {
+            this.socket = new Socket("localhost", port);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            this.welcome = read();
+            check(read().equals("NAME?"), "The server should ask for a name");
+            send(name);
+            check(read().equals("GUESS 1"), "A new game should start at round 1");
+        }
+
+        String read() throws IOException {
+            return in.readLine();
+        }
+
+        void send(String line) throws IOException {
+            out.write(line + "\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}